@@ -22,6 +22,9 @@
 
 package com.snakybo.torch;
 
+import com.snakybo.torch.asset.AssetsInternal;
+import com.snakybo.torch.graphics.GLDeletionQueue;
+import com.snakybo.torch.graphics.RenderStatsInternal;
 import com.snakybo.torch.graphics.RenderingEngine;
 import com.snakybo.torch.graphics.camera.CameraInternal;
 import com.snakybo.torch.graphics.display.DisplayController;
@@ -85,6 +88,7 @@ public final class Engine
 			DisplayController.create();
 			WindowInternal.create();
 			RenderingEngine.create();
+			AssetsInternal.create();
 			KeyboardController.create();
 			MouseController.create();
 			JoystickController.create();
@@ -131,6 +135,12 @@ public final class Engine
 			
 			TimeInternal.updateDeltaTime();
 			
+			// Create the assets that have been loaded asynchronously since the previous frame
+			AssetsInternal.update();
+			
+			// Delete the OpenGL objects that have been released since the previous frame
+			GLDeletionQueue.update();
+			
 			// Call onStart() on all GameObjects added in the previous frame
 			SceneInternal.processAdditions();
 			SceneInternal.getAllInitializedGameObjects().forEach(GameObjectInternal::processAdditions);
@@ -190,6 +200,7 @@ public final class Engine
 		}
 		
 		RenderingEngine.renderGizmos();
+		RenderStatsInternal.endFrame();
 		
 		WindowInternal.update();
 		
@@ -229,6 +240,8 @@ public final class Engine
 	{
 		LoggerInternal.log("Cleaning up");
 
+		AssetsInternal.destroy();
+		GLDeletionQueue.flush();
 		JoystickController.destroy();
 		DisplayController.destroy();
 		
@@ -0,0 +1,323 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.asset;
+
+import com.snakybo.torch.util.debug.LoggerInternal;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Keeps assets that are no longer used loaded, so loading them again is free.
+ * </p>
+ *
+ * <p>
+ * An asset that loses its last usage is moved into the cache instead of being destroyed. Every {@link Category} has
+ * a budget in bytes, once the unused assets of a category exceed its budget the least recently used ones are
+ * destroyed. Assets that are loaded again are taken out of the cache.
+ * </p>
+ *
+ * <p>
+ * Reloading a scene therefore reuses every mesh, shader and texture the scenes have in common.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetCache
+{
+	/**
+	 * <p>
+	 * The categories of assets, every category has its own budget.
+	 * </p>
+	 */
+	public enum Category
+	{
+		Texture(256L * 1024 * 1024),
+		Mesh(64L * 1024 * 1024),
+		Shader(8L * 1024 * 1024),
+		Material(1024 * 1024);
+		
+		private final long defaultBudget;
+		
+		Category(long defaultBudget)
+		{
+			this.defaultBudget = defaultBudget;
+		}
+	}
+	
+	private static final class Entry
+	{
+		private final String name;
+		private final long size;
+		private final Runnable destroy;
+		
+		private Entry(String name, long size, Runnable destroy)
+		{
+			this.name = name;
+			this.size = size;
+			this.destroy = destroy;
+		}
+	}
+	
+	// The unused assets of every category, least recently used first
+	private static final Map<Category, LinkedHashMap<Object, Entry>> entries = new EnumMap<>(Category.class);
+	
+	private static final Map<Category, Long> budgets = new EnumMap<>(Category.class);
+	private static final Map<Category, Long> sizes = new EnumMap<>(Category.class);
+	
+	private static long hits;
+	private static long misses;
+	private static long evictions;
+	
+	static
+	{
+		for(Category category : Category.values())
+		{
+			entries.put(category, new LinkedHashMap<>());
+			budgets.put(category, category.defaultBudget);
+			sizes.put(category, 0L);
+		}
+	}
+	
+	private AssetCache()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Set the number of bytes the unused assets of a category may use, unused assets are destroyed until they fit.
+	 * A budget of {@code 0} destroys assets as soon as they're no longer used.
+	 * </p>
+	 *
+	 * @param category The category.
+	 * @param budget The budget in bytes.
+	 */
+	public static synchronized void setBudget(Category category, long budget)
+	{
+		if(budget < 0)
+		{
+			throw new IllegalArgumentException("The budget of " + category + " must not be negative: " + budget);
+		}
+		
+		budgets.put(category, budget);
+		trim(category);
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of bytes the unused assets of a category may use.
+	 * </p>
+	 *
+	 * @param category The category.
+	 * @return The budget in bytes.
+	 */
+	public static synchronized long getBudget(Category category)
+	{
+		return budgets.get(category);
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of bytes the unused assets of a category use.
+	 * </p>
+	 *
+	 * @param category The category.
+	 * @return The size of the cached assets in bytes.
+	 */
+	public static synchronized long getSize(Category category)
+	{
+		return sizes.get(category);
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of unused assets of a category.
+	 * </p>
+	 *
+	 * @param category The category.
+	 * @return The number of cached assets.
+	 */
+	public static synchronized int getCount(Category category)
+	{
+		return entries.get(category).size();
+	}
+	
+	/**
+	 * <p>
+	 * Destroy the unused assets of a category.
+	 * </p>
+	 *
+	 * @param category The category.
+	 */
+	public static synchronized void evict(Category category)
+	{
+		while(!entries.get(category).isEmpty())
+		{
+			evictOldest(category);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Destroy every unused asset.
+	 * </p>
+	 */
+	public static synchronized void evictAll()
+	{
+		for(Category category : Category.values())
+		{
+			evict(category);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of loads that reused an unused asset.
+	 * </p>
+	 *
+	 * @return The number of cache hits.
+	 */
+	public static synchronized long getHits()
+	{
+		return hits;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of loads that had to read an asset from its file.
+	 * </p>
+	 *
+	 * @return The number of cache misses.
+	 */
+	public static synchronized long getMisses()
+	{
+		return misses;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of unused assets that have been destroyed.
+	 * </p>
+	 *
+	 * @return The number of evictions.
+	 */
+	public static synchronized long getEvictions()
+	{
+		return evictions;
+	}
+	
+	/**
+	 * <p>
+	 * Reset the hit, miss and eviction counts.
+	 * </p>
+	 */
+	public static synchronized void resetStats()
+	{
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+	
+	/**
+	 * <p>
+	 * Move an asset that is no longer used into the cache.
+	 * </p>
+	 *
+	 * @param key The internal data of the asset.
+	 * @param name The name of the asset.
+	 * @param category The category of the asset.
+	 * @param size The size of the asset in bytes.
+	 * @param destroy Destroys the asset once it's evicted.
+	 */
+	static synchronized void release(Object key, String name, Category category, long size, Runnable destroy)
+	{
+		LoggerInternal.log("Caching unused " + category + ":" + name + " (" + size + " bytes)");
+		
+		Entry previous = entries.get(category).put(key, new Entry(name, size, destroy));
+		sizes.put(category, sizes.get(category) + size - (previous != null ? previous.size : 0));
+		
+		trim(category);
+	}
+	
+	/**
+	 * <p>
+	 * Take an asset that is used again out of the cache.
+	 * </p>
+	 *
+	 * @param key The internal data of the asset.
+	 * @return Whether or not the asset was cached.
+	 */
+	static synchronized boolean acquire(Object key)
+	{
+		for(Map.Entry<Category, LinkedHashMap<Object, Entry>> category : entries.entrySet())
+		{
+			Entry entry = category.getValue().remove(key);
+			
+			if(entry != null)
+			{
+				LoggerInternal.log("Reusing cached " + category.getKey() + ":" + entry.name);
+				
+				sizes.put(category.getKey(), sizes.get(category.getKey()) - entry.size);
+				hits++;
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	static synchronized void recordMiss()
+	{
+		misses++;
+	}
+	
+	private static void trim(Category category)
+	{
+		while(sizes.get(category) > budgets.get(category))
+		{
+			evictOldest(category);
+		}
+	}
+	
+	private static void evictOldest(Category category)
+	{
+		Iterator<Entry> iterator = entries.get(category).values().iterator();
+		
+		Entry entry = iterator.next();
+		iterator.remove();
+		
+		LoggerInternal.log("Evicting cached " + category + ":" + entry.name);
+		
+		sizes.put(category, sizes.get(category) - entry.size);
+		evictions++;
+		
+		// Destroying an asset can release the assets it uses into the cache
+		entry.destroy.run();
+	}
+}
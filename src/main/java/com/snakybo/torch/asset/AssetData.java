@@ -27,7 +27,8 @@ import com.snakybo.torch.util.debug.LoggerInternal;
 /**
  * <p>
  * The internal data of an asset, keeps track of the number of uses a specific asset has,
- * if there are no more uses for an asset, it's automatically destroyed and unloaded from memory.
+ * if there are no more uses for an asset, it's moved into the {@link AssetCache}, which destroys it once it's
+ * evicted. Runtime assets, which have no name, are destroyed immediately.
  * </p>
  *
  * @see Assets
@@ -64,6 +65,40 @@ public abstract class AssetData
 	 */
 	public abstract void destroy();
 	
+	/**
+	 * <p>
+	 * Get the {@link AssetCache} category of the asset.
+	 * </p>
+	 *
+	 * @return The category.
+	 */
+	protected abstract AssetCache.Category getCategory();
+	
+	/**
+	 * <p>
+	 * Get an estimate of the memory used by the asset, in both CPU and GPU memory, for the budgets of the
+	 * {@link AssetCache}.
+	 * </p>
+	 *
+	 * @return The size of the asset in bytes.
+	 */
+	protected long getMemorySize()
+	{
+		return 0;
+	}
+	
+	/**
+	 * <p>
+	 * Get an estimate of the part of {@link #getMemorySize()} that is allocated in GPU memory.
+	 * </p>
+	 *
+	 * @return The size of the asset in GPU memory in bytes.
+	 */
+	protected long getGpuMemorySize()
+	{
+		return 0;
+	}
+	
 	/**
 	 * <p>
 	 * Increment the number of uses this {@code AssetData} has.
@@ -74,6 +109,12 @@ public abstract class AssetData
 		if(name != null && !name.isEmpty())
 		{
 			LoggerInternal.log("useCount increased for " + getClass().getSimpleName() + ":" + name);
+			
+			if(useCount == 0)
+			{
+				AssetCache.acquire(this);
+			}
+			
 			useCount++;
 		}
 		else
@@ -88,7 +129,8 @@ public abstract class AssetData
 	 * </p>
 	 *
 	 * <p>
-	 * The {@code AssetData} is not unload until there are no more usages.
+	 * The {@code AssetData} is not unloaded until there are no more usages, and it has been evicted from the
+	 * {@link AssetCache}.
 	 * </p>
 	 */
 	public final void removeUsage()
@@ -100,8 +142,8 @@ public abstract class AssetData
 			
 			if(useCount <= 0)
 			{
-				LoggerInternal.log("No more usages remaining for " + getClass().getSimpleName() + ":" + name + ", destroying");
-				destroy();
+				LoggerInternal.log("No more usages remaining for " + getClass().getSimpleName() + ":" + name + ", caching");
+				AssetCache.release(this, name, getCategory(), getMemorySize(), this::destroy);
 			}
 		}
 		else
@@ -122,4 +164,29 @@ public abstract class AssetData
 	{
 		return name;
 	}
+	
+	/**
+	 * <p>
+	 * Get the number of uses this {@code AssetData} has.
+	 * </p>
+	 *
+	 * @return The number of uses, {@code 0} if the asset is only kept alive by the {@link AssetCache}.
+	 */
+	public final int getUseCount()
+	{
+		return useCount;
+	}
+	
+	/**
+	 * <p>
+	 * Get the memory footprint of the asset.
+	 * </p>
+	 *
+	 * @return The footprint.
+	 */
+	public final AssetFootprint getFootprint()
+	{
+		long gpuBytes = getGpuMemorySize();
+		return new AssetFootprint(name, getCategory().name(), useCount, getMemorySize() - gpuBytes, gpuBytes);
+	}
 }
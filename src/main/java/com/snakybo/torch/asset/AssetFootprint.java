@@ -0,0 +1,140 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.asset;
+
+/**
+ * <p>
+ * The memory footprint of a resident asset, as listed in an {@link AssetReport}.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetFootprint
+{
+	private final String name;
+	private final String type;
+	
+	private final int useCount;
+	
+	private final long cpuBytes;
+	private final long gpuBytes;
+	
+	/**
+	 * <p>
+	 * Create a new footprint.
+	 * </p>
+	 *
+	 * @param name The name of the asset.
+	 * @param type The type of the asset.
+	 * @param useCount The number of uses of the asset, {@code 0} if it's only kept alive by the {@link AssetCache}.
+	 * @param cpuBytes The number of bytes the asset retains in CPU memory.
+	 * @param gpuBytes The number of bytes the asset has allocated in GPU memory.
+	 */
+	public AssetFootprint(String name, String type, int useCount, long cpuBytes, long gpuBytes)
+	{
+		this.name = name;
+		this.type = type;
+		this.useCount = useCount;
+		this.cpuBytes = cpuBytes;
+		this.gpuBytes = gpuBytes;
+	}
+	
+	@Override
+	public final String toString()
+	{
+		return type + ":" + name + " (uses: " + useCount + ", cpu: " + cpuBytes + " bytes, gpu: " + gpuBytes + " bytes)";
+	}
+	
+	/**
+	 * <p>
+	 * Get the name of the asset.
+	 * </p>
+	 *
+	 * @return The name of the asset.
+	 */
+	public final String getName()
+	{
+		return name;
+	}
+	
+	/**
+	 * <p>
+	 * Get the type of the asset.
+	 * </p>
+	 *
+	 * @return The type of the asset.
+	 */
+	public final String getType()
+	{
+		return type;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of uses of the asset.
+	 * </p>
+	 *
+	 * @return The number of uses, {@code 0} if it's only kept alive by the {@link AssetCache}.
+	 */
+	public final int getUseCount()
+	{
+		return useCount;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of bytes the asset retains in CPU memory.
+	 * </p>
+	 *
+	 * @return The number of bytes in CPU memory.
+	 */
+	public final long getCpuBytes()
+	{
+		return cpuBytes;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of bytes the asset has allocated in GPU memory.
+	 * </p>
+	 *
+	 * @return The number of bytes in GPU memory.
+	 */
+	public final long getGpuBytes()
+	{
+		return gpuBytes;
+	}
+	
+	/**
+	 * <p>
+	 * Get the total number of bytes used by the asset.
+	 * </p>
+	 *
+	 * @return The number of bytes in CPU and GPU memory.
+	 */
+	public final long getTotalBytes()
+	{
+		return cpuBytes + gpuBytes;
+	}
+}
@@ -0,0 +1,388 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.asset;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * Traces where the time of loading assets is spent.
+ * </p>
+ *
+ * <p>
+ * Every load is split into the {@link Phase}s of the asset loaders. The time of a phase excludes the time spent in
+ * nested phases, so the time a material spends loading its shader is attributed to the shader. Files read through
+ * {@link com.snakybo.torch.util.FileUtils#read(String)} are attributed to the {@link Phase#Read} phase of the asset
+ * that's being loaded on the same thread.
+ * </p>
+ *
+ * <p>
+ * Tracing is disabled by default, use {@link #setEnabled(boolean)} to enable it. {@link AssetReport#create()}
+ * combines the traces with the memory footprint of the resident assets.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetProfiler
+{
+	/**
+	 * <p>
+	 * The phases of loading an asset.
+	 * </p>
+	 */
+	public enum Phase
+	{
+		/** Finding the file of the asset */
+		Resolve,
+		
+		/** Reading files */
+		Read,
+		
+		/** Decoding the contents of the files */
+		Decode,
+		
+		/** Creating the OpenGL objects of the asset */
+		Upload
+	}
+	
+	/**
+	 * <p>
+	 * The trace of an asset, if the asset was loaded multiple times the trace contains the total of all loads.
+	 * </p>
+	 */
+	public static final class LoadTrace
+	{
+		private final String name;
+		
+		private final Map<Phase, Long> times = new EnumMap<>(Phase.class);
+		
+		private long bytesRead;
+		private long cpuBytes;
+		private long gpuBytes;
+		
+		private LoadTrace(String name)
+		{
+			this.name = name;
+			
+			for(Phase phase : Phase.values())
+			{
+				times.put(phase, 0L);
+			}
+		}
+		
+		@Override
+		public final synchronized String toString()
+		{
+			return name + " " + times + " read: " + bytesRead + " bytes, cpu: " + cpuBytes + " bytes, gpu: " + gpuBytes + " bytes";
+		}
+		
+		private synchronized void addTime(Phase phase, long nanos)
+		{
+			times.put(phase, times.get(phase) + nanos);
+		}
+		
+		private synchronized void addRead(long nanos, long bytes)
+		{
+			times.put(Phase.Read, times.get(Phase.Read) + nanos);
+			bytesRead += bytes;
+		}
+		
+		private synchronized void setMemory(long cpuBytes, long gpuBytes)
+		{
+			this.cpuBytes = cpuBytes;
+			this.gpuBytes = gpuBytes;
+		}
+		
+		/**
+		 * <p>
+		 * Get the name of the asset.
+		 * </p>
+		 *
+		 * @return The name of the asset.
+		 */
+		public final String getName()
+		{
+			return name;
+		}
+		
+		/**
+		 * <p>
+		 * Get the time spent in a phase.
+		 * </p>
+		 *
+		 * @param phase The phase.
+		 * @return The time spent in the phase, in nanoseconds.
+		 */
+		public final synchronized long getTime(Phase phase)
+		{
+			return times.get(phase);
+		}
+		
+		/**
+		 * <p>
+		 * Get the total time spent loading the asset.
+		 * </p>
+		 *
+		 * @return The total time of all phases, in nanoseconds.
+		 */
+		public final synchronized long getTotalTime()
+		{
+			long result = 0;
+			
+			for(long time : times.values())
+			{
+				result += time;
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * <p>
+		 * Get the number of bytes read from files.
+		 * </p>
+		 *
+		 * @return The number of bytes read.
+		 */
+		public final synchronized long getBytesRead()
+		{
+			return bytesRead;
+		}
+		
+		/**
+		 * <p>
+		 * Get the number of bytes the asset retained in CPU memory after it was loaded.
+		 * </p>
+		 *
+		 * @return The number of bytes in CPU memory.
+		 */
+		public final synchronized long getCpuBytes()
+		{
+			return cpuBytes;
+		}
+		
+		/**
+		 * <p>
+		 * Get the number of bytes the asset allocated in GPU memory when it was loaded.
+		 * </p>
+		 *
+		 * @return The number of bytes in GPU memory.
+		 */
+		public final synchronized long getGpuBytes()
+		{
+			return gpuBytes;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * A phase that is being traced, returned by {@link #begin(String, Phase)}.
+	 * </p>
+	 */
+	public static final class Scope
+	{
+		private final LoadTrace trace;
+		private final Phase phase;
+		private final Scope parent;
+		
+		private final long start;
+		
+		// The time spent in nested phases and reads
+		private long nestedTime;
+		
+		private Scope(LoadTrace trace, Phase phase, Scope parent)
+		{
+			this.trace = trace;
+			this.phase = phase;
+			this.parent = parent;
+			
+			start = System.nanoTime();
+		}
+		
+		/**
+		 * <p>
+		 * End the phase, scopes must be ended in the reverse order they were started in.
+		 * </p>
+		 */
+		public final void end()
+		{
+			if(trace == null)
+			{
+				return;
+			}
+			
+			long elapsed = System.nanoTime() - start;
+			trace.addTime(phase, elapsed - nestedTime);
+			
+			if(parent != null && parent.trace != null)
+			{
+				parent.nestedTime += elapsed;
+			}
+			
+			current.set(parent);
+		}
+	}
+	
+	// Returned by begin() while tracing is disabled
+	private static final Scope DISABLED = new Scope(null, null, null);
+	
+	private static final Map<String, LoadTrace> traces = new ConcurrentHashMap<>();
+	private static final ThreadLocal<Scope> current = new ThreadLocal<>();
+	
+	private static volatile boolean enabled;
+	
+	private AssetProfiler()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Enable or disable tracing.
+	 * </p>
+	 *
+	 * @param enabled Whether or not to trace loads.
+	 */
+	public static void setEnabled(boolean enabled)
+	{
+		AssetProfiler.enabled = enabled;
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not loads are being traced.
+	 * </p>
+	 *
+	 * @return Whether or not tracing is enabled.
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+	
+	/**
+	 * <p>
+	 * Start tracing a phase of loading an asset on the current thread.
+	 * </p>
+	 *
+	 * @param name The name of the asset.
+	 * @param phase The phase.
+	 * @return The scope of the phase, {@link Scope#end()} must be called once the phase is done.
+	 */
+	public static Scope begin(String name, Phase phase)
+	{
+		if(!enabled)
+		{
+			return DISABLED;
+		}
+		
+		Scope result = new Scope(getTrace(name), phase, current.get());
+		current.set(result);
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Add time to a phase of loading an asset, for phases that can't be traced with {@link #begin(String, Phase)}.
+	 * </p>
+	 *
+	 * @param name The name of the asset.
+	 * @param phase The phase.
+	 * @param nanos The time spent in the phase, in nanoseconds.
+	 */
+	public static void record(String name, Phase phase, long nanos)
+	{
+		if(enabled)
+		{
+			getTrace(name).addTime(phase, nanos);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Attribute a file read to the asset that's being loaded on the current thread.
+	 * </p>
+	 *
+	 * @param nanos The time spent reading, in nanoseconds.
+	 * @param bytes The number of bytes read.
+	 */
+	public static void recordRead(long nanos, long bytes)
+	{
+		Scope scope = current.get();
+		
+		if(enabled && scope != null)
+		{
+			scope.trace.addRead(nanos, bytes);
+			scope.nestedTime += nanos;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Record the memory used by an asset after it has been loaded.
+	 * </p>
+	 *
+	 * @param name The name of the asset.
+	 * @param footprint The footprint of the asset.
+	 */
+	public static void recordMemory(String name, AssetFootprint footprint)
+	{
+		if(enabled)
+		{
+			getTrace(name).setMemory(footprint.getCpuBytes(), footprint.getGpuBytes());
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get the traces of all assets that have been loaded since tracing was enabled.
+	 * </p>
+	 *
+	 * @return The traces.
+	 */
+	public static List<LoadTrace> getTraces()
+	{
+		return new ArrayList<>(traces.values());
+	}
+	
+	/**
+	 * <p>
+	 * Remove all traces.
+	 * </p>
+	 */
+	public static void clear()
+	{
+		traces.clear();
+	}
+	
+	private static LoadTrace getTrace(String name)
+	{
+		return traces.computeIfAbsent(name, LoadTrace::new);
+	}
+}
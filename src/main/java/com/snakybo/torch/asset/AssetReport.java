@@ -0,0 +1,366 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.asset;
+
+import com.snakybo.torch.asset2.Asset2;
+import com.snakybo.torch.graphics.material.MaterialAssetLoader;
+import com.snakybo.torch.graphics.mesh.MeshAssetLoader;
+import com.snakybo.torch.graphics.shader.ShaderInternal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>
+ * A snapshot of the memory footprint of all resident assets, and of the {@link AssetProfiler} load traces.
+ * </p>
+ *
+ * <p>
+ * Resident assets are all loaded assets, including the unused assets in the {@link AssetCache}. They're sorted by
+ * their total footprint, largest first. Load traces are sorted by their total load time, slowest first. The
+ * report can be exported as CSV or JSON.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetReport
+{
+	private final List<AssetFootprint> residentAssets;
+	private final List<AssetProfiler.LoadTrace> loadTraces;
+	
+	private AssetReport(List<AssetFootprint> residentAssets, List<AssetProfiler.LoadTrace> loadTraces)
+	{
+		this.residentAssets = Collections.unmodifiableList(residentAssets);
+		this.loadTraces = Collections.unmodifiableList(loadTraces);
+	}
+	
+	/**
+	 * <p>
+	 * Create a report of the current state, this must be called from the render thread.
+	 * </p>
+	 *
+	 * @return The report.
+	 */
+	public static AssetReport create()
+	{
+		List<AssetFootprint> residentAssets = new ArrayList<>();
+		residentAssets.addAll(MeshAssetLoader.getFootprints());
+		residentAssets.addAll(MaterialAssetLoader.getFootprints());
+		residentAssets.addAll(ShaderInternal.getFootprints());
+		residentAssets.addAll(Asset2.getFootprints());
+		residentAssets.sort(Comparator.comparingLong(AssetFootprint::getTotalBytes).reversed());
+		
+		List<AssetProfiler.LoadTrace> loadTraces = AssetProfiler.getTraces();
+		loadTraces.sort(Comparator.comparingLong(AssetProfiler.LoadTrace::getTotalTime).reversed());
+		
+		return new AssetReport(residentAssets, loadTraces);
+	}
+	
+	@Override
+	public final String toString()
+	{
+		StringBuilder result = new StringBuilder();
+		result.append("Resident assets: ").append(residentAssets.size()).append(", cpu: ").append(getTotalCpuBytes());
+		result.append(" bytes, gpu: ").append(getTotalGpuBytes()).append(" bytes");
+		
+		for(AssetFootprint footprint : residentAssets)
+		{
+			result.append("\n  ").append(footprint);
+		}
+		
+		return result.toString();
+	}
+	
+	/**
+	 * <p>
+	 * Write the resident assets to a CSV file.
+	 * </p>
+	 *
+	 * @param file The file.
+	 * @throws IOException If the file could not be written.
+	 */
+	public final void writeResidentCSV(Path file) throws IOException
+	{
+		Files.write(file, toResidentCSV().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * <p>
+	 * Write the load traces to a CSV file.
+	 * </p>
+	 *
+	 * @param file The file.
+	 * @throws IOException If the file could not be written.
+	 */
+	public final void writeLoadTracesCSV(Path file) throws IOException
+	{
+		Files.write(file, toLoadTracesCSV().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * <p>
+	 * Write the report to a JSON file.
+	 * </p>
+	 *
+	 * @param file The file.
+	 * @throws IOException If the file could not be written.
+	 */
+	public final void writeJSON(Path file) throws IOException
+	{
+		Files.write(file, toJSON().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * <p>
+	 * Convert the resident assets to CSV, with a header row.
+	 * </p>
+	 *
+	 * @return The resident assets as CSV.
+	 */
+	public final String toResidentCSV()
+	{
+		StringBuilder result = new StringBuilder("name,type,uses,cpuBytes,gpuBytes,totalBytes\n");
+		
+		for(AssetFootprint footprint : residentAssets)
+		{
+			result.append(escapeCSV(footprint.getName())).append(',');
+			result.append(escapeCSV(footprint.getType())).append(',');
+			result.append(footprint.getUseCount()).append(',');
+			result.append(footprint.getCpuBytes()).append(',');
+			result.append(footprint.getGpuBytes()).append(',');
+			result.append(footprint.getTotalBytes()).append('\n');
+		}
+		
+		return result.toString();
+	}
+	
+	/**
+	 * <p>
+	 * Convert the load traces to CSV, with a header row. Times are in nanoseconds.
+	 * </p>
+	 *
+	 * @return The load traces as CSV.
+	 */
+	public final String toLoadTracesCSV()
+	{
+		StringBuilder result = new StringBuilder("name");
+		
+		for(AssetProfiler.Phase phase : AssetProfiler.Phase.values())
+		{
+			result.append(',').append(phase.name().toLowerCase()).append("Nanos");
+		}
+		
+		result.append(",totalNanos,bytesRead,cpuBytes,gpuBytes\n");
+		
+		for(AssetProfiler.LoadTrace trace : loadTraces)
+		{
+			result.append(escapeCSV(trace.getName()));
+			
+			for(AssetProfiler.Phase phase : AssetProfiler.Phase.values())
+			{
+				result.append(',').append(trace.getTime(phase));
+			}
+			
+			result.append(',').append(trace.getTotalTime());
+			result.append(',').append(trace.getBytesRead());
+			result.append(',').append(trace.getCpuBytes());
+			result.append(',').append(trace.getGpuBytes()).append('\n');
+		}
+		
+		return result.toString();
+	}
+	
+	/**
+	 * <p>
+	 * Convert the report to JSON, an object with a {@code residentAssets} and a {@code loadTraces} array. Times are
+	 * in nanoseconds.
+	 * </p>
+	 *
+	 * @return The report as JSON.
+	 */
+	public final String toJSON()
+	{
+		StringBuilder result = new StringBuilder("{\n");
+		result.append("\t\"totalCpuBytes\": ").append(getTotalCpuBytes()).append(",\n");
+		result.append("\t\"totalGpuBytes\": ").append(getTotalGpuBytes()).append(",\n");
+		result.append("\t\"residentAssets\": [");
+		
+		for(int i = 0; i < residentAssets.size(); i++)
+		{
+			AssetFootprint footprint = residentAssets.get(i);
+			
+			result.append(i > 0 ? ",\n\t\t{" : "\n\t\t{");
+			result.append("\"name\": ").append(escapeJSON(footprint.getName()));
+			result.append(", \"type\": ").append(escapeJSON(footprint.getType()));
+			result.append(", \"uses\": ").append(footprint.getUseCount());
+			result.append(", \"cpuBytes\": ").append(footprint.getCpuBytes());
+			result.append(", \"gpuBytes\": ").append(footprint.getGpuBytes());
+			result.append("}");
+		}
+		
+		result.append(residentAssets.isEmpty() ? "],\n" : "\n\t],\n");
+		result.append("\t\"loadTraces\": [");
+		
+		for(int i = 0; i < loadTraces.size(); i++)
+		{
+			AssetProfiler.LoadTrace trace = loadTraces.get(i);
+			
+			result.append(i > 0 ? ",\n\t\t{" : "\n\t\t{");
+			result.append("\"name\": ").append(escapeJSON(trace.getName()));
+			
+			for(AssetProfiler.Phase phase : AssetProfiler.Phase.values())
+			{
+				result.append(", \"").append(phase.name().toLowerCase()).append("Nanos\": ").append(trace.getTime(phase));
+			}
+			
+			result.append(", \"bytesRead\": ").append(trace.getBytesRead());
+			result.append(", \"cpuBytes\": ").append(trace.getCpuBytes());
+			result.append(", \"gpuBytes\": ").append(trace.getGpuBytes());
+			result.append("}");
+		}
+		
+		result.append(loadTraces.isEmpty() ? "]\n" : "\n\t]\n");
+		result.append("}\n");
+		
+		return result.toString();
+	}
+	
+	/**
+	 * <p>
+	 * Get the resident assets, sorted by their total footprint.
+	 * </p>
+	 *
+	 * @return The footprints of the resident assets.
+	 */
+	public final List<AssetFootprint> getResidentAssets()
+	{
+		return residentAssets;
+	}
+	
+	/**
+	 * <p>
+	 * Get the load traces, sorted by their total load time.
+	 * </p>
+	 *
+	 * @return The load traces.
+	 */
+	public final List<AssetProfiler.LoadTrace> getLoadTraces()
+	{
+		return loadTraces;
+	}
+	
+	/**
+	 * <p>
+	 * Get the total number of bytes the resident assets retain in CPU memory.
+	 * </p>
+	 *
+	 * @return The number of bytes in CPU memory.
+	 */
+	public final long getTotalCpuBytes()
+	{
+		long result = 0;
+		
+		for(AssetFootprint footprint : residentAssets)
+		{
+			result += footprint.getCpuBytes();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Get the total number of bytes the resident assets have allocated in GPU memory.
+	 * </p>
+	 *
+	 * @return The number of bytes in GPU memory.
+	 */
+	public final long getTotalGpuBytes()
+	{
+		long result = 0;
+		
+		for(AssetFootprint footprint : residentAssets)
+		{
+			result += footprint.getGpuBytes();
+		}
+		
+		return result;
+	}
+	
+	private static String escapeCSV(String value)
+	{
+		if(value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0)
+		{
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		
+		return value;
+	}
+	
+	private static String escapeJSON(String value)
+	{
+		StringBuilder result = new StringBuilder("\"");
+		
+		for(int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			
+			switch(c)
+			{
+			case '"':
+				result.append("\\\"");
+				break;
+			case '\\':
+				result.append("\\\\");
+				break;
+			case '\n':
+				result.append("\\n");
+				break;
+			case '\r':
+				result.append("\\r");
+				break;
+			case '\t':
+				result.append("\\t");
+				break;
+			default:
+				if(c < 0x20)
+				{
+					result.append(String.format("\\u%04x", (int)c));
+				}
+				else
+				{
+					result.append(c);
+				}
+			}
+		}
+		
+		return result.append('"').toString();
+	}
+}
@@ -0,0 +1,196 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.asset;
+
+import com.snakybo.torch.util.debug.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * A pending asynchronous load, returned by {@link Assets#loadAsync(Class, String)}.
+ * </p>
+ *
+ * <p>
+ * Callbacks added with {@link #then(Consumer)} are invoked on the render thread once the asset has been loaded,
+ * with {@code null} if the asset could not be loaded.
+ * </p>
+ *
+ * @param <T> The type of the asset.
+ *
+ * @see Assets
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetRequest<T extends Asset>
+{
+	private final List<Consumer<? super T>> callbacks;
+	
+	private final Class<T> type;
+	private final String path;
+	
+	private volatile boolean done;
+	private T asset;
+	
+	AssetRequest(Class<T> type, String path)
+	{
+		this.type = type;
+		this.path = path;
+		
+		callbacks = new ArrayList<>();
+	}
+	
+	/**
+	 * <p>
+	 * Invoke a callback on the render thread once the asset has been loaded. If it has already been loaded, the
+	 * callback is invoked immediately.
+	 * </p>
+	 *
+	 * @param callback The callback, it receives {@code null} if the asset could not be loaded.
+	 * @return This request.
+	 */
+	public final AssetRequest<T> then(Consumer<? super T> callback)
+	{
+		if(done)
+		{
+			callback.accept(asset);
+		}
+		else
+		{
+			callbacks.add(callback);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * <p>
+	 * Wait for the asset to be loaded. On the render thread, the loads that are waiting for the render thread are
+	 * finished while waiting.
+	 * </p>
+	 *
+	 * @return The asset, or {@code null} if it could not be loaded.
+	 */
+	public final T get()
+	{
+		if(AssetsInternal.isRenderThread())
+		{
+			while(!done)
+			{
+				AssetsInternal.finishNext();
+			}
+		}
+		else
+		{
+			synchronized(this)
+			{
+				while(!done)
+				{
+					try
+					{
+						wait();
+					}
+					catch(InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+						return null;
+					}
+				}
+			}
+		}
+		
+		return asset;
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not the asset has been loaded, or has failed to load.
+	 * </p>
+	 *
+	 * @return Whether or not the request is done.
+	 */
+	public final boolean isDone()
+	{
+		return done;
+	}
+	
+	/**
+	 * <p>
+	 * Get the type of the asset.
+	 * </p>
+	 *
+	 * @return The type of the asset.
+	 */
+	public final Class<T> getType()
+	{
+		return type;
+	}
+	
+	/**
+	 * <p>
+	 * Get the path of the asset.
+	 * </p>
+	 *
+	 * @return The path of the asset.
+	 */
+	public final String getPath()
+	{
+		return path;
+	}
+	
+	/**
+	 * <p>
+	 * Complete the request on the render thread, and invoke the callbacks.
+	 * </p>
+	 *
+	 * @param result The loaded asset, or {@code null}.
+	 */
+	final void complete(Asset result)
+	{
+		if(result != null && !type.isInstance(result))
+		{
+			Logger.logError(path + " is not a " + type.getSimpleName());
+			
+			result.destroy();
+			result = null;
+		}
+		
+		asset = type.cast(result);
+		
+		synchronized(this)
+		{
+			done = true;
+			notifyAll();
+		}
+		
+		for(Consumer<? super T> callback : callbacks)
+		{
+			callback.accept(asset);
+		}
+		
+		callbacks.clear();
+	}
+}
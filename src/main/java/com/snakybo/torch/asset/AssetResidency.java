@@ -0,0 +1,54 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.asset;
+
+/**
+ * <p>
+ * Where the data of an asset is kept once it has been uploaded to the GPU.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public enum AssetResidency
+{
+	/**
+	 * <p>
+	 * The data is kept in CPU memory as well, so it can be read and modified.
+	 * </p>
+	 */
+	CpuAndGpu,
+	
+	/**
+	 * <p>
+	 * The CPU copy of the data is discarded after it has been uploaded. The data is only read again when the residency
+	 * is set back to {@link #CpuAndGpu}.
+	 * </p>
+	 *
+	 * <p>
+	 * Meshes only keep their counts, bounds and LODs, renderers that are created later read the mesh from its file
+	 * again. Meshes without a file keep their data.
+	 * </p>
+	 */
+	GpuOnly
+}
@@ -0,0 +1,197 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.asset;
+
+import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.debug.LoggerInternal;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * Tracks the lifetime of {@link Asset}s, so the {@link AssetData} of assets that are garbage collected without
+ * being destroyed is still released.
+ * </p>
+ *
+ * <p>
+ * Assets that are garbage collected without being destroyed are leaked, their usage is removed on the render
+ * thread at the start of the next frame. When assertions are enabled, the site where every asset was created is
+ * recorded, and reported when it leaks.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetTracker
+{
+	/**
+	 * <p>
+	 * A reference to a tracked asset, returned by {@link #track(Asset, AssetData)}.
+	 * </p>
+	 */
+	public static final class Reference extends PhantomReference<Asset>
+	{
+		private final AssetData data;
+		private final Throwable creationSite;
+		
+		private Reference(Asset asset, AssetData data)
+		{
+			super(asset, queue);
+			
+			this.data = data;
+			this.creationSite = RECORD_CREATION_SITES ? new Throwable("Created here") : null;
+		}
+	}
+	
+	private static final boolean RECORD_CREATION_SITES;
+	
+	private static final ReferenceQueue<Asset> queue = new ReferenceQueue<>();
+	
+	// The references have to be reachable themselves, or they won't be enqueued
+	private static final Set<Reference> references = ConcurrentHashMap.newKeySet();
+	
+	private static int numLeaked;
+	
+	static
+	{
+		boolean enabled = false;
+		
+		// Only assigned if assertions are enabled
+		assert enabled = true;
+		
+		RECORD_CREATION_SITES = enabled;
+	}
+	
+	private AssetTracker()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Start tracking an asset, the asset must hold one usage of the {@code data}.
+	 * </p>
+	 *
+	 * @param asset The asset.
+	 * @param data The data used by the asset.
+	 * @return The reference to the asset, which should be passed to {@link #untrack(Reference)} when the asset is
+	 * destroyed.
+	 */
+	public static Reference track(Asset asset, AssetData data)
+	{
+		Reference result = new Reference(asset, data);
+		references.add(result);
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Stop tracking an asset, because it has been destroyed and released its usage of its data.
+	 * </p>
+	 *
+	 * @param reference The reference to the asset.
+	 */
+	public static void untrack(Reference reference)
+	{
+		if(references.remove(reference))
+		{
+			reference.clear();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of assets that are being tracked.
+	 * </p>
+	 *
+	 * @return The number of assets that are alive and haven't been destroyed.
+	 */
+	public static int getNumTracked()
+	{
+		return references.size();
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of assets that have been garbage collected without being destroyed.
+	 * </p>
+	 *
+	 * @return The number of leaked assets.
+	 */
+	public static int getNumLeaked()
+	{
+		return numLeaked;
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not the creation sites of assets are recorded, this is the case when assertions are enabled.
+	 * </p>
+	 *
+	 * @return Whether or not creation sites are recorded.
+	 */
+	public static boolean isRecordingCreationSites()
+	{
+		return RECORD_CREATION_SITES;
+	}
+	
+	/**
+	 * <p>
+	 * Release the data of the assets that have been garbage collected since the previous call, this must be called
+	 * from the render thread.
+	 * </p>
+	 */
+	static void update()
+	{
+		java.lang.ref.Reference<? extends Asset> polled;
+		
+		while((polled = queue.poll()) != null)
+		{
+			Reference reference = (Reference)polled;
+			
+			if(!references.remove(reference))
+			{
+				continue;
+			}
+			
+			numLeaked++;
+			
+			String name = reference.data.getClass().getSimpleName() + ":" + reference.data.getName();
+			
+			if(reference.creationSite != null)
+			{
+				Logger.logError("Asset leaked, it was garbage collected without being destroyed: " + name, reference.creationSite);
+			}
+			else
+			{
+				LoggerInternal.log("Asset leaked, it was garbage collected without being destroyed: " + name);
+			}
+			
+			reference.data.removeUsage();
+		}
+	}
+}
@@ -22,26 +22,47 @@
 
 package com.snakybo.torch.asset;
 
+import com.snakybo.torch.asset2.Asset2;
 import com.snakybo.torch.graphics.material.MaterialAssetLoader;
 import com.snakybo.torch.graphics.mesh.MeshAssetLoader;
+import com.snakybo.torch.graphics.mesh.TMesh;
+import com.snakybo.torch.graphics.mesh.gltf.GLBMesh;
 import com.snakybo.torch.graphics.shader.Shader;
+import com.snakybo.torch.graphics.shader.ShaderInternal;
+import com.snakybo.torch.graphics.texture.TextureLoader;
 import com.snakybo.torch.util.FileUtils;
 import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.debug.LoggerInternal;
 
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
  * The {@link Asset} loader. Attempts to load assets based on their file extension.
  * </p>
  *
+ * <p>
+ * Assets can be loaded synchronously with {@link #load(String)}, or asynchronously with
+ * {@link #loadAsync(Class, String)}. Asynchronous loads read and decode files on a pool of loader threads, and
+ * create the OpenGL objects on the render thread at the start of a frame.
+ * </p>
+ *
  * @see Asset
+ * @see AssetRequest
  *
  * @author Snakybo
  * @since 1.0
  */
 public final class Assets
 {
+	// The asynchronous loads that are in flight, by file, only accessed from the render thread
+	private static final Map<String, AssetRequest<?>> pending = new HashMap<>();
+	
 	private Assets()
 	{
 		throw new AssertionError();
@@ -52,6 +73,11 @@ public final class Assets
 	 * Load an {@link Asset} by file name.
 	 * </p>
 	 *
+	 * <p>
+	 * A single mesh of a file containing multiple meshes can be loaded by appending its name or index to
+	 * the file name, as in {@code "model.glb#wheel"}.
+	 * </p>
+	 *
 	 * @param file The file to load.
 	 * @return The loaded asset if it exists and has a known type. Returns {@code null} otherwise.
 	 */
@@ -59,16 +85,28 @@ public final class Assets
 	{
 		try
 		{
-			String path = getPath(file);
-			String ext = FileUtils.getExtension(path);
+			int separator = file.indexOf('#');
+			String fragment = separator >= 0 ? file.substring(separator) : "";
+			
+			long start = System.nanoTime();
+			String ext = FileUtils.getExtension(file.substring(0, file.length() - fragment.length()));
+			String path = getPath(file.substring(0, file.length() - fragment.length()), ext);
+			
+			if(!isLoaded(path + fragment, ext))
+			{
+				AssetCache.recordMiss();
+				AssetProfiler.record(path + fragment, AssetProfiler.Phase.Resolve, System.nanoTime() - start);
+			}
 			
 			switch(ext)
 			{
-//			case "png":
-//			case "jpg":
-//				return TextureAssetLoader.load(path);
+			case "png":
+			case "jpg":
+				return TextureLoader.load(path);
 			case "obj":
-				return MeshAssetLoader.load(path);
+			case GLBMesh.EXTENSION:
+			case TMesh.EXTENSION:
+				return MeshAssetLoader.load(path + fragment);
 			case "mtl":
 				return MaterialAssetLoader.load(path);
 			case "glsl":
@@ -106,28 +144,165 @@ public final class Assets
 		return null;
 	}
 	
-	private static String getPath(String path) throws NoSuchFileException
+	/**
+	 * <p>
+	 * Load an {@link Asset} by file name asynchronously. This must be called from the render thread.
+	 * </p>
+	 *
+	 * <p>
+	 * The file is read and decoded on a loader thread, the asset is created on the render thread. Meshes, textures
+	 * and shader sources are decoded on the loader threads, materials are loaded entirely on the render thread,
+	 * since they load their shader and textures while they're being decoded.
+	 * </p>
+	 *
+	 * <p>
+	 * Loading a file that is already being loaded doesn't load it again, the request completes when the pending
+	 * load completes. Every request receives its own reference to the asset, as with {@link #load(String)}.
+	 * </p>
+	 *
+	 * @param clazz The class of the asset.
+	 * @param file The file to load.
+	 * @param <T> The class of the asset.
+	 * @return The request, it completes with {@code null} if the asset doesn't exist or has an unknown type.
+	 */
+	public static <T extends Asset> AssetRequest<T> loadAsync(Class<T> clazz, String file)
 	{
-		String target = path;
+		if(!AssetsInternal.isRenderThread())
+		{
+			throw new IllegalStateException("Assets can only be loaded asynchronously from the render thread");
+		}
 		
-		try
+		AssetRequest<T> request = new AssetRequest<>(clazz, file);
+		AssetRequest<?> inFlight = pending.get(file);
+		
+		if(inFlight != null)
 		{
-			FileUtils.toURI(target);
+			LoggerInternal.log("Joined pending load of " + file);
+			inFlight.then(asset -> request.complete(asset != null ? load(file) : null));
+			
+			return request;
 		}
-		catch(NoSuchFileException e)
+		
+		try
 		{
-			target = "torch_default/" + target;
+			int separator = file.indexOf('#');
+			String fragment = separator >= 0 ? file.substring(separator) : "";
+			
+			long start = System.nanoTime();
+			String ext = FileUtils.getExtension(file.substring(0, file.length() - fragment.length()));
+			String path = getPath(file.substring(0, file.length() - fragment.length()), ext);
 			
-			try
+			if(isLoaded(path + fragment, ext))
 			{
-				FileUtils.toURI(target);
+				request.complete(load(file));
+				return request;
+			}
+			
+			AssetCache.recordMiss();
+			AssetProfiler.record(path + fragment, AssetProfiler.Phase.Resolve, System.nanoTime() - start);
+			
+			switch(ext)
+			{
+			case "png":
+			case "jpg":
+				AssetsInternal.submit(() -> TextureLoader.decode(path), decoded -> TextureLoader.create(path, decoded), request);
+				break;
+			case "obj":
+			case GLBMesh.EXTENSION:
+			case TMesh.EXTENSION:
+				AssetsInternal.submit(() -> MeshAssetLoader.decode(path + fragment), mesh -> MeshAssetLoader.register(path + fragment, mesh), request);
+				break;
+			case "mtl":
+				AssetsInternal.submit(() -> path, MaterialAssetLoader::load, request);
+				break;
+			case "glsl":
+				AssetsInternal.submit(() -> ShaderInternal.readSource(path), source -> ShaderInternal.create(path, source), request);
+				break;
+			default:
+				Logger.logError("Unknown asset type: " + ext);
+				request.complete(null);
+				return request;
 			}
-			catch(NoSuchFileException ex)
+			
+			pending.put(file, request);
+			request.then(asset -> pending.remove(file));
+		}
+		catch(NoSuchFileException e)
+		{
+			Logger.logError(e.getMessage(), e);
+			request.complete(null);
+		}
+		
+		return request;
+	}
+	
+	/**
+	 * <p>
+	 * Start loading multiple {@link Asset}s asynchronously, so they can be loaded by {@link #load(String)} without
+	 * waiting for them later on. The caller owns the asset of every request, and should destroy it once it has been
+	 * loaded by other means.
+	 * </p>
+	 *
+	 * <p>
+	 * Assets can only be loaded asynchronously from the render thread, on other threads nothing is preloaded.
+	 * </p>
+	 *
+	 * @param files The files to load.
+	 * @return The requests of the files that are being preloaded.
+	 * @see #loadAsync(Class, String)
+	 */
+	public static List<AssetRequest<Asset>> preload(Collection<String> files)
+	{
+		List<AssetRequest<Asset>> result = new ArrayList<>();
+		
+		if(AssetsInternal.isRenderThread())
+		{
+			for(String file : files)
 			{
-				throw new NoSuchFileException("No file found at " + path + " or " + target);
+				result.add(loadAsync(Asset.class, file));
 			}
 		}
 		
-		return target;
+		return result;
+	}
+	
+	private static boolean isLoaded(String path, String ext)
+	{
+		switch(ext)
+		{
+		case "png":
+		case "jpg":
+			return Asset2.isLoaded(path);
+		case "obj":
+		case GLBMesh.EXTENSION:
+		case TMesh.EXTENSION:
+			return MeshAssetLoader.isLoaded(path);
+		case "mtl":
+			return MaterialAssetLoader.isLoaded(path);
+		case "glsl":
+			return ShaderInternal.isLoaded(path);
+		default:
+			return false;
+		}
+	}
+	
+	private static String getPath(String path, String ext) throws NoSuchFileException
+	{
+		// Textures are described by a data file, the image itself doesn't have to exist
+		String suffix = ext.equals("png") || ext.equals("jpg") ? ".dat" : "";
+		
+		if(FileUtils.exists(path + suffix))
+		{
+			return path;
+		}
+		
+		String target = "torch_default/" + path;
+		
+		if(FileUtils.exists(target + suffix))
+		{
+			return target;
+		}
+		
+		throw new NoSuchFileException("No file found at " + path + " or " + target);
 	}
 }
@@ -0,0 +1,271 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.asset;
+
+import com.snakybo.torch.util.cook.AssetCooker;
+import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.debug.LoggerInternal;
+import com.snakybo.torch.util.pack.AssetPack;
+import com.snakybo.torch.util.vfs.DirectoryMount;
+import com.snakybo.torch.util.vfs.PackMount;
+import com.snakybo.torch.util.vfs.VirtualFileSystem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Used internally by the engine.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetsInternal
+{
+	/** The maximum time spent finishing loads on the render thread every frame, in nanoseconds */
+	private static final long FINISH_TIME_BUDGET = 4000000L;
+	
+	private static final BlockingQueue<Runnable> finishQueue = new LinkedBlockingQueue<>();
+	
+	private static ExecutorService workers;
+	private static Thread renderThread;
+	
+	private AssetsInternal()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Start the asset loader threads, the calling thread becomes the render thread.
+	 * </p>
+	 */
+	public static void create()
+	{
+		int numWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		
+		renderThread = Thread.currentThread();
+		workers = Executors.newFixedThreadPool(numWorkers, runnable ->
+		{
+			Thread thread = new Thread(runnable, "Asset loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		LoggerInternal.log("Started " + numWorkers + " asset loader threads");
+		
+		// Assets packed by the packAssets task are preferred over the loose files on the classpath
+		Path pack = Paths.get("assets." + AssetPack.EXTENSION);
+		
+		if(Files.isRegularFile(pack))
+		{
+			try
+			{
+				VirtualFileSystem.mount(new PackMount(AssetPack.open(pack)));
+			}
+			catch(IOException e)
+			{
+				Logger.logError("Unable to open asset pack " + pack + ": " + e.toString(), e);
+			}
+		}
+		
+		// Cooked assets in the working directory are newer than the pack during development
+		Path cooked = Paths.get(AssetCooker.DIRECTORY);
+		
+		if(Files.isDirectory(cooked))
+		{
+			VirtualFileSystem.mount(new DirectoryMount(cooked));
+		}
+	}
+	
+	public static void destroy()
+	{
+		if(workers != null)
+		{
+			workers.shutdownNow();
+			workers = null;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Release leaked assets, and finish the loads that are waiting for the render thread until the time budget of
+	 * the frame runs out.
+	 * </p>
+	 */
+	public static void update()
+	{
+		// Release the data of the assets that were garbage collected without being destroyed
+		AssetTracker.update();
+		
+		long end = System.nanoTime() + FINISH_TIME_BUDGET;
+		Runnable task;
+		
+		while(System.nanoTime() < end && (task = finishQueue.poll()) != null)
+		{
+			task.run();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Move an asset that is no longer used into the {@link AssetCache}, for assets that don't use
+	 * {@link AssetData}.
+	 * </p>
+	 *
+	 * @param key The internal data of the asset.
+	 * @param name The name of the asset.
+	 * @param category The category of the asset.
+	 * @param size The size of the asset in bytes.
+	 * @param destroy Destroys the asset once it's evicted.
+	 */
+	public static void releaseToCache(Object key, String name, AssetCache.Category category, long size, Runnable destroy)
+	{
+		AssetCache.release(key, name, category, size, destroy);
+	}
+	
+	/**
+	 * <p>
+	 * Take an asset that is used again out of the {@link AssetCache}.
+	 * </p>
+	 *
+	 * @param key The internal data of the asset.
+	 */
+	public static void acquireFromCache(Object key)
+	{
+		AssetCache.acquire(key);
+	}
+	
+	/**
+	 * <p>
+	 * Decode an asset on a loader thread, and create it on the render thread.
+	 * </p>
+	 *
+	 * @param decode Decodes the asset, this must not use OpenGL.
+	 * @param create Creates the asset from the decoded data on the render thread.
+	 * @param request The request to complete.
+	 * @param <D> The type of the decoded data.
+	 */
+	static <D> void submit(Decoder<D> decode, Creator<D> create, AssetRequest<?> request)
+	{
+		Runnable task = () ->
+		{
+			try
+			{
+				D decoded = decode.decode();
+				finishQueue.add(() -> finish(create, decoded, request));
+			}
+			catch(Exception e)
+			{
+				Logger.logError("Unable to load " + request.getPath() + ": " + e.toString(), e);
+				finishQueue.add(() -> request.complete(null));
+			}
+		};
+		
+		if(workers != null)
+		{
+			workers.execute(task);
+		}
+		else
+		{
+			task.run();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Finish a load that is waiting for the render thread, or wait a moment for one if there are none.
+	 * </p>
+	 */
+	static void finishNext()
+	{
+		try
+		{
+			Runnable task = finishQueue.poll(1, TimeUnit.MILLISECONDS);
+			
+			if(task != null)
+			{
+				task.run();
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	static boolean isRenderThread()
+	{
+		return renderThread == null || Thread.currentThread() == renderThread;
+	}
+	
+	private static <D> void finish(Creator<D> create, D decoded, AssetRequest<?> request)
+	{
+		Asset result = null;
+		
+		try
+		{
+			result = decoded != null ? create.create(decoded) : null;
+		}
+		catch(RuntimeException e)
+		{
+			Logger.logError("Unable to load " + request.getPath() + ": " + e.toString(), e);
+		}
+		
+		request.complete(result);
+	}
+	
+	/**
+	 * <p>
+	 * The part of a load that runs on a loader thread.
+	 * </p>
+	 *
+	 * @param <D> The type of the decoded data.
+	 */
+	@FunctionalInterface
+	interface Decoder<D>
+	{
+		D decode() throws Exception;
+	}
+	
+	/**
+	 * <p>
+	 * The part of a load that runs on the render thread.
+	 * </p>
+	 *
+	 * @param <D> The type of the decoded data.
+	 */
+	@FunctionalInterface
+	interface Creator<D>
+	{
+		Asset create(D decoded);
+	}
+}
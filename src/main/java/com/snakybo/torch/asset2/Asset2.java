@@ -22,8 +22,12 @@
 
 package com.snakybo.torch.asset2;
 
+import com.snakybo.torch.asset.Asset;
+import com.snakybo.torch.asset.AssetFootprint;
 import com.snakybo.torch.asset.Assets;
-import com.snakybo.torch.object.TorchObject;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * <p>
@@ -60,13 +64,15 @@ import com.snakybo.torch.object.TorchObject;
  * @author Snakybo
  * @since 1.0
  */
-public abstract class Asset2 extends TorchObject
+public abstract class Asset2 extends Asset
 {
 	protected AssetData2 data;
 	
+	private final String name;
+	
 	protected Asset2(String name)
 	{
-		setName(name);
+		this.name = name;
 		setData(Asset2Internal.get(this, name));
 	}
 	
@@ -101,17 +107,55 @@ public abstract class Asset2 extends TorchObject
 	
 	protected abstract void onDestroy();
 	
+	/**
+	 * <p>
+	 * Get an estimate of the memory used by the asset, for the budgets of the
+	 * {@link com.snakybo.torch.asset.AssetCache}.
+	 * </p>
+	 *
+	 * @return The size of the asset in bytes.
+	 */
+	protected long getMemorySize()
+	{
+		return 0;
+	}
+	
+	/**
+	 * <p>
+	 * Get an estimate of the part of {@link #getMemorySize()} that is allocated in GPU memory.
+	 * </p>
+	 *
+	 * @return The size of the asset in GPU memory in bytes.
+	 */
+	protected long getGpuMemorySize()
+	{
+		return 0;
+	}
+	
 	/**
 	 * <p>
 	 * Destroy the asset, this disables the asset,
 	 * but does not necessarily unload data bound to the Asset.
 	 * </p>
 	 */
+	@Override
 	public final void destroy()
 	{
 		setData(null);
 	}
 	
+	/**
+	 * <p>
+	 * Get the name of the asset.
+	 * </p>
+	 *
+	 * @return The name of the asset.
+	 */
+	public final String getName()
+	{
+		return name;
+	}
+	
 	private void setData(AssetData2 d)
 	{
 		if(data != null)
@@ -131,6 +175,82 @@ public abstract class Asset2 extends TorchObject
 		}
 	}
 	
+	/**
+	 * <p>
+	 * Check whether or not an asset with a name has been loaded.
+	 * </p>
+	 *
+	 * @param name The name of the asset.
+	 * @return Whether or not the asset has been loaded.
+	 */
+	public static boolean isLoaded(String name)
+	{
+		return Asset2Internal.assets.containsKey(name);
+	}
+	
+	/**
+	 * <p>
+	 * Get the memory footprint of every loaded asset, including the unused assets in the
+	 * {@link com.snakybo.torch.asset.AssetCache}.
+	 * </p>
+	 *
+	 * @return The footprints.
+	 */
+	public static List<AssetFootprint> getFootprints()
+	{
+		List<AssetFootprint> result = new ArrayList<>();
+		
+		for(AssetData2 assetData : Asset2Internal.assets.values())
+		{
+			result.add(assetData.creator.getFootprint(assetData));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Get the memory footprint of the asset.
+	 * </p>
+	 *
+	 * @return The footprint.
+	 */
+	public final AssetFootprint getFootprint()
+	{
+		return getFootprint(data);
+	}
+	
+	private AssetFootprint getFootprint(AssetData2 measured)
+	{
+		// The creator measures the data for the other assets, even after the creator itself has been destroyed
+		AssetData2 previous = data;
+		data = measured;
+		
+		try
+		{
+			long gpuBytes = getGpuMemorySize();
+			return new AssetFootprint(name, getClass().getSimpleName(), measured.links.size(), getMemorySize() - gpuBytes, gpuBytes);
+		}
+		finally
+		{
+			data = previous;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Destroy data that has been evicted from the cache, after this asset was the last one to unlink it.
+	 * </p>
+	 *
+	 * @param evicted The data.
+	 */
+	final void evict(AssetData2 evicted)
+	{
+		data = evicted;
+		onDestroy();
+		data = null;
+	}
+	
 	protected final boolean isCreator()
 	{
 		return data.creator == this;
@@ -22,7 +22,9 @@
 
 package com.snakybo.torch.asset2;
 
+import com.snakybo.torch.asset.AssetCache;
 import com.snakybo.torch.asset.Assets;
+import com.snakybo.torch.asset.AssetsInternal;
 import com.snakybo.torch.util.debug.LoggerInternal;
 
 import java.util.ArrayList;
@@ -33,8 +35,8 @@ import java.util.Map;
 /**
  * <p>
  * Holds internal data for assets, and keeps track of which assets are linked to the data.
- * If no more assets are linked, it will allow the last asset that called {@link #unlink(Asset2)} to
- * destroy the data.
+ * If no more assets are linked, the data is moved into the {@link AssetCache}, which lets the last asset that called
+ * {@link #unlink(Asset2)} destroy the data once it's evicted. Data without a name is destroyed immediately.
  * </p>
  *
  * @see Assets
@@ -125,6 +127,11 @@ public final class AssetData2
 	
 	final void link(Asset2 asset)
 	{
+		if(links.isEmpty() && name != null && !name.isEmpty())
+		{
+			AssetsInternal.acquireFromCache(this);
+		}
+		
 		links.add(asset);
 		
 		String name = getClass().getSimpleName() + ":" + this.name;
@@ -142,13 +149,20 @@ public final class AssetData2
 		
 		if(links.isEmpty())
 		{
-			LoggerInternal.log("No more links remaining for " + name + ", destroying.");
-			
 			if(this.name != null && !this.name.isEmpty())
 			{
-				Asset2Internal.remove(this.name);
+				LoggerInternal.log("No more links remaining for " + name + ", caching.");
+				
+				AssetsInternal.releaseToCache(this, this.name, AssetCache.Category.Texture, asset.getMemorySize(), () ->
+				{
+					Asset2Internal.remove(this.name);
+					asset.evict(this);
+				});
+				
+				return false;
 			}
 			
+			LoggerInternal.log("No more links remaining for " + name + ", destroying.");
 			return true;
 		}
 		
@@ -41,7 +41,8 @@ import com.snakybo.torch.object.Component;
  */
 public final class MeshFilter extends Component
 {
-	@SerializedField private Mesh mesh = Assets.load(Mesh.class, "cube.obj");
+	// The default mesh is loaded when it's first used, so it isn't loaded for filters that have their mesh set
+	@SerializedField private Mesh mesh;
 	
 	public final void setMesh(Mesh mesh)
 	{
@@ -50,6 +51,11 @@ public final class MeshFilter extends Component
 	
 	public final Mesh getMesh()
 	{
+		if(mesh == null)
+		{
+			mesh = Assets.load(Mesh.class, "cube.obj");
+		}
+		
 		return mesh;
 	}
 }
@@ -58,14 +58,13 @@ public final class MeshRenderer extends Renderer
 	@Override
 	protected final void render()
 	{
-		meshRenderer.render(GL_TRIANGLES);
+		meshRenderer.render(GL_TRIANGLES, getTransform().getTransformation());
 	}
 	
 	@Override
 	protected final void onMeshUpdated()
 	{
-		meshRenderer.destroy();
-		meshRenderer = new MeshRendererInternal(meshFilter.getMesh());
+		meshRenderer.update(meshFilter.getMesh());
 	}
 	
 	@Override
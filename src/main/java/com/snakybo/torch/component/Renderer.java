@@ -24,9 +24,9 @@ package com.snakybo.torch.component;
 
 import com.snakybo.torch.annotation.SerializedField;
 import com.snakybo.torch.asset.Assets;
-import com.snakybo.torch.graphics.camera.CameraInternal;
 import com.snakybo.torch.graphics.material.Material;
 import com.snakybo.torch.graphics.material.MaterialInternal;
+import com.snakybo.torch.graphics.mesh.Mesh;
 import com.snakybo.torch.graphics.shader.ShaderInternal;
 import com.snakybo.torch.object.Component;
 
@@ -40,11 +40,13 @@ import com.snakybo.torch.object.Component;
  */
 public abstract class Renderer extends Component
 {
-	@SerializedField private Material material = Assets.load(Material.class, "default.mtl");
+	// The default material is loaded when it's first used, so it isn't loaded for renderers that have their material set
+	@SerializedField private Material material;
 	
 	protected MeshFilter meshFilter;
 	
-	private int cachedMeshHashCode;
+	private Mesh cachedMesh;
+	private int cachedMeshVersion;
 	
 	protected void onCreate()
 	{
@@ -54,25 +56,29 @@ public abstract class Renderer extends Component
 			throw new RuntimeException("GameObject has a Renderer component but does not have a MeshFilter component.");
 		}
 		
-		cachedMeshHashCode = meshFilter.getMesh().hashCode();
+		cachedMesh = meshFilter.getMesh();
+		cachedMeshVersion = cachedMesh.getVersion();
 	}
 	
 	protected void onPreRender()
 	{
-		int hashCode = meshFilter.getMesh().hashCode();
+		Mesh mesh = meshFilter.getMesh();
 		
-		if(cachedMeshHashCode != hashCode)
+		if(cachedMesh != mesh || cachedMeshVersion != mesh.getVersion())
 		{
-			cachedMeshHashCode = hashCode;
+			cachedMesh = mesh;
+			cachedMeshVersion = mesh.getVersion();
 			onMeshUpdated();
 		}
 	}
 	
 	protected void onRender()
 	{
+		Material material = getMaterial();
+		
 		ShaderInternal.bind(material.getShader());
 		
-		MaterialInternal.updateBuiltInUniforms(material, CameraInternal.getCurrentCamera(), getTransform());
+		MaterialInternal.updateBuiltInUniforms(material, getTransform());
 		MaterialInternal.update(material);
 		
 		render();
@@ -82,7 +88,10 @@ public abstract class Renderer extends Component
 	
 	protected void onDestroy()
 	{
-		material.destroy();
+		if(material != null)
+		{
+			material.destroy();
+		}
 	}
 	
 	/**
@@ -120,6 +129,11 @@ public abstract class Renderer extends Component
 	 */
 	public final Material getMaterial()
 	{
+		if(material == null)
+		{
+			material = Assets.load(Material.class, "default.mtl");
+		}
+		
 		return material;
 	}
 }
@@ -0,0 +1,120 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics;
+
+import com.snakybo.torch.util.debug.LoggerInternal;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <p>
+ * Defers the deletion of OpenGL objects to the render thread.
+ * </p>
+ *
+ * <p>
+ * Deletions can be queued from any thread, they're executed at the start of the next frame, within a time budget
+ * so releasing many assets at once doesn't cause a hitch. Deletions that don't fit in the budget are executed in
+ * the frames after it.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class GLDeletionQueue
+{
+	/** The maximum time spent deleting OpenGL objects every frame, in nanoseconds */
+	private static final long DELETION_TIME_BUDGET = 1000000L;
+	
+	private static final Queue<Runnable> deletions = new ConcurrentLinkedQueue<>();
+	
+	private GLDeletionQueue()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Queue the deletion of an OpenGL object. The deletion must not depend on any state that can change before it
+	 * is executed, such as the currently bound objects.
+	 * </p>
+	 *
+	 * @param deletion The deletion, it's executed on the render thread.
+	 */
+	public static void add(Runnable deletion)
+	{
+		deletions.add(deletion);
+	}
+	
+	/**
+	 * <p>
+	 * Execute the queued deletions, until the time budget of the frame runs out. At least one deletion is executed
+	 * every frame, so the queue always drains.
+	 * </p>
+	 */
+	public static void update()
+	{
+		long end = System.nanoTime() + DELETION_TIME_BUDGET;
+		Runnable deletion;
+		
+		do
+		{
+			deletion = deletions.poll();
+			
+			if(deletion != null)
+			{
+				deletion.run();
+			}
+		}
+		while(deletion != null && System.nanoTime() < end);
+	}
+	
+	/**
+	 * <p>
+	 * Execute all queued deletions, regardless of the time budget.
+	 * </p>
+	 */
+	public static void flush()
+	{
+		LoggerInternal.log("Flushing " + deletions.size() + " queued OpenGL deletions");
+		
+		Runnable deletion;
+		
+		while((deletion = deletions.poll()) != null)
+		{
+			deletion.run();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of deletions that are waiting to be executed.
+	 * </p>
+	 *
+	 * @return The number of queued deletions.
+	 */
+	public static int getSize()
+	{
+		return deletions.size();
+	}
+}
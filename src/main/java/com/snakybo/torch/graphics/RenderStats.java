@@ -0,0 +1,93 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics;
+
+/**
+ * <p>
+ * Rendering statistics of the previous frame.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class RenderStats
+{
+	static int drawCalls;
+	static int materialUpdates;
+	static int skippedMaterialUpdates;
+	static int uniformUploads;
+	
+	private RenderStats()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of draw calls.
+	 * </p>
+	 *
+	 * @return The number of draw calls.
+	 */
+	public static int getDrawCalls()
+	{
+		return drawCalls;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of times a material was prepared for drawing.
+	 * </p>
+	 *
+	 * @return The number of material updates.
+	 */
+	public static int getMaterialUpdates()
+	{
+		return materialUpdates;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of material updates that didn't have to upload any uniforms,
+	 * because the shader still contained the values of the material.
+	 * </p>
+	 *
+	 * @return The number of skipped material updates.
+	 */
+	public static int getSkippedMaterialUpdates()
+	{
+		return skippedMaterialUpdates;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of uniform values that have been uploaded to the GPU.
+	 * </p>
+	 *
+	 * @return The number of uploaded uniforms.
+	 */
+	public static int getUniformUploads()
+	{
+		return uniformUploads;
+	}
+}
@@ -24,6 +24,7 @@ package com.snakybo.torch.graphics;
 
 import com.snakybo.torch.graphics.camera.CameraClearFlags;
 import com.snakybo.torch.graphics.camera.CameraInternal;
+import com.snakybo.torch.graphics.camera.CameraUniformBuffer;
 import com.snakybo.torch.graphics.camera.Skybox;
 import com.snakybo.torch.graphics.gizmo.Gizmos;
 import com.snakybo.torch.graphics.gizmo.GizmosInternal;
@@ -111,6 +112,9 @@ public final class RenderingEngine
 	{
 		GizmosInternal.isInGizmoRenderPass = true;
 		
+		// Gizmos are always drawn from the perspective of the main camera
+		CameraUniformBuffer.update(CameraInternal.getMainCamera());
+		
 		for(GameObject gameObject : SceneInternal.getAllInitializedGameObjects())
 		{
 			Gizmos.reset();
@@ -22,7 +22,7 @@
 
 package com.snakybo.torch.graphics.camera;
 
-import com.snakybo.torch.asset2.Assets2;
+import com.snakybo.torch.asset.Assets;
 import com.snakybo.torch.event.Events;
 import com.snakybo.torch.event.IWindowResizeEvent;
 import com.snakybo.torch.graphics.RenderingEngine;
@@ -78,7 +78,7 @@ public final class CameraInternal
 		Events.onWindowResize.addListener(windowResizeEvent = () -> updateProjection());
 		
 		// TODO; Change skybox to default skybox
-		Skybox.setTexture(Assets2.load(Cubemap.class, "skybox/skybox.jpg"));
+		Skybox.setTexture(Assets.load(Cubemap.class, "skybox/skybox.jpg"));
 		
 		this.clearFlags = CameraClearFlags.SolidColor;
 		this.clearColor = Color.BLACK;
@@ -102,6 +102,7 @@ public final class CameraInternal
 	{
 		current = this;
 		
+		CameraUniformBuffer.update(this);
 		RenderingEngine.render(this);
 		
 		current = null;
@@ -203,6 +204,11 @@ public final class CameraInternal
 		return new Vector3f(position);
 	}
 	
+	public final Vector3f getPosition(Vector3f dest)
+	{
+		return dest.set(position);
+	}
+	
 	public final Quaternionf getRotation()
 	{
 		return new Quaternionf(rotation);
@@ -213,9 +219,19 @@ public final class CameraInternal
 		return new Matrix4f(projection);
 	}
 	
+	public final Matrix4f getProjection(Matrix4f dest)
+	{
+		return dest.set(projection);
+	}
+	
 	public final Matrix4f getViewMatrix()
 	{
-		return new Matrix4f().rotate(rotation).translate(position);
+		return getViewMatrix(new Matrix4f());
+	}
+	
+	public final Matrix4f getViewMatrix(Matrix4f dest)
+	{
+		return dest.identity().rotate(rotation).translate(position);
 	}
 	
 	public final Rect getViewport()
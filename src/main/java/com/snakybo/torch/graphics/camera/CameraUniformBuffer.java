@@ -0,0 +1,111 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.camera;
+
+import com.snakybo.torch.graphics.shader.ShaderInternal;
+import com.snakybo.torch.util.time.Time;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
+import static org.lwjgl.opengl.GL31.GL_UNIFORM_BUFFER;
+
+/**
+ * <p>
+ * Used internally by the engine.
+ * </p>
+ *
+ * <p>
+ * Holds the {@code std140} uniform block with the data of the camera that is currently rendering,
+ * it's updated once per camera per frame and bound to {@link ShaderInternal#CAMERA_UNIFORM_BLOCK_BINDING}.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class CameraUniformBuffer
+{
+	private static final int VIEW_OFFSET = 0;
+	private static final int PROJECTION_OFFSET = 64;
+	private static final int CAMERA_POSITION_OFFSET = 128;
+	private static final int TIME_OFFSET = 140;
+	private static final int SIZE = 144;
+	
+	private static final ByteBuffer DATA = BufferUtils.createByteBuffer(SIZE);
+	
+	private static final Matrix4f VIEW = new Matrix4f();
+	private static final Matrix4f PROJECTION = new Matrix4f();
+	private static final Vector3f CAMERA_POSITION = new Vector3f();
+	
+	private static int ubo;
+	
+	static
+	{
+		ubo = glGenBuffers();
+		
+		glBindBuffer(GL_UNIFORM_BUFFER, ubo);
+		glBufferData(GL_UNIFORM_BUFFER, SIZE, GL_DYNAMIC_DRAW);
+		glBindBuffer(GL_UNIFORM_BUFFER, 0);
+		
+		glBindBufferBase(GL_UNIFORM_BUFFER, ShaderInternal.CAMERA_UNIFORM_BLOCK_BINDING, ubo);
+	}
+	
+	private CameraUniformBuffer()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Upload the data of the {@code camera} to the uniform buffer.
+	 * </p>
+	 *
+	 * @param camera The camera to upload.
+	 */
+	public static void update(CameraInternal camera)
+	{
+		if(camera == null)
+		{
+			return;
+		}
+		
+		camera.getViewMatrix(VIEW).get(VIEW_OFFSET, DATA);
+		camera.getProjection(PROJECTION).get(PROJECTION_OFFSET, DATA);
+		camera.getPosition(CAMERA_POSITION).get(CAMERA_POSITION_OFFSET, DATA);
+		DATA.putFloat(TIME_OFFSET, (float)Time.getCurrentTime());
+		
+		glBindBuffer(GL_UNIFORM_BUFFER, ubo);
+		glBufferSubData(GL_UNIFORM_BUFFER, 0, DATA);
+		glBindBuffer(GL_UNIFORM_BUFFER, 0);
+		
+		glBindBufferBase(GL_UNIFORM_BUFFER, ShaderInternal.CAMERA_UNIFORM_BLOCK_BINDING, ubo);
+	}
+}
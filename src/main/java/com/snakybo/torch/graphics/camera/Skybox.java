@@ -23,7 +23,7 @@
 package com.snakybo.torch.graphics.camera;
 
 import com.snakybo.torch.asset.Assets;
-import com.snakybo.torch.component.Camera;
+import com.snakybo.torch.graphics.RenderStatsInternal;
 import com.snakybo.torch.graphics.material.Material;
 import com.snakybo.torch.graphics.material.MaterialInternal;
 import com.snakybo.torch.graphics.mesh.Mesh;
@@ -34,8 +34,6 @@ import com.snakybo.torch.graphics.texture.Texture;
 import com.snakybo.torch.object.Transform;
 import com.snakybo.torch.util.debug.Logger;
 import javafx.scene.input.ScrollEvent;
-import org.joml.Matrix3f;
-import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
 
@@ -155,17 +153,11 @@ public final class Skybox
 		glDepthFunc(GL_LEQUAL);
 		
 		ShaderInternal.bind(material.getShader());
-		
-		Matrix4f viewMatrix = Camera.getCurrentCamera().getViewMatrix();
-		viewMatrix = new Matrix4f(new Matrix3f(viewMatrix));
-		
-		material.setMatrix4f("_view", viewMatrix);
-		material.setMatrix4f("_projection", Camera.getCurrentCamera().getProjection());
-		
 		MaterialInternal.update(material);
 		
 		glBindVertexArray(vao.get(0));
 		glDrawArrays(GL_TRIANGLES, 0, 36);
+		RenderStatsInternal.addDrawCall();
 		glBindVertexArray(0);
 		
 		ShaderInternal.unbind();
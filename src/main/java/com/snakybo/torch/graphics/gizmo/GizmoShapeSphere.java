@@ -22,9 +22,8 @@
 
 package com.snakybo.torch.graphics.gizmo;
 
-import com.snakybo.torch.graphics.mesh.Mesh;
+import com.snakybo.torch.graphics.renderer.MeshBuilder;
 import com.snakybo.torch.graphics.renderer.MeshRendererInternal;
-import org.joml.Vector3f;
 
 /**
  * @author Snakybo
@@ -36,11 +35,11 @@ final class GizmoShapeSphere
 	
 	static
 	{
-		Mesh mesh = new Mesh();
-		
 		int rings = 24;
 		int sectors = 48;
 		
+		MeshBuilder builder = new MeshBuilder(rings * sectors, (rings - 1) * (sectors - 1) * 4, false, false);
+		
 		final float R = 1.0f / (float)(rings - 1);
 		final float S = 1.0f / (float)(sectors - 1);
 		
@@ -52,7 +51,7 @@ final class GizmoShapeSphere
 				float x = (float)(Math.cos(2 * Math.PI * s * S) * Math.sin(Math.PI * r * R)) * 0.5f;
 				float z = (float)(Math.sin(2 * Math.PI * s * S) * Math.sin(Math.PI * r * R)) * 0.5f;
 				
-				mesh.addVertex(new Vector3f(x, y, z));
+				builder.vertex(x, y, z);
 			}
 		}
 		
@@ -60,15 +59,15 @@ final class GizmoShapeSphere
 		{
 			for(int s = 0; s < sectors - 1; s++)
 			{
-				mesh.addIndex(r * sectors + s);
-				mesh.addIndex(r * sectors + (s + 1));
-				mesh.addIndex((r + 1) * sectors + (s + 1));
-				mesh.addIndex((r + 1) * sectors + s);
+				builder.index(r * sectors + s)
+						.index(r * sectors + (s + 1))
+						.index((r + 1) * sectors + (s + 1))
+						.index((r + 1) * sectors + s);
 			}
 		}
 		
 		// Create renderer
-		MESH = new MeshRendererInternal(mesh);
+		MESH = builder.buildStatic();
 	}
 	
 	private GizmoShapeSphere()
@@ -22,7 +22,6 @@
 
 package com.snakybo.torch.graphics.gizmo;
 
-import com.snakybo.torch.graphics.camera.CameraInternal;
 import com.snakybo.torch.graphics.material.Material;
 import com.snakybo.torch.graphics.material.MaterialInternal;
 import com.snakybo.torch.graphics.shader.ShaderInternal;
@@ -184,7 +183,7 @@ public final class Gizmos
 	{
 		material.setVector3f("color", new Vector3f(color.getRed(), color.getGreen(), color.getBlue()));
 		
-		MaterialInternal.updateBuiltInUniforms(material, CameraInternal.getMainCamera(), new Matrix4f().translate(position).scale(size));
+		MaterialInternal.updateBuiltInUniforms(material, new Matrix4f().translate(position).scale(size));
 		MaterialInternal.update(material);
 	}
 	
@@ -23,11 +23,12 @@
 package com.snakybo.torch.graphics.material;
 
 import com.snakybo.torch.asset.Asset;
+import com.snakybo.torch.asset.AssetTracker;
 import com.snakybo.torch.graphics.mesh.Mesh;
 import com.snakybo.torch.graphics.shader.Shader;
 import com.snakybo.torch.graphics.shader.ShaderInternal;
+import com.snakybo.torch.graphics.shader.ShaderUniformType;
 import com.snakybo.torch.graphics.texture.Texture;
-import com.snakybo.torch.graphics.texture.Texture2D;
 import com.snakybo.torch.util.color.Color;
 import com.snakybo.torch.util.debug.Logger;
 import org.joml.Matrix3f;
@@ -41,6 +42,11 @@ import org.joml.Vector4f;
  * Materials contain the properties of how a {@link Mesh} should be rendered.
  * </p>
  *
+ * <p>
+ * Every property can be set either by name, or by the ID obtained from {@link Shader#propertyToId(String)}.
+ * Setting a property by ID skips the name lookup, which is recommended for properties that are set every frame.
+ * </p>
+ *
  * @author Snakybo
  * @since 1.0
  */
@@ -48,10 +54,13 @@ public final class Material extends Asset
 {
 	MaterialAsset asset;
 	
+	private final AssetTracker.Reference reference;
+	
 	Material(MaterialAsset asset)
 	{
 		this.asset = asset;
 		this.asset.addUsage();
+		reference = AssetTracker.track(this, asset);
 	}
 	
 	/**
@@ -64,24 +73,13 @@ public final class Material extends Asset
 	public Material(String shader)
 	{
 		asset = new MaterialAsset(shader, shader);
+		reference = AssetTracker.track(this, asset);
 	}
 	
 	public Material(Material material)
 	{
 		asset = new MaterialAsset("", material.asset.shader.getName());
-	}
-	
-	@Override
-	public final void finalize() throws Throwable
-	{
-		try
-		{
-			destroy();
-		}
-		finally
-		{
-			super.finalize();
-		}
+		reference = AssetTracker.track(this, asset);
 	}
 	
 	@Override
@@ -123,6 +121,8 @@ public final class Material extends Asset
 	{
 		if(asset != null)
 		{
+			AssetTracker.untrack(reference);
+			
 			asset.removeUsage();
 			asset = null;
 		}
@@ -132,18 +132,38 @@ public final class Material extends Asset
 	 * <p>
 	 * Set an {@code int} value.
 	 * </p>
+	 *
 	 * @param name The name of the uniform in the shader.
 	 * @param value The value of the uniform.
 	 */
 	public final void setInt(String name, int value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).equals("int"))
+		int id = findId(name, "int");
+		
+		if(id >= 0)
+		{
+			setInt(id, value);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set an {@code int} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setInt(int id, int value)
+	{
+		int slot = getSlot(id, ShaderUniformType.Int, "int");
+		
+		if(slot < 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a int with the name: " + name);
 			return;
 		}
 		
-		asset.values.put(name, value);
+		asset.values.setInt(slot, value);
 	}
 	
 	/**
@@ -156,13 +176,32 @@ public final class Material extends Asset
 	 */
 	public final void setFloat(String name, float value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).equals("float"))
+		int id = findId(name, "float");
+		
+		if(id >= 0)
+		{
+			setFloat(id, value);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set a {@code float} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setFloat(int id, float value)
+	{
+		int slot = getSlot(id, ShaderUniformType.Float, "float");
+		
+		if(slot < 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a float with the name: " + name);
 			return;
 		}
 		
-		asset.values.put(name, value);
+		asset.values.setFloat(slot, value);
 	}
 	
 	/**
@@ -175,13 +214,32 @@ public final class Material extends Asset
 	 */
 	public final void setVector2f(String name, Vector2f value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).equals("vec2"))
+		int id = findId(name, "vec2");
+		
+		if(id >= 0)
+		{
+			setVector2f(id, value);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set a {@code vec2} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setVector2f(int id, Vector2f value)
+	{
+		int slot = getSlot(id, ShaderUniformType.Vector2f, "vec2");
+		
+		if(slot < 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a vec2 with the name: " + name);
 			return;
 		}
 		
-		asset.values.put(name, value);
+		asset.values.setFloat(slot, value.x, value.y);
 	}
 	
 	/**
@@ -194,13 +252,32 @@ public final class Material extends Asset
 	 */
 	public final void setVector3f(String name, Vector3f value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).equals("vec3"))
+		int id = findId(name, "vec3");
+		
+		if(id >= 0)
+		{
+			setVector3f(id, value);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set a {@code vec3} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setVector3f(int id, Vector3f value)
+	{
+		int slot = getSlot(id, ShaderUniformType.Vector3f, "vec3");
+		
+		if(slot < 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a vec3 with the name: " + name);
 			return;
 		}
 		
-		asset.values.put(name, value);
+		asset.values.setFloat(slot, value.x, value.y, value.z);
 	}
 	
 	/**
@@ -213,13 +290,32 @@ public final class Material extends Asset
 	 */
 	public final void setVector4f(String name, Vector4f value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).equals("vec4"))
+		int id = findId(name, "vec4");
+		
+		if(id >= 0)
+		{
+			setVector4f(id, value);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set a {@code vec4} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setVector4f(int id, Vector4f value)
+	{
+		int slot = getSlot(id, ShaderUniformType.Vector4f, "vec4");
+		
+		if(slot < 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a vec4 with the name: " + name);
 			return;
 		}
 		
-		asset.values.put(name, value);
+		asset.values.setFloat(slot, value.x, value.y, value.z, value.w);
 	}
 	
 	/**
@@ -232,13 +328,32 @@ public final class Material extends Asset
 	 */
 	public final void setMatrix3f(String name, Matrix3f value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).equals("mat3"))
+		int id = findId(name, "mat3");
+		
+		if(id >= 0)
+		{
+			setMatrix3f(id, value);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set a {@code mat3} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setMatrix3f(int id, Matrix3f value)
+	{
+		int slot = getSlot(id, ShaderUniformType.Matrix3f, "mat3");
+		
+		if(slot < 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a mat3 with the name: " + name);
 			return;
 		}
 		
-		asset.values.put(name, value);
+		asset.values.setMatrix3f(slot, value);
 	}
 	
 	/**
@@ -251,13 +366,32 @@ public final class Material extends Asset
 	 */
 	public final void setMatrix4f(String name, Matrix4f value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).equals("mat4"))
+		int id = findId(name, "mat4");
+		
+		if(id >= 0)
+		{
+			setMatrix4f(id, value);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set a {@code mat4} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setMatrix4f(int id, Matrix4f value)
+	{
+		int slot = getSlot(id, ShaderUniformType.Matrix4f, "mat4");
+		
+		if(slot < 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a mat4 with the name: " + name);
 			return;
 		}
 		
-		asset.values.put(name, value);
+		asset.values.setMatrix4f(slot, value);
 	}
 	
 	/**
@@ -270,25 +404,40 @@ public final class Material extends Asset
 	 */
 	public final void setColor(String name, Color value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).equals("vec3") && !ShaderInternal.getUniformType(asset.shader, name).equals("vec4"))
+		int id = findId(name, "vec3 or vec4");
+		
+		if(id >= 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a vec3 or vec4 with the name: " + name);
-			return;
+			setColor(id, value);
 		}
+	}
+	
+	/**
+	 * <p>
+	 * Set a {@code vec3} or {@code vec4} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setColor(int id, Color value)
+	{
+		int slot = asset.values.getSlot(id);
+		ShaderUniformType type = slot < 0 ? null : asset.values.types[slot];
 		
-		String type = ShaderInternal.getUniformType(asset.shader, name);
+		if(type != ShaderUniformType.Vector3f && type != ShaderUniformType.Vector4f)
+		{
+			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a vec3 or vec4 with the name: " + ShaderInternal.getPropertyName(id));
+			return;
+		}
 		
-		if(type != null)
+		if(type == ShaderUniformType.Vector4f)
 		{
-			switch(type)
-			{
-			case "vec3":
-				setVector3f(name, new Vector3f(value.getRed(), value.getGreen(), value.getBlue()));
-				break;
-			case "vec4":
-				setVector4f(name, new Vector4f(value.getRed(), value.getGreen(), value.getBlue(), value.getAlpha()));
-				break;
-			}
+			asset.values.setFloat(slot, value.getRed(), value.getGreen(), value.getBlue(), value.getAlpha());
+		}
+		else
+		{
+			asset.values.setFloat(slot, value.getRed(), value.getGreen(), value.getBlue());
 		}
 	}
 	
@@ -302,14 +451,32 @@ public final class Material extends Asset
 	 */
 	public final void setTexture(String name, Texture value)
 	{
-		if(!ShaderInternal.hasUniform(asset.shader, name) || !ShaderInternal.getUniformType(asset.shader, name).startsWith("sampler"))
+		int id = findId(name, "sampler");
+		
+		if(id >= 0)
+		{
+			setTexture(id, value);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set a {@code sampler2D} value.
+	 * </p>
+	 *
+	 * @param id The ID of the uniform in the shader, see {@link Shader#propertyToId(String)}.
+	 * @param value The value of the uniform.
+	 */
+	public final void setTexture(int id, Texture value)
+	{
+		int slot = getSlot(id, ShaderUniformType.Sampler, "sampler");
+		
+		if(slot < 0)
 		{
-			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a sampler with the name: " + name);
 			return;
 		}
 		
-		asset.values.put(name, value);
-		asset.textureSamplerSlotIds.add(value);
+		asset.values.setTexture(slot, value);
 	}
 	
 	/**
@@ -322,7 +489,8 @@ public final class Material extends Asset
 	 */
 	public final int getInt(String name)
 	{
-		return get(int.class, name);
+		int slot = getAssignedSlot(name);
+		return slot < 0 ? 0 : asset.values.ints[asset.values.offsets[slot]];
 	}
 	
 	/**
@@ -335,7 +503,8 @@ public final class Material extends Asset
 	 */
 	public final float getFloat(String name)
 	{
-		return get(float.class, name);
+		int slot = getAssignedSlot(name);
+		return slot < 0 ? 0 : asset.values.floats[asset.values.offsets[slot]];
 	}
 	
 	/**
@@ -348,7 +517,17 @@ public final class Material extends Asset
 	 */
 	public final Vector2f getVector2f(String name)
 	{
-		return get(Vector2f.class, name);
+		int slot = getAssignedSlot(name);
+		
+		if(slot < 0)
+		{
+			return null;
+		}
+		
+		float[] floats = asset.values.floats;
+		int offset = asset.values.offsets[slot];
+		
+		return new Vector2f(floats[offset], floats[offset + 1]);
 	}
 	
 	/**
@@ -361,7 +540,17 @@ public final class Material extends Asset
 	 */
 	public final Vector3f getVector3f(String name)
 	{
-		return get(Vector3f.class, name);
+		int slot = getAssignedSlot(name);
+		
+		if(slot < 0)
+		{
+			return null;
+		}
+		
+		float[] floats = asset.values.floats;
+		int offset = asset.values.offsets[slot];
+		
+		return new Vector3f(floats[offset], floats[offset + 1], floats[offset + 2]);
 	}
 	
 	/**
@@ -374,7 +563,17 @@ public final class Material extends Asset
 	 */
 	public final Vector4f getVector4f(String name)
 	{
-		return get(Vector4f.class, name);
+		int slot = getAssignedSlot(name);
+		
+		if(slot < 0)
+		{
+			return null;
+		}
+		
+		float[] floats = asset.values.floats;
+		int offset = asset.values.offsets[slot];
+		
+		return new Vector4f(floats[offset], floats[offset + 1], floats[offset + 2], floats[offset + 3]);
 	}
 	
 	/**
@@ -387,7 +586,17 @@ public final class Material extends Asset
 	 */
 	public final Matrix3f getMatrix3f(String name)
 	{
-		return get(Matrix3f.class, name);
+		int slot = getAssignedSlot(name);
+		
+		if(slot < 0)
+		{
+			return null;
+		}
+		
+		float[] values = new float[9];
+		System.arraycopy(asset.values.floats, asset.values.offsets[slot], values, 0, values.length);
+		
+		return new Matrix3f().set(values);
 	}
 	
 	/**
@@ -400,7 +609,17 @@ public final class Material extends Asset
 	 */
 	public final Matrix4f getMatrix4f(String name)
 	{
-		return get(Matrix4f.class, name);
+		int slot = getAssignedSlot(name);
+		
+		if(slot < 0)
+		{
+			return null;
+		}
+		
+		float[] values = new float[16];
+		System.arraycopy(asset.values.floats, asset.values.offsets[slot], values, 0, values.length);
+		
+		return new Matrix4f().set(values);
 	}
 	
 	/**
@@ -413,22 +632,25 @@ public final class Material extends Asset
 	 */
 	public final Color getColor(String name)
 	{
-		String type = ShaderInternal.getUniformType(asset.shader, name);
+		int slot = getAssignedSlot(name);
 		
-		if(type != null)
+		if(slot < 0)
 		{
-			switch(type)
-			{
-			case "vec3":
-				Vector3f vec3 = get(Vector3f.class, name);
-				return new Color(vec3.x, vec3.y, vec3.z);
-			case "vec4":
-				Vector4f vec4 = get(Vector4f.class, name);
-				return new Color(vec4.x, vec4.y, vec4.z, vec4.w);
-			}
+			return null;
 		}
 		
-		return null;
+		float[] floats = asset.values.floats;
+		int offset = asset.values.offsets[slot];
+		
+		switch(asset.values.types[slot])
+		{
+		case Vector3f:
+			return new Color(floats[offset], floats[offset + 1], floats[offset + 2]);
+		case Vector4f:
+			return new Color(floats[offset], floats[offset + 1], floats[offset + 2], floats[offset + 3]);
+		default:
+			return null;
+		}
 	}
 	
 	/**
@@ -441,15 +663,8 @@ public final class Material extends Asset
 	 */
 	public final Texture getTexture(String name)
 	{
-		Object value = asset.values.get(name);
-		
-		if(value.getClass().equals(Texture2D.class))
-		{
-			return (Texture2D)value;
-		}
-		
-		Logger.logError("Unknown texture type for name: " + name + " (is of type: " + value.getClass() + ")");
-		return null;
+		int slot = getAssignedSlot(name);
+		return slot < 0 ? null : asset.values.textures[slot];
 	}
 	
 	/**
@@ -464,14 +679,55 @@ public final class Material extends Asset
 		return asset.shader;
 	}
 	
-	private <T> T get(Class<T> clazz, String name)
+	private int findId(String name, String typeName)
+	{
+		// Names that no shader declares are not interned, so lookups by name can't grow the property table
+		int id = ShaderInternal.findPropertyId(name);
+		
+		if(id < 0)
+		{
+			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a " + typeName + " with the name: " + name);
+		}
+		
+		return id;
+	}
+	
+	private int getSlot(int id, ShaderUniformType type, String typeName)
+	{
+		int slot = asset.values.getSlot(id);
+		
+		if(slot < 0 || asset.values.types[slot] != type)
+		{
+			Logger.logWarning("Shader: " + getShader().getName() + " does not contain a " + typeName + " with the name: " + ShaderInternal.getPropertyName(id));
+			return -1;
+		}
+		
+		return slot;
+	}
+	
+	private int getAssignedSlot(String name)
+	{
+		int id = ShaderInternal.findPropertyId(name);
+		
+		if(id < 0)
+		{
+			Logger.logError("Material does not contain a value for: " + name);
+			return -1;
+		}
+		
+		return getAssignedSlot(id);
+	}
+	
+	private int getAssignedSlot(int id)
 	{
-		if(asset.values.containsKey(name) && asset.values.get(name).getClass() == clazz)
+		int slot = asset.values.getSlot(id);
+		
+		if(slot < 0 || !asset.values.assigned[slot])
 		{
-			return clazz.cast(asset.values.get(name));
+			Logger.logError("Material does not contain a value for: " + ShaderInternal.getPropertyName(id));
+			return -1;
 		}
 		
-		Logger.logError("Material does not contain a value for: " + name);
-		return null;
+		return slot;
 	}
 }
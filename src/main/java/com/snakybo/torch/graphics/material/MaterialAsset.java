@@ -22,15 +22,12 @@
 
 package com.snakybo.torch.graphics.material;
 
-import com.snakybo.torch.asset.Asset;
+import com.snakybo.torch.asset.AssetCache;
 import com.snakybo.torch.asset.AssetData;
 import com.snakybo.torch.asset.Assets;
 import com.snakybo.torch.graphics.shader.Shader;
-import com.snakybo.torch.graphics.texture.Texture;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -39,10 +36,12 @@ import java.util.Map;
  */
 final class MaterialAsset extends AssetData
 {
+	/** An estimate of the size of a material, most of its memory is used by its shader and textures */
+	private static final long MEMORY_SIZE = 1024;
+	
 	static Map<String, MaterialAsset> all = new HashMap<>();
 	
-	Map<String, Object> values;
-	List<Texture> textureSamplerSlotIds;
+	MaterialPropertyBlock values;
 	
 	Shader shader;
 	
@@ -51,8 +50,7 @@ final class MaterialAsset extends AssetData
 		super(name);
 		
 		this.shader = Assets.load(Shader.class, shader);
-		this.values = new HashMap<>();
-		this.textureSamplerSlotIds = new ArrayList<>();
+		this.values = new MaterialPropertyBlock(this.shader);
 		
 		if(name != null && !name.isEmpty())
 		{
@@ -68,15 +66,18 @@ final class MaterialAsset extends AssetData
 			all.remove(name);
 		}
 		
-		for(Object value : values.values())
-		{
-			if(value instanceof Asset)
-			{
-				((Asset)value).destroy();
-			}
-		}
-		
-		
 		shader.destroy();
 	}
+	
+	@Override
+	protected final AssetCache.Category getCategory()
+	{
+		return AssetCache.Category.Material;
+	}
+	
+	@Override
+	protected final long getMemorySize()
+	{
+		return MEMORY_SIZE;
+	}
 }
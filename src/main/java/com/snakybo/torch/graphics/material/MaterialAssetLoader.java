@@ -22,6 +22,9 @@
 
 package com.snakybo.torch.graphics.material;
 
+import com.snakybo.torch.asset.AssetCache;
+import com.snakybo.torch.asset.AssetFootprint;
+import com.snakybo.torch.asset.AssetProfiler;
 import com.snakybo.torch.graphics.texture.Texture2D;
 import com.snakybo.torch.util.color.Color;
 import com.snakybo.torch.util.debug.Logger;
@@ -33,6 +36,8 @@ import org.joml.Vector3f;
 import org.joml.Vector4f;
 
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -56,6 +61,8 @@ public final class MaterialAssetLoader
 			return new Material(MaterialAsset.all.get(path));
 		}
 		
+		AssetProfiler.Scope scope = AssetProfiler.begin(path, AssetProfiler.Phase.Decode);
+		
 		try
 		{
 			MaterialParser.MaterialData materialData = (MaterialParser.MaterialData)XMLParser.decode(path);
@@ -98,13 +105,50 @@ public final class MaterialAssetLoader
 				}
 			}
 			
+			AssetProfiler.recordMemory(path, material.asset.getFootprint());
 			return material;
 		}
 		catch(NoSuchFileException e)
 		{
 			Logger.logError(e.getMessage(), e);
 		}
+		finally
+		{
+			scope.end();
+		}
 		
 		return null;
 	}
+	
+	/**
+	 * <p>
+	 * Check whether or not a material has been loaded.
+	 * </p>
+	 *
+	 * @param path The path of the material.
+	 * @return Whether or not the material has been loaded.
+	 */
+	public static boolean isLoaded(String path)
+	{
+		return MaterialAsset.all.containsKey(path);
+	}
+	
+	/**
+	 * <p>
+	 * Get the memory footprint of every loaded material, including the unused materials in the {@link AssetCache}.
+	 * </p>
+	 *
+	 * @return The footprints.
+	 */
+	public static List<AssetFootprint> getFootprints()
+	{
+		List<AssetFootprint> result = new ArrayList<>();
+		
+		for(MaterialAsset asset : MaterialAsset.all.values())
+		{
+			result.add(asset.getFootprint());
+		}
+		
+		return result;
+	}
 }
@@ -22,20 +22,16 @@
 
 package com.snakybo.torch.graphics.material;
 
-import com.snakybo.torch.graphics.camera.CameraInternal;
+import com.snakybo.torch.graphics.RenderStatsInternal;
+import com.snakybo.torch.graphics.shader.Shader;
 import com.snakybo.torch.graphics.shader.ShaderInternal;
-import com.snakybo.torch.graphics.texture.Texture;
+import com.snakybo.torch.graphics.shader.ShaderUniformType;
 import com.snakybo.torch.graphics.texture.TextureInternal;
 import com.snakybo.torch.object.Transform;
-import com.snakybo.torch.util.debug.Logger;
-import org.joml.Matrix3f;
 import org.joml.Matrix4f;
-import org.joml.Vector2f;
-import org.joml.Vector3f;
-import org.joml.Vector4f;
-import org.lwjgl.BufferUtils;
+import org.lwjgl.system.MemoryStack;
 
-import java.util.Map;
+import java.nio.FloatBuffer;
 
 import static org.lwjgl.opengl.GL20.glUniform1f;
 import static org.lwjgl.opengl.GL20.glUniform1i;
@@ -44,6 +40,7 @@ import static org.lwjgl.opengl.GL20.glUniform3f;
 import static org.lwjgl.opengl.GL20.glUniform4f;
 import static org.lwjgl.opengl.GL20.glUniformMatrix3fv;
 import static org.lwjgl.opengl.GL20.glUniformMatrix4fv;
+import static org.lwjgl.system.MemoryStack.stackPush;
 
 /**
  * @author Snakybo
@@ -51,6 +48,8 @@ import static org.lwjgl.opengl.GL20.glUniformMatrix4fv;
  */
 public final class MaterialInternal
 {
+	private static final int MODEL = Shader.propertyToId("_model");
+	
 	private MaterialInternal()
 	{
 		throw new AssertionError();
@@ -58,96 +57,100 @@ public final class MaterialInternal
 	
 	public static void update(Material material)
 	{
-		for(Map.Entry<String, Object> property : material.asset.values.entrySet())
+		MaterialPropertyBlock values = material.asset.values;
+		Shader shader = material.asset.shader;
+		
+		// Only upload the values that changed since they were last uploaded to the program,
+		// if another material used the program in the meantime every value has to be uploaded
+		int uploadedVersion = -1;
+		
+		if(ShaderInternal.getUniformOwner(shader) == values)
+		{
+			uploadedVersion = ShaderInternal.getUniformOwnerVersion(shader);
+		}
+		
+		int numUploads = 0;
+		
+		try(MemoryStack stack = stackPush())
 		{
-			String type = ShaderInternal.getUniformType(material.asset.shader, property.getKey());
+			FloatBuffer matrix = stack.mallocFloat(16);
+			float[] floats = values.floats;
 			
-			if(type != null)
+			for(int slot = 0; slot < values.size(); slot++)
 			{
-				int loc = ShaderInternal.getUniformLocation(material.getShader(), property.getKey());
-				Object value = property.getValue();
+				if(!values.assigned[slot])
+				{
+					continue;
+				}
+				
+				int offset = values.offsets[slot];
+				
+				// Textures have to be bound regardless, other materials may have used the texture unit
+				if(values.types[slot] == ShaderUniformType.Sampler)
+				{
+					TextureInternal.bind(values.textures[slot], values.ints[offset]);
+				}
 				
-				if(type.startsWith("sampler"))
+				if(values.versions[slot] <= uploadedVersion)
 				{
-					Texture texture = (Texture)value;
-					int samplerSlotId = material.asset.textureSamplerSlotIds.indexOf(texture);
-					TextureInternal.bind(texture, samplerSlotId);
-					glUniform1i(loc, samplerSlotId);
+					continue;
 				}
-				else
+				
+				int loc = values.locations[slot];
+				
+				switch(values.types[slot])
 				{
-					switch(type)
-					{
-					case "int":
-						glUniform1i(loc, (int)value);
-						break;
-					case "float":
-						glUniform1f(loc, (float)value);
-						break;
-					case "vec2":
-						Vector2f vec2 = (Vector2f)value;
-						glUniform2f(loc, vec2.x, vec2.y);
-						break;
-					case "vec3":
-						Vector3f vec3 = (Vector3f)value;
-						glUniform3f(loc, vec3.x, vec3.y, vec3.z);
-						break;
-					case "vec4":
-						Vector4f vec4 = (Vector4f)value;
-						glUniform4f(loc, vec4.x, vec4.y, vec4.z, vec4.w);
-						break;
-					case "mat3":
-						Matrix3f mat3 = (Matrix3f)value;
-						glUniformMatrix3fv(loc, false, mat3.get(BufferUtils.createFloatBuffer(9)));
-						break;
-					case "mat4":
-						Matrix4f mat4 = (Matrix4f)value;
-						glUniformMatrix4fv(loc, false, mat4.get(BufferUtils.createFloatBuffer(16)));
-						break;
-					}
+				case Sampler:
+				case Int:
+					glUniform1i(loc, values.ints[offset]);
+					break;
+				case Float:
+					glUniform1f(loc, floats[offset]);
+					break;
+				case Vector2f:
+					glUniform2f(loc, floats[offset], floats[offset + 1]);
+					break;
+				case Vector3f:
+					glUniform3f(loc, floats[offset], floats[offset + 1], floats[offset + 2]);
+					break;
+				case Vector4f:
+					glUniform4f(loc, floats[offset], floats[offset + 1], floats[offset + 2], floats[offset + 3]);
+					break;
+				case Matrix3f:
+					matrix.clear();
+					matrix.put(floats, offset, 9).flip();
+					glUniformMatrix3fv(loc, false, matrix);
+					break;
+				case Matrix4f:
+					matrix.clear();
+					matrix.put(floats, offset, 16).flip();
+					glUniformMatrix4fv(loc, false, matrix);
+					break;
 				}
+				
+				numUploads++;
 			}
 		}
+		
+		ShaderInternal.setUniformOwner(shader, values, values.version);
+		RenderStatsInternal.addMaterialUpdate(numUploads);
 	}
 	
-	public static void updateBuiltInUniforms(Material material, CameraInternal camera)
-	{
-		updateBuiltInUniforms(material, camera, (Matrix4f)null);
-	}
-	
-	public static void updateBuiltInUniforms(Material material, CameraInternal camera, Transform transform)
+	public static void updateBuiltInUniforms(Material material, Transform transform)
 	{
-		updateBuiltInUniforms(material, camera, transform == null ? null : transform.getTransformation());
+		updateBuiltInUniforms(material, transform == null ? null : transform.getTransformation());
 	}
 	
-	public static void updateBuiltInUniforms(Material material, CameraInternal camera, Matrix4f model)
+	public static void updateBuiltInUniforms(Material material, Matrix4f model)
 	{
 		if(material == null)
 		{
 			return;
 		}
 		
-		if(model != null && ShaderInternal.hasUniform(material.asset.shader, "_model"))
+		if(model != null && ShaderInternal.hasUniform(material.asset.shader, MODEL))
 		{
-			material.setMatrix4f("_model", model);
-		}
-		
-		if(camera != null)
-		{
-			if(ShaderInternal.hasUniform(material.asset.shader, "_view"))
-			{
-				material.setMatrix4f("_view", camera.getViewMatrix());
-			}
-			
-			if(ShaderInternal.hasUniform(material.asset.shader, "_projection"))
-			{
-				material.setMatrix4f("_projection", camera.getProjection());
-			}
-			
-			if(ShaderInternal.hasUniform(material.asset.shader, "_cameraPosition"))
-			{
-				material.setVector3f("_cameraPosition", camera.getPosition());
-			}
+			material.setMatrix4f(MODEL, model);
 		}
 	}
 }
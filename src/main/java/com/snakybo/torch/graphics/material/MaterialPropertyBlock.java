@@ -0,0 +1,402 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.material;
+
+import com.snakybo.torch.graphics.shader.Shader;
+import com.snakybo.torch.graphics.shader.ShaderInternal;
+import com.snakybo.torch.graphics.shader.ShaderUniformType;
+import com.snakybo.torch.graphics.texture.Texture;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Stores the property values of a {@link Material}.
+ * </p>
+ *
+ * <p>
+ * The layout is built once from the uniforms of the {@link Shader}, every property gets a slot,
+ * and the value of the slot is packed into a primitive array. Writing a value never allocates.
+ * </p>
+ *
+ * <p>
+ * Every write that changes a value stamps the slot with a new version, this allows the
+ * {@link MaterialInternal} to upload only the values that changed since the last upload.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class MaterialPropertyBlock
+{
+	final int[] propertyIds;
+	final ShaderUniformType[] types;
+	final int[] locations;
+	final int[] offsets;
+	final boolean[] assigned;
+	
+	final float[] floats;
+	final int[] ints;
+	final Texture[] textures;
+	
+	final int[] versions;
+	int version;
+	
+	private final float[] scratch;
+	private final int[] slots;
+	
+	MaterialPropertyBlock(Shader shader)
+	{
+		int[] shaderPropertyIds = ShaderInternal.getPropertyIds(shader);
+		int numSlots = 0;
+		int maxPropertyId = -1;
+		
+		for(int propertyId : shaderPropertyIds)
+		{
+			if(ShaderInternal.getUniformType(shader, propertyId) != null)
+			{
+				numSlots++;
+				maxPropertyId = Math.max(maxPropertyId, propertyId);
+			}
+		}
+		
+		propertyIds = new int[numSlots];
+		types = new ShaderUniformType[numSlots];
+		locations = new int[numSlots];
+		offsets = new int[numSlots];
+		assigned = new boolean[numSlots];
+		textures = new Texture[numSlots];
+		versions = new int[numSlots];
+		scratch = new float[16];
+		
+		slots = new int[maxPropertyId + 1];
+		Arrays.fill(slots, -1);
+		
+		int numFloats = 0;
+		int numInts = 0;
+		int slot = 0;
+		
+		for(int propertyId : shaderPropertyIds)
+		{
+			ShaderUniformType type = ShaderInternal.getUniformType(shader, propertyId);
+			
+			if(type == null)
+			{
+				continue;
+			}
+			
+			propertyIds[slot] = propertyId;
+			types[slot] = type;
+			locations[slot] = ShaderInternal.getUniformLocation(shader, propertyId);
+			slots[propertyId] = slot;
+			
+			switch(type)
+			{
+			case Int:
+			case Sampler:
+				offsets[slot] = numInts;
+				numInts += type.getSize();
+				break;
+			default:
+				offsets[slot] = numFloats;
+				numFloats += type.getSize();
+				break;
+			}
+			
+			slot++;
+		}
+		
+		floats = new float[numFloats];
+		ints = new int[numInts];
+		
+		// Every sampler gets its own texture unit, in declaration order
+		int textureUnit = 0;
+		
+		for(int i = 0; i < numSlots; i++)
+		{
+			if(types[i] == ShaderUniformType.Sampler)
+			{
+				ints[offsets[i]] = textureUnit++;
+			}
+		}
+	}
+	
+	@Override
+	public final int hashCode()
+	{
+		int hashCode = Arrays.hashCode(floats);
+		
+		hashCode = 31 * hashCode + Arrays.hashCode(ints);
+		hashCode = 31 * hashCode + Arrays.hashCode(assigned);
+		hashCode = 31 * hashCode + Arrays.hashCode(textures);
+		
+		return hashCode;
+	}
+	
+	@Override
+	public final boolean equals(Object o)
+	{
+		if(this == o)
+		{
+			return true;
+		}
+		
+		if(o == null || getClass() != o.getClass())
+		{
+			return false;
+		}
+		
+		MaterialPropertyBlock b = (MaterialPropertyBlock)o;
+		
+		return Arrays.equals(propertyIds, b.propertyIds) &&
+				Arrays.equals(assigned, b.assigned) &&
+				Arrays.equals(floats, b.floats) &&
+				Arrays.equals(ints, b.ints) &&
+				Arrays.equals(textures, b.textures);
+	}
+	
+	/**
+	 * <p>
+	 * Get the slot of a property.
+	 * </p>
+	 *
+	 * @param propertyId The ID of the property.
+	 * @return The slot of the property, or {@code -1} if the shader does not contain the property.
+	 */
+	final int getSlot(int propertyId)
+	{
+		if(propertyId < 0 || propertyId >= slots.length)
+		{
+			return -1;
+		}
+		
+		return slots[propertyId];
+	}
+	
+	/**
+	 * <p>
+	 * Set the value of an {@code int} slot.
+	 * </p>
+	 *
+	 * @param slot The slot.
+	 * @param value The value.
+	 */
+	final void setInt(int slot, int value)
+	{
+		int offset = offsets[slot];
+		
+		if(assigned[slot] && ints[offset] == value)
+		{
+			return;
+		}
+		
+		ints[offset] = value;
+		markDirty(slot);
+	}
+	
+	/**
+	 * <p>
+	 * Set the value of a {@code float} slot.
+	 * </p>
+	 *
+	 * @param slot The slot.
+	 * @param x The value.
+	 */
+	final void setFloat(int slot, float x)
+	{
+		int offset = offsets[slot];
+		
+		if(assigned[slot] && floats[offset] == x)
+		{
+			return;
+		}
+		
+		floats[offset] = x;
+		markDirty(slot);
+	}
+	
+	/**
+	 * <p>
+	 * Set the value of a {@code vec2} slot.
+	 * </p>
+	 *
+	 * @param slot The slot.
+	 * @param x The x component.
+	 * @param y The y component.
+	 */
+	final void setFloat(int slot, float x, float y)
+	{
+		int offset = offsets[slot];
+		
+		if(assigned[slot] && floats[offset] == x && floats[offset + 1] == y)
+		{
+			return;
+		}
+		
+		floats[offset] = x;
+		floats[offset + 1] = y;
+		markDirty(slot);
+	}
+	
+	/**
+	 * <p>
+	 * Set the value of a {@code vec3} slot.
+	 * </p>
+	 *
+	 * @param slot The slot.
+	 * @param x The x component.
+	 * @param y The y component.
+	 * @param z The z component.
+	 */
+	final void setFloat(int slot, float x, float y, float z)
+	{
+		int offset = offsets[slot];
+		
+		if(assigned[slot] && floats[offset] == x && floats[offset + 1] == y && floats[offset + 2] == z)
+		{
+			return;
+		}
+		
+		floats[offset] = x;
+		floats[offset + 1] = y;
+		floats[offset + 2] = z;
+		markDirty(slot);
+	}
+	
+	/**
+	 * <p>
+	 * Set the value of a {@code vec4} slot.
+	 * </p>
+	 *
+	 * @param slot The slot.
+	 * @param x The x component.
+	 * @param y The y component.
+	 * @param z The z component.
+	 * @param w The w component.
+	 */
+	final void setFloat(int slot, float x, float y, float z, float w)
+	{
+		int offset = offsets[slot];
+		
+		if(assigned[slot] && floats[offset] == x && floats[offset + 1] == y && floats[offset + 2] == z && floats[offset + 3] == w)
+		{
+			return;
+		}
+		
+		floats[offset] = x;
+		floats[offset + 1] = y;
+		floats[offset + 2] = z;
+		floats[offset + 3] = w;
+		markDirty(slot);
+	}
+	
+	/**
+	 * <p>
+	 * Set the value of a {@code mat3} slot.
+	 * </p>
+	 *
+	 * @param slot The slot.
+	 * @param value The value.
+	 */
+	final void setMatrix3f(int slot, Matrix3f value)
+	{
+		value.get(scratch, 0);
+		setFloats(slot, 9);
+	}
+	
+	/**
+	 * <p>
+	 * Set the value of a {@code mat4} slot.
+	 * </p>
+	 *
+	 * @param slot The slot.
+	 * @param value The value.
+	 */
+	final void setMatrix4f(int slot, Matrix4f value)
+	{
+		value.get(scratch, 0);
+		setFloats(slot, 16);
+	}
+	
+	/**
+	 * <p>
+	 * Set the value of a {@code sampler} slot.
+	 * </p>
+	 *
+	 * @param slot The slot.
+	 * @param value The value.
+	 */
+	final void setTexture(int slot, Texture value)
+	{
+		if(assigned[slot] && textures[slot] == value)
+		{
+			return;
+		}
+		
+		textures[slot] = value;
+		markDirty(slot);
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of slots.
+	 * </p>
+	 *
+	 * @return The number of slots.
+	 */
+	final int size()
+	{
+		return propertyIds.length;
+	}
+	
+	private void setFloats(int slot, int count)
+	{
+		int offset = offsets[slot];
+		
+		if(assigned[slot])
+		{
+			boolean changed = false;
+			
+			for(int i = 0; i < count && !changed; i++)
+			{
+				changed = floats[offset + i] != scratch[i];
+			}
+			
+			if(!changed)
+			{
+				return;
+			}
+		}
+		
+		System.arraycopy(scratch, 0, floats, offset, count);
+		markDirty(slot);
+	}
+	
+	private void markDirty(int slot)
+	{
+		assigned[slot] = true;
+		versions[slot] = ++version;
+	}
+}
@@ -0,0 +1,177 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A growable array of fixed-size {@code float} tuples, used to store mesh attributes without boxing.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class FloatArray
+{
+	private static final int INITIAL_CAPACITY = 16;
+	
+	final int components;
+	
+	float[] data;
+	int size;
+	
+	FloatArray(int components)
+	{
+		this.components = components;
+		
+		data = new float[INITIAL_CAPACITY * components];
+	}
+	
+	@Override
+	public final boolean equals(Object o)
+	{
+		if(this == o)
+		{
+			return true;
+		}
+		
+		if(o == null || getClass() != o.getClass())
+		{
+			return false;
+		}
+		
+		FloatArray a = (FloatArray)o;
+		
+		if(components != a.components || size != a.size)
+		{
+			return false;
+		}
+		
+		for(int i = 0; i < size * components; i++)
+		{
+			if(Float.floatToIntBits(data[i]) != Float.floatToIntBits(a.data[i]))
+			{
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public final int hashCode()
+	{
+		int result = components;
+		
+		for(int i = 0; i < size * components; i++)
+		{
+			result = 31 * result + Float.floatToIntBits(data[i]);
+		}
+		
+		return result;
+	}
+	
+	final void add(float x, float y)
+	{
+		ensureCapacity(size + 1);
+		
+		int offset = size * components;
+		data[offset] = x;
+		data[offset + 1] = y;
+		
+		size++;
+	}
+	
+	final void add(float x, float y, float z)
+	{
+		ensureCapacity(size + 1);
+		
+		int offset = size * components;
+		data[offset] = x;
+		data[offset + 1] = y;
+		data[offset + 2] = z;
+		
+		size++;
+	}
+	
+	/**
+	 * <p>
+	 * Replace the contents of the array.
+	 * </p>
+	 *
+	 * @param values The new values, the length must be a multiple of the number of components.
+	 */
+	final void set(float[] values)
+	{
+		if(values.length % components != 0)
+		{
+			throw new IllegalArgumentException("The number of values (" + values.length + ") is not a multiple of " + components);
+		}
+		
+		size = 0;
+		ensureCapacity(values.length / components);
+		
+		System.arraycopy(values, 0, data, 0, values.length);
+		size = values.length / components;
+	}
+	
+	/**
+	 * <p>
+	 * Replace the contents of the array with an existing array, without copying it.
+	 * </p>
+	 *
+	 * @param values The new values, the array is owned by this {@code FloatArray} afterwards.
+	 */
+	final void wrap(float[] values)
+	{
+		if(values.length % components != 0)
+		{
+			throw new IllegalArgumentException("The number of values (" + values.length + ") is not a multiple of " + components);
+		}
+		
+		data = values;
+		size = values.length / components;
+	}
+	
+	final void ensureCapacity(int capacity)
+	{
+		if(capacity * components > data.length)
+		{
+			data = Arrays.copyOf(data, Math.max(capacity * components, data.length * 2));
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get a read-only view of the used part of the array, the view is invalidated when the array grows.
+	 * </p>
+	 *
+	 * @return A read-only view of the array.
+	 */
+	final FloatBuffer view()
+	{
+		return FloatBuffer.wrap(data, 0, size * components).asReadOnlyBuffer();
+	}
+}
@@ -0,0 +1,133 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A growable array of {@code int}s, used to store mesh indices without boxing.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class IntArray
+{
+	private static final int INITIAL_CAPACITY = 16;
+	
+	int[] data;
+	int size;
+	
+	IntArray()
+	{
+		data = new int[INITIAL_CAPACITY];
+	}
+	
+	@Override
+	public final boolean equals(Object o)
+	{
+		if(this == o)
+		{
+			return true;
+		}
+		
+		if(o == null || getClass() != o.getClass())
+		{
+			return false;
+		}
+		
+		IntArray a = (IntArray)o;
+		
+		if(size != a.size)
+		{
+			return false;
+		}
+		
+		for(int i = 0; i < size; i++)
+		{
+			if(data[i] != a.data[i])
+			{
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public final int hashCode()
+	{
+		int result = 1;
+		
+		for(int i = 0; i < size; i++)
+		{
+			result = 31 * result + data[i];
+		}
+		
+		return result;
+	}
+	
+	final void add(int value)
+	{
+		ensureCapacity(size + 1);
+		data[size++] = value;
+	}
+	
+	/**
+	 * <p>
+	 * Replace the contents of the array.
+	 * </p>
+	 *
+	 * @param values The new values.
+	 */
+	final void set(int[] values)
+	{
+		size = 0;
+		ensureCapacity(values.length);
+		
+		System.arraycopy(values, 0, data, 0, values.length);
+		size = values.length;
+	}
+	
+	final void ensureCapacity(int capacity)
+	{
+		if(capacity > data.length)
+		{
+			data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get a read-only view of the used part of the array, the view is invalidated when the array grows.
+	 * </p>
+	 *
+	 * @return A read-only view of the array.
+	 */
+	final IntBuffer view()
+	{
+		return IntBuffer.wrap(data, 0, size).asReadOnlyBuffer();
+	}
+}
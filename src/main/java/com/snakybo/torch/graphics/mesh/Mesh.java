@@ -23,14 +23,18 @@
 package com.snakybo.torch.graphics.mesh;
 
 import com.snakybo.torch.asset.Asset;
+import com.snakybo.torch.asset.AssetResidency;
+import com.snakybo.torch.asset.AssetTracker;
+import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.debug.LoggerInternal;
 import org.joml.Vector2f;
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
 
+import java.io.IOException;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * <p>
@@ -38,22 +42,43 @@ import java.util.List;
  * {@code normals}, {@code tangents}, and {@code indices}.
  * </p>
  *
+ * <p>
+ * The data is stored in packed primitive arrays, a {@code vertex} is stored as {@code x, y, z},
+ * a {@code texCoord} as {@code x, y}. The bulk setters and the views returned by the getters
+ * work on the same packed layout, and never box values.
+ * </p>
+ *
+ * <p>
+ * The views are read-only heap buffers, they avoid copying the data when it's read on the CPU, the data can only be
+ * modified through the setters. Renderers don't upload the views directly: they interleave and compress every
+ * attribute into a single direct buffer, which is the only copy made when a mesh is uploaded. The
+ * {@code get*Buffer} methods copy a single attribute into a new direct buffer, which can be passed to OpenGL.
+ * </p>
+ *
+ * <p>
+ * Every modification increments the version of the mesh, renderers use the version to detect changes.
+ * </p>
+ *
  * @author Snakybo
  * @since 1.0
  */
 public final class Mesh extends Asset
 {
-	private MeshAsset asset;
+	MeshAsset asset;
+	
+	private final AssetTracker.Reference reference;
 	
 	Mesh(MeshAsset asset)
 	{
 		this.asset = asset;
 		this.asset.addUsage();
+		reference = AssetTracker.track(this, asset);
 	}
 	
 	Mesh(String name)
 	{
 		asset = new MeshAsset(name);
+		reference = AssetTracker.track(this, asset);
 	}
 	
 	/**
@@ -62,6 +87,7 @@ public final class Mesh extends Asset
 	public Mesh()
 	{
 		asset = new MeshAsset("");
+		reference = AssetTracker.track(this, asset);
 	}
 	
 	@Override
@@ -76,24 +102,13 @@ public final class Mesh extends Asset
 		return asset.hashCode();
 	}
 	
-	@Override
-	public final void finalize() throws Throwable
-	{
-		try
-		{
-			destroy();
-		}
-		finally
-		{
-			super.finalize();
-		}
-	}
-	
 	@Override
 	public void destroy()
 	{
 		if(asset != null)
 		{
+			AssetTracker.untrack(reference);
+			
 			asset.removeUsage();
 			asset = null;
 		}
@@ -106,27 +121,28 @@ public final class Mesh extends Asset
 	 */
 	public final void generateNormals()
 	{
-		for(int i = 0; i < asset.indices.size(); i += 3)
-		{
-			int i0 = asset.indices.get(i);
-			int i1 = asset.indices.get(i + 1);
-			int i2 = asset.indices.get(i + 2);
-			
-			Vector3f v1 = new Vector3f();
-			asset.vertices.get(i1).sub(asset.vertices.get(i0), v1);
-			
-			Vector3f v2 = new Vector3f();
-			asset.vertices.get(i2).sub(asset.vertices.get(i0), v2);
-			
-			Vector3f normal = new Vector3f();
-			v1.cross(v2, normal).normalize();
-			
-			asset.normals.get(i0).add(normal);
-			asset.normals.get(i1).add(normal);
-			asset.normals.get(i2).add(normal);
-		}
+		generateNormals(false);
+	}
+	
+	/**
+	 * <p>
+	 * Attempt to calculate the normals automatically.
+	 * </p>
+	 *
+	 * <p>
+	 * Angle-weighted normals weigh the normal of every face by the angle of the face at the vertex, which
+	 * gives better results for meshes with triangles of varying size, at a slightly higher cost.
+	 * </p>
+	 *
+	 * @param angleWeighted Whether or not to generate angle-weighted normals.
+	 */
+	public final void generateNormals(boolean angleWeighted)
+	{
+		MeshAsset data = data();
+		float[] normals = NormalGenerator.generateNormals(data.vertices.data, data.vertices.size, data.indices.data, data.indices.size, angleWeighted);
 		
-		asset.normals.forEach(Vector3f::normalize);
+		data.normals.wrap(normals);
+		asset.vertexVersion++;
 	}
 	
 	/**
@@ -136,37 +152,138 @@ public final class Mesh extends Asset
 	 */
 	public final void generateTangents()
 	{
-		for(int i = 0; i < asset.indices.size(); i += 3)
+		MeshAsset data = data();
+		
+		if(data.texCoords.size < data.vertices.size)
 		{
-			int i0 = asset.indices.get(i);
-			int i1 = asset.indices.get(i + 1);
-			int i2 = asset.indices.get(i + 2);
-
-			Vector3f edge1 = new Vector3f();
-			asset.vertices.get(i1).sub(asset.vertices.get(i0), edge1);
+			Logger.logWarning("Unable to generate tangents, the mesh does not contain a texCoord for every vertex");
+			return;
+		}
+		
+		float[] tangents = NormalGenerator.generateTangents(data.vertices.data, data.texCoords.data, data.vertices.size, data.indices.data, data.indices.size);
+		
+		data.tangents.wrap(tangents);
+		asset.vertexVersion++;
+	}
+	
+	/**
+	 * <p>
+	 * Reorder the triangles and vertices of the mesh for rendering performance.
+	 * </p>
+	 *
+	 * <p>
+	 * The triangles are reordered for vertex cache locality and to reduce overdraw, the vertices are
+	 * reordered in the order they are used by the triangles. The ACMR (average cache misses per triangle) and
+	 * ATVR (average transforms per vertex) before and after optimizing are logged.
+	 * </p>
+	 *
+	 * <p>
+	 * This changes the order of the {@code vertices} and {@code indices}, but not the shape of the mesh.
+	 * Any LODs are removed, the mesh should be optimized before its LODs are generated.
+	 * </p>
+	 */
+	public final void optimize()
+	{
+		MeshAsset data = data();
+		
+		int numVertices = data.vertices.size;
+		int numIndices = data.indices.size;
+		int[] indices = data.indices.data;
+		
+		for(int i = 0; i < numIndices; i++)
+		{
+			if(indices[i] < 0 || indices[i] >= numVertices)
+			{
+				Logger.logWarning("Unable to optimize the mesh, index " + indices[i] + " is out of range");
+				return;
+			}
+		}
+		
+		int numTriangles = Math.max(1, numIndices / 3);
+		int usedVertices = Math.max(1, MeshOptimizer.getUsedVertices(indices, numIndices, numVertices));
+		int missesBefore = MeshOptimizer.getCacheMisses(indices, numIndices, numVertices);
+		
+		indices = MeshOptimizer.optimizeVertexCache(indices, numIndices, numVertices);
+		indices = MeshOptimizer.optimizeOverdraw(indices, numIndices, data.vertices.data, numVertices);
+		
+		int[] order = MeshOptimizer.optimizeVertexFetch(indices, numIndices, numVertices);
+		
+		for(FloatArray array : new FloatArray[] { data.vertices, data.texCoords, data.normals, data.tangents })
+		{
+			if(array.size >= numVertices)
+			{
+				MeshOptimizer.reorder(array, order);
+			}
+		}
+		
+		data.indices.data = indices;
+		clearLods();
+		
+		asset.vertexVersion++;
+		asset.indexVersion++;
+		
+		int missesAfter = MeshOptimizer.getCacheMisses(indices, numIndices, numVertices);
+		
+		LoggerInternal.log(String.format("Optimized mesh: ACMR %.3f -> %.3f, ATVR %.3f -> %.3f",
+				(float)missesBefore / numTriangles, (float)missesAfter / numTriangles,
+				(float)missesBefore / usedVertices, (float)missesAfter / usedVertices));
+	}
+	
+	/**
+	 * <p>
+	 * Generate a chain of LODs by simplifying the mesh.
+	 * </p>
+	 *
+	 * <p>
+	 * Every LOD is simplified from the previous LOD, and shares the vertices of the mesh. LOD {@code i + 1}
+	 * contains roughly {@code ratios[i]} times the number of triangles of the mesh, and is rendered once the
+	 * mesh covers less than {@code screenSizes[i]} of the height of the screen. The mesh itself is LOD 0.
+	 * </p>
+	 *
+	 * @param ratios The ratio of triangles to keep for every LOD, in decreasing order.
+	 * @param screenSizes The screen size below which every LOD is used, in decreasing order.
+	 */
+	public final void generateLods(float[] ratios, float[] screenSizes)
+	{
+		if(ratios.length != screenSizes.length)
+		{
+			throw new IllegalArgumentException("The number of ratios (" + ratios.length + ") does not match the number of screen sizes (" + screenSizes.length + ")");
+		}
+		
+		for(int i = 0; i < ratios.length; i++)
+		{
+			if(ratios[i] <= 0 || ratios[i] >= 1 || (i > 0 && ratios[i] >= ratios[i - 1]))
+			{
+				throw new IllegalArgumentException("LOD ratios must be between 0 and 1, in decreasing order");
+			}
 			
-			Vector3f edge2 = new Vector3f();
-			asset.vertices.get(i2).sub(asset.vertices.get(i0), edge2);
-
-			float deltaU1 = asset.texCoords.get(i1).x - asset.texCoords.get(i0).x;
-			float deltaV1 = asset.texCoords.get(i1).y - asset.texCoords.get(i0).y;
-			float deltaU2 = asset.texCoords.get(i2).x - asset.texCoords.get(i0).x;
-			float deltaV2 = asset.texCoords.get(i2).y - asset.texCoords.get(i0).y;
-
-			float dividend = deltaU1 * deltaV2 - deltaU2 * deltaV1;
-			float f = dividend == 0 ? 0 : 1 / dividend;
-
-			Vector3f tangent = new Vector3f();
-			tangent.x = f * (deltaV2 * edge1.x - deltaV1 * edge2.x);
-			tangent.y = f * (deltaV2 * edge1.y - deltaV1 * edge2.y);
-			tangent.z = f * (deltaV2 * edge1.z - deltaV1 * edge2.z);
+			if(screenSizes[i] <= 0 || (i > 0 && screenSizes[i] >= screenSizes[i - 1]))
+			{
+				throw new IllegalArgumentException("LOD screen sizes must be positive, in decreasing order");
+			}
+		}
+		
+		MeshAsset data = data();
+		
+		int numVertices = data.vertices.size;
+		int[] previous = Arrays.copyOf(data.indices.data, data.indices.size);
+		int[][] lods = new int[ratios.length][];
+		
+		for(int i = 0; i < ratios.length; i++)
+		{
+			int targetNumIndices = (int)(data.indices.size / 3 * ratios[i]) * 3;
+			int[] lod = MeshSimplifier.simplify(data.vertices.data, numVertices, previous, previous.length, targetNumIndices);
 			
-			asset.tangents.get(i0).add(tangent);
-			asset.tangents.get(i1).add(tangent);
-			asset.tangents.get(i2).add(tangent);
+			lods[i] = MeshOptimizer.optimizeVertexCache(lod, lod.length, numVertices);
+			previous = lods[i];
+			
+			LoggerInternal.log("Generated LOD " + (i + 1) + ": " + lod.length / 3 + " triangles");
 		}
 		
-		asset.tangents.forEach(Vector3f::normalize);
+		data.lods = lods;
+		data.lodScreenSizes = Arrays.copyOf(screenSizes, screenSizes.length);
+		data.lodRatios = Arrays.copyOf(ratios, ratios.length);
+		asset.indexVersion++;
 	}
 	
 	/**
@@ -178,7 +295,22 @@ public final class Mesh extends Asset
 	 */
 	public final void addVertex(Vector3f vertex)
 	{
-		asset.vertices.add(vertex);
+		addVertex(vertex.x, vertex.y, vertex.z);
+	}
+	
+	/**
+	 * <p>
+	 * Add a new {@code vertex}.
+	 * </p>
+	 *
+	 * @param x The x coordinate of the vertex.
+	 * @param y The y coordinate of the vertex.
+	 * @param z The z coordinate of the vertex.
+	 */
+	public final void addVertex(float x, float y, float z)
+	{
+		data().vertices.add(x, y, z);
+		asset.vertexVersion++;
 	}
 	
 	/**
@@ -190,7 +322,21 @@ public final class Mesh extends Asset
 	 */
 	public final void addTexCoord(Vector2f texCoord)
 	{
-		asset.texCoords.add(texCoord);
+		addTexCoord(texCoord.x, texCoord.y);
+	}
+	
+	/**
+	 * <p>
+	 * Add a new {@code texCoord}.
+	 * </p>
+	 *
+	 * @param x The x coordinate of the {@code texCoord}.
+	 * @param y The y coordinate of the {@code texCoord}.
+	 */
+	public final void addTexCoord(float x, float y)
+	{
+		data().texCoords.add(x, y);
+		asset.vertexVersion++;
 	}
 	
 	/**
@@ -202,7 +348,22 @@ public final class Mesh extends Asset
 	 */
 	public final void addNormal(Vector3f normal)
 	{
-		asset.normals.add(normal);
+		addNormal(normal.x, normal.y, normal.z);
+	}
+	
+	/**
+	 * <p>
+	 * Add a new {@code normal}.
+	 * </p>
+	 *
+	 * @param x The x direction of the {@code normal}.
+	 * @param y The y direction of the {@code normal}.
+	 * @param z The z direction of the {@code normal}.
+	 */
+	public final void addNormal(float x, float y, float z)
+	{
+		data().normals.add(x, y, z);
+		asset.vertexVersion++;
 	}
 	
 	/**
@@ -214,7 +375,22 @@ public final class Mesh extends Asset
 	 */
 	public final void addTangent(Vector3f tangent)
 	{
-		asset.tangents.add(tangent);
+		addTangent(tangent.x, tangent.y, tangent.z);
+	}
+	
+	/**
+	 * <p>
+	 * Add a new {@code tangent}.
+	 * </p>
+	 *
+	 * @param x The x direction of the {@code tangent}.
+	 * @param y The y direction of the {@code tangent}.
+	 * @param z The z direction of the {@code tangent}.
+	 */
+	public final void addTangent(float x, float y, float z)
+	{
+		data().tangents.add(x, y, z);
+		asset.vertexVersion++;
 	}
 	
 	/**
@@ -226,7 +402,9 @@ public final class Mesh extends Asset
 	 */
 	public final void addIndex(int index)
 	{
-		asset.indices.add(index);
+		data().indices.add(index);
+		asset.indexVersion++;
+		clearLods();
 	}
 	
 	/**
@@ -251,62 +429,148 @@ public final class Mesh extends Asset
 	
 	/**
 	 * <p>
-	 * Get a list containing all {@code vertices}.
+	 * Replace all {@code vertices}.
+	 * </p>
+	 *
+	 * @param vertices The packed {@code vertices}, stored as {@code x, y, z}.
+	 */
+	public final void setVertices(float[] vertices)
+	{
+		data().vertices.set(vertices);
+		asset.vertexVersion++;
+	}
+	
+	/**
+	 * <p>
+	 * Replace all {@code texCoords}.
+	 * </p>
+	 *
+	 * @param texCoords The packed {@code texCoords}, stored as {@code x, y}.
+	 */
+	public final void setTexCoords(float[] texCoords)
+	{
+		data().texCoords.set(texCoords);
+		asset.vertexVersion++;
+	}
+	
+	/**
+	 * <p>
+	 * Replace all {@code normals}.
+	 * </p>
+	 *
+	 * @param normals The packed {@code normals}, stored as {@code x, y, z}.
+	 */
+	public final void setNormals(float[] normals)
+	{
+		data().normals.set(normals);
+		asset.vertexVersion++;
+	}
+	
+	/**
+	 * <p>
+	 * Replace all {@code tangents}.
+	 * </p>
+	 *
+	 * @param tangents The packed {@code tangents}, stored as {@code x, y, z}.
+	 */
+	public final void setTangents(float[] tangents)
+	{
+		data().tangents.set(tangents);
+		asset.vertexVersion++;
+	}
+	
+	/**
+	 * <p>
+	 * Replace all {@code indices}.
+	 * </p>
+	 *
+	 * @param indices The {@code indices}.
+	 */
+	public final void setIndices(int[] indices)
+	{
+		data().indices.set(indices);
+		asset.indexVersion++;
+		clearLods();
+	}
+	
+	/**
+	 * <p>
+	 * Get a read-only view of all {@code vertices}, stored as {@code x, y, z}.
 	 * </p>
 	 *
-	 * @return All {@code Vertices}.
+	 * <p>
+	 * The view does not copy the data, it's no longer valid after the mesh has been modified.
+	 * </p>
+	 *
+	 * @return All {@code vertices}.
 	 */
-	public final List<Vector3f> getVertices()
+	public final FloatBuffer getVertices()
 	{
-		return new ArrayList<>(asset.vertices);
+		return data().vertices.view();
 	}
 	
 	/**
 	 * <p>
-	 * Get a list containing all {@code texCoords}.
+	 * Get a read-only view of all {@code texCoords}, stored as {@code x, y}.
 	 * </p>
 	 *
-	 * @return All {@code TexCoords}.
+	 * <p>
+	 * The view does not copy the data, it's no longer valid after the mesh has been modified.
+	 * </p>
+	 *
+	 * @return All {@code texCoords}.
 	 */
-	public final List<Vector2f> getTexCoords()
+	public final FloatBuffer getTexCoords()
 	{
-		return new ArrayList<>(asset.texCoords);
+		return data().texCoords.view();
 	}
 	
 	/**
 	 * <p>
-	 * Get a list containing all {@code indices}.
+	 * Get a read-only view of all {@code normals}, stored as {@code x, y, z}.
+	 * </p>
+	 *
+	 * <p>
+	 * The view does not copy the data, it's no longer valid after the mesh has been modified.
 	 * </p>
 	 *
 	 * @return All {@code normals}.
 	 */
-	public final List<Vector3f> getNormals()
+	public final FloatBuffer getNormals()
 	{
-		return new ArrayList<>(asset.normals);
+		return data().normals.view();
 	}
 	
 	/**
 	 * <p>
-	 * Get a list containing all {@code tangents}.
+	 * Get a read-only view of all {@code tangents}, stored as {@code x, y, z}.
+	 * </p>
+	 *
+	 * <p>
+	 * The view does not copy the data, it's no longer valid after the mesh has been modified.
 	 * </p>
 	 *
 	 * @return All {@code tangents}.
 	 */
-	public final List<Vector3f> getTangents()
+	public final FloatBuffer getTangents()
 	{
-		return new ArrayList<>(asset.tangents);
+		return data().tangents.view();
 	}
 	
 	/**
 	 * <p>
-	 * Get a list containing all {@code indices}.
+	 * Get a read-only view of all {@code indices}.
+	 * </p>
+	 *
+	 * <p>
+	 * The view does not copy the data, it's no longer valid after the mesh has been modified.
 	 * </p>
 	 *
 	 * @return All {@code indices}.
 	 */
-	public final List<Integer> getIndices()
+	public final IntBuffer getIndices()
 	{
-		return new ArrayList<>(asset.indices);
+		return data().indices.view();
 	}
 	
 	/**
@@ -315,11 +579,25 @@ public final class Mesh extends Asset
 	 * </p>
 	 *
 	 * @param index The index of the vertex.
-	 * @return The vertex at the specified index.
+	 * @return A copy of the vertex at the specified index.
 	 */
 	public final Vector3f getVertex(int index)
 	{
-		return asset.vertices.get(index);
+		return getVertex(index, new Vector3f());
+	}
+	
+	/**
+	 * <p>
+	 * Get the {@code vertex} at the specified {@code index}.
+	 * </p>
+	 *
+	 * @param index The index of the vertex.
+	 * @param dest Will hold the result.
+	 * @return {@code dest}.
+	 */
+	public final Vector3f getVertex(int index, Vector3f dest)
+	{
+		return get(data().vertices, index, dest);
 	}
 	
 	/**
@@ -328,11 +606,26 @@ public final class Mesh extends Asset
 	 * </p>
 	 *
 	 * @param index The index of the texCoord.
-	 * @return The texCoord at the specified index.
+	 * @return A copy of the texCoord at the specified index.
 	 */
 	public final Vector2f getTexCoord(int index)
 	{
-		return asset.texCoords.get(index);
+		return getTexCoord(index, new Vector2f());
+	}
+	
+	/**
+	 * <p>
+	 * Get the {@code texCoord} at the specified {@code index}.
+	 * </p>
+	 *
+	 * @param index The index of the texCoord.
+	 * @param dest Will hold the result.
+	 * @return {@code dest}.
+	 */
+	public final Vector2f getTexCoord(int index, Vector2f dest)
+	{
+		checkIndex(data().texCoords, index);
+		return dest.set(data().texCoords.data[index * 2], data().texCoords.data[index * 2 + 1]);
 	}
 	
 	/**
@@ -341,11 +634,25 @@ public final class Mesh extends Asset
 	 * </p>
 	 *
 	 * @param index The index of the normal.
-	 * @return The normal at the specified index.
+	 * @return A copy of the normal at the specified index.
 	 */
 	public final Vector3f getNormal(int index)
 	{
-		return asset.normals.get(index);
+		return getNormal(index, new Vector3f());
+	}
+	
+	/**
+	 * <p>
+	 * Get the {@code normal} at the specified {@code index}.
+	 * </p>
+	 *
+	 * @param index The index of the normal.
+	 * @param dest Will hold the result.
+	 * @return {@code dest}.
+	 */
+	public final Vector3f getNormal(int index, Vector3f dest)
+	{
+		return get(data().normals, index, dest);
 	}
 	
 	/**
@@ -354,30 +661,87 @@ public final class Mesh extends Asset
 	 * </p>
 	 *
 	 * @param index The index of the tangent.
-	 * @return The tangent at the specified index.
+	 * @return A copy of the tangent at the specified index.
 	 */
 	public final Vector3f getTangent(int index)
 	{
-		return asset.tangents.get(index);
+		return getTangent(index, new Vector3f());
+	}
+	
+	/**
+	 * <p>
+	 * Get the {@code tangent} at the specified {@code index}.
+	 * </p>
+	 *
+	 * @param index The index of the tangent.
+	 * @param dest Will hold the result.
+	 * @return {@code dest}.
+	 */
+	public final Vector3f getTangent(int index, Vector3f dest)
+	{
+		return get(data().tangents, index, dest);
 	}
 	
 	/**
 	 * <p>
-	 * Get the vertices array as an {@code FloatBuffer}.
+	 * Get a copy of the vertices array in a new direct {@code FloatBuffer}.
 	 * </p>
 	 *
 	 * @return The vertices array as an {@code FloatBuffer}.
 	 */
 	public final FloatBuffer getVertexBuffer()
 	{
-		FloatBuffer result = BufferUtils.createFloatBuffer(asset.vertices.size() * 3);
+		return toBuffer(data().vertices);
+	}
+	
+	/**
+	 * <p>
+	 * Get a copy of the texCoords array in a new direct {@code FloatBuffer}.
+	 * </p>
+	 *
+	 * @return The texCoords array as an {@code FloatBuffer}.
+	 */
+	public final FloatBuffer getTexCoordBuffer()
+	{
+		return toBuffer(data().texCoords);
+	}
+	
+	/**
+	 * <p>
+	 * Get a copy of the normals array in a new direct {@code FloatBuffer}.
+	 * </p>
+	 *
+	 * @return The normals array as an {@code FloatBuffer}.
+	 */
+	public final FloatBuffer getNormalBuffer()
+	{
+		return toBuffer(data().normals);
+	}
+	
+	/**
+	 * <p>
+	 * Get a copy of the tangents array in a new direct {@code FloatBuffer}.
+	 * </p>
+	 *
+	 * @return The tangents array as an {@code FloatBuffer}.
+	 */
+	public final FloatBuffer getTangentBuffer()
+	{
+		return toBuffer(data().tangents);
+	}
+	
+	/**
+	 * <p>
+	 * Get a copy of the indices array in a new direct {@code IntBuffer}.
+	 * </p>
+	 *
+	 * @return The indices array as an {@code IntBuffer}.
+	 */
+	public final IntBuffer getIndexBuffer()
+	{
+		IntBuffer result = BufferUtils.createIntBuffer(data().indices.size);
 		
-		for(Vector3f vertex : asset.vertices)
-		{
-			result.put(vertex.x);
-			result.put(vertex.y);
-			result.put(vertex.z);
-		}
+		result.put(data().indices.data, 0, data().indices.size);
 		
 		result.flip();
 		return result;
@@ -385,96 +749,249 @@ public final class Mesh extends Asset
 	
 	/**
 	 * <p>
-	 * Get the texCoords array as an {@code FloatBuffer}.
+	 * Set where the data of the mesh is kept.
 	 * </p>
 	 *
-	 * @return The texCoords array as an {@code FloatBuffer}.
+	 * <p>
+	 * A {@link AssetResidency#GpuOnly} mesh discards its vertices, texCoords, normals, tangents and indices after it
+	 * has been uploaded, only its counts, bounds and LODs are kept. Renderers that are created later read the mesh from
+	 * its file again, so a mesh without a file keeps its data. Its data can't be read or modified until the residency
+	 * is set back to {@link AssetResidency#CpuAndGpu}, which reads the data from the file of the mesh again.
+	 * </p>
+	 *
+	 * @param residency The residency.
 	 */
-	public final FloatBuffer getTexCoordBuffer()
+	public final void setResidency(AssetResidency residency)
 	{
-		FloatBuffer result = BufferUtils.createFloatBuffer(asset.texCoords.size() * 2);
+		if(residency == AssetResidency.CpuAndGpu && asset.residency == AssetResidency.GpuOnly && asset.cooked != null && !asset.decoded)
+		{
+			readCpuData();
+		}
+		
+		asset.residency = residency;
 		
-		for(Vector2f texCoord : asset.texCoords)
+		// The data doesn't have to be uploaded first if a renderer has already uploaded it, and it's still up to date
+		if(MeshInternal.hasReleasableCpuData(this) && MeshInternal.getCookedData(this) != null && asset.gpuMemorySize > 0)
+		{
+			MeshInternal.releaseCpuData(this, asset.cooked);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get where the data of the mesh is kept.
+	 * </p>
+	 *
+	 * @return The residency.
+	 */
+	public final AssetResidency getResidency()
+	{
+		return asset.residency;
+	}
+	
+	/**
+	 * <p>
+	 * Notify the mesh that its data has been modified directly, renderers upload the mesh again.
+	 * </p>
+	 *
+	 * @deprecated The getters return read-only views, so the data can only be modified through the setters, which
+	 * update the version of the mesh themselves.
+	 */
+	@Deprecated
+	public final void markModified()
+	{
+		asset.vertexVersion++;
+		asset.indexVersion++;
+	}
+	
+	/**
+	 * <p>
+	 * Get the version of the mesh, the version changes every time the mesh is modified.
+	 * </p>
+	 *
+	 * @return The version of the mesh.
+	 */
+	public final int getVersion()
+	{
+		return asset.vertexVersion + asset.indexVersion;
+	}
+	
+	/**
+	 * <p>
+	 * Get the version of the vertex data, the version changes every time a {@code vertex}, {@code texCoord},
+	 * {@code normal} or {@code tangent} is modified.
+	 * </p>
+	 *
+	 * @return The version of the vertex data.
+	 */
+	public final int getVertexVersion()
+	{
+		return asset.vertexVersion;
+	}
+	
+	/**
+	 * <p>
+	 * Get the version of the indices, the version changes every time an {@code index} is modified.
+	 * </p>
+	 *
+	 * @return The version of the indices.
+	 */
+	public final int getIndexVersion()
+	{
+		return asset.indexVersion;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of {@code vertices} the mesh contains.
+	 * </p>
+	 *
+	 * @return The number of {@code vertices} the mesh contains.
+	 */
+	public final int getNumVertices()
+	{
+		if(asset.cooked != null && !asset.decoded)
 		{
-			result.put(texCoord.x);
-			result.put(texCoord.y);
+			return asset.cooked.getNumVertices();
 		}
 		
-		result.flip();
-		return result;
+		return asset.vertices.size;
 	}
 	
 	/**
 	 * <p>
-	 * Get the normals array as an {@code FloatBuffer}.
+	 * Get the number of {@code texCoords} the mesh contains.
 	 * </p>
 	 *
-	 * @return The normals array as an {@code FloatBuffer}.
+	 * @return The number of {@code texCoords} the mesh contains.
 	 */
-	public final FloatBuffer getNormalBuffer()
+	public final int getNumTexCoords()
+	{
+		return data().texCoords.size;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of {@code normals} the mesh contains.
+	 * </p>
+	 *
+	 * @return The number of {@code normals} the mesh contains.
+	 */
+	public final int getNumNormals()
+	{
+		return data().normals.size;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of {@code tangents} the mesh contains.
+	 * </p>
+	 *
+	 * @return The number of {@code tangents} the mesh contains.
+	 */
+	public final int getNumTangents()
+	{
+		return data().tangents.size;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of indices the mesh contains.
+	 * </p>
+	 *
+	 * @return The number of indices the mesh contains.
+	 */
+	public final int getNumIndices()
 	{
-		FloatBuffer result = BufferUtils.createFloatBuffer(asset.normals.size() * 3);
+		if(asset.cooked != null && !asset.decoded)
+		{
+			return asset.cooked.getLodNumIndices(0);
+		}
 		
-		for(Vector3f normal : asset.normals)
+		return asset.indices.size;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of LODs, including the mesh itself as LOD 0.
+	 * </p>
+	 *
+	 * @return The number of LODs.
+	 */
+	public final int getNumLods()
+	{
+		if(asset.cooked != null && !asset.decoded)
 		{
-			result.put(normal.x);
-			result.put(normal.y);
-			result.put(normal.z);
+			return asset.cooked.getNumLods();
 		}
 		
-		result.flip();
-		return result;
+		return asset.lods.length + 1;
 	}
 	
 	/**
 	 * <p>
-	 * Get the tangents array as an {@code FloatBuffer}.
+	 * Get a read-only view of the indices of a LOD, LOD 0 contains the indices of the mesh.
 	 * </p>
 	 *
-	 * @return The tangents array as an {@code FloatBuffer}.
+	 * @param lod The LOD.
+	 * @return The indices of the LOD.
 	 */
-	public final FloatBuffer getTangentBuffer()
+	public final IntBuffer getLodIndices(int lod)
 	{
-		FloatBuffer result = BufferUtils.createFloatBuffer(asset.vertices.size() * 3);
+		MeshAsset data = data();
 		
-		for(Vector3f tangent : asset.tangents)
+		if(lod == 0)
 		{
-			result.put(tangent.x);
-			result.put(tangent.y);
-			result.put(tangent.z);
+			return data.indices.view();
 		}
 		
-		result.flip();
-		return result;
+		return IntBuffer.wrap(data.lods[lod - 1]).asReadOnlyBuffer();
 	}
 	
 	/**
 	 * <p>
-	 * Get the indices array as an {@code IntBuffer}.
+	 * Get the screen size below which a LOD is used, relative to the height of the screen.
 	 * </p>
 	 *
-	 * @return The indices array as an {@code IntBuffer}.
+	 * @param lod The LOD.
+	 * @return The screen size below which the LOD is used, LOD 0 is used at any size.
 	 */
-	public final IntBuffer getIndexBuffer()
+	public final float getLodScreenSize(int lod)
 	{
-		IntBuffer result = BufferUtils.createIntBuffer(asset.indices.size());
+		if(lod == 0)
+		{
+			return Float.POSITIVE_INFINITY;
+		}
 		
-		asset.indices.forEach(result::put);
+		if(asset.cooked != null && !asset.decoded)
+		{
+			return asset.cooked.getLodScreenSize(lod);
+		}
 		
-		result.flip();
-		return result;
+		return asset.lodScreenSizes[lod - 1];
 	}
 	
 	/**
 	 * <p>
-	 * Get the number of indices the mesh contains.
+	 * Get the ratio of triangles a LOD was generated with, see {@link #generateLods(float[], float[])}.
 	 * </p>
 	 *
-	 * @return The number of indices the mesh contains.
+	 * @param lod The LOD.
+	 * @return The ratio of triangles of the mesh the LOD kept, LOD 0 keeps every triangle.
 	 */
-	public final int getNumIndices()
+	public final float getLodRatio(int lod)
 	{
-		return asset.indices.size();
+		if(lod == 0)
+		{
+			return 1;
+		}
+		
+		if(asset.cooked != null && !asset.decoded)
+		{
+			return asset.cooked.getLodRatio(lod);
+		}
+		
+		return asset.lodRatios[lod - 1];
 	}
 	
 	/**
@@ -486,6 +1003,137 @@ public final class Mesh extends Asset
 	 */
 	public final int getNumTriangles()
 	{
-		return asset.indices.size() / 3;
+		return getNumIndices() / 3;
+	}
+	
+	private void clearLods()
+	{
+		asset.lods = MeshAsset.NO_LODS;
+		asset.lodScreenSizes = MeshAsset.NO_LOD_SCREEN_SIZES;
+		asset.lodRatios = MeshAsset.NO_LOD_RATIOS;
+	}
+	
+	private static Vector3f get(FloatArray array, int index, Vector3f dest)
+	{
+		checkIndex(array, index);
+		
+		int offset = index * 3;
+		return dest.set(array.data[offset], array.data[offset + 1], array.data[offset + 2]);
+	}
+	
+	private static void checkIndex(FloatArray array, int index)
+	{
+		if(index < 0 || index >= array.size)
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + array.size);
+		}
+	}
+	
+	private static FloatBuffer toBuffer(FloatArray array)
+	{
+		FloatBuffer result = BufferUtils.createFloatBuffer(array.size * array.components);
+		
+		result.put(array.data, 0, array.size * array.components);
+		
+		result.flip();
+		return result;
+	}
+	
+	private void readCpuData()
+	{
+		// The uploaded data may have been compressed, so the mesh is read from its file if it has one
+		if(!asset.getName().isEmpty())
+		{
+			try
+			{
+				readSource(false);
+				return;
+			}
+			catch(IllegalStateException e)
+			{
+				if(!asset.cooked.hasData())
+				{
+					throw e;
+				}
+				
+				Logger.logError("Unable to read mesh " + asset.getName() + " again, decoding the uploaded data instead: " + e.getCause().toString(), e.getCause());
+			}
+		}
+		
+		if(!asset.cooked.hasData())
+		{
+			throw new IllegalStateException("The data of mesh " + asset.getName() + " has been released, and it has no file to read it from");
+		}
+		
+		asset.cooked.decode(asset);
+		asset.decoded = true;
+	}
+	
+	/**
+	 * <p>
+	 * Read the data of the mesh from its file again.
+	 * </p>
+	 *
+	 * @param keepCooked Whether or not to keep the cooked data of the file as-is, instead of decoding it.
+	 * @throws IllegalStateException If the file can't be read.
+	 */
+	final void readSource(boolean keepCooked)
+	{
+		Mesh source;
+		
+		try
+		{
+			source = MeshAssetLoader.decode(asset.getName());
+		}
+		catch(IOException e)
+		{
+			throw new IllegalStateException("Unable to read mesh " + asset.getName() + " again", e);
+		}
+		
+		if(keepCooked && source.asset.cooked != null && !source.asset.decoded)
+		{
+			asset.cooked = source.asset.cooked;
+			asset.cookedVertexVersion = asset.vertexVersion;
+			asset.cookedIndexVersion = asset.indexVersion;
+		}
+		else
+		{
+			MeshAsset data = source.data();
+			
+			asset.vertices = data.vertices;
+			asset.texCoords = data.texCoords;
+			asset.normals = data.normals;
+			asset.tangents = data.tangents;
+			asset.indices = data.indices;
+			asset.lods = data.lods;
+			asset.lodScreenSizes = data.lodScreenSizes;
+			asset.lodRatios = data.lodRatios;
+			asset.decoded = true;
+		}
+		
+		source.destroy();
+	}
+	
+	/**
+	 * <p>
+	 * Get the data of the mesh, decoding the cooked data it was loaded from first if required.
+	 * </p>
+	 *
+	 * @return The data of the mesh.
+	 */
+	private MeshAsset data()
+	{
+		if(asset.cooked != null && !asset.decoded)
+		{
+			if(asset.residency == AssetResidency.GpuOnly)
+			{
+				throw new IllegalStateException("The data of mesh " + asset.getName() + " is not kept in CPU memory, set its residency to " + AssetResidency.CpuAndGpu + " first");
+			}
+			
+			asset.cooked.decode(asset);
+			asset.decoded = true;
+		}
+		
+		return asset;
 	}
 }
@@ -22,13 +22,11 @@
 
 package com.snakybo.torch.graphics.mesh;
 
+import com.snakybo.torch.asset.AssetCache;
 import com.snakybo.torch.asset.AssetData;
-import org.joml.Vector2f;
-import org.joml.Vector3f;
+import com.snakybo.torch.asset.AssetResidency;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -37,25 +35,55 @@ import java.util.Map;
  */
 final class MeshAsset extends AssetData
 {
+	static final int[][] NO_LODS = new int[0][];
+	static final float[] NO_LOD_SCREEN_SIZES = new float[0];
+	static final float[] NO_LOD_RATIOS = new float[0];
+	
 	static Map<String, MeshAsset> all = new HashMap<>();
 	
-	List<Vector3f> vertices;
-	List<Vector2f> texCoords;
-	List<Vector3f> normals;
-	List<Vector3f> tangents;
-	List<Integer> indices;
+	FloatArray vertices;
+	FloatArray texCoords;
+	FloatArray normals;
+	FloatArray tangents;
+	IntArray indices;
+	
+	// The indices, screen sizes and triangle ratios of LOD 1 and up, LOD 0 uses the indices of the mesh
+	int[][] lods;
+	float[] lodScreenSizes;
+	float[] lodRatios;
+	
+	int vertexVersion;
+	int indexVersion;
+	
+	// The cooked data the mesh was loaded from, or only the layout of a GPU only mesh as it was uploaded. The arrays
+	// are only filled once the data is accessed
+	TMesh cooked;
+	boolean decoded;
+	
+	// The versions of the mesh the cooked data belongs to, any later modification makes the cooked data stale
+	int cookedVertexVersion;
+	int cookedIndexVersion;
 	
-	String name;
+	AssetResidency residency;
+	
+	// The size of the buffers every renderer of the mesh allocated
+	long gpuMemorySize;
 	
 	public MeshAsset(String name)
 	{
 		super(name);
 		
-		vertices = new ArrayList<>();
-		texCoords = new ArrayList<>();
-		normals = new ArrayList<>();
-		tangents = new ArrayList<>();
-		indices = new ArrayList<>();
+		vertices = new FloatArray(3);
+		texCoords = new FloatArray(2);
+		normals = new FloatArray(3);
+		tangents = new FloatArray(3);
+		indices = new IntArray();
+		
+		lods = NO_LODS;
+		lodScreenSizes = NO_LOD_SCREEN_SIZES;
+		lodRatios = NO_LOD_RATIOS;
+		
+		residency = AssetResidency.CpuAndGpu;
 		
 		if(name != null && !name.isEmpty())
 		{
@@ -128,4 +156,68 @@ final class MeshAsset extends AssetData
 			all.remove(name);
 		}
 	}
+	
+	@Override
+	protected final AssetCache.Category getCategory()
+	{
+		return AssetCache.Category.Mesh;
+	}
+	
+	@Override
+	protected final long getMemorySize()
+	{
+		if(cooked != null && !decoded)
+		{
+			return gpuMemorySize + (cooked.hasData() ? cooked.getVertexData().remaining() + cooked.getIndexData().remaining() : 0);
+		}
+		
+		long floats = vertices.data.length + texCoords.data.length + normals.data.length + tangents.data.length;
+		long ints = indices.data.length;
+		
+		for(int[] lod : lods)
+		{
+			ints += lod.length;
+		}
+		
+		return gpuMemorySize + floats * Float.BYTES + ints * Integer.BYTES;
+	}
+	
+	@Override
+	protected final long getGpuMemorySize()
+	{
+		return gpuMemorySize;
+	}
+	
+	/**
+	 * <p>
+	 * Discard the arrays, only the cooked data, or its layout, is kept.
+	 * </p>
+	 */
+	final void releaseArrays()
+	{
+		vertices = new FloatArray(3);
+		texCoords = new FloatArray(2);
+		normals = new FloatArray(3);
+		tangents = new FloatArray(3);
+		indices = new IntArray();
+		
+		lods = NO_LODS;
+		lodScreenSizes = NO_LOD_SCREEN_SIZES;
+		lodRatios = NO_LOD_RATIOS;
+		
+		decoded = false;
+	}
+	
+	/**
+	 * <p>
+	 * Give a runtime mesh a name, and share it with later loads of the name.
+	 * </p>
+	 *
+	 * @param name The name.
+	 */
+	final void register(String name)
+	{
+		this.name = name;
+		all.put(name, this);
+	}
 }
@@ -22,14 +22,19 @@
 
 package com.snakybo.torch.graphics.mesh;
 
+import com.snakybo.torch.asset.AssetCache;
+import com.snakybo.torch.asset.AssetFootprint;
+import com.snakybo.torch.asset.AssetProfiler;
+import com.snakybo.torch.asset.AssetResidency;
+import com.snakybo.torch.graphics.mesh.gltf.GLBMesh;
 import com.snakybo.torch.graphics.mesh.obj.OBJMesh;
 import com.snakybo.torch.util.FileUtils;
 import com.snakybo.torch.util.debug.Logger;
 import com.snakybo.torch.util.debug.LoggerInternal;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -38,6 +43,13 @@ import java.util.List;
  */
 public final class MeshAssetLoader
 {
+	private static boolean optimizeOnImport;
+	
+	private static float[] lodRatios = new float[0];
+	private static float[] lodScreenSizes = new float[0];
+	
+	private static AssetResidency defaultResidency = AssetResidency.CpuAndGpu;
+	
 	public static Mesh load(String path)
 	{
 		LoggerInternal.log("Begin loading of mesh: " + path);
@@ -50,26 +62,275 @@ public final class MeshAssetLoader
 		
 		try
 		{
-			LoggerInternal.log("Begin parsing of mesh data file: " + path);
-			String extension = FileUtils.getExtension(path);
-			
-			List<String> lines = Files.readAllLines(Paths.get(FileUtils.toURI(path)));
-			IMeshLoader loader = null;
+			return register(path, decode(path));
+		}
+		catch(IOException e)
+		{
+			Logger.logError(e.toString(), e);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * <p>
+	 * Parse, optimize and generate the LODs of a mesh, without registering it. The mesh isn't shared with other
+	 * loads of the same path until it's passed to {@link #register(String, Mesh)}, so this can be called from any
+	 * thread.
+	 * </p>
+	 *
+	 * @param path The path of the mesh, optionally followed by {@code #submesh}.
+	 * @return The mesh.
+	 * @throws IOException If the mesh could not be read.
+	 */
+	public static Mesh decode(String path) throws IOException
+	{
+		AssetProfiler.Scope scope = AssetProfiler.begin(path, AssetProfiler.Phase.Decode);
+		
+		try
+		{
+			return parse(path);
+		}
+		finally
+		{
+			scope.end();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Register a mesh that was created by {@link #decode(String)} under its path, so later loads of the path reuse
+	 * it. If the path has been loaded in the meantime, the loaded mesh is used instead.
+	 * </p>
+	 *
+	 * @param path The path of the mesh.
+	 * @param mesh The mesh.
+	 * @return The registered mesh.
+	 */
+	public static Mesh register(String path, Mesh mesh)
+	{
+		if(MeshAsset.all.containsKey(path))
+		{
+			mesh.destroy();
+			return new Mesh(MeshAsset.all.get(path));
+		}
+		
+		mesh.asset.register(path);
+		mesh.asset.residency = defaultResidency;
+		
+		AssetProfiler.recordMemory(path, mesh.asset.getFootprint());
+		
+		return mesh;
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not a mesh has been loaded.
+	 * </p>
+	 *
+	 * @param path The path of the mesh.
+	 * @return Whether or not the mesh has been loaded.
+	 */
+	public static boolean isLoaded(String path)
+	{
+		return MeshAsset.all.containsKey(path);
+	}
+	
+	private static Mesh parse(String path) throws IOException
+	{
+		LoggerInternal.log("Begin parsing of mesh data file: " + path);
+		
+		// A single mesh of a file containing multiple meshes can be loaded as file#mesh
+		int separator = path.indexOf('#');
+		String file = separator >= 0 ? path.substring(0, separator) : path;
+		String submesh = separator >= 0 ? path.substring(separator + 1) : null;
+		
+		String extension = FileUtils.getExtension(file);
+		
+		// OBJ and GLB files cooked by the AssetCooker are loaded from the cooked file instead, every mesh of a GLB
+		// file is cooked on its own as well
+		String cooked = null;
+		
+		if(extension.equals("obj"))
+		{
+			cooked = FileUtils.getCookedPath(file, TMesh.EXTENSION);
+		}
+		else if(extension.equals(GLBMesh.EXTENSION))
+		{
+			cooked = FileUtils.getCookedPath(path, TMesh.EXTENSION);
+		}
+		
+		if(cooked != null)
+		{
+			TMesh result = readCooked(cooked);
 			
-			switch(extension)
+			if(result != null)
 			{
-			case "obj":
-				loader = new OBJMesh(lines);
-				break;
+				return loadCooked(result);
 			}
-			
-			return loader.toModel(new Mesh(path));
+		}
+		
+		IMeshLoader loader = null;
+		
+		ByteBuffer data = FileUtils.read(file);
+		
+		switch(extension)
+		{
+		case "obj":
+			loader = new OBJMesh(data);
+			break;
+		case GLBMesh.EXTENSION:
+			loader = new GLBMesh(data, submesh);
+			break;
+		case TMesh.EXTENSION:
+			return loadCooked(TMesh.read(file, data));
+		}
+		
+		Mesh result = loader.toModel(new Mesh());
+		
+		if(optimizeOnImport)
+		{
+			result.optimize();
+		}
+		
+		if(lodRatios.length > 0)
+		{
+			result.generateLods(lodRatios, lodScreenSizes);
+		}
+		
+		return result;
+	}
+	
+	private static TMesh readCooked(String path)
+	{
+		TMesh result;
+		
+		try
+		{
+			result = TMesh.read(path, FileUtils.read(path));
 		}
 		catch(IOException e)
 		{
-			Logger.logError(e.toString(), e);
+			Logger.logWarning("Unable to read cooked mesh " + path + ", loading its source instead: " + e.toString());
+			return null;
 		}
 		
-		return null;
+		// The cooker optimizes every mesh, but the LODs it generated may not be the ones currently requested
+		boolean matches = result.getNumLods() == lodRatios.length + 1;
+		
+		for(int i = 0; matches && i < lodRatios.length; i++)
+		{
+			matches = result.getLodRatio(i + 1) == lodRatios[i] && result.getLodScreenSize(i + 1) == lodScreenSizes[i];
+		}
+		
+		if(!matches)
+		{
+			Logger.logWarning("The LODs of cooked mesh " + path + " do not match the import LODs, loading its source instead");
+			return null;
+		}
+		
+		return result;
+	}
+	
+	private static Mesh loadCooked(TMesh cooked)
+	{
+		Mesh result = new Mesh();
+		result.asset.cooked = cooked;
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Set whether or not meshes should be optimized after they have been imported, see {@link Mesh#optimize()}.
+	 * Cooked meshes are never optimized when loaded, the cooker optimizes every mesh before it is cooked.
+	 * </p>
+	 *
+	 * @param optimize Whether or not to optimize imported meshes.
+	 */
+	public static void setOptimizeOnImport(boolean optimize)
+	{
+		optimizeOnImport = optimize;
+	}
+	
+	/**
+	 * <p>
+	 * Set the LODs to generate for meshes after they have been imported, see
+	 * {@link Mesh#generateLods(float[], float[])}. No LODs are generated by default.
+	 * </p>
+	 *
+	 * <p>
+	 * The cooker generates the same LODs into cooked meshes. A cooked mesh with different LODs is ignored, and its
+	 * source is loaded instead.
+	 * </p>
+	 *
+	 * @param ratios The ratio of triangles to keep for every LOD, in decreasing order.
+	 * @param screenSizes The screen size below which every LOD is used, in decreasing order.
+	 */
+	public static void setImportLods(float[] ratios, float[] screenSizes)
+	{
+		if(ratios.length != screenSizes.length)
+		{
+			throw new IllegalArgumentException("The number of ratios (" + ratios.length + ") does not match the number of screen sizes (" + screenSizes.length + ")");
+		}
+		
+		lodRatios = ratios.clone();
+		lodScreenSizes = screenSizes.clone();
+	}
+	
+	/**
+	 * <p>
+	 * Get the ratios of the LODs generated for imported meshes, see {@link #setImportLods(float[], float[])}.
+	 * </p>
+	 *
+	 * @return The ratio of triangles to keep for every LOD.
+	 */
+	public static float[] getImportLodRatios()
+	{
+		return lodRatios.clone();
+	}
+	
+	/**
+	 * <p>
+	 * Get the screen sizes of the LODs generated for imported meshes, see {@link #setImportLods(float[], float[])}.
+	 * </p>
+	 *
+	 * @return The screen size below which every LOD is used.
+	 */
+	public static float[] getImportLodScreenSizes()
+	{
+		return lodScreenSizes.clone();
+	}
+	
+	/**
+	 * <p>
+	 * Set the residency of loaded meshes, see {@link Mesh#setResidency(AssetResidency)}. Meshes keep their data in
+	 * CPU memory by default.
+	 * </p>
+	 *
+	 * @param residency The default residency.
+	 */
+	public static void setDefaultResidency(AssetResidency residency)
+	{
+		defaultResidency = residency;
+	}
+	
+	/**
+	 * <p>
+	 * Get the memory footprint of every loaded mesh, including the unused meshs in the {@link AssetCache}.
+	 * </p>
+	 *
+	 * @return The footprints.
+	 */
+	public static List<AssetFootprint> getFootprints()
+	{
+		List<AssetFootprint> result = new ArrayList<>();
+		
+		for(MeshAsset asset : MeshAsset.all.values())
+		{
+			result.add(asset.getFootprint());
+		}
+		
+		return result;
 	}
 }
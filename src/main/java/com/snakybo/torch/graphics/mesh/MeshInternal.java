@@ -0,0 +1,166 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import com.snakybo.torch.asset.AssetData;
+import com.snakybo.torch.asset.AssetProfiler;
+import com.snakybo.torch.asset.AssetResidency;
+import com.snakybo.torch.util.debug.LoggerInternal;
+
+/**
+ * <p>
+ * Used internally by the engine.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class MeshInternal
+{
+	private MeshInternal()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Get the cooked data the mesh was loaded from.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @return The cooked data, or {@code null} if the mesh was not loaded from cooked data, or has been modified since.
+	 */
+	public static TMesh getCookedData(Mesh mesh)
+	{
+		MeshAsset asset = mesh.asset;
+		
+		if(asset.cooked == null || asset.vertexVersion != asset.cookedVertexVersion || asset.indexVersion != asset.cookedIndexVersion)
+		{
+			return null;
+		}
+		
+		return asset.cooked;
+	}
+	
+	/**
+	 * <p>
+	 * Get the shared data of a mesh, which outlives the mesh if other meshes use it.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @return The data of the mesh.
+	 */
+	public static AssetData getAssetData(Mesh mesh)
+	{
+		return mesh.asset;
+	}
+	
+	/**
+	 * <p>
+	 * Add to the GPU memory allocated for a mesh, as reported by its footprint.
+	 * </p>
+	 *
+	 * @param asset The data of the mesh, see {@link #getAssetData(Mesh)}.
+	 * @param bytes The number of bytes that were allocated, or negative if they were released.
+	 */
+	public static void addGpuMemory(AssetData asset, long bytes)
+	{
+		MeshAsset meshAsset = (MeshAsset)asset;
+		meshAsset.gpuMemorySize += bytes;
+		
+		if(meshAsset.getName() != null && !meshAsset.getName().isEmpty())
+		{
+			AssetProfiler.recordMemory(meshAsset.getName(), meshAsset.getFootprint());
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not the mesh is {@link AssetResidency#GpuOnly}, and still keeps its data in CPU memory. Meshes
+	 * without a file keep their data, it could not be read again.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @return Whether or not the CPU data of the mesh can be released.
+	 */
+	public static boolean hasReleasableCpuData(Mesh mesh)
+	{
+		MeshAsset asset = mesh.asset;
+		
+		if(asset.residency != AssetResidency.GpuOnly || asset.getName() == null || asset.getName().isEmpty())
+		{
+			return false;
+		}
+		
+		return asset.cooked == null || asset.decoded || asset.cooked.hasData();
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not the CPU data of a mesh has been released, see {@link #releaseCpuData(Mesh, TMesh)}.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @return Whether or not the data has to be read again before the mesh can be uploaded.
+	 */
+	public static boolean isCpuDataReleased(Mesh mesh)
+	{
+		MeshAsset asset = mesh.asset;
+		return asset.cooked != null && !asset.decoded && !asset.cooked.hasData();
+	}
+	
+	/**
+	 * <p>
+	 * Read the data of a mesh of which the CPU data has been released from its file again, so it can be uploaded by
+	 * a new renderer. Cooked data is kept as it was read, so it's uploaded without decoding it.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 */
+	public static void readReleasedCpuData(Mesh mesh)
+	{
+		LoggerInternal.log("Reading the released CPU data of GPU only mesh: " + mesh.asset.getName());
+		mesh.readSource(true);
+	}
+	
+	/**
+	 * <p>
+	 * Release the CPU data of a mesh after it has been uploaded. Only the layout, counts, bounds and LODs of the
+	 * uploaded data are kept, renderers that are created later read the mesh from its file again.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @param uploaded The data as it was uploaded, the cooked data of the mesh if it's still up to date.
+	 */
+	public static void releaseCpuData(Mesh mesh, TMesh uploaded)
+	{
+		MeshAsset asset = mesh.asset;
+		
+		asset.cooked = uploaded.withoutData();
+		asset.cookedVertexVersion = asset.vertexVersion;
+		asset.cookedIndexVersion = asset.indexVersion;
+		asset.releaseArrays();
+		
+		LoggerInternal.log("Released the CPU data of GPU only mesh: " + asset.getName());
+	}
+}
@@ -0,0 +1,539 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Reorders the triangles and vertices of a mesh to make better use of the GPU.
+ * </p>
+ *
+ * <p>
+ * The triangles are first reordered for post-transform vertex cache locality using Tipsify. The triangles
+ * are then split into clusters, which are sorted so that triangles facing outwards are drawn first, to
+ * reduce overdraw. Finally the vertices are reordered in the order they are first used by the indices,
+ * which improves vertex fetch locality.
+ * </p>
+ *
+ * <p>
+ * The quality of the ordering is measured by simulating a FIFO vertex cache. The ACMR is the average
+ * number of cache misses per triangle, the ATVR is the average number of times every vertex is transformed.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class MeshOptimizer
+{
+	static final int CACHE_SIZE = 16;
+	
+	/** The maximum factor by which the ACMR of a cluster is allowed to grow by splitting it for overdraw */
+	private static final float OVERDRAW_THRESHOLD = 1.05f;
+	
+	private MeshOptimizer()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Reorder the triangles for vertex cache locality using Tipsify.
+	 * </p>
+	 *
+	 * @param indices The indices.
+	 * @param numIndices The number of indices.
+	 * @param numVertices The number of vertices.
+	 * @return The reordered indices.
+	 */
+	static int[] optimizeVertexCache(int[] indices, int numIndices, int numVertices)
+	{
+		int numTriangles = numIndices / 3;
+		
+		// The triangles adjacent to every vertex, packed
+		int[] adjacencyOffsets = new int[numVertices + 1];
+		int[] adjacency = new int[numTriangles * 3];
+		int[] live = new int[numVertices];
+		
+		for(int i = 0; i < numTriangles * 3; i++)
+		{
+			live[indices[i]]++;
+		}
+		
+		for(int i = 0; i < numVertices; i++)
+		{
+			adjacencyOffsets[i + 1] = adjacencyOffsets[i] + live[i];
+		}
+		
+		int[] fill = Arrays.copyOf(adjacencyOffsets, numVertices);
+		
+		for(int i = 0; i < numTriangles * 3; i++)
+		{
+			adjacency[fill[indices[i]]++] = i / 3;
+		}
+		
+		int[] result = new int[numIndices];
+		int[] cacheTimes = new int[numVertices];
+		int[] deadEnd = new int[numTriangles * 3];
+		int[] candidates = new int[numTriangles * 3];
+		boolean[] emitted = new boolean[numTriangles];
+		
+		int time = CACHE_SIZE + 1;
+		int deadEndSize = 0;
+		int output = 0;
+		int cursor = 0;
+		
+		int fanningVertex = numTriangles > 0 ? 0 : -1;
+		
+		while(fanningVertex >= 0)
+		{
+			int numCandidates = 0;
+			
+			for(int i = adjacencyOffsets[fanningVertex]; i < adjacencyOffsets[fanningVertex + 1]; i++)
+			{
+				int triangle = adjacency[i];
+				
+				if(emitted[triangle])
+				{
+					continue;
+				}
+				
+				for(int j = 0; j < 3; j++)
+				{
+					int vertex = indices[triangle * 3 + j];
+					
+					deadEnd[deadEndSize++] = vertex;
+					candidates[numCandidates++] = vertex;
+					live[vertex]--;
+					
+					if(time - cacheTimes[vertex] > CACHE_SIZE)
+					{
+						cacheTimes[vertex] = time++;
+					}
+					
+					result[output++] = vertex;
+				}
+				
+				emitted[triangle] = true;
+			}
+			
+			fanningVertex = getNextVertex(candidates, numCandidates, live, cacheTimes, time);
+			
+			if(fanningVertex < 0)
+			{
+				// Dead end, continue with the most recent vertex which still has triangles left
+				while(deadEndSize > 0 && fanningVertex < 0)
+				{
+					int vertex = deadEnd[--deadEndSize];
+					fanningVertex = live[vertex] > 0 ? vertex : -1;
+				}
+				
+				while(cursor < numVertices && fanningVertex < 0)
+				{
+					fanningVertex = live[cursor] > 0 ? cursor : -1;
+					cursor++;
+				}
+			}
+		}
+		
+		System.arraycopy(indices, numTriangles * 3, result, output, numIndices - numTriangles * 3);
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Reorder clusters of triangles to reduce overdraw, while keeping the vertex cache locality of
+	 * {@link #optimizeVertexCache(int[], int, int)}.
+	 * </p>
+	 *
+	 * @param indices The indices, ordered for vertex cache locality.
+	 * @param numIndices The number of indices.
+	 * @param vertices The packed vertices.
+	 * @param numVertices The number of vertices.
+	 * @return The reordered indices.
+	 */
+	static int[] optimizeOverdraw(int[] indices, int numIndices, float[] vertices, int numVertices)
+	{
+		int numTriangles = numIndices / 3;
+		int[] clusters = getClusters(indices, numTriangles, numVertices);
+		int numClusters = clusters.length - 1;
+		
+		float centerX = 0;
+		float centerY = 0;
+		float centerZ = 0;
+		float totalArea = 0;
+		
+		float[] clusterData = new float[numClusters * 4];
+		
+		for(int cluster = 0; cluster < numClusters; cluster++)
+		{
+			float x = 0;
+			float y = 0;
+			float z = 0;
+			
+			float normalX = 0;
+			float normalY = 0;
+			float normalZ = 0;
+			float area = 0;
+			
+			for(int triangle = clusters[cluster]; triangle < clusters[cluster + 1]; triangle++)
+			{
+				int i0 = indices[triangle * 3] * 3;
+				int i1 = indices[triangle * 3 + 1] * 3;
+				int i2 = indices[triangle * 3 + 2] * 3;
+				
+				float x1 = vertices[i1] - vertices[i0];
+				float y1 = vertices[i1 + 1] - vertices[i0 + 1];
+				float z1 = vertices[i1 + 2] - vertices[i0 + 2];
+				
+				float x2 = vertices[i2] - vertices[i0];
+				float y2 = vertices[i2 + 1] - vertices[i0 + 1];
+				float z2 = vertices[i2 + 2] - vertices[i0 + 2];
+				
+				float crossX = y1 * z2 - z1 * y2;
+				float crossY = z1 * x2 - x1 * z2;
+				float crossZ = x1 * y2 - y1 * x2;
+				
+				float triangleArea = (float)Math.sqrt(crossX * crossX + crossY * crossY + crossZ * crossZ);
+				
+				x += (vertices[i0] + vertices[i1] + vertices[i2]) / 3 * triangleArea;
+				y += (vertices[i0 + 1] + vertices[i1 + 1] + vertices[i2 + 1]) / 3 * triangleArea;
+				z += (vertices[i0 + 2] + vertices[i1 + 2] + vertices[i2 + 2]) / 3 * triangleArea;
+				
+				normalX += crossX;
+				normalY += crossY;
+				normalZ += crossZ;
+				area += triangleArea;
+			}
+			
+			centerX += x;
+			centerY += y;
+			centerZ += z;
+			totalArea += area;
+			
+			float normalLength = (float)Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+			float inverseArea = area == 0 ? 0 : 1 / area;
+			float inverseNormalLength = normalLength == 0 ? 0 : 1 / normalLength;
+			
+			normalX *= inverseNormalLength;
+			normalY *= inverseNormalLength;
+			normalZ *= inverseNormalLength;
+			
+			// Store the normal of the cluster, and the distance of its centroid along the normal
+			clusterData[cluster * 4] = normalX;
+			clusterData[cluster * 4 + 1] = normalY;
+			clusterData[cluster * 4 + 2] = normalZ;
+			clusterData[cluster * 4 + 3] = (normalX * x + normalY * y + normalZ * z) * inverseArea;
+		}
+		
+		float inverseTotalArea = totalArea == 0 ? 0 : 1 / totalArea;
+		
+		centerX *= inverseTotalArea;
+		centerY *= inverseTotalArea;
+		centerZ *= inverseTotalArea;
+		
+		// Sort the clusters by how much they face away from the center of the mesh, outwards facing clusters first
+		long[] sortKeys = new long[numClusters];
+		
+		for(int cluster = 0; cluster < numClusters; cluster++)
+		{
+			float dot = clusterData[cluster * 4 + 3] - (clusterData[cluster * 4] * centerX + clusterData[cluster * 4 + 1] * centerY + clusterData[cluster * 4 + 2] * centerZ);
+			sortKeys[cluster] = ((long)toSortableInt(-dot) << 32) | cluster;
+		}
+		
+		Arrays.sort(sortKeys);
+		
+		int[] result = new int[numIndices];
+		int output = 0;
+		
+		for(long sortKey : sortKeys)
+		{
+			int cluster = (int)sortKey;
+			int start = clusters[cluster] * 3;
+			int end = clusters[cluster + 1] * 3;
+			
+			System.arraycopy(indices, start, result, output, end - start);
+			output += end - start;
+		}
+		
+		System.arraycopy(indices, numTriangles * 3, result, output, numIndices - numTriangles * 3);
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Remap the vertices in the order they are first used by the indices, the indices are updated in place.
+	 * Vertices which are not used by any index are moved to the end.
+	 * </p>
+	 *
+	 * @param indices The indices.
+	 * @param numIndices The number of indices.
+	 * @param numVertices The number of vertices.
+	 * @return For every new vertex, the index of the old vertex.
+	 */
+	static int[] optimizeVertexFetch(int[] indices, int numIndices, int numVertices)
+	{
+		int[] remap = new int[numVertices];
+		int[] result = new int[numVertices];
+		int next = 0;
+		
+		Arrays.fill(remap, -1);
+		
+		for(int i = 0; i < numIndices; i++)
+		{
+			int vertex = indices[i];
+			
+			if(remap[vertex] < 0)
+			{
+				remap[vertex] = next;
+				result[next++] = vertex;
+			}
+			
+			indices[i] = remap[vertex];
+		}
+		
+		for(int i = 0; i < numVertices; i++)
+		{
+			if(remap[i] < 0)
+			{
+				result[next++] = i;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Reorder packed attribute data.
+	 * </p>
+	 *
+	 * @param array The attribute data.
+	 * @param order For every new vertex, the index of the old vertex.
+	 */
+	static void reorder(FloatArray array, int[] order)
+	{
+		float[] result = Arrays.copyOf(array.data, array.data.length);
+		
+		for(int i = 0; i < order.length; i++)
+		{
+			System.arraycopy(array.data, order[i] * array.components, result, i * array.components, array.components);
+		}
+		
+		array.data = result;
+	}
+	
+	/**
+	 * <p>
+	 * Count the number of vertex cache misses of the indices, using a FIFO cache of {@link #CACHE_SIZE} vertices.
+	 * </p>
+	 *
+	 * @param indices The indices.
+	 * @param numIndices The number of indices.
+	 * @param numVertices The number of vertices.
+	 * @return The number of cache misses.
+	 */
+	static int getCacheMisses(int[] indices, int numIndices, int numVertices)
+	{
+		int[] cacheTimes = new int[numVertices];
+		int time = CACHE_SIZE + 1;
+		int misses = 0;
+		
+		for(int i = 0; i < numIndices; i++)
+		{
+			int vertex = indices[i];
+			
+			if(time - cacheTimes[vertex] > CACHE_SIZE)
+			{
+				cacheTimes[vertex] = time++;
+				misses++;
+			}
+		}
+		
+		return misses;
+	}
+	
+	/**
+	 * <p>
+	 * Count the number of distinct vertices used by the indices.
+	 * </p>
+	 *
+	 * @param indices The indices.
+	 * @param numIndices The number of indices.
+	 * @param numVertices The number of vertices.
+	 * @return The number of used vertices.
+	 */
+	static int getUsedVertices(int[] indices, int numIndices, int numVertices)
+	{
+		boolean[] used = new boolean[numVertices];
+		int result = 0;
+		
+		for(int i = 0; i < numIndices; i++)
+		{
+			if(!used[indices[i]])
+			{
+				used[indices[i]] = true;
+				result++;
+			}
+		}
+		
+		return result;
+	}
+	
+	private static int getNextVertex(int[] candidates, int numCandidates, int[] live, int[] cacheTimes, int time)
+	{
+		int result = -1;
+		int bestPriority = -1;
+		
+		for(int i = 0; i < numCandidates; i++)
+		{
+			int vertex = candidates[i];
+			
+			if(live[vertex] <= 0)
+			{
+				continue;
+			}
+			
+			// Prefer the oldest vertex that will still be in the cache after emitting all of its triangles
+			int priority = 0;
+			
+			if(time - cacheTimes[vertex] + 2 * live[vertex] <= CACHE_SIZE)
+			{
+				priority = time - cacheTimes[vertex];
+			}
+			
+			if(priority > bestPriority)
+			{
+				bestPriority = priority;
+				result = vertex;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Split the triangles into clusters. A cluster ends where the vertex cache is flushed, or where its ACMR
+	 * so far is low enough that starting a new cluster will not hurt the vertex cache much.
+	 * </p>
+	 *
+	 * @return The first triangle of every cluster, followed by the number of triangles.
+	 */
+	private static int[] getClusters(int[] indices, int numTriangles, int numVertices)
+	{
+		int[] cacheTimes = new int[numVertices];
+		int[] hardBoundaries = new int[numTriangles + 1];
+		int numHardBoundaries = 0;
+		int time = CACHE_SIZE + 1;
+		
+		for(int triangle = 0; triangle < numTriangles; triangle++)
+		{
+			int misses = 0;
+			
+			for(int j = 0; j < 3; j++)
+			{
+				int vertex = indices[triangle * 3 + j];
+				
+				if(time - cacheTimes[vertex] > CACHE_SIZE)
+				{
+					cacheTimes[vertex] = time++;
+					misses++;
+				}
+			}
+			
+			if(misses == 3 || triangle == 0)
+			{
+				hardBoundaries[numHardBoundaries++] = triangle;
+			}
+		}
+		
+		hardBoundaries[numHardBoundaries] = numTriangles;
+		
+		int[] result = new int[numTriangles + 1];
+		int numClusters = 0;
+		
+		for(int i = 0; i < numHardBoundaries; i++)
+		{
+			int start = hardBoundaries[i];
+			int end = hardBoundaries[i + 1];
+			
+			// Advancing the time by the size of the cache flushes it
+			time += CACHE_SIZE + 1;
+			
+			int misses = 0;
+			
+			for(int j = start * 3; j < end * 3; j++)
+			{
+				if(time - cacheTimes[indices[j]] > CACHE_SIZE)
+				{
+					cacheTimes[indices[j]] = time++;
+					misses++;
+				}
+			}
+			
+			float threshold = (float)misses / (end - start) * OVERDRAW_THRESHOLD;
+			int clusterStart = start;
+			
+			time += CACHE_SIZE + 1;
+			misses = 0;
+			
+			result[numClusters++] = start;
+			
+			for(int triangle = start; triangle < end - 1; triangle++)
+			{
+				for(int j = 0; j < 3; j++)
+				{
+					int vertex = indices[triangle * 3 + j];
+					
+					if(time - cacheTimes[vertex] > CACHE_SIZE)
+					{
+						cacheTimes[vertex] = time++;
+						misses++;
+					}
+				}
+				
+				int size = triangle + 1 - clusterStart;
+				
+				if(size >= CACHE_SIZE && (float)misses / size <= threshold)
+				{
+					// The next cluster may be drawn after any other cluster, so it starts with a cold cache
+					time += CACHE_SIZE + 1;
+					misses = 0;
+					
+					clusterStart = triangle + 1;
+					result[numClusters++] = clusterStart;
+				}
+			}
+		}
+		
+		result[numClusters] = numTriangles;
+		return Arrays.copyOf(result, numClusters + 1);
+	}
+	
+	private static int toSortableInt(float value)
+	{
+		int bits = Float.floatToIntBits(value);
+		return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+	}
+}
@@ -0,0 +1,388 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Simplifies meshes by collapsing edges, ordered by their quadric error.
+ * </p>
+ *
+ * <p>
+ * Every vertex accumulates the area-weighted planes of the triangles around it into a quadric, the error
+ * of moving a vertex onto a neighbour is the squared distance of the neighbour to those planes. Edges are
+ * collapsed onto existing vertices, so the simplified mesh only consists of new indices, and can share the
+ * vertices of the original mesh.
+ * </p>
+ *
+ * <p>
+ * Vertices on a border, or on a seam where the texCoords or normals are split, are never moved, which keeps
+ * the outline and texture mapping of the mesh intact.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class MeshSimplifier
+{
+	private static final int QUADRIC_SIZE = 10;
+	private static final float MIN_NORMAL_COSINE = 0.25f;
+	
+	private MeshSimplifier()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Simplify a mesh.
+	 * </p>
+	 *
+	 * <p>
+	 * The result can contain more indices than requested if the mesh can't be simplified any further.
+	 * </p>
+	 *
+	 * @param vertices The packed vertices.
+	 * @param numVertices The number of vertices.
+	 * @param indices The indices.
+	 * @param numIndices The number of indices.
+	 * @param targetNumIndices The number of indices to simplify to.
+	 * @return The indices of the simplified mesh.
+	 */
+	static int[] simplify(float[] vertices, int numVertices, int[] indices, int numIndices, int targetNumIndices)
+	{
+		int numTriangles = numIndices / 3;
+		int[] result = Arrays.copyOf(indices, numTriangles * 3);
+		
+		boolean[] locked = getLockedVertices(result, numTriangles, numVertices);
+		double[] quadrics = getQuadrics(vertices, numVertices, result, numTriangles);
+		
+		int[] collapses = new int[numVertices];
+		int[] touched = new int[numVertices];
+		int pass = 0;
+		
+		Arrays.fill(collapses, -1);
+		
+		while(numTriangles * 3 > targetNumIndices)
+		{
+			pass++;
+			
+			// The triangles adjacent to every vertex, packed
+			int[] adjacencyOffsets = new int[numVertices + 1];
+			int[] adjacency = new int[numTriangles * 3];
+			
+			for(int i = 0; i < numTriangles * 3; i++)
+			{
+				adjacencyOffsets[result[i] + 1]++;
+			}
+			
+			for(int i = 0; i < numVertices; i++)
+			{
+				adjacencyOffsets[i + 1] += adjacencyOffsets[i];
+			}
+			
+			int[] fill = Arrays.copyOf(adjacencyOffsets, numVertices);
+			
+			for(int i = 0; i < numTriangles * 3; i++)
+			{
+				adjacency[fill[result[i]]++] = i / 3;
+			}
+			
+			// Every edge is a candidate to collapse its first vertex onto its second vertex
+			long[] candidates = new long[numTriangles * 3];
+			int numCandidates = 0;
+			
+			for(int i = 0; i < numTriangles * 3; i++)
+			{
+				int source = result[i];
+				int target = result[i % 3 == 2 ? i - 2 : i + 1];
+				
+				if(locked[source])
+				{
+					continue;
+				}
+				
+				float error = (float)Math.max(0, getError(quadrics, source, vertices, target));
+				candidates[numCandidates++] = ((long)Float.floatToIntBits(error) << 32) | i;
+			}
+			
+			Arrays.sort(candidates, 0, numCandidates);
+			
+			int trianglesToRemove = numTriangles - targetNumIndices / 3;
+			int removedTriangles = 0;
+			
+			for(int i = 0; i < numCandidates && removedTriangles < trianglesToRemove; i++)
+			{
+				int corner = (int)candidates[i];
+				int source = result[corner];
+				int target = result[corner % 3 == 2 ? corner - 2 : corner + 1];
+				
+				if(touched[source] == pass || touched[target] == pass || flips(vertices, result, adjacency, adjacencyOffsets, source, target))
+				{
+					continue;
+				}
+				
+				collapses[source] = target;
+				
+				for(int j = 0; j < QUADRIC_SIZE; j++)
+				{
+					quadrics[target * QUADRIC_SIZE + j] += quadrics[source * QUADRIC_SIZE + j];
+				}
+				
+				// The triangles around the source change shape, don't collapse any of their vertices in this pass
+				for(int j = adjacencyOffsets[source]; j < adjacencyOffsets[source + 1]; j++)
+				{
+					int triangle = adjacency[j];
+					
+					touched[result[triangle * 3]] = pass;
+					touched[result[triangle * 3 + 1]] = pass;
+					touched[result[triangle * 3 + 2]] = pass;
+					
+					if(result[triangle * 3] == target || result[triangle * 3 + 1] == target || result[triangle * 3 + 2] == target)
+					{
+						removedTriangles++;
+					}
+				}
+			}
+			
+			if(removedTriangles == 0)
+			{
+				break;
+			}
+			
+			int output = 0;
+			
+			for(int triangle = 0; triangle < numTriangles; triangle++)
+			{
+				int i0 = collapse(collapses, result[triangle * 3]);
+				int i1 = collapse(collapses, result[triangle * 3 + 1]);
+				int i2 = collapse(collapses, result[triangle * 3 + 2]);
+				
+				if(i0 != i1 && i1 != i2 && i2 != i0)
+				{
+					result[output++] = i0;
+					result[output++] = i1;
+					result[output++] = i2;
+				}
+			}
+			
+			numTriangles = output / 3;
+		}
+		
+		return Arrays.copyOf(result, numTriangles * 3);
+	}
+	
+	private static int collapse(int[] collapses, int vertex)
+	{
+		return collapses[vertex] >= 0 ? collapses[vertex] : vertex;
+	}
+	
+	/**
+	 * <p>
+	 * Find the vertices on a border, where an edge is used by only one triangle, or on a non-manifold edge,
+	 * where an edge is used by more than two triangles. Seams are borders, because the vertices on either
+	 * side of a seam are different vertices.
+	 * </p>
+	 */
+	private static boolean[] getLockedVertices(int[] indices, int numTriangles, int numVertices)
+	{
+		int capacity = Integer.highestOneBit(Math.max(1, numTriangles * 3)) << 2;
+		long[] keys = new long[capacity];
+		int[] counts = new int[capacity];
+		
+		Arrays.fill(keys, -1);
+		
+		for(int i = 0; i < numTriangles * 3; i++)
+		{
+			counts[findEdge(keys, indices[i], indices[i % 3 == 2 ? i - 2 : i + 1])]++;
+		}
+		
+		boolean[] result = new boolean[numVertices];
+		
+		for(int i = 0; i < numTriangles * 3; i++)
+		{
+			int a = indices[i];
+			int b = indices[i % 3 == 2 ? i - 2 : i + 1];
+			
+			if(counts[findEdge(keys, a, b)] != 1 || counts[findEdge(keys, b, a)] != 1)
+			{
+				result[a] = true;
+				result[b] = true;
+			}
+		}
+		
+		return result;
+	}
+	
+	private static int findEdge(long[] keys, int a, int b)
+	{
+		long key = ((long)a << 32) | (b & 0xFFFFFFFFL);
+		int mask = keys.length - 1;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int)(hash ^ (hash >>> 32)) & mask;
+		
+		while(keys[slot] != key && keys[slot] != -1)
+		{
+			slot = (slot + 1) & mask;
+		}
+		
+		keys[slot] = key;
+		return slot;
+	}
+	
+	private static double[] getQuadrics(float[] vertices, int numVertices, int[] indices, int numTriangles)
+	{
+		double[] result = new double[numVertices * QUADRIC_SIZE];
+		
+		for(int triangle = 0; triangle < numTriangles; triangle++)
+		{
+			int i0 = indices[triangle * 3];
+			int i1 = indices[triangle * 3 + 1];
+			int i2 = indices[triangle * 3 + 2];
+			
+			double x1 = vertices[i1 * 3] - vertices[i0 * 3];
+			double y1 = vertices[i1 * 3 + 1] - vertices[i0 * 3 + 1];
+			double z1 = vertices[i1 * 3 + 2] - vertices[i0 * 3 + 2];
+			
+			double x2 = vertices[i2 * 3] - vertices[i0 * 3];
+			double y2 = vertices[i2 * 3 + 1] - vertices[i0 * 3 + 1];
+			double z2 = vertices[i2 * 3 + 2] - vertices[i0 * 3 + 2];
+			
+			double a = y1 * z2 - z1 * y2;
+			double b = z1 * x2 - x1 * z2;
+			double c = x1 * y2 - y1 * x2;
+			
+			double length = Math.sqrt(a * a + b * b + c * c);
+			
+			if(length == 0)
+			{
+				continue;
+			}
+			
+			// The plane of the triangle (ax + by + cz + d = 0), weighted by the area of the triangle
+			double area = length * 0.5;
+			
+			a /= length;
+			b /= length;
+			c /= length;
+			
+			double d = -(a * vertices[i0 * 3] + b * vertices[i0 * 3 + 1] + c * vertices[i0 * 3 + 2]);
+			
+			addQuadric(result, i0, a, b, c, d, area);
+			addQuadric(result, i1, a, b, c, d, area);
+			addQuadric(result, i2, a, b, c, d, area);
+		}
+		
+		return result;
+	}
+	
+	private static void addQuadric(double[] quadrics, int vertex, double a, double b, double c, double d, double weight)
+	{
+		int offset = vertex * QUADRIC_SIZE;
+		
+		quadrics[offset] += a * a * weight;
+		quadrics[offset + 1] += a * b * weight;
+		quadrics[offset + 2] += a * c * weight;
+		quadrics[offset + 3] += a * d * weight;
+		quadrics[offset + 4] += b * b * weight;
+		quadrics[offset + 5] += b * c * weight;
+		quadrics[offset + 6] += b * d * weight;
+		quadrics[offset + 7] += c * c * weight;
+		quadrics[offset + 8] += c * d * weight;
+		quadrics[offset + 9] += d * d * weight;
+	}
+	
+	private static double getError(double[] quadrics, int vertex, float[] vertices, int position)
+	{
+		int offset = vertex * QUADRIC_SIZE;
+		
+		double x = vertices[position * 3];
+		double y = vertices[position * 3 + 1];
+		double z = vertices[position * 3 + 2];
+		
+		return quadrics[offset] * x * x + 2 * quadrics[offset + 1] * x * y + 2 * quadrics[offset + 2] * x * z + 2 * quadrics[offset + 3] * x +
+				quadrics[offset + 4] * y * y + 2 * quadrics[offset + 5] * y * z + 2 * quadrics[offset + 6] * y +
+				quadrics[offset + 7] * z * z + 2 * quadrics[offset + 8] * z +
+				quadrics[offset + 9];
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not moving the {@code source} vertex onto the {@code target} vertex would flip any of the
+	 * triangles around the {@code source}.
+	 * </p>
+	 */
+	private static boolean flips(float[] vertices, int[] indices, int[] adjacency, int[] adjacencyOffsets, int source, int target)
+	{
+		for(int i = adjacencyOffsets[source]; i < adjacencyOffsets[source + 1]; i++)
+		{
+			int triangle = adjacency[i] * 3;
+			int corner = indices[triangle] == source ? 0 : indices[triangle + 1] == source ? 1 : 2;
+			
+			int i1 = indices[triangle + (corner + 1) % 3];
+			int i2 = indices[triangle + (corner + 2) % 3];
+			
+			if(i1 == target || i2 == target)
+			{
+				continue;
+			}
+			
+			float x1 = vertices[i1 * 3];
+			float y1 = vertices[i1 * 3 + 1];
+			float z1 = vertices[i1 * 3 + 2];
+			
+			float edgeX = vertices[i2 * 3] - x1;
+			float edgeY = vertices[i2 * 3 + 1] - y1;
+			float edgeZ = vertices[i2 * 3 + 2] - z1;
+			
+			float sourceX = vertices[source * 3] - x1;
+			float sourceY = vertices[source * 3 + 1] - y1;
+			float sourceZ = vertices[source * 3 + 2] - z1;
+			
+			float targetX = vertices[target * 3] - x1;
+			float targetY = vertices[target * 3 + 1] - y1;
+			float targetZ = vertices[target * 3 + 2] - z1;
+			
+			// The normal of the triangle before and after the collapse, the opposite edge doesn't move
+			float normalX = edgeY * sourceZ - edgeZ * sourceY;
+			float normalY = edgeZ * sourceX - edgeX * sourceZ;
+			float normalZ = edgeX * sourceY - edgeY * sourceX;
+			
+			float newNormalX = edgeY * targetZ - edgeZ * targetY;
+			float newNormalY = edgeZ * targetX - edgeX * targetZ;
+			float newNormalZ = edgeX * targetY - edgeY * targetX;
+			
+			float dot = normalX * newNormalX + normalY * newNormalY + normalZ * newNormalZ;
+			float lengths = (float)Math.sqrt((normalX * normalX + normalY * normalY + normalZ * normalZ) * (newNormalX * newNormalX + newNormalY * newNormalY + newNormalZ * newNormalZ));
+			
+			// Reject flipped triangles, and triangles that rotate by more than about 75 degrees
+			if(dot <= MIN_NORMAL_COSINE * lengths)
+			{
+				return true;
+			}
+		}
+		
+		return false;
+	}
+}
@@ -0,0 +1,266 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Generates smooth normals and tangents over packed primitive arrays.
+ * </p>
+ *
+ * <p>
+ * The contribution of every triangle is accumulated per vertex, without allocating anything per triangle.
+ * Large meshes are split into triangle ranges which are accumulated in parallel, every range writes into
+ * its own accumulator, the accumulators are summed and normalized in parallel afterwards.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class NormalGenerator
+{
+	private static final int MIN_TRIANGLES_PER_TASK = 65536;
+	
+	private NormalGenerator()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Generate smooth normals.
+	 * </p>
+	 *
+	 * @param vertices The packed vertices.
+	 * @param numVertices The number of vertices.
+	 * @param indices The indices.
+	 * @param numIndices The number of indices.
+	 * @param angleWeighted Whether or not to weigh every face normal by the angle of the corner, instead of uniformly.
+	 * @return The packed normals.
+	 */
+	static float[] generateNormals(float[] vertices, int numVertices, int[] indices, int numIndices, boolean angleWeighted)
+	{
+		return generate(numVertices, numIndices, (accumulator, start, end) ->
+				accumulateNormals(vertices, indices, start, end, angleWeighted, accumulator));
+	}
+	
+	/**
+	 * <p>
+	 * Generate smooth tangents.
+	 * </p>
+	 *
+	 * @param vertices The packed vertices.
+	 * @param texCoords The packed texCoords.
+	 * @param numVertices The number of vertices.
+	 * @param indices The indices.
+	 * @param numIndices The number of indices.
+	 * @return The packed tangents.
+	 */
+	static float[] generateTangents(float[] vertices, float[] texCoords, int numVertices, int[] indices, int numIndices)
+	{
+		return generate(numVertices, numIndices, (accumulator, start, end) ->
+				accumulateTangents(vertices, texCoords, indices, start, end, accumulator));
+	}
+	
+	private static float[] generate(int numVertices, int numIndices, Kernel kernel)
+	{
+		int numTriangles = numIndices / 3;
+		int numTasks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), numTriangles / MIN_TRIANGLES_PER_TASK));
+		
+		float[][] accumulators = new float[numTasks][];
+		
+		for(int i = 0; i < numTasks; i++)
+		{
+			accumulators[i] = new float[numVertices * 3];
+		}
+		
+		if(numTasks == 1)
+		{
+			kernel.accumulate(accumulators[0], 0, numTriangles);
+			normalize(accumulators, 0, numVertices);
+			
+			return accumulators[0];
+		}
+		
+		IntStream.range(0, numTasks).parallel().forEach(task ->
+				kernel.accumulate(accumulators[task], range(numTriangles, numTasks, task), range(numTriangles, numTasks, task + 1)));
+		
+		IntStream.range(0, numTasks).parallel().forEach(task ->
+				normalize(accumulators, range(numVertices, numTasks, task), range(numVertices, numTasks, task + 1)));
+		
+		return accumulators[0];
+	}
+	
+	private static void accumulateNormals(float[] vertices, int[] indices, int start, int end, boolean angleWeighted, float[] normals)
+	{
+		for(int triangle = start; triangle < end; triangle++)
+		{
+			int i0 = indices[triangle * 3] * 3;
+			int i1 = indices[triangle * 3 + 1] * 3;
+			int i2 = indices[triangle * 3 + 2] * 3;
+			
+			float x1 = vertices[i1] - vertices[i0];
+			float y1 = vertices[i1 + 1] - vertices[i0 + 1];
+			float z1 = vertices[i1 + 2] - vertices[i0 + 2];
+			
+			float x2 = vertices[i2] - vertices[i0];
+			float y2 = vertices[i2 + 1] - vertices[i0 + 1];
+			float z2 = vertices[i2 + 2] - vertices[i0 + 2];
+			
+			float x = y1 * z2 - z1 * y2;
+			float y = z1 * x2 - x1 * z2;
+			float z = x1 * y2 - y1 * x2;
+			
+			float length = (float)Math.sqrt(x * x + y * y + z * z);
+			
+			if(length == 0)
+			{
+				continue;
+			}
+			
+			x /= length;
+			y /= length;
+			z /= length;
+			
+			if(!angleWeighted)
+			{
+				add(normals, i0, x, y, z, 1);
+				add(normals, i1, x, y, z, 1);
+				add(normals, i2, x, y, z, 1);
+				continue;
+			}
+			
+			float x3 = vertices[i2] - vertices[i1];
+			float y3 = vertices[i2 + 1] - vertices[i1 + 1];
+			float z3 = vertices[i2 + 2] - vertices[i1 + 2];
+			
+			float length1 = (float)Math.sqrt(x1 * x1 + y1 * y1 + z1 * z1);
+			float length2 = (float)Math.sqrt(x2 * x2 + y2 * y2 + z2 * z2);
+			float length3 = (float)Math.sqrt(x3 * x3 + y3 * y3 + z3 * z3);
+			
+			// The angle of every corner, between the two edges that meet at the corner
+			float angle0 = angle(x1 * x2 + y1 * y2 + z1 * z2, length1 * length2);
+			float angle1 = angle(-(x1 * x3 + y1 * y3 + z1 * z3), length1 * length3);
+			float angle2 = (float)Math.PI - angle0 - angle1;
+			
+			add(normals, i0, x, y, z, angle0);
+			add(normals, i1, x, y, z, angle1);
+			add(normals, i2, x, y, z, angle2);
+		}
+	}
+	
+	private static void accumulateTangents(float[] vertices, float[] texCoords, int[] indices, int start, int end, float[] tangents)
+	{
+		for(int triangle = start; triangle < end; triangle++)
+		{
+			int i0 = indices[triangle * 3];
+			int i1 = indices[triangle * 3 + 1];
+			int i2 = indices[triangle * 3 + 2];
+			
+			float edge1x = vertices[i1 * 3] - vertices[i0 * 3];
+			float edge1y = vertices[i1 * 3 + 1] - vertices[i0 * 3 + 1];
+			float edge1z = vertices[i1 * 3 + 2] - vertices[i0 * 3 + 2];
+			
+			float edge2x = vertices[i2 * 3] - vertices[i0 * 3];
+			float edge2y = vertices[i2 * 3 + 1] - vertices[i0 * 3 + 1];
+			float edge2z = vertices[i2 * 3 + 2] - vertices[i0 * 3 + 2];
+			
+			float deltaU1 = texCoords[i1 * 2] - texCoords[i0 * 2];
+			float deltaV1 = texCoords[i1 * 2 + 1] - texCoords[i0 * 2 + 1];
+			float deltaU2 = texCoords[i2 * 2] - texCoords[i0 * 2];
+			float deltaV2 = texCoords[i2 * 2 + 1] - texCoords[i0 * 2 + 1];
+			
+			float dividend = deltaU1 * deltaV2 - deltaU2 * deltaV1;
+			float f = dividend == 0 ? 0 : 1 / dividend;
+			
+			float x = f * (deltaV2 * edge1x - deltaV1 * edge2x);
+			float y = f * (deltaV2 * edge1y - deltaV1 * edge2y);
+			float z = f * (deltaV2 * edge1z - deltaV1 * edge2z);
+			
+			add(tangents, i0 * 3, x, y, z, 1);
+			add(tangents, i1 * 3, x, y, z, 1);
+			add(tangents, i2 * 3, x, y, z, 1);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Sum the vertices in a range of every accumulator into the first accumulator, and normalize the result.
+	 * </p>
+	 */
+	private static void normalize(float[][] accumulators, int start, int end)
+	{
+		float[] result = accumulators[0];
+		
+		for(int i = 1; i < accumulators.length; i++)
+		{
+			float[] accumulator = accumulators[i];
+			
+			for(int j = start * 3; j < end * 3; j++)
+			{
+				result[j] += accumulator[j];
+			}
+		}
+		
+		for(int i = start * 3; i < end * 3; i += 3)
+		{
+			float length = (float)Math.sqrt(result[i] * result[i] + result[i + 1] * result[i + 1] + result[i + 2] * result[i + 2]);
+			
+			if(length > 0)
+			{
+				result[i] /= length;
+				result[i + 1] /= length;
+				result[i + 2] /= length;
+			}
+		}
+	}
+	
+	private static void add(float[] data, int offset, float x, float y, float z, float weight)
+	{
+		data[offset] += x * weight;
+		data[offset + 1] += y * weight;
+		data[offset + 2] += z * weight;
+	}
+	
+	private static float angle(float dot, float lengths)
+	{
+		if(lengths == 0)
+		{
+			return 0;
+		}
+		
+		return (float)Math.acos(Math.max(-1, Math.min(1, dot / lengths)));
+	}
+	
+	private static int range(int count, int numTasks, int task)
+	{
+		return (int)((long)count * task / numTasks);
+	}
+	
+	@FunctionalInterface
+	private interface Kernel
+	{
+		void accumulate(float[] accumulator, int startTriangle, int endTriangle);
+	}
+}
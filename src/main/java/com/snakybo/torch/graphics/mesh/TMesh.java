@@ -0,0 +1,586 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import com.snakybo.torch.util.MathUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A cooked, binary mesh.
+ * </p>
+ *
+ * <p>
+ * A {@code .tmesh} file contains the vertices of a mesh interleaved exactly as they are stored on the GPU,
+ * followed by the indices of every LOD. Loading a {@code .tmesh} memory-maps the file, and the vertex and
+ * index data are uploaded to the GPU straight from the mapped file. The data is only decoded into the
+ * {@link Mesh} if it's accessed from the CPU.
+ * </p>
+ *
+ * <p>
+ * The file is stored in little-endian byte order, including the vertex and index data which are
+ * uploaded as-is, and starts with a header:
+ * </p>
+ *
+ * <pre>
+ * int     magic ("TMSH")
+ * int     version
+ * int     flags, see the FLAG_ constants
+ * int     number of vertices
+ * int     number of indices, of all LODs
+ * int     vertex size in bytes
+ * int     texCoord offset in bytes
+ * int     normal offset in bytes
+ * int     tangent offset in bytes
+ * float[] bounds (min x, y, z, max x, y, z)
+ * int     number of LODs
+ * int     vertex data offset in bytes
+ * int     vertex data size in bytes
+ * int     index data offset in bytes
+ * int     index data size in bytes
+ * LOD[]   LODs (int first index, int number of indices, float screen size, float ratio of triangles)
+ * </pre>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class TMesh
+{
+	public static final String EXTENSION = "tmesh";
+	
+	public static final int FLAG_TEXCOORDS = 1;
+	public static final int FLAG_NORMALS = 1 << 1;
+	public static final int FLAG_TANGENTS = 1 << 2;
+	public static final int FLAG_HALF_TEXCOORDS = 1 << 3;
+	public static final int FLAG_OCTAHEDRAL_NORMALS = 1 << 4;
+	public static final int FLAG_SHORT_INDICES = 1 << 5;
+	
+	private static final int MAGIC = 'T' | 'M' << 8 | 'S' << 16 | 'H' << 24;
+	private static final int VERSION = 2;
+	
+	private static final int HEADER_SIZE = 80;
+	private static final int LOD_SIZE = 16;
+	private static final int DATA_ALIGNMENT = 16;
+	
+	private final int flags;
+	private final int numVertices;
+	private final int numIndices;
+	private final int stride;
+	private final int texCoordOffset;
+	private final int normalOffset;
+	private final int tangentOffset;
+	
+	private final float[] bounds;
+	
+	private int[] lodFirstIndices;
+	private int[] lodNumIndices;
+	private float[] lodScreenSizes;
+	private float[] lodRatios;
+	
+	private final ByteBuffer vertexData;
+	private final ByteBuffer indexData;
+	
+	/**
+	 * <p>
+	 * Create a new {@code TMesh}, the mesh has a single LOD containing every index.
+	 * </p>
+	 *
+	 * @param flags The flags, see the FLAG_ constants.
+	 * @param numVertices The number of vertices.
+	 * @param numIndices The number of indices, of all LODs.
+	 * @param stride The size of a vertex in bytes.
+	 * @param texCoordOffset The offset of the texCoord in a vertex.
+	 * @param normalOffset The offset of the normal in a vertex.
+	 * @param tangentOffset The offset of the tangent in a vertex.
+	 * @param bounds The bounds of the mesh (min x, y, z, max x, y, z).
+	 * @param vertexData The interleaved vertex data.
+	 * @param indexData The index data.
+	 */
+	public TMesh(int flags, int numVertices, int numIndices, int stride, int texCoordOffset, int normalOffset, int tangentOffset, float[] bounds, ByteBuffer vertexData, ByteBuffer indexData)
+	{
+		this.flags = flags;
+		this.numVertices = numVertices;
+		this.numIndices = numIndices;
+		this.stride = stride;
+		this.texCoordOffset = texCoordOffset;
+		this.normalOffset = normalOffset;
+		this.tangentOffset = tangentOffset;
+		this.bounds = bounds;
+		this.vertexData = vertexData;
+		this.indexData = indexData;
+		
+		lodFirstIndices = new int[] { 0 };
+		lodNumIndices = new int[] { numIndices };
+		lodScreenSizes = new float[] { Float.POSITIVE_INFINITY };
+		lodRatios = new float[] { 1 };
+	}
+	
+	/**
+	 * <p>
+	 * Read a {@code TMesh} from a buffer, the vertex and index data are slices of the buffer.
+	 * </p>
+	 *
+	 * <p>
+	 * The header is checked against the size of the buffer, so a truncated or stale file is rejected here rather
+	 * than when its data is uploaded.
+	 * </p>
+	 *
+	 * @param name The name of the file, used in error messages.
+	 * @param data The contents of a {@code .tmesh} file.
+	 * @return The {@code TMesh}.
+	 * @throws IOException If the data is not a supported, valid {@code .tmesh} file.
+	 */
+	public static TMesh read(String name, ByteBuffer data) throws IOException
+	{
+		ByteBuffer header = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int size = header.limit();
+		
+		if(size < HEADER_SIZE || header.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not a " + EXTENSION + " file: " + name);
+		}
+		
+		int version = header.getInt(4);
+		
+		if(version != VERSION)
+		{
+			throw new IOException("Unsupported " + EXTENSION + " version: " + version + ", expected: " + VERSION + ": " + name);
+		}
+		
+		int flags = header.getInt(8);
+		int numVertices = header.getInt(12);
+		int numIndices = header.getInt(16);
+		int stride = header.getInt(20);
+		int numLods = header.getInt(60);
+		int vertexDataOffset = header.getInt(64);
+		int vertexDataSize = header.getInt(68);
+		int indexDataOffset = header.getInt(72);
+		int indexDataSize = header.getInt(76);
+		
+		int indexSize = (flags & FLAG_SHORT_INDICES) != 0 ? Short.BYTES : Integer.BYTES;
+		
+		check(name, numVertices >= 0 && numIndices >= 0 && stride >= 3 * Float.BYTES, "invalid vertex layout");
+		check(name, isAttributeInVertex(flags, FLAG_TEXCOORDS, header.getInt(24), stride), "invalid texCoord offset");
+		check(name, isAttributeInVertex(flags, FLAG_NORMALS, header.getInt(28), stride), "invalid normal offset");
+		check(name, isAttributeInVertex(flags, FLAG_TANGENTS, header.getInt(32), stride), "invalid tangent offset");
+		check(name, numLods >= 1 && HEADER_SIZE + (long)numLods * LOD_SIZE <= size, "the LOD table exceeds the file");
+		check(name, isInRange(vertexDataOffset, vertexDataSize, size), "the vertex data exceeds the file");
+		check(name, isInRange(indexDataOffset, indexDataSize, size), "the index data exceeds the file");
+		check(name, (long)numVertices * stride <= vertexDataSize, "the vertex data is smaller than " + numVertices + " vertices");
+		check(name, (long)numIndices * indexSize <= indexDataSize, "the index data is smaller than " + numIndices + " indices");
+		
+		float[] bounds = new float[6];
+		
+		for(int i = 0; i < bounds.length; i++)
+		{
+			bounds[i] = header.getFloat(36 + i * 4);
+		}
+		
+		TMesh result = new TMesh(flags, numVertices, numIndices, stride,
+				header.getInt(24), header.getInt(28), header.getInt(32), bounds,
+				slice(data, vertexDataOffset, vertexDataSize), slice(data, indexDataOffset, indexDataSize));
+		
+		result.lodFirstIndices = new int[numLods];
+		result.lodNumIndices = new int[numLods];
+		result.lodScreenSizes = new float[numLods];
+		result.lodRatios = new float[numLods];
+		
+		for(int i = 0; i < numLods; i++)
+		{
+			int offset = HEADER_SIZE + i * LOD_SIZE;
+			
+			result.lodFirstIndices[i] = header.getInt(offset);
+			result.lodNumIndices[i] = header.getInt(offset + 4);
+			result.lodScreenSizes[i] = header.getFloat(offset + 8);
+			result.lodRatios[i] = header.getFloat(offset + 12);
+			
+			check(name, isInRange(result.lodFirstIndices[i], result.lodNumIndices[i], numIndices), "LOD " + i + " exceeds the indices");
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Write the {@code TMesh} to a file.
+	 * </p>
+	 *
+	 * @param target The file to write to.
+	 * @throws IOException If the file could not be written.
+	 */
+	public final void write(Path target) throws IOException
+	{
+		int numLods = lodFirstIndices.length;
+		int vertexDataOffset = align(HEADER_SIZE + numLods * LOD_SIZE);
+		int indexDataOffset = align(vertexDataOffset + vertexData.remaining());
+		
+		ByteBuffer header = ByteBuffer.allocate(vertexDataOffset).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(flags);
+		header.putInt(numVertices).putInt(numIndices);
+		header.putInt(stride).putInt(texCoordOffset).putInt(normalOffset).putInt(tangentOffset);
+		
+		for(float bound : bounds)
+		{
+			header.putFloat(bound);
+		}
+		
+		header.putInt(numLods);
+		header.putInt(vertexDataOffset).putInt(vertexData.remaining());
+		header.putInt(indexDataOffset).putInt(indexData.remaining());
+		
+		for(int i = 0; i < numLods; i++)
+		{
+			header.putInt(lodFirstIndices[i]).putInt(lodNumIndices[i]).putFloat(lodScreenSizes[i]).putFloat(lodRatios[i]);
+		}
+		
+		header.rewind();
+		
+		ByteBuffer padding = ByteBuffer.allocate(indexDataOffset - vertexDataOffset - vertexData.remaining());
+		
+		try(FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			ByteBuffer[] buffers = { header, vertexData.duplicate(), padding, indexData.duplicate() };
+			long size = indexDataOffset + indexData.remaining();
+			long written = 0;
+			
+			while(written < size)
+			{
+				written += channel.write(buffers);
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Decode the vertex and index data into the arrays of a mesh.
+	 * </p>
+	 *
+	 * @param asset The mesh to decode into.
+	 */
+	final void decode(MeshAsset asset)
+	{
+		ByteBuffer vertices = vertexData.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		ByteBuffer indices = indexData.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		
+		float[] positions = new float[numVertices * 3];
+		float[] texCoords = new float[hasFlag(FLAG_TEXCOORDS) ? numVertices * 2 : 0];
+		float[] normals = new float[hasFlag(FLAG_NORMALS) ? numVertices * 3 : 0];
+		float[] tangents = new float[hasFlag(FLAG_TANGENTS) ? numVertices * 3 : 0];
+		
+		int base = vertices.position();
+		
+		for(int i = 0; i < numVertices; i++)
+		{
+			int vertex = base + i * stride;
+			
+			positions[i * 3] = vertices.getFloat(vertex);
+			positions[i * 3 + 1] = vertices.getFloat(vertex + 4);
+			positions[i * 3 + 2] = vertices.getFloat(vertex + 8);
+			
+			if(hasFlag(FLAG_TEXCOORDS))
+			{
+				int offset = vertex + texCoordOffset;
+				
+				if(hasFlag(FLAG_HALF_TEXCOORDS))
+				{
+					texCoords[i * 2] = MathUtils.fromHalfFloat(vertices.getShort(offset));
+					texCoords[i * 2 + 1] = MathUtils.fromHalfFloat(vertices.getShort(offset + 2));
+				}
+				else
+				{
+					texCoords[i * 2] = vertices.getFloat(offset);
+					texCoords[i * 2 + 1] = vertices.getFloat(offset + 4);
+				}
+			}
+			
+			if(hasFlag(FLAG_NORMALS))
+			{
+				decodeDirection(vertices, vertex + normalOffset, normals, i * 3);
+			}
+			
+			if(hasFlag(FLAG_TANGENTS))
+			{
+				decodeDirection(vertices, vertex + tangentOffset, tangents, i * 3);
+			}
+		}
+		
+		int[][] lods = new int[lodFirstIndices.length][];
+		
+		for(int i = 0; i < lods.length; i++)
+		{
+			lods[i] = decodeIndices(indices, lodFirstIndices[i], lodNumIndices[i]);
+		}
+		
+		asset.vertices.wrap(positions);
+		asset.texCoords.wrap(texCoords);
+		asset.normals.wrap(normals);
+		asset.tangents.wrap(tangents);
+		asset.indices.set(lods[0]);
+		asset.lods = Arrays.copyOfRange(lods, 1, lods.length);
+		asset.lodScreenSizes = Arrays.copyOfRange(lodScreenSizes, 1, lodScreenSizes.length);
+		asset.lodRatios = Arrays.copyOfRange(lodRatios, 1, lodRatios.length);
+	}
+	
+	/**
+	 * <p>
+	 * Set the LODs of the mesh.
+	 * </p>
+	 *
+	 * @param firstIndices The first index of every LOD.
+	 * @param numIndices The number of indices of every LOD.
+	 * @param screenSizes The screen size below which every LOD is used.
+	 * @param ratios The ratio of triangles every LOD was generated with.
+	 */
+	public final void setLods(int[] firstIndices, int[] numIndices, float[] screenSizes, float[] ratios)
+	{
+		lodFirstIndices = firstIndices;
+		lodNumIndices = numIndices;
+		lodScreenSizes = screenSizes;
+		lodRatios = ratios;
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not a flag is set.
+	 * </p>
+	 *
+	 * @param flag The flag, see the FLAG_ constants.
+	 * @return Whether or not the flag is set.
+	 */
+	public final boolean hasFlag(int flag)
+	{
+		return (flags & flag) != 0;
+	}
+	
+	public final int getFlags()
+	{
+		return flags;
+	}
+	
+	public final int getNumVertices()
+	{
+		return numVertices;
+	}
+	
+	public final int getNumIndices()
+	{
+		return numIndices;
+	}
+	
+	public final int getStride()
+	{
+		return stride;
+	}
+	
+	public final int getTexCoordOffset()
+	{
+		return texCoordOffset;
+	}
+	
+	public final int getNormalOffset()
+	{
+		return normalOffset;
+	}
+	
+	public final int getTangentOffset()
+	{
+		return tangentOffset;
+	}
+	
+	/**
+	 * <p>
+	 * Get the bounds of the mesh.
+	 * </p>
+	 *
+	 * @return The bounds (min x, y, z, max x, y, z).
+	 */
+	public final float[] getBounds()
+	{
+		return bounds.clone();
+	}
+	
+	public final int getNumLods()
+	{
+		return lodFirstIndices.length;
+	}
+	
+	public final int getLodFirstIndex(int lod)
+	{
+		return lodFirstIndices[lod];
+	}
+	
+	public final int getLodNumIndices(int lod)
+	{
+		return lodNumIndices[lod];
+	}
+	
+	public final float getLodScreenSize(int lod)
+	{
+		return lodScreenSizes[lod];
+	}
+	
+	public final float getLodRatio(int lod)
+	{
+		return lodRatios[lod];
+	}
+	
+	/**
+	 * <p>
+	 * Get the interleaved vertex data, ready to be uploaded to the GPU.
+	 * </p>
+	 *
+	 * @return A read-only view of the vertex data.
+	 */
+	public final ByteBuffer getVertexData()
+	{
+		return vertexData.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not the vertex and index data are available, see {@link #withoutData()}.
+	 * </p>
+	 *
+	 * @return Whether or not the data is available.
+	 */
+	public final boolean hasData()
+	{
+		return vertexData != null && indexData != null;
+	}
+	
+	/**
+	 * <p>
+	 * Get a copy without the vertex and index data, which only describes the mesh: its counts, bounds, layout
+	 * and LODs.
+	 * </p>
+	 *
+	 * @return The copy.
+	 */
+	public final TMesh withoutData()
+	{
+		TMesh result = new TMesh(flags, numVertices, numIndices, stride,
+				texCoordOffset, normalOffset, tangentOffset, bounds, null, null);
+		result.setLods(lodFirstIndices, lodNumIndices, lodScreenSizes, lodRatios);
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Get the index data, ready to be uploaded to the GPU.
+	 * </p>
+	 *
+	 * @return A read-only view of the index data.
+	 */
+	public final ByteBuffer getIndexData()
+	{
+		return indexData.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+	
+	private int[] decodeIndices(ByteBuffer buffer, int first, int count)
+	{
+		int[] result = new int[count];
+		
+		for(int i = 0; i < count; i++)
+		{
+			if(hasFlag(FLAG_SHORT_INDICES))
+			{
+				result[i] = buffer.getShort(buffer.position() + (first + i) * 2) & 0xFFFF;
+			}
+			else
+			{
+				result[i] = buffer.getInt(buffer.position() + (first + i) * 4);
+			}
+		}
+		
+		return result;
+	}
+	
+	private void decodeDirection(ByteBuffer buffer, int offset, float[] result, int resultOffset)
+	{
+		if(!hasFlag(FLAG_OCTAHEDRAL_NORMALS))
+		{
+			result[resultOffset] = buffer.getFloat(offset);
+			result[resultOffset + 1] = buffer.getFloat(offset + 4);
+			result[resultOffset + 2] = buffer.getFloat(offset + 8);
+			return;
+		}
+		
+		float x = buffer.getShort(offset) / (float)Short.MAX_VALUE;
+		float y = buffer.getShort(offset + 2) / (float)Short.MAX_VALUE;
+		float z = 1 - Math.abs(x) - Math.abs(y);
+		
+		if(z < 0)
+		{
+			float foldedX = (1 - Math.abs(y)) * (x >= 0 ? 1 : -1);
+			float foldedY = (1 - Math.abs(x)) * (y >= 0 ? 1 : -1);
+			
+			x = foldedX;
+			y = foldedY;
+		}
+		
+		float length = (float)Math.sqrt(x * x + y * y + z * z);
+		
+		result[resultOffset] = x / length;
+		result[resultOffset + 1] = y / length;
+		result[resultOffset + 2] = z / length;
+	}
+	
+	private static void check(String name, boolean valid, String message) throws IOException
+	{
+		if(!valid)
+		{
+			throw new IOException("Invalid " + EXTENSION + " file: " + name + ": " + message);
+		}
+	}
+	
+	private static boolean isAttributeInVertex(int flags, int flag, int offset, int stride)
+	{
+		return (flags & flag) == 0 || (offset >= 3 * Float.BYTES && offset < stride);
+	}
+	
+	private static boolean isInRange(int offset, int length, int size)
+	{
+		return offset >= 0 && length >= 0 && (long)offset + length <= size;
+	}
+	
+	private static ByteBuffer slice(ByteBuffer data, int offset, int size)
+	{
+		ByteBuffer result = data.duplicate();
+		result.position(offset).limit(offset + size);
+		
+		return result.slice();
+	}
+	
+	private static int align(int offset)
+	{
+		return (offset + DATA_ALIGNMENT - 1) / DATA_ALIGNMENT * DATA_ALIGNMENT;
+	}
+}
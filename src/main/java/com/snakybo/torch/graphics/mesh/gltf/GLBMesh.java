@@ -0,0 +1,728 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh.gltf;
+
+import com.snakybo.torch.graphics.mesh.IMeshLoader;
+import com.snakybo.torch.graphics.mesh.Mesh;
+import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.json.JSONParser;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * glTF 2.0 binary (GLB) mesh loader.
+ * </p>
+ *
+ * <p>
+ * The accessors are read straight from the binary chunk of the file, tightly packed float accessors
+ * are copied in bulk without touching individual elements. Every triangle primitive of every mesh in the
+ * default scene is merged into a single {@link Mesh}, with the transform of its node applied. A single mesh
+ * of the file can be loaded by its name or index instead, without any transform.
+ * </p>
+ *
+ * <p>
+ * Buffers outside of the GLB file, sparse accessors and required extensions are not supported.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class GLBMesh implements IMeshLoader
+{
+	public static final String EXTENSION = "glb";
+	
+	private static final int MAGIC = 0x46546C67;
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 12;
+	
+	private static final int CHUNK_JSON = 0x4E4F534A;
+	private static final int CHUNK_BIN = 0x004E4942;
+	
+	private static final int BYTE = 5120;
+	private static final int UNSIGNED_BYTE = 5121;
+	private static final int SHORT = 5122;
+	private static final int UNSIGNED_SHORT = 5123;
+	private static final int UNSIGNED_INT = 5125;
+	private static final int FLOAT = 5126;
+	
+	private static final int MODE_TRIANGLES = 4;
+	
+	private final ByteBuffer binary;
+	
+	private final List<Object> meshes;
+	private final List<Object> accessors;
+	private final List<Object> bufferViews;
+	
+	private final List<Primitive> primitives;
+	
+	private int numVertices;
+	private int numIndices;
+	
+	public GLBMesh(ByteBuffer data) throws IOException
+	{
+		this(data, null);
+	}
+	
+	/**
+	 * <p>
+	 * Read a GLB file.
+	 * </p>
+	 *
+	 * @param data The contents of the GLB file.
+	 * @param submesh The name or index of the mesh to load, or {@code null} to load the whole scene.
+	 * @throws IOException If the data is not a supported GLB file.
+	 */
+	public GLBMesh(ByteBuffer data, String submesh) throws IOException
+	{
+		data = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		
+		if(data.remaining() < HEADER_SIZE || data.getInt(data.position()) != MAGIC)
+		{
+			throw new IOException("Not a GLB file");
+		}
+		
+		if(data.getInt(data.position() + 4) != VERSION)
+		{
+			throw new IOException("Unsupported glTF version: " + data.getInt(data.position() + 4));
+		}
+		
+		int end = data.position() + Math.min(data.remaining(), data.getInt(data.position() + 8));
+		int offset = data.position() + HEADER_SIZE;
+		
+		String json = null;
+		ByteBuffer bin = ByteBuffer.allocate(0);
+		
+		while(offset + 8 <= end)
+		{
+			int length = data.getInt(offset);
+			int type = data.getInt(offset + 4);
+			
+			if(length < 0 || offset + 8 + length > end)
+			{
+				throw new IOException("Truncated GLB chunk");
+			}
+			
+			ByteBuffer chunk = slice(data, offset + 8, length);
+			
+			if(type == CHUNK_JSON && json == null)
+			{
+				json = StandardCharsets.UTF_8.decode(chunk).toString();
+			}
+			else if(type == CHUNK_BIN && bin.capacity() == 0)
+			{
+				bin = chunk;
+			}
+			
+			offset += 8 + length;
+		}
+		
+		if(json == null)
+		{
+			throw new IOException("The GLB file does not contain a JSON chunk");
+		}
+		
+		binary = bin;
+		
+		try
+		{
+			Map<String, Object> root = toMap(JSONParser.parse(json));
+			
+			if(!getList(root, "extensionsRequired").isEmpty())
+			{
+				throw new IOException("Unsupported required extensions: " + getList(root, "extensionsRequired"));
+			}
+			
+			for(Object buffer : getList(root, "buffers"))
+			{
+				if(toMap(buffer).containsKey("uri"))
+				{
+					throw new IOException("External buffers are not supported");
+				}
+			}
+			
+			meshes = getList(root, "meshes");
+			accessors = getList(root, "accessors");
+			bufferViews = getList(root, "bufferViews");
+			primitives = new ArrayList<>();
+			
+			List<Object> scenes = getList(root, "scenes");
+			
+			if(submesh != null)
+			{
+				addMesh(findMesh(submesh), null);
+			}
+			else if(!scenes.isEmpty())
+			{
+				List<Object> nodes = getList(root, "nodes");
+				
+				for(Object node : getList(toMap(scenes.get(getInt(root, "scene", 0))), "nodes"))
+				{
+					addNode(nodes, toInt(node), null, 0);
+				}
+			}
+			else
+			{
+				for(int i = 0; i < meshes.size(); i++)
+				{
+					addMesh(i, null);
+				}
+			}
+			
+			for(Primitive primitive : primitives)
+			{
+				primitive.indices = readIndices(primitive);
+			}
+		}
+		catch(ClassCastException | IllegalArgumentException | IndexOutOfBoundsException | NullPointerException e)
+		{
+			throw new IOException("Invalid glTF data: " + e, e);
+		}
+	}
+	
+	@Override
+	public final Mesh toModel(Mesh result)
+	{
+		boolean hasTexCoords = false;
+		boolean hasNormals = !primitives.isEmpty();
+		boolean hasTangents = !primitives.isEmpty();
+		
+		for(Primitive primitive : primitives)
+		{
+			hasTexCoords |= primitive.texCoord != null;
+			hasNormals &= primitive.normal != null;
+			hasTangents &= primitive.tangent != null;
+		}
+		
+		float[] vertices = new float[numVertices * 3];
+		float[] texCoords = new float[hasTexCoords ? numVertices * 2 : 0];
+		float[] normals = new float[hasNormals ? numVertices * 3 : 0];
+		float[] tangents = new float[hasTangents ? numVertices * 3 : 0];
+		int[] indices = new int[numIndices];
+		
+		Vector3f vector = new Vector3f();
+		Matrix3f normalMatrix = new Matrix3f();
+		
+		for(Primitive primitive : primitives)
+		{
+			int first = primitive.baseVertex;
+			
+			readFloats(primitive.position, 3, vertices, first * 3);
+			
+			if(hasTexCoords && primitive.texCoord != null)
+			{
+				readFloats(primitive.texCoord, 2, texCoords, first * 2);
+			}
+			
+			if(hasNormals)
+			{
+				readFloats(primitive.normal, 3, normals, first * 3);
+			}
+			
+			if(hasTangents)
+			{
+				readFloats(primitive.tangent, 3, tangents, first * 3);
+			}
+			
+			for(int i = 0; i < primitive.indices.length; i++)
+			{
+				indices[primitive.baseIndex + i] = first + primitive.indices[i];
+			}
+			
+			if(primitive.transform == null)
+			{
+				continue;
+			}
+			
+			primitive.transform.normal(normalMatrix);
+			
+			for(int i = first; i < first + primitive.position.count; i++)
+			{
+				primitive.transform.transformPosition(vector.set(vertices[i * 3], vertices[i * 3 + 1], vertices[i * 3 + 2]));
+				put(vector, vertices, i * 3);
+				
+				if(hasNormals)
+				{
+					normalMatrix.transform(vector.set(normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2])).normalize();
+					put(vector, normals, i * 3);
+				}
+				
+				if(hasTangents)
+				{
+					primitive.transform.transformDirection(vector.set(tangents[i * 3], tangents[i * 3 + 1], tangents[i * 3 + 2])).normalize();
+					put(vector, tangents, i * 3);
+				}
+			}
+			
+			// A mirroring transform reverses the winding order of the triangles
+			if(primitive.transform.determinant3x3() < 0)
+			{
+				for(int i = primitive.baseIndex; i < primitive.baseIndex + primitive.indices.length; i += 3)
+				{
+					int index = indices[i + 1];
+					indices[i + 1] = indices[i + 2];
+					indices[i + 2] = index;
+				}
+			}
+		}
+		
+		result.setVertices(vertices);
+		result.setTexCoords(texCoords);
+		result.setNormals(normals);
+		result.setTangents(tangents);
+		result.setIndices(indices);
+		
+		if(!hasNormals)
+		{
+			result.generateNormals();
+		}
+		
+		if(!hasTangents && hasTexCoords)
+		{
+			result.generateTangents();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Get the names of the meshes in the file, meshes without a name are named after their index.
+	 * </p>
+	 *
+	 * @return The names of the meshes.
+	 */
+	public final String[] getMeshNames()
+	{
+		String[] result = new String[meshes.size()];
+		
+		for(int i = 0; i < result.length; i++)
+		{
+			Object name = toMap(meshes.get(i)).get("name");
+			result[i] = name != null ? name.toString() : Integer.toString(i);
+		}
+		
+		return result;
+	}
+	
+	private int findMesh(String submesh) throws IOException
+	{
+		String[] names = getMeshNames();
+		
+		for(int i = 0; i < names.length; i++)
+		{
+			if(names[i].equals(submesh))
+			{
+				return i;
+			}
+		}
+		
+		try
+		{
+			int result = Integer.parseInt(submesh);
+			
+			if(result >= 0 && result < names.length)
+			{
+				return result;
+			}
+		}
+		catch(NumberFormatException e)
+		{
+			// Not an index either
+		}
+		
+		throw new IOException("No mesh named " + submesh);
+	}
+	
+	private void addNode(List<Object> nodes, int index, Matrix4f parent, int depth) throws IOException
+	{
+		if(depth > nodes.size())
+		{
+			throw new IOException("The node hierarchy contains a cycle");
+		}
+		
+		Map<String, Object> node = toMap(nodes.get(index));
+		Matrix4f transform = parent;
+		
+		if(node.containsKey("matrix") || node.containsKey("translation") || node.containsKey("rotation") || node.containsKey("scale"))
+		{
+			Matrix4f local = new Matrix4f();
+			
+			if(node.containsKey("matrix"))
+			{
+				local.set(toFloats(getList(node, "matrix"), new float[16]));
+			}
+			else
+			{
+				float[] translation = toFloats(getList(node, "translation"), new float[] { 0, 0, 0 });
+				float[] rotation = toFloats(getList(node, "rotation"), new float[] { 0, 0, 0, 1 });
+				float[] scale = toFloats(getList(node, "scale"), new float[] { 1, 1, 1 });
+				
+				local.translationRotateScale(translation[0], translation[1], translation[2],
+						rotation[0], rotation[1], rotation[2], rotation[3],
+						scale[0], scale[1], scale[2]);
+			}
+			
+			transform = parent != null ? new Matrix4f(parent).mul(local) : local;
+		}
+		
+		if(node.containsKey("mesh"))
+		{
+			addMesh(getInt(node, "mesh", 0), transform);
+		}
+		
+		for(Object child : getList(node, "children"))
+		{
+			addNode(nodes, toInt(child), transform, depth + 1);
+		}
+	}
+	
+	private void addMesh(int index, Matrix4f transform) throws IOException
+	{
+		for(Object object : getList(toMap(meshes.get(index)), "primitives"))
+		{
+			Map<String, Object> primitive = toMap(object);
+			
+			if(getInt(primitive, "mode", MODE_TRIANGLES) != MODE_TRIANGLES)
+			{
+				Logger.logWarning("Skipping glTF primitive, only triangles are supported");
+				continue;
+			}
+			
+			Map<String, Object> attributes = toMap(primitive.get("attributes"));
+			
+			if(!attributes.containsKey("POSITION"))
+			{
+				Logger.logWarning("Skipping glTF primitive without positions");
+				continue;
+			}
+			
+			Primitive result = new Primitive();
+			
+			result.position = getAccessor(attributes, "POSITION", 3);
+			result.texCoord = getAccessor(attributes, "TEXCOORD_0", 2);
+			result.normal = getAccessor(attributes, "NORMAL", 3);
+			result.tangent = getAccessor(attributes, "TANGENT", 4);
+			result.index = primitive.containsKey("indices") ? getAccessor(getInt(primitive, "indices", 0)) : null;
+			result.transform = transform;
+			
+			for(Accessor accessor : new Accessor[] { result.texCoord, result.normal, result.tangent })
+			{
+				if(accessor != null && accessor.count != result.position.count)
+				{
+					throw new IOException("The attributes of a primitive have different lengths");
+				}
+			}
+			
+			result.baseVertex = numVertices;
+			result.baseIndex = numIndices;
+			
+			numVertices += result.position.count;
+			numIndices += (result.index != null ? result.index.count : result.position.count) / 3 * 3;
+			
+			primitives.add(result);
+		}
+	}
+	
+	private Accessor getAccessor(Map<String, Object> attributes, String name, int minComponents) throws IOException
+	{
+		if(!attributes.containsKey(name))
+		{
+			return null;
+		}
+		
+		Accessor result = getAccessor(getInt(attributes, name, 0));
+		
+		if(result.components < minComponents || (result.componentType != FLOAT && !result.normalized))
+		{
+			throw new IOException("Unsupported format of attribute " + name);
+		}
+		
+		return result;
+	}
+	
+	private Accessor getAccessor(int index) throws IOException
+	{
+		Map<String, Object> accessor = toMap(accessors.get(index));
+		
+		if(accessor.containsKey("sparse"))
+		{
+			throw new IOException("Sparse accessors are not supported");
+		}
+		
+		Accessor result = new Accessor();
+		
+		result.count = getInt(accessor, "count", 0);
+		result.componentType = getInt(accessor, "componentType", FLOAT);
+		result.components = getComponents(String.valueOf(accessor.get("type")));
+		result.normalized = Boolean.TRUE.equals(accessor.get("normalized"));
+		result.componentSize = getComponentSize(result.componentType);
+		result.stride = result.components * result.componentSize;
+		result.offset = -1;
+		
+		if(accessor.containsKey("bufferView"))
+		{
+			Map<String, Object> bufferView = toMap(bufferViews.get(getInt(accessor, "bufferView", 0)));
+			
+			result.offset = getInt(bufferView, "byteOffset", 0) + getInt(accessor, "byteOffset", 0);
+			result.stride = getInt(bufferView, "byteStride", result.stride);
+			
+			long end = result.count == 0 ? 0 : result.offset + (long)result.stride * (result.count - 1) + result.components * result.componentSize;
+			
+			if(getInt(bufferView, "buffer", 0) != 0 || end > binary.capacity() || end > getInt(bufferView, "byteOffset", 0) + getInt(bufferView, "byteLength", 0))
+			{
+				throw new IOException("Accessor " + index + " is out of the bounds of its buffer");
+			}
+		}
+		
+		return result;
+	}
+	
+	private int[] readIndices(Primitive primitive) throws IOException
+	{
+		Accessor accessor = primitive.index;
+		int count = primitive.position.count;
+		
+		if(accessor == null)
+		{
+			int[] result = new int[count / 3 * 3];
+			
+			for(int i = 0; i < result.length; i++)
+			{
+				result[i] = i;
+			}
+			
+			return result;
+		}
+		
+		if(accessor.components != 1 || (accessor.componentType != UNSIGNED_BYTE && accessor.componentType != UNSIGNED_SHORT && accessor.componentType != UNSIGNED_INT))
+		{
+			throw new IOException("Unsupported index format");
+		}
+		
+		int[] result = new int[accessor.count / 3 * 3];
+		
+		if(accessor.offset < 0)
+		{
+			return result;
+		}
+		
+		if(accessor.componentType == UNSIGNED_INT && accessor.stride == Integer.BYTES)
+		{
+			slice(binary, accessor.offset, result.length * Integer.BYTES).asIntBuffer().get(result);
+		}
+		else
+		{
+			for(int i = 0; i < result.length; i++)
+			{
+				result[i] = readIndex(accessor, accessor.offset + i * accessor.stride);
+			}
+		}
+		
+		for(int index : result)
+		{
+			if(index < 0 || index >= count)
+			{
+				throw new IOException("Index " + (index & 0xFFFFFFFFL) + " is out of range");
+			}
+		}
+		
+		return result;
+	}
+	
+	private void readFloats(Accessor accessor, int components, float[] dest, int destOffset)
+	{
+		if(accessor.offset < 0)
+		{
+			return;
+		}
+		
+		if(accessor.componentType == FLOAT && accessor.components == components && accessor.stride == components * Float.BYTES)
+		{
+			slice(binary, accessor.offset, accessor.count * accessor.stride).asFloatBuffer().get(dest, destOffset, accessor.count * components);
+			return;
+		}
+		
+		for(int i = 0; i < accessor.count; i++)
+		{
+			for(int j = 0; j < components; j++)
+			{
+				dest[destOffset + i * components + j] = readComponent(accessor, accessor.offset + i * accessor.stride + j * accessor.componentSize, accessor.normalized);
+			}
+		}
+	}
+	
+	private int readIndex(Accessor accessor, int offset)
+	{
+		switch(accessor.componentType)
+		{
+		case UNSIGNED_BYTE:
+			return binary.get(offset) & 0xFF;
+		case UNSIGNED_SHORT:
+			return binary.getShort(offset) & 0xFFFF;
+		default:
+			return binary.getInt(offset);
+		}
+	}
+	
+	private float readComponent(Accessor accessor, int offset, boolean normalized)
+	{
+		switch(accessor.componentType)
+		{
+		case BYTE:
+			return normalized ? Math.max(binary.get(offset) / 127f, -1) : binary.get(offset);
+		case UNSIGNED_BYTE:
+			return normalized ? (binary.get(offset) & 0xFF) / 255f : binary.get(offset) & 0xFF;
+		case SHORT:
+			return normalized ? Math.max(binary.getShort(offset) / 32767f, -1) : binary.getShort(offset);
+		case UNSIGNED_SHORT:
+			return normalized ? (binary.getShort(offset) & 0xFFFF) / 65535f : binary.getShort(offset) & 0xFFFF;
+		case UNSIGNED_INT:
+			return binary.getInt(offset);
+		default:
+			return binary.getFloat(offset);
+		}
+	}
+	
+	private static void put(Vector3f vector, float[] dest, int offset)
+	{
+		dest[offset] = vector.x;
+		dest[offset + 1] = vector.y;
+		dest[offset + 2] = vector.z;
+	}
+	
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length)
+	{
+		ByteBuffer result = buffer.duplicate();
+		result.limit(offset + length).position(offset);
+		
+		return result.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+	
+	private static int getComponents(String type) throws IOException
+	{
+		switch(type)
+		{
+		case "SCALAR":
+			return 1;
+		case "VEC2":
+			return 2;
+		case "VEC3":
+			return 3;
+		case "VEC4":
+			return 4;
+		default:
+			throw new IOException("Unsupported accessor type: " + type);
+		}
+	}
+	
+	private static int getComponentSize(int componentType) throws IOException
+	{
+		switch(componentType)
+		{
+		case BYTE:
+		case UNSIGNED_BYTE:
+			return 1;
+		case SHORT:
+		case UNSIGNED_SHORT:
+			return 2;
+		case UNSIGNED_INT:
+		case FLOAT:
+			return 4;
+		default:
+			throw new IOException("Unsupported component type: " + componentType);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> toMap(Object object)
+	{
+		return (Map<String, Object>)object;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static List<Object> getList(Map<String, Object> map, String key)
+	{
+		Object result = map.get(key);
+		return result != null ? (List<Object>)result : Collections.emptyList();
+	}
+	
+	private static int getInt(Map<String, Object> map, String key, int defaultValue)
+	{
+		Object result = map.get(key);
+		return result != null ? toInt(result) : defaultValue;
+	}
+	
+	private static int toInt(Object object)
+	{
+		return ((Number)object).intValue();
+	}
+	
+	private static float[] toFloats(List<Object> list, float[] defaultValue)
+	{
+		for(int i = 0; i < list.size() && i < defaultValue.length; i++)
+		{
+			defaultValue[i] = ((Number)list.get(i)).floatValue();
+		}
+		
+		return defaultValue;
+	}
+	
+	private static final class Accessor
+	{
+		private int count;
+		private int componentType;
+		private int components;
+		private int componentSize;
+		private boolean normalized;
+		
+		// The offset in the binary chunk, or -1 if the accessor has no data
+		private int offset;
+		private int stride;
+	}
+	
+	private static final class Primitive
+	{
+		private Accessor position;
+		private Accessor texCoord;
+		private Accessor normal;
+		private Accessor tangent;
+		private Accessor index;
+		
+		private int[] indices;
+		private Matrix4f transform;
+		
+		private int baseVertex;
+		private int baseIndex;
+	}
+}
@@ -24,12 +24,10 @@ package com.snakybo.torch.graphics.mesh.obj;
 
 import com.snakybo.torch.graphics.mesh.IMeshLoader;
 import com.snakybo.torch.graphics.mesh.Mesh;
-import org.joml.Vector2f;
-import org.joml.Vector3f;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
 
 /**
  * <p>
@@ -43,84 +41,173 @@ public final class OBJMesh implements IMeshLoader
 {	
 	private final OBJParser parser;
 	
-	public OBJMesh(List<String> lines)
+	public OBJMesh(ByteBuffer data)
 	{
-		parser = new OBJParser();		
-		parser.parse(lines);
+		parser = new OBJParser();
+		parser.parse(data);
 	}
 	
 	@Override
 	public final Mesh toModel(Mesh result)
 	{
-		Mesh normalMesh = new Mesh();
-
-		Map<OBJIndex, Integer> resultIndexMap = new HashMap<>();
-		Map<Integer, Integer> normalIndexMap = new HashMap<>();
-		Map<Integer, Integer> indexMap = new HashMap<>();
-
-		for(OBJIndex index : parser.indices)
+		int numCorners = parser.numIndices;
+		int[] corners = parser.indices;
+		
+		// Map every unique (vertex, texCoord, normal) triple to a vertex of the result,
+		// using an open-addressing hash table of result vertices, keyed by the triple of their first corner
+		int[] table = new int[tableSize(numCorners)];
+		int mask = table.length - 1;
+		Arrays.fill(table, -1);
+		
+		int[] firstCorners = new int[numCorners];
+		int[] indices = new int[numCorners];
+		int numResultVertices = 0;
+		
+		for(int corner = 0; corner < numCorners; corner++)
 		{
-			Vector3f vertex = parser.vertices.get(index.vertex);
-			Vector2f texCoord = new Vector2f();
-			Vector3f normal = new Vector3f();
+			int offset = corner * 3;
+			int slot = hash(corners[offset], corners[offset + 1], corners[offset + 2]) & mask;
+			
+			while(true)
+			{
+				int resultVertex = table[slot];
+				
+				if(resultVertex < 0)
+				{
+					resultVertex = numResultVertices++;
+					firstCorners[resultVertex] = corner;
+					table[slot] = resultVertex;
+					indices[corner] = resultVertex;
+					break;
+				}
+				
+				int other = firstCorners[resultVertex] * 3;
+				
+				if(corners[other] == corners[offset] && corners[other + 1] == corners[offset + 1] && corners[other + 2] == corners[offset + 2])
+				{
+					indices[corner] = resultVertex;
+					break;
+				}
+				
+				slot = (slot + 1) & mask;
+			}
+		}
+		
+		// Normals and tangents are smoothed per position, regardless of texCoords or normals
+		Mesh normalMesh = createNormalMesh();
+		FloatBuffer normals = normalMesh.getNormals();
+		FloatBuffer tangents = normalMesh.getTangents();
+		
+		float[] resultVertices = new float[numResultVertices * 3];
+		float[] resultTexCoords = new float[numResultVertices * 2];
+		float[] resultNormals = new float[numResultVertices * 3];
+		float[] resultTangents = new float[numResultVertices * 3];
+		
+		for(int i = 0; i < numResultVertices; i++)
+		{
+			int offset = firstCorners[i] * 3;
+			int vertex = corners[offset];
+			int texCoord = corners[offset + 1];
+			int normal = corners[offset + 2];
+			
+			System.arraycopy(parser.vertices, vertex * 3, resultVertices, i * 3, 3);
 			
 			if(parser.hasTexCoords)
 			{
-				texCoord = parser.texCoords.get(index.texCoord);
+				System.arraycopy(parser.texCoords, Math.max(0, texCoord) * 2, resultTexCoords, i * 2, 2);
 			}
 			
 			if(parser.hasNormals)
 			{
-				normal = parser.normals.get(index.normal);
+				System.arraycopy(parser.normals, Math.max(0, normal) * 3, resultNormals, i * 3, 3);
 			}
-			
-			Integer modelVertexIndex = resultIndexMap.get(index);
-			if(modelVertexIndex == null)
+			else
 			{
-				modelVertexIndex = result.getVertices().size();
-				resultIndexMap.put(index, modelVertexIndex);
-				
-				result.addVertex(vertex);
-				result.addTexCoord(texCoord);
-				
-				if(parser.hasNormals)
-				{
-					result.addNormal(normal);
-				}
+				resultNormals[i * 3] = normals.get(vertex * 3);
+				resultNormals[i * 3 + 1] = normals.get(vertex * 3 + 1);
+				resultNormals[i * 3 + 2] = normals.get(vertex * 3 + 2);
 			}
 			
-			Integer normalModelIndex = normalIndexMap.get(index.vertex);
-			if(normalModelIndex == null)
+			resultTangents[i * 3] = tangents.get(vertex * 3);
+			resultTangents[i * 3 + 1] = tangents.get(vertex * 3 + 1);
+			resultTangents[i * 3 + 2] = tangents.get(vertex * 3 + 2);
+		}
+		
+		normalMesh.destroy();
+		
+		result.setVertices(resultVertices);
+		result.setTexCoords(resultTexCoords);
+		result.setNormals(resultNormals);
+		result.setTangents(resultTangents);
+		result.setIndices(indices);
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Create a mesh with a vertex for every position in the file, used to generate smooth normals and tangents.
+	 * </p>
+	 *
+	 * @return The mesh.
+	 */
+	private Mesh createNormalMesh()
+	{
+		int numCorners = parser.numIndices;
+		int[] corners = parser.indices;
+		
+		float[] texCoords = new float[parser.numVertices * 2];
+		boolean[] assigned = new boolean[parser.numVertices];
+		int[] indices = new int[numCorners];
+		
+		for(int corner = 0; corner < numCorners; corner++)
+		{
+			int vertex = corners[corner * 3];
+			int texCoord = corners[corner * 3 + 1];
+			
+			// Every position uses the texCoord of the first corner that references it
+			if(!assigned[vertex] && parser.hasTexCoords)
 			{
-				normalModelIndex = normalMesh.getVertices().size();
-				normalIndexMap.put(index.vertex, normalModelIndex);
-				
-				normalMesh.addVertex(vertex);
-				normalMesh.addTexCoord(texCoord);
-				normalMesh.addNormal(normal);
-				normalMesh.addTangent(new Vector3f());
+				System.arraycopy(parser.texCoords, Math.max(0, texCoord) * 2, texCoords, vertex * 2, 2);
+				assigned[vertex] = true;
 			}
 			
-			result.addIndex(modelVertexIndex);
-			normalMesh.addIndex(normalModelIndex);
-			indexMap.put(modelVertexIndex, normalModelIndex);
+			indices[corner] = vertex;
 		}
 		
+		Mesh result = new Mesh();
+		result.setVertices(Arrays.copyOf(parser.vertices, parser.numVertices * 3));
+		result.setTexCoords(texCoords);
+		result.setIndices(indices);
+		
 		if(!parser.hasNormals)
 		{
-			normalMesh.generateNormals();
-			for(int i = 0; i < result.getVertices().size(); i++)
-			{
-				result.addNormal(normalMesh.getNormal(indexMap.get(i)));
-			}
+			result.generateNormals();
 		}
 		
-		normalMesh.generateTangents();
-		for(int i = 0; i < result.getVertices().size(); i++)
+		result.generateTangents();
+		return result;
+	}
+	
+	private static int tableSize(int numEntries)
+	{
+		int result = 16;
+		
+		while(result < numEntries * 2 && result < (1 << 30))
 		{
-			result.addTangent(normalMesh.getTangent(indexMap.get(i)));
+			result <<= 1;
 		}
 		
 		return result;
 	}
+	
+	private static int hash(int vertex, int texCoord, int normal)
+	{
+		int result = vertex * 0x9E3779B1;
+		
+		result ^= texCoord * 0x85EBCA6B;
+		result ^= normal * 0xC2B2AE35;
+		
+		return result ^ (result >>> 16);
+	}
 }
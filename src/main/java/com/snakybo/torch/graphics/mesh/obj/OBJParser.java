@@ -22,15 +22,27 @@
 
 package com.snakybo.torch.graphics.mesh.obj;
 
-import com.snakybo.torch.util.StringUtils;
-import org.joml.Vector2f;
-import org.joml.Vector3f;
-
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.List;
 
 /**
+ * <p>
+ * Parses OBJ data directly from a {@link ByteBuffer}.
+ * </p>
+ *
+ * <p>
+ * The data is scanned byte by byte, numbers are parsed without creating any strings, and the
+ * results are written into primitive arrays. Large files are split into line-aligned chunks which
+ * are parsed in parallel, and merged afterwards.
+ * </p>
+ *
+ * <p>
+ * Every face corner is stored as three consecutive values in {@link #indices}: the zero-based
+ * index of the vertex, the texCoord, and the normal. A missing texCoord or normal is stored as {@code -1}.
+ * Faces with more than three corners are triangulated as a fan.
+ * </p>
+ *
  * @author Snakybo
  * @since 1.0
  */
@@ -38,150 +50,594 @@ final class OBJParser
 {
 	private static final boolean INVERSE_NORMALS = true;
 	
-	List<Vector3f> vertices;
-	List<Vector2f> texCoords;
-	List<Vector3f> normals;	
-	List<OBJIndex> indices;
-
-	boolean hasTexCoords;
-	boolean hasNormals;
+	private static final int MIN_CHUNK_SIZE = 4 * 1024 * 1024;
+	
+	private static final double[] POWERS_OF_TEN = new double[23];
 	
-	OBJParser()
+	static
 	{
-		indices = new ArrayList<>();
-		vertices = new ArrayList<>();
-		texCoords = new ArrayList<>();
-		normals = new ArrayList<>();
+		POWERS_OF_TEN[0] = 1;
+		
+		for(int i = 1; i < POWERS_OF_TEN.length; i++)
+		{
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
 	}
 	
+	float[] vertices;
+	float[] texCoords;
+	float[] normals;
+	int[] indices;
+	
+	int numVertices;
+	int numTexCoords;
+	int numNormals;
+	int numIndices;
+	
+	boolean hasTexCoords;
+	boolean hasNormals;
+	
 	/**
 	 * Parse a mesh
-	 * @param lines The lines of the target file
+	 * @param data The contents of the target file
 	 */
-	public final void parse(List<String> lines)
+	public final void parse(ByteBuffer data)
 	{
-		for(String line : lines)
+		int numChunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), data.limit() / MIN_CHUNK_SIZE));
+		Chunk[] chunks = new Chunk[numChunks];
+		
+		int start = 0;
+		
+		for(int i = 0; i < numChunks; i++)
 		{
-			String[] tokens = StringUtils.removeEmptyStrings(Arrays.asList(line.split(" ")));
+			int end = i == numChunks - 1 ? data.limit() : findLineEnd(data, (int)((long)data.limit() * (i + 1) / numChunks));
+			chunks[i] = new Chunk(data, start, Math.max(start, end));
+			start = Math.max(start, end);
+		}
+		
+		if(numChunks == 1)
+		{
+			chunks[0].parse();
+		}
+		else
+		{
+			Arrays.stream(chunks).parallel().forEach(Chunk::parse);
+		}
+		
+		merge(chunks);
+	}
+	
+	private void merge(Chunk[] chunks)
+	{
+		for(Chunk chunk : chunks)
+		{
+			numVertices += chunk.numVertices;
+			numTexCoords += chunk.numTexCoords;
+			numNormals += chunk.numNormals;
+			numIndices += chunk.numIndices;
 			
-			if(tokens.length == 0 || tokens[0].equals("#"))
-			{
-				continue;
-			}
+			hasTexCoords |= chunk.hasTexCoords;
+			hasNormals |= chunk.hasNormals;
+		}
+		
+		if(chunks.length == 1)
+		{
+			Chunk chunk = chunks[0];
 			
-			if(parseVertex(tokens))
-			{
-				continue;
-			}
+			vertices = chunk.vertices;
+			texCoords = chunk.texCoords;
+			normals = chunk.normals;
+			indices = chunk.indices;
 			
-			if(parseTexCoord(tokens))
-			{
-				continue;
-			}
+			return;
+		}
+		
+		vertices = new float[numVertices * 3];
+		texCoords = new float[numTexCoords * 2];
+		normals = new float[numNormals * 3];
+		indices = new int[numIndices * 3];
+		
+		int vertexOffset = 0;
+		int texCoordOffset = 0;
+		int normalOffset = 0;
+		int indexOffset = 0;
+		
+		for(Chunk chunk : chunks)
+		{
+			System.arraycopy(chunk.vertices, 0, vertices, vertexOffset * 3, chunk.numVertices * 3);
+			System.arraycopy(chunk.texCoords, 0, texCoords, texCoordOffset * 2, chunk.numTexCoords * 2);
+			System.arraycopy(chunk.normals, 0, normals, normalOffset * 3, chunk.numNormals * 3);
+			System.arraycopy(chunk.indices, 0, indices, indexOffset * 3, chunk.numIndices * 3);
 			
-			if(parseNormal(tokens))
+			// Relative indices were resolved against the chunk, offset them by everything that came before it
+			for(int i = 0; i < chunk.numRelativeIndices; i++)
 			{
-				continue;
+				int position = chunk.relativeIndices[i];
+				int target = indexOffset * 3 + position;
+				
+				switch(position % 3)
+				{
+				case 0:
+					indices[target] += vertexOffset;
+					break;
+				case 1:
+					indices[target] += texCoordOffset;
+					break;
+				default:
+					indices[target] += normalOffset;
+					break;
+				}
 			}
 			
-			parseFace(tokens);
+			vertexOffset += chunk.numVertices;
+			texCoordOffset += chunk.numTexCoords;
+			normalOffset += chunk.numNormals;
+			indexOffset += chunk.numIndices;
 		}
 	}
 	
-	private boolean parseVertex(String[] tokens)
+	private static int findLineEnd(ByteBuffer data, int position)
 	{
-		if(!tokens[0].equals("v"))
+		while(position < data.limit() && data.get(position) != '\n')
 		{
-			return false;
+			position++;
 		}
 		
-		float x = Float.valueOf(tokens[1]);
-		float y = Float.valueOf(tokens[2]);
-		float z = Float.valueOf(tokens[3]);
-		
-		vertices.add(new Vector3f(x, y, z));
-		
-		return true;
+		return Math.min(position + 1, data.limit());
 	}
 	
-	private boolean parseTexCoord(String[] tokens)
+	/**
+	 * <p>
+	 * A line-aligned part of the file, and the data parsed from it.
+	 * </p>
+	 */
+	private static final class Chunk
 	{
-		if(!tokens[0].equals("vt"))
+		private final ByteBuffer data;
+		private final int end;
+		
+		private int position;
+		
+		float[] vertices;
+		float[] texCoords;
+		float[] normals;
+		int[] indices;
+		int[] relativeIndices;
+		
+		int numVertices;
+		int numTexCoords;
+		int numNormals;
+		int numIndices;
+		int numRelativeIndices;
+		
+		boolean hasTexCoords;
+		boolean hasNormals;
+		
+		// The corners of the face that is currently being parsed
+		private int[] face;
+		private boolean[] faceRelative;
+		private int numFaceCorners;
+		
+		// Whether or not the last index returned by parseIndex was relative
+		private boolean relative;
+		
+		Chunk(ByteBuffer data, int start, int end)
 		{
-			return false;
+			this.data = data;
+			this.end = end;
+			
+			position = start;
+			
+			// Estimate the capacity from the size of the chunk, roughly 32 bytes per line
+			int estimate = Math.max(16, (end - start) / 32);
+			
+			vertices = new float[estimate * 3];
+			texCoords = new float[16];
+			normals = new float[16];
+			indices = new int[estimate * 3];
+			relativeIndices = new int[16];
+			
+			face = new int[12];
+			faceRelative = new boolean[12];
 		}
 		
-		float x = Float.valueOf(tokens[1]);
-		float y = Float.valueOf(tokens[2]);
+		final void parse()
+		{
+			while(position < end)
+			{
+				skipWhitespace();
+				
+				if(position >= end)
+				{
+					break;
+				}
+				
+				byte c0 = data.get(position);
+				byte c1 = position + 1 < end ? data.get(position + 1) : 0;
+				
+				if(c0 == 'v' && isWhitespace(c1))
+				{
+					position++;
+					parseVertex();
+				}
+				else if(c0 == 'v' && c1 == 't' && position + 2 < end && isWhitespace(data.get(position + 2)))
+				{
+					position += 2;
+					parseTexCoord();
+				}
+				else if(c0 == 'v' && c1 == 'n' && position + 2 < end && isWhitespace(data.get(position + 2)))
+				{
+					position += 2;
+					parseNormal();
+				}
+				else if(c0 == 'f' && isWhitespace(c1))
+				{
+					position++;
+					parseFace();
+				}
+				
+				skipLine();
+			}
+		}
 		
-		if(INVERSE_NORMALS)
+		private void parseVertex()
 		{
-			y = 1 - y;
+			if((numVertices + 1) * 3 > vertices.length)
+			{
+				vertices = Arrays.copyOf(vertices, vertices.length * 2);
+			}
+			
+			int offset = numVertices * 3;
+			vertices[offset] = parseFloat();
+			vertices[offset + 1] = parseFloat();
+			vertices[offset + 2] = parseFloat();
+			
+			numVertices++;
 		}
 		
-		texCoords.add(new Vector2f(x, y));		
-		return true;
-	}
-	
-	private boolean parseNormal(String[] tokens)
-	{
-		if(!tokens[0].equals("vn"))
+		private void parseTexCoord()
+		{
+			if((numTexCoords + 1) * 2 > texCoords.length)
+			{
+				texCoords = Arrays.copyOf(texCoords, texCoords.length * 2);
+			}
+			
+			float x = parseFloat();
+			float y = parseFloat();
+			
+			if(INVERSE_NORMALS)
+			{
+				y = 1 - y;
+			}
+			
+			int offset = numTexCoords * 2;
+			texCoords[offset] = x;
+			texCoords[offset + 1] = y;
+			
+			numTexCoords++;
+		}
+		
+		private void parseNormal()
+		{
+			if((numNormals + 1) * 3 > normals.length)
+			{
+				normals = Arrays.copyOf(normals, normals.length * 2);
+			}
+			
+			int offset = numNormals * 3;
+			normals[offset] = parseFloat();
+			normals[offset + 1] = parseFloat();
+			normals[offset + 2] = parseFloat();
+			
+			numNormals++;
+		}
+		
+		private void parseFace()
+		{
+			numFaceCorners = 0;
+			
+			while(true)
+			{
+				skipSpaces();
+				
+				if(position >= end || !isNumberStart(data.get(position)))
+				{
+					break;
+				}
+				
+				if((numFaceCorners + 1) * 3 > face.length)
+				{
+					face = Arrays.copyOf(face, face.length * 2);
+					faceRelative = Arrays.copyOf(faceRelative, face.length);
+				}
+				
+				int corner = numFaceCorners * 3;
+				setFaceIndex(corner, parseIndex(numVertices));
+				setFaceIndex(corner + 1, -1);
+				setFaceIndex(corner + 2, -1);
+				
+				if(position < end && data.get(position) == '/')
+				{
+					position++;
+					
+					if(position < end && data.get(position) != '/')
+					{
+						hasTexCoords = true;
+						setFaceIndex(corner + 1, parseIndex(numTexCoords));
+					}
+					
+					if(position < end && data.get(position) == '/')
+					{
+						position++;
+						
+						hasNormals = true;
+						setFaceIndex(corner + 2, parseIndex(numNormals));
+					}
+				}
+				
+				numFaceCorners++;
+			}
+			
+			for(int i = 0; i < numFaceCorners - 2; i++)
+			{
+				addCorner(0);
+				addCorner(i + 1);
+				addCorner(i + 2);
+			}
+		}
+		
+		private void setFaceIndex(int index, int value)
 		{
-			return false;
+			face[index] = value;
+			faceRelative[index] = relative;
+			
+			relative = false;
 		}
 		
-		float x = Float.valueOf(tokens[1]);
-		float y = Float.valueOf(tokens[2]);
-		float z = Float.valueOf(tokens[3]);
+		private void addCorner(int faceCorner)
+		{
+			if((numIndices + 1) * 3 > indices.length)
+			{
+				indices = Arrays.copyOf(indices, indices.length * 2);
+			}
+			
+			int offset = numIndices * 3;
+			
+			for(int i = 0; i < 3; i++)
+			{
+				if(faceRelative[faceCorner * 3 + i])
+				{
+					addRelativeIndex(offset + i);
+				}
+				
+				indices[offset + i] = face[faceCorner * 3 + i];
+			}
+			
+			numIndices++;
+		}
 		
-		normals.add(new Vector3f(x, y, z));
+		private void addRelativeIndex(int position)
+		{
+			if(numRelativeIndices + 1 > relativeIndices.length)
+			{
+				relativeIndices = Arrays.copyOf(relativeIndices, relativeIndices.length * 2);
+			}
+			
+			relativeIndices[numRelativeIndices++] = position;
+		}
 		
-		return true;
-	}
-	
-	private boolean parseFace(String[] tokens)
-	{
-		if(!tokens[0].equals("f"))
+		/**
+		 * <p>
+		 * Parse a one-based, or negative relative OBJ index.
+		 * </p>
+		 *
+		 * <p>
+		 * Absolute indices are returned zero-based. Relative indices are resolved against the chunk,
+		 * and flagged so the merge step can add the offset of the chunk.
+		 * </p>
+		 */
+		private int parseIndex(int count)
 		{
-			return false;
+			boolean negative = false;
+			
+			if(position < end && data.get(position) == '-')
+			{
+				negative = true;
+				position++;
+			}
+			
+			int value = 0;
+			
+			while(position < end)
+			{
+				byte c = data.get(position);
+				
+				if(c < '0' || c > '9')
+				{
+					break;
+				}
+				
+				value = value * 10 + (c - '0');
+				position++;
+			}
+			
+			if(negative)
+			{
+				relative = true;
+				return count - value;
+			}
+			
+			return value - 1;
+		}
+		
+		private float parseFloat()
+		{
+			skipSpaces();
+			
+			int start = position;
+			boolean negative = false;
+			
+			if(position < end)
+			{
+				byte c = data.get(position);
+				
+				if(c == '-' || c == '+')
+				{
+					negative = c == '-';
+					position++;
+				}
+			}
+			
+			long mantissa = 0;
+			int exponent = 0;
+			int numDigits = 0;
+			
+			while(position < end)
+			{
+				byte c = data.get(position);
+				
+				if(c < '0' || c > '9')
+				{
+					break;
+				}
+				
+				if(numDigits < 18)
+				{
+					mantissa = mantissa * 10 + (c - '0');
+					numDigits += mantissa == 0 ? 0 : 1;
+				}
+				else
+				{
+					exponent++;
+				}
+				
+				position++;
+			}
+			
+			if(position < end && data.get(position) == '.')
+			{
+				position++;
+				
+				while(position < end)
+				{
+					byte c = data.get(position);
+					
+					if(c < '0' || c > '9')
+					{
+						break;
+					}
+					
+					if(numDigits < 18)
+					{
+						mantissa = mantissa * 10 + (c - '0');
+						numDigits += mantissa == 0 ? 0 : 1;
+						exponent--;
+					}
+					
+					position++;
+				}
+			}
+			
+			if(position < end && (data.get(position) == 'e' || data.get(position) == 'E'))
+			{
+				position++;
+				
+				boolean negativeExponent = false;
+				
+				if(position < end && (data.get(position) == '-' || data.get(position) == '+'))
+				{
+					negativeExponent = data.get(position) == '-';
+					position++;
+				}
+				
+				int value = 0;
+				
+				while(position < end)
+				{
+					byte c = data.get(position);
+					
+					if(c < '0' || c > '9')
+					{
+						break;
+					}
+					
+					value = Math.min(value * 10 + (c - '0'), 1000);
+					position++;
+				}
+				
+				exponent += negativeExponent ? -value : value;
+			}
+			
+			// Anything unusual (nan, inf, very large exponents) is handled by the JDK
+			if((position < end && !isWhitespace(data.get(position))) || Math.abs(exponent) >= POWERS_OF_TEN.length)
+			{
+				return parseFloatSlow(start);
+			}
+			
+			double result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+			return (float)(negative ? -result : result);
 		}
 		
-		for(int i = 0; i < tokens.length - 3; i++)
+		private float parseFloatSlow(int start)
 		{
-			OBJIndex i1 = parseOBJIndex(tokens[1]);
-			OBJIndex i2 = parseOBJIndex(tokens[2 + i]);
-			OBJIndex i3 = parseOBJIndex(tokens[3 + i]);
+			position = start;
+			
+			while(position < end && !isWhitespace(data.get(position)))
+			{
+				position++;
+			}
 			
-			indices.add(i1);
-			indices.add(i2);
-			indices.add(i3);
+			byte[] token = new byte[position - start];
+			
+			for(int i = 0; i < token.length; i++)
+			{
+				token[i] = data.get(start + i);
+			}
+			
+			return Float.parseFloat(new String(token, StandardCharsets.US_ASCII));
 		}
 		
-		return true;
-	}
-	
-	private OBJIndex parseOBJIndex(String token)
-	{
-		String[] tokens = token.split("/");		
-
-		OBJIndex result = new OBJIndex();
-		result.vertex = Integer.parseInt(tokens[0]) - 1;
-
-		if(tokens.length > 1)
+		private void skipWhitespace()
 		{
-			if(!tokens[1].isEmpty())
+			while(position < end && isWhitespace(data.get(position)))
 			{
-				hasTexCoords = true;
-				result.texCoord = Integer.parseInt(tokens[1]) - 1;
+				position++;
 			}
-
-			if(tokens.length > 2)
+		}
+		
+		private void skipSpaces()
+		{
+			while(position < end)
 			{
-				hasNormals = true;
-				result.normal = Integer.parseInt(tokens[2]) - 1;
+				byte c = data.get(position);
+				
+				if(c != ' ' && c != '\t')
+				{
+					break;
+				}
+				
+				position++;
 			}
 		}
-
-		return result;
+		
+		private void skipLine()
+		{
+			while(position < end && data.get(position) != '\n')
+			{
+				position++;
+			}
+			
+			position++;
+		}
+		
+		private static boolean isWhitespace(byte c)
+		{
+			return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+		}
+		
+		private static boolean isNumberStart(byte c)
+		{
+			return (c >= '0' && c <= '9') || c == '-';
+		}
 	}
 }
@@ -0,0 +1,320 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.renderer;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+
+/**
+ * <p>
+ * Builds meshes at runtime, straight into the buffers that are uploaded to the GPU.
+ * </p>
+ *
+ * <p>
+ * The vertices are written into a preallocated direct buffer in the interleaved layout of the
+ * {@link VertexFormat}, adding vertices and indices doesn't allocate anything:
+ * </p>
+ *
+ * <pre>
+ * builder.vertex(0, 0, 0).texCoord(0, 0).normal(0, 0, 1);
+ * builder.vertex(1, 0, 0).texCoord(1, 0).normal(0, 0, 1);
+ * builder.vertex(0, 1, 0).texCoord(0, 1).normal(0, 0, 1);
+ * builder.triangle(0, 1, 2);
+ *
+ * MeshRendererInternal renderer = builder.build();
+ * </pre>
+ *
+ * <p>
+ * A mesh that doesn't change should be built using {@link #buildStatic()}, which uploads it once. A dynamic mesh can
+ * be rebuilt every frame by calling {@link #clear()}, writing the new vertices, and calling
+ * {@link #upload(MeshRendererInternal)}, which copies it into the next region of the {@link StreamBuffer} of the
+ * renderer.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class MeshBuilder
+{
+	final VertexLayout layout;
+	
+	final ByteBuffer vertices;
+	final ByteBuffer indices;
+	
+	private int numVertices;
+	private int numIndices;
+	
+	/**
+	 * <p>
+	 * Create a new {@code MeshBuilder} using the default {@link VertexFormat}.
+	 * </p>
+	 *
+	 * @param maxVertices The maximum number of vertices.
+	 * @param maxIndices The maximum number of indices.
+	 * @param hasTexCoords Whether or not the vertices have texCoords.
+	 * @param hasNormals Whether or not the vertices have normals.
+	 */
+	public MeshBuilder(int maxVertices, int maxIndices, boolean hasTexCoords, boolean hasNormals)
+	{
+		this(maxVertices, maxIndices, hasTexCoords, hasNormals, VertexFormat.DEFAULT);
+	}
+	
+	/**
+	 * <p>
+	 * Create a new {@code MeshBuilder}.
+	 * </p>
+	 *
+	 * @param maxVertices The maximum number of vertices.
+	 * @param maxIndices The maximum number of indices.
+	 * @param hasTexCoords Whether or not the vertices have texCoords.
+	 * @param hasNormals Whether or not the vertices have normals.
+	 * @param format The vertex format.
+	 */
+	public MeshBuilder(int maxVertices, int maxIndices, boolean hasTexCoords, boolean hasNormals, VertexFormat format)
+	{
+		if(maxVertices <= 0 || maxIndices <= 0)
+		{
+			throw new IllegalArgumentException("A MeshBuilder must have room for at least one vertex and index");
+		}
+		
+		layout = new VertexLayout(format, maxVertices, maxIndices, hasTexCoords, hasNormals);
+		
+		vertices = BufferUtils.createByteBuffer(maxVertices * layout.stride);
+		indices = BufferUtils.createByteBuffer(maxIndices * layout.indexSize);
+	}
+	
+	/**
+	 * <p>
+	 * Start a new vertex.
+	 * </p>
+	 *
+	 * @param x The x position.
+	 * @param y The y position.
+	 * @param z The z position.
+	 * @return This builder.
+	 */
+	public final MeshBuilder vertex(float x, float y, float z)
+	{
+		if(numVertices == layout.numVertices)
+		{
+			throw new IllegalStateException("The MeshBuilder is full, it has room for " + layout.numVertices + " vertices");
+		}
+		
+		int offset = numVertices++ * layout.stride;
+		vertices.putFloat(offset, x).putFloat(offset + 4, y).putFloat(offset + 8, z);
+		
+		return this;
+	}
+	
+	/**
+	 * <p>
+	 * Set the texCoord of the current vertex.
+	 * </p>
+	 *
+	 * @param x The x coordinate.
+	 * @param y The y coordinate.
+	 * @return This builder.
+	 */
+	public final MeshBuilder texCoord(float x, float y)
+	{
+		if(layout.hasTexCoords)
+		{
+			layout.putTexCoord(vertices, getVertexOffset() + layout.texCoordOffset, x, y);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * <p>
+	 * Set the normal of the current vertex.
+	 * </p>
+	 *
+	 * @param x The x direction.
+	 * @param y The y direction.
+	 * @param z The z direction.
+	 * @return This builder.
+	 */
+	public final MeshBuilder normal(float x, float y, float z)
+	{
+		if(layout.hasNormals)
+		{
+			layout.putDirection(vertices, getVertexOffset() + layout.normalOffset, x, y, z);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * <p>
+	 * Add an index.
+	 * </p>
+	 *
+	 * @param index The index of the vertex.
+	 * @return This builder.
+	 */
+	public final MeshBuilder index(int index)
+	{
+		if(index < 0 || index >= layout.numVertices)
+		{
+			throw new IllegalArgumentException("Index " + index + " is out of range, the MeshBuilder has room for " + layout.numVertices + " vertices");
+		}
+		
+		if(numIndices == layout.numIndices)
+		{
+			throw new IllegalStateException("The MeshBuilder is full, it has room for " + layout.numIndices + " indices");
+		}
+		
+		if(layout.indexType == GL_UNSIGNED_SHORT)
+		{
+			indices.putShort(numIndices++ * Short.BYTES, (short)index);
+		}
+		else
+		{
+			indices.putInt(numIndices++ * Integer.BYTES, index);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * <p>
+	 * Add a triangle.
+	 * </p>
+	 *
+	 * @param i0 The index of the first vertex.
+	 * @param i1 The index of the second vertex.
+	 * @param i2 The index of the third vertex.
+	 * @return This builder.
+	 */
+	public final MeshBuilder triangle(int i0, int i1, int i2)
+	{
+		return index(i0).index(i1).index(i2);
+	}
+	
+	/**
+	 * <p>
+	 * Add a quad as two triangles.
+	 * </p>
+	 *
+	 * @param i0 The index of the first vertex.
+	 * @param i1 The index of the second vertex.
+	 * @param i2 The index of the third vertex.
+	 * @param i3 The index of the fourth vertex.
+	 * @return This builder.
+	 */
+	public final MeshBuilder quad(int i0, int i1, int i2, int i3)
+	{
+		return triangle(i0, i1, i2).triangle(i0, i2, i3);
+	}
+	
+	/**
+	 * <p>
+	 * Remove all vertices and indices, the buffers are kept.
+	 * </p>
+	 *
+	 * @return This builder.
+	 */
+	public final MeshBuilder clear()
+	{
+		numVertices = 0;
+		numIndices = 0;
+		
+		return this;
+	}
+	
+	/**
+	 * <p>
+	 * Create a renderer for a dynamic mesh, its contents can be replaced by {@link #upload(MeshRendererInternal)}.
+	 * </p>
+	 *
+	 * @return The renderer.
+	 */
+	public final MeshRendererInternal build()
+	{
+		return new MeshRendererInternal(this, true);
+	}
+	
+	/**
+	 * <p>
+	 * Create a renderer for a mesh that doesn't change. The mesh is uploaded once, and isn't written again or
+	 * synchronized with the GPU every frame like the mesh of {@link #build()}.
+	 * </p>
+	 *
+	 * @return The renderer.
+	 */
+	public final MeshRendererInternal buildStatic()
+	{
+		return new MeshRendererInternal(this, false);
+	}
+	
+	/**
+	 * <p>
+	 * Upload the mesh to a renderer that was created by {@link #build()}, replacing its contents. Renderers created
+	 * by {@link #buildStatic()} can't be updated.
+	 * </p>
+	 *
+	 * @param renderer The renderer.
+	 */
+	public final void upload(MeshRendererInternal renderer)
+	{
+		renderer.update(this);
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of vertices.
+	 * </p>
+	 *
+	 * @return The number of vertices.
+	 */
+	public final int getNumVertices()
+	{
+		return numVertices;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of indices.
+	 * </p>
+	 *
+	 * @return The number of indices.
+	 */
+	public final int getNumIndices()
+	{
+		return numIndices;
+	}
+	
+	private int getVertexOffset()
+	{
+		if(numVertices == 0)
+		{
+			throw new IllegalStateException("Call vertex() before setting the attributes of a vertex");
+		}
+		
+		return (numVertices - 1) * layout.stride;
+	}
+}
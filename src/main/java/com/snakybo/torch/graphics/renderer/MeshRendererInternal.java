@@ -22,27 +22,40 @@
 
 package com.snakybo.torch.graphics.renderer;
 
+import com.snakybo.torch.asset.AssetData;
+import com.snakybo.torch.graphics.GLDeletionQueue;
+import com.snakybo.torch.graphics.RenderStatsInternal;
+import com.snakybo.torch.graphics.camera.CameraInternal;
 import com.snakybo.torch.graphics.mesh.Mesh;
+import com.snakybo.torch.graphics.mesh.MeshInternal;
+import com.snakybo.torch.graphics.mesh.TMesh;
+import com.snakybo.torch.graphics.shader.Shader;
+import com.snakybo.torch.graphics.shader.ShaderInternal;
+import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.debug.LoggerInternal;
+import com.snakybo.torch.util.time.Time;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
 
+import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 
-import static org.lwjgl.opengl.GL11.GL_FLOAT;
-import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
 import static org.lwjgl.opengl.GL11.glDrawElements;
 import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
 import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
 import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
 import static org.lwjgl.opengl.GL15.glBindBuffer;
 import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
 import static org.lwjgl.opengl.GL15.glDeleteBuffers;
 import static org.lwjgl.opengl.GL15.glGenBuffers;
-import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
-import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
-import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
 import static org.lwjgl.opengl.GL30.glBindVertexArray;
 import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
 import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL32.glDrawElementsBaseVertex;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memCopy;
 
 /**
  * <p>
@@ -54,21 +67,74 @@ import static org.lwjgl.opengl.GL30.glGenVertexArrays;
  */
 public final class MeshRendererInternal
 {
-	private static final int POSITION_VBO = 0;
-	private static final int TEXCOORD_VBO = 1;
-	private static final int NORMAL_VBO = 2;
-	private static final int INDEX_VBO = 3;
+	private static final int VERTEX_VBO = 0;
+	private static final int INDEX_VBO = 1;
 	private static final int LAST_VBO = INDEX_VBO;
 	
+	/** The fraction a screen size has to pass a LOD threshold by before switching, to avoid popping */
+	private static final float LOD_HYSTERESIS = 0.1f;
+	
+	/** The number of consecutive frames a mesh has to be updated on before it's streamed */
+	private static final int STREAMING_UPDATE_FRAMES = 3;
+	
+	/** How much larger than the mesh a region of a stream buffer is, so a growing mesh doesn't recreate it every frame */
+	private static final float STREAMING_HEADROOM = 1.5f;
+	
 	private Mesh mesh;
+	private VertexLayout layout;
 	
 	private IntBuffer vao;
 	private IntBuffer vbo;
 	
+	private int vertexVersion;
+	private int indexVersion;
+	
+	private int vertexBufferSize;
+	private int indexBufferSize;
+	
+	private int lod;
+	
+	// The number of indices written by a MeshBuilder, or -1 if the renderer renders a mesh
+	private int numStreamedIndices = -1;
+	
+	// The stream buffer that replaces the vertex and index buffers of dynamic meshes, or null
+	private StreamBuffer stream;
+	private int streamVertexCapacity;
+	
+	// The offsets of the current data, only non-zero if the renderer is streamed
+	private int baseVertex;
+	private int indexOffset;
+	
+	private long lastUpdateFrame = -1;
+	private int consecutiveUpdates;
+	
+	// The mesh data the size of the buffers was added to, see MeshInternal.addGpuMemory
+	private AssetData gpuMemoryAsset;
+	private long gpuMemorySize;
+	
+	// The shader that was last checked against the layout, and whether or not it can render the mesh
+	private Shader checkedShader;
+	private boolean compatible = true;
+	
+	private final Matrix4f modelView = new Matrix4f();
+	private final Vector3f center = new Vector3f();
+	private final Vector3f scale = new Vector3f();
+	
 	public MeshRendererInternal(Mesh mesh)
+	{
+		this(mesh, VertexFormat.DEFAULT);
+	}
+	
+	public MeshRendererInternal(Mesh mesh, VertexFormat format)
 	{
 		this.mesh = mesh;
 		
+		layout = new VertexLayout(mesh, format);
+		vertexVersion = mesh.getVertexVersion();
+		indexVersion = mesh.getIndexVersion();
+		
+		readReleasedCpuData();
+		
 		vao = BufferUtils.createIntBuffer(1);
 		vbo = BufferUtils.createIntBuffer(LAST_VBO + 1);
 		
@@ -77,50 +143,560 @@ public final class MeshRendererInternal
 		
 		glGenBuffers(vbo);
 		
-		glBindBuffer(GL_ARRAY_BUFFER, vbo.get(POSITION_VBO));
-		glBufferData(GL_ARRAY_BUFFER, mesh.getVertexBuffer(), GL_STATIC_DRAW);
-		glVertexAttribPointer(POSITION_VBO, 3, GL_FLOAT, false, 0, 0);
-		
-		glBindBuffer(GL_ARRAY_BUFFER, vbo.get(TEXCOORD_VBO));
-		glBufferData(GL_ARRAY_BUFFER, mesh.getTexCoordBuffer(), GL_STATIC_DRAW);
-		glVertexAttribPointer(TEXCOORD_VBO, 2, GL_FLOAT, false, 0, 0);
-		
-		glBindBuffer(GL_ARRAY_BUFFER, vbo.get(NORMAL_VBO));
-		glBufferData(GL_ARRAY_BUFFER, mesh.getNormalBuffer(), GL_STATIC_DRAW);
-		glVertexAttribPointer(NORMAL_VBO, 3, GL_FLOAT, false, 0, 0);
+		glBindBuffer(GL_ARRAY_BUFFER, vbo.get(VERTEX_VBO));
+		vertexBufferSize = upload(GL_ARRAY_BUFFER, layout.createVertexBuffer(mesh), 0);
+		layout.setAttributePointers();
 		
 		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, vbo.get(INDEX_VBO));
-		glBufferData(GL_ELEMENT_ARRAY_BUFFER, mesh.getIndexBuffer(), GL_STATIC_DRAW);
+		indexBufferSize = upload(GL_ELEMENT_ARRAY_BUFFER, layout.createIndexBuffer(mesh), 0);
 		
+		glBindVertexArray(0);
 		glBindBuffer(GL_ARRAY_BUFFER, 0);
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+		
+		releaseCpuData();
+		updateGpuMemory();
+		
+		LoggerInternal.log("Created mesh renderer: " + layout.numVertices + " vertices, " +
+				layout.getVertexSize() + " bytes per vertex (uncompressed: " + layout.getUncompressedVertexSize() + "), " +
+				layout.indexSize + " bytes per index (uncompressed: " + Integer.BYTES + ")");
+	}
+	
+	/**
+	 * <p>
+	 * Create a renderer for a mesh written by a {@link MeshBuilder}.
+	 * </p>
+	 *
+	 * <p>
+	 * A dynamic mesh is streamed, every region of the {@link StreamBuffer} has the capacity of the builder. A static
+	 * mesh is uploaded once into buffers of the size of its vertices and indices, and can't be updated.
+	 * </p>
+	 *
+	 * @param builder The builder.
+	 * @param dynamic Whether or not the mesh is replaced using {@link #update(MeshBuilder)}.
+	 */
+	MeshRendererInternal(MeshBuilder builder, boolean dynamic)
+	{
+		layout = builder.layout;
+		
+		vao = BufferUtils.createIntBuffer(1);
+		glGenVertexArrays(vao);
+		
+		if(dynamic)
+		{
+			createStream(builder.vertices.capacity(), builder.indices.capacity(), null);
+			update(builder);
+		}
+		else
+		{
+			ByteBuffer vertices = builder.vertices.duplicate();
+			vertices.limit(builder.getNumVertices() * layout.stride);
+			
+			ByteBuffer indices = builder.indices.duplicate();
+			indices.limit(builder.getNumIndices() * layout.indexSize);
+			
+			vbo = BufferUtils.createIntBuffer(LAST_VBO + 1);
+			glGenBuffers(vbo);
+			
+			glBindVertexArray(vao.get(0));
+			
+			glBindBuffer(GL_ARRAY_BUFFER, vbo.get(VERTEX_VBO));
+			vertexBufferSize = upload(GL_ARRAY_BUFFER, vertices, 0);
+			layout.setAttributePointers();
+			
+			glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, vbo.get(INDEX_VBO));
+			indexBufferSize = upload(GL_ELEMENT_ARRAY_BUFFER, indices, 0);
+			
+			glBindVertexArray(0);
+			glBindBuffer(GL_ARRAY_BUFFER, 0);
+			glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+			
+			numStreamedIndices = builder.getNumIndices();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Replace the mesh with the mesh written by a {@link MeshBuilder}.
+	 * </p>
+	 *
+	 * <p>
+	 * The mesh is copied into the next region of the {@link StreamBuffer}, nothing is allocated and the GPU doesn't
+	 * have to be waited for as long as it's less than {@link StreamBuffer#NUM_REGIONS} frames behind.
+	 * </p>
+	 *
+	 * @param builder The builder, it must have the same layout as the builder the renderer was created by.
+	 */
+	final void update(MeshBuilder builder)
+	{
+		if(layout != builder.layout)
+		{
+			throw new IllegalArgumentException("The renderer was not created by this MeshBuilder");
+		}
+		
+		if(stream == null)
+		{
+			throw new IllegalStateException("The renderer was built for a static mesh, it can't be updated");
+		}
+		
+		int indexBytes = builder.getNumIndices() * layout.indexSize;
+		ByteBuffer region = stream.map();
+		
+		memCopy(memAddress(builder.vertices), memAddress(region), builder.getNumVertices() * layout.stride);
+		memCopy(memAddress(builder.indices), memAddress(region, streamVertexCapacity), indexBytes);
+		
+		stream.unmap(streamVertexCapacity + indexBytes);
+		updateStreamOffsets();
+		
+		numStreamedIndices = builder.getNumIndices();
+	}
+	
+	/**
+	 * <p>
+	 * Update the buffers after the mesh has been modified, or replace the mesh.
+	 * </p>
+	 *
+	 * <p>
+	 * Only the buffers that changed are uploaded again, the existing GPU buffers are reused if the new data fits.
+	 * </p>
+	 *
+	 * <p>
+	 * A mesh that is updated on {@link #STREAMING_UPDATE_FRAMES} consecutive frames is considered dynamic, from
+	 * then on it's written into a {@link StreamBuffer} instead.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 */
+	public final void update(Mesh mesh)
+	{
+		boolean meshChanged = this.mesh != mesh;
+		VertexLayout oldLayout = layout;
+		
+		numStreamedIndices = -1;
+		
+		this.mesh = mesh;
+		layout = new VertexLayout(mesh, oldLayout.format);
+		
+		long frame = Time.getFrameId();
+		
+		if(frame != lastUpdateFrame)
+		{
+			consecutiveUpdates = frame == lastUpdateFrame + 1 ? consecutiveUpdates + 1 : 1;
+			lastUpdateFrame = frame;
+		}
+		
+		if(stream != null || consecutiveUpdates >= STREAMING_UPDATE_FRAMES)
+		{
+			stream(mesh, oldLayout);
+			updateGpuMemory();
+			return;
+		}
+		
+		boolean updateVertices = meshChanged || vertexVersion != mesh.getVertexVersion();
+		boolean updateIndices = meshChanged || indexVersion != mesh.getIndexVersion() || oldLayout.indexType != layout.indexType;
+		
+		if(updateVertices || updateIndices)
+		{
+			readReleasedCpuData();
+		}
+		
+		glBindVertexArray(vao.get(0));
+		
+		if(updateVertices)
+		{
+			glBindBuffer(GL_ARRAY_BUFFER, vbo.get(VERTEX_VBO));
+			vertexBufferSize = upload(GL_ARRAY_BUFFER, layout.createVertexBuffer(mesh), vertexBufferSize);
+			
+			oldLayout.disableAttributes();
+			layout.setAttributePointers();
+		}
+		
+		if(updateIndices)
+		{
+			glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, vbo.get(INDEX_VBO));
+			indexBufferSize = upload(GL_ELEMENT_ARRAY_BUFFER, layout.createIndexBuffer(mesh), indexBufferSize);
+		}
+		
 		glBindVertexArray(0);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+		
+		vertexVersion = mesh.getVertexVersion();
+		indexVersion = mesh.getIndexVersion();
+		
+		lod = Math.min(lod, layout.lodFirstIndices.length - 1);
+		releaseCpuData();
+		updateGpuMemory();
+	}
+	
+	/**
+	 * <p>
+	 * Render the mesh, using the LOD that matches the size of the mesh on the screen of the current camera.
+	 * </p>
+	 *
+	 * @param renderMode The render mode.
+	 * @param model The model matrix.
+	 */
+	public final void render(int renderMode, Matrix4f model)
+	{
+		CameraInternal camera = CameraInternal.getCurrentCamera();
+		
+		if(camera != null && layout.lodFirstIndices.length > 1)
+		{
+			selectLod(getScreenSize(model, camera));
+		}
+		
+		render(renderMode);
 	}
 	
+	/**
+	 * <p>
+	 * Render the mesh, using the LOD that was selected last.
+	 * </p>
+	 *
+	 * @param renderMode The render mode.
+	 */
 	public final void render(int renderMode)
 	{
-		glBindVertexArray(vao.get(0));
+		if(isCompatible(ShaderInternal.getBoundShader()))
+		{
+			glBindVertexArray(vao.get(0));
+			
+			if(numStreamedIndices >= 0)
+			{
+				drawElements(renderMode, numStreamedIndices, 0);
+			}
+			else
+			{
+				drawElements(renderMode, layout.lodNumIndices[lod], (long)layout.lodFirstIndices[lod] * layout.indexSize);
+			}
+			
+			RenderStatsInternal.addDrawCall();
+			
+			glBindVertexArray(0);
+		}
+		
+		if(stream != null)
+		{
+			stream.fence();
+		}
+	}
+	
+	public final void destroy()
+	{
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
 		
-		glEnableVertexAttribArray(0);
-		glEnableVertexAttribArray(1);
-		glEnableVertexAttribArray(2);
+		if(vbo != null)
+		{
+			IntBuffer buffers = vbo;
+			GLDeletionQueue.add(() -> glDeleteBuffers(buffers));
+		}
 		
-		glDrawElements(renderMode, mesh.getNumIndices(), GL_UNSIGNED_INT, 0);
+		if(stream != null)
+		{
+			stream.destroy();
+		}
 		
-		glDisableVertexAttribArray(2);
-		glDisableVertexAttribArray(1);
-		glDisableVertexAttribArray(0);
+		if(gpuMemoryAsset != null)
+		{
+			MeshInternal.addGpuMemory(gpuMemoryAsset, -gpuMemorySize);
+			gpuMemoryAsset = null;
+		}
 		
 		glBindVertexArray(0);
+		
+		IntBuffer vertexArray = vao;
+		GLDeletionQueue.add(() -> glDeleteVertexArrays(vertexArray));
 	}
 	
-	public final void destroy()
+	/**
+	 * <p>
+	 * Get the size of a vertex on the GPU.
+	 * </p>
+	 *
+	 * @return The size of a vertex in bytes.
+	 */
+	public final int getVertexSize()
+	{
+		return layout.getVertexSize();
+	}
+	
+	/**
+	 * <p>
+	 * Get the size of a vertex on the GPU, if every attribute was stored with full precision.
+	 * </p>
+	 *
+	 * @return The size of an uncompressed vertex in bytes.
+	 */
+	public final int getUncompressedVertexSize()
+	{
+		return layout.getUncompressedVertexSize();
+	}
+	
+	/**
+	 * <p>
+	 * Get the LOD that was rendered last.
+	 * </p>
+	 *
+	 * @return The LOD.
+	 */
+	public final int getLod()
+	{
+		return lod;
+	}
+	
+	/**
+	 * <p>
+	 * Read the data of a GPU only mesh from its file again if it has been released, so it can be uploaded.
+	 * </p>
+	 */
+	private void readReleasedCpuData()
 	{
-		glDisableVertexAttribArray(0);
+		if(MeshInternal.isCpuDataReleased(mesh))
+		{
+			MeshInternal.readReleasedCpuData(mesh);
+			layout = new VertexLayout(mesh, layout.format);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Release the CPU data of a GPU only mesh after it has been uploaded, only the layout of the uploaded data is kept.
+	 * </p>
+	 */
+	private void releaseCpuData()
+	{
+		if(MeshInternal.hasReleasableCpuData(mesh))
+		{
+			TMesh uploaded = MeshInternal.getCookedData(mesh);
+			MeshInternal.releaseCpuData(mesh, uploaded != null ? uploaded : TMeshCooker.create(layout, null, null));
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Move the size of the buffers of the renderer to the footprint of the current mesh.
+	 * </p>
+	 */
+	private void updateGpuMemory()
+	{
+		if(gpuMemoryAsset != null)
+		{
+			MeshInternal.addGpuMemory(gpuMemoryAsset, -gpuMemorySize);
+		}
 		
-		glBindBuffer(GL_ARRAY_BUFFER, 0);
-		glDeleteBuffers(vbo);
+		gpuMemoryAsset = MeshInternal.getAssetData(mesh);
+		gpuMemorySize = stream != null ? stream.getSize() : (long)vertexBufferSize + indexBufferSize;
+		
+		MeshInternal.addGpuMemory(gpuMemoryAsset, gpuMemorySize);
+	}
+	
+	/**
+	 * <p>
+	 * Write a mesh into the next region of the stream buffer, the stream buffer is created if the renderer isn't
+	 * streamed yet, or recreated if the mesh doesn't fit in it.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @param oldLayout The layout of the previous mesh.
+	 */
+	private void stream(Mesh mesh, VertexLayout oldLayout)
+	{
+		// A streamed mesh is written every update, so its data is kept once it has been read
+		readReleasedCpuData();
+		
+		int vertexBytes = layout.numVertices * layout.stride;
+		int indexBytes = layout.numIndices * layout.indexSize;
+		
+		if(stream == null || oldLayout.stride != layout.stride || vertexBytes > streamVertexCapacity ||
+				streamVertexCapacity + indexBytes > stream.getRegionSize())
+		{
+			if(vbo != null)
+			{
+				glDeleteBuffers(vbo);
+				vbo = null;
+			}
+			
+			createStream((int)(vertexBytes * STREAMING_HEADROOM), (int)(indexBytes * STREAMING_HEADROOM), oldLayout);
+			LoggerInternal.log("Streaming mesh: " + stream.getRegionSize() + " bytes per region");
+		}
+		else if(oldLayout.getFlags() != layout.getFlags())
+		{
+			bindStream(oldLayout);
+		}
+		
+		ByteBuffer region = stream.map();
+		
+		layout.writeVertices(mesh, region, 0);
+		layout.writeIndices(mesh, region, streamVertexCapacity);
+		
+		stream.unmap(streamVertexCapacity + indexBytes);
+		updateStreamOffsets();
+		
+		vertexVersion = mesh.getVertexVersion();
+		indexVersion = mesh.getIndexVersion();
+		
+		lod = Math.min(lod, layout.lodFirstIndices.length - 1);
+	}
+	
+	/**
+	 * <p>
+	 * Replace the stream buffer. The vertices are stored at the start of every region, followed by the indices.
+	 * </p>
+	 *
+	 * @param vertexCapacity The number of bytes to reserve for vertices.
+	 * @param indexCapacity The number of bytes to reserve for indices.
+	 * @param oldLayout The layout the attribute pointers of the vertex array were set for, or null.
+	 */
+	private void createStream(int vertexCapacity, int indexCapacity, VertexLayout oldLayout)
+	{
+		if(stream != null)
+		{
+			stream.destroy();
+		}
+		
+		// Every region starts at a multiple of the stride, so the base vertex of a region is a whole number
+		streamVertexCapacity = (vertexCapacity + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES;
+		stream = new StreamBuffer(Math.max(streamVertexCapacity + indexCapacity, 1), layout.stride * Integer.BYTES);
+		
+		bindStream(oldLayout);
+	}
+	
+	/**
+	 * <p>
+	 * Point the vertex array to the stream buffer.
+	 * </p>
+	 *
+	 * @param oldLayout The layout the attribute pointers of the vertex array were set for, or null.
+	 */
+	private void bindStream(VertexLayout oldLayout)
+	{
+		glBindVertexArray(vao.get(0));
+		glBindBuffer(GL_ARRAY_BUFFER, stream.getBuffer());
+		
+		if(oldLayout != null)
+		{
+			oldLayout.disableAttributes();
+		}
+		
+		layout.setAttributePointers();
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, stream.getBuffer());
 		
 		glBindVertexArray(0);
-		glDeleteVertexArrays(vao);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+	}
+	
+	private void updateStreamOffsets()
+	{
+		baseVertex = stream.getOffset() / layout.stride;
+		indexOffset = stream.getOffset() + streamVertexCapacity;
+	}
+	
+	/**
+	 * <p>
+	 * Check whether the bound shader declares the normals and tangents with the type they are stored as, an error is
+	 * logged once for every shader that doesn't.
+	 * </p>
+	 *
+	 * @param shader The bound shader, or null.
+	 * @return Whether or not the mesh can be rendered.
+	 */
+	private boolean isCompatible(Shader shader)
+	{
+		if(shader != checkedShader)
+		{
+			checkedShader = shader;
+			compatible = shader == null || layout.isCompatible(shader);
+			
+			if(!compatible)
+			{
+				String type = layout.format.octahedralNormals ? "vec2 (octahedral-encoded)" : "vec3";
+				Logger.logError("Shader " + shader.getName() + " can't render a mesh whose normals and tangents are stored as " + type);
+			}
+		}
+		
+		return compatible;
+	}
+	
+	private void drawElements(int renderMode, int count, long offset)
+	{
+		if(baseVertex != 0)
+		{
+			glDrawElementsBaseVertex(renderMode, count, layout.indexType, indexOffset + offset, baseVertex);
+		}
+		else
+		{
+			glDrawElements(renderMode, count, layout.indexType, indexOffset + offset);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Select the LOD for a screen size. The screen size has to pass the threshold of a LOD by
+	 * {@link #LOD_HYSTERESIS} before the LOD changes, so objects near a threshold don't switch every frame.
+	 * </p>
+	 *
+	 * @param screenSize The screen size.
+	 */
+	private void selectLod(float screenSize)
+	{
+		float[] screenSizes = layout.lodScreenSizes;
+		
+		while(lod + 1 < screenSizes.length && screenSize < screenSizes[lod + 1] * (1 - LOD_HYSTERESIS))
+		{
+			lod++;
+		}
+		
+		while(lod > 0 && screenSize > screenSizes[lod] * (1 + LOD_HYSTERESIS))
+		{
+			lod--;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get the size of the bounding sphere of the mesh on the screen, relative to the height of the screen.
+	 * </p>
+	 *
+	 * @param model The model matrix.
+	 * @param camera The camera.
+	 * @return The screen size.
+	 */
+	private float getScreenSize(Matrix4f model, CameraInternal camera)
+	{
+		float[] bounds = layout.bounds;
+		
+		float sizeX = bounds[3] - bounds[0];
+		float sizeY = bounds[4] - bounds[1];
+		float sizeZ = bounds[5] - bounds[2];
+		
+		model.getScale(scale);
+		
+		float radius = 0.5f * (float)Math.sqrt(sizeX * sizeX + sizeY * sizeY + sizeZ * sizeZ) * Math.max(scale.x, Math.max(scale.y, scale.z));
+		
+		center.set((bounds[0] + bounds[3]) * 0.5f, (bounds[1] + bounds[4]) * 0.5f, (bounds[2] + bounds[5]) * 0.5f);
+		camera.getViewMatrix(modelView).mul(model).transformPosition(center);
+		
+		float distance = center.length();
+		
+		if(distance <= radius)
+		{
+			return Float.POSITIVE_INFINITY;
+		}
+		
+		return radius / (distance * (float)Math.tan(Math.toRadians(camera.getFieldOfView()) * 0.5));
+	}
+	
+	private static int upload(int target, ByteBuffer data, int bufferSize)
+	{
+		if(data.remaining() <= bufferSize)
+		{
+			glBufferSubData(target, 0, data);
+			return bufferSize;
+		}
+		
+		glBufferData(target, data, GL_STATIC_DRAW);
+		return data.remaining();
 	}
 }
@@ -0,0 +1,287 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.renderer;
+
+import com.snakybo.torch.graphics.GLDeletionQueue;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.lwjgl.opengl.ARBBufferStorage.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.ARBBufferStorage.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.ARBBufferStorage.glBufferStorage;
+import static org.lwjgl.opengl.GL.getCapabilities;
+import static org.lwjgl.opengl.GL15.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL15.nglBufferSubData;
+import static org.lwjgl.opengl.GL30.GL_MAP_WRITE_BIT;
+import static org.lwjgl.opengl.GL30.glMapBufferRange;
+import static org.lwjgl.opengl.GL31.GL_COPY_WRITE_BUFFER;
+import static org.lwjgl.opengl.GL32.GL_SYNC_FLUSH_COMMANDS_BIT;
+import static org.lwjgl.opengl.GL32.GL_SYNC_GPU_COMMANDS_COMPLETE;
+import static org.lwjgl.opengl.GL32.GL_TIMEOUT_EXPIRED;
+import static org.lwjgl.opengl.GL32.GL_WAIT_FAILED;
+import static org.lwjgl.opengl.GL32.glClientWaitSync;
+import static org.lwjgl.opengl.GL32.glDeleteSync;
+import static org.lwjgl.opengl.GL32.glFenceSync;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+
+/**
+ * <p>
+ * A GPU buffer for data that is replaced every frame.
+ * </p>
+ *
+ * <p>
+ * If {@code ARB_buffer_storage} is available, the buffer is a ring of {@link #NUM_REGIONS} regions that is mapped
+ * once and stays mapped. Every {@link #map()} moves on to the next region, and the fence placed by {@link #fence()}
+ * after the last draw that used a region is waited on before the region is written again. With enough regions
+ * the GPU is done with a region long before it comes around, so the wait is free.
+ * </p>
+ *
+ * <p>
+ * Otherwise the buffer holds a single region, which is orphaned and written with {@code glBufferSubData} by
+ * {@link #unmap(int)}.
+ * </p>
+ *
+ * <p>
+ * In both cases the data is written into memory that is allocated once, no buffers are allocated per frame.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class StreamBuffer
+{
+	/** The number of regions of a persistently mapped buffer, the number of frames the CPU can be ahead of the GPU */
+	static final int NUM_REGIONS = 3;
+	
+	/** The maximum time to wait for a fence in one call, in nanoseconds */
+	private static final long FENCE_TIMEOUT = 1000000000L;
+	
+	private final boolean persistent;
+	
+	private final int buffer;
+	private final int regionSize;
+	
+	private final ByteBuffer[] regions;
+	private final long[] fences;
+	
+	private int region;
+	
+	/**
+	 * <p>
+	 * Create a stream buffer.
+	 * </p>
+	 *
+	 * @param regionSize The size of a region, in bytes.
+	 * @param alignment The alignment of the start of every region, in bytes.
+	 */
+	StreamBuffer(int regionSize, int alignment)
+	{
+		this.regionSize = (regionSize + alignment - 1) / alignment * alignment;
+		
+		persistent = isPersistentMappingSupported();
+		buffer = glGenBuffers();
+		
+		glBindBuffer(GL_COPY_WRITE_BUFFER, buffer);
+		
+		if(persistent)
+		{
+			int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+			long size = (long)this.regionSize * NUM_REGIONS;
+			
+			glBufferStorage(GL_COPY_WRITE_BUFFER, size, flags);
+			ByteBuffer mapping = glMapBufferRange(GL_COPY_WRITE_BUFFER, 0, size, flags);
+			
+			regions = new ByteBuffer[NUM_REGIONS];
+			fences = new long[NUM_REGIONS];
+			
+			for(int i = 0; i < NUM_REGIONS; i++)
+			{
+				mapping.limit((i + 1) * this.regionSize).position(i * this.regionSize);
+				regions[i] = mapping.slice().order(ByteOrder.nativeOrder());
+			}
+		}
+		else
+		{
+			glBufferData(GL_COPY_WRITE_BUFFER, this.regionSize, GL_STREAM_DRAW);
+			
+			regions = new ByteBuffer[] { BufferUtils.createByteBuffer(this.regionSize) };
+			fences = new long[1];
+		}
+		
+		glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+		
+		region = regions.length - 1;
+	}
+	
+	/**
+	 * <p>
+	 * Move on to the next region, and wait until the GPU is done with it.
+	 * </p>
+	 *
+	 * @return The memory to write the data of the region into, with absolute puts.
+	 */
+	final ByteBuffer map()
+	{
+		region = (region + 1) % regions.length;
+		
+		long fence = fences[region];
+		
+		if(fence != 0)
+		{
+			int result;
+			
+			do
+			{
+				result = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT);
+			}
+			while(result == GL_TIMEOUT_EXPIRED);
+			
+			if(result == GL_WAIT_FAILED)
+			{
+				throw new IllegalStateException("Unable to wait for a stream buffer fence");
+			}
+			
+			glDeleteSync(fence);
+			fences[region] = 0;
+		}
+		
+		return regions[region];
+	}
+	
+	/**
+	 * <p>
+	 * Finish writing the current region.
+	 * </p>
+	 *
+	 * @param size The number of bytes that were written, from the start of the region.
+	 */
+	final void unmap(int size)
+	{
+		if(!persistent)
+		{
+			glBindBuffer(GL_COPY_WRITE_BUFFER, buffer);
+			glBufferData(GL_COPY_WRITE_BUFFER, regionSize, GL_STREAM_DRAW);
+			nglBufferSubData(GL_COPY_WRITE_BUFFER, 0, size, memAddress(regions[0]));
+			glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Place a fence after the draw calls that use the current region, the region won't be written again until the
+	 * GPU has passed the fence.
+	 * </p>
+	 */
+	final void fence()
+	{
+		if(persistent)
+		{
+			if(fences[region] != 0)
+			{
+				glDeleteSync(fences[region]);
+			}
+			
+			fences[region] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+		}
+	}
+	
+	final void destroy()
+	{
+		long[] syncs = fences.clone();
+		int target = buffer;
+		
+		GLDeletionQueue.add(() ->
+		{
+			for(long fence : syncs)
+			{
+				if(fence != 0)
+				{
+					glDeleteSync(fence);
+				}
+			}
+			
+			glDeleteBuffers(target);
+		});
+	}
+	
+	/**
+	 * <p>
+	 * Get the offset of the current region in the buffer.
+	 * </p>
+	 *
+	 * @return The offset in bytes.
+	 */
+	final int getOffset()
+	{
+		return region * regionSize;
+	}
+	
+	/**
+	 * <p>
+	 * Get the size of a region.
+	 * </p>
+	 *
+	 * @return The size of a region in bytes.
+	 */
+	final int getRegionSize()
+	{
+		return regionSize;
+	}
+	
+	/**
+	 * <p>
+	 * Get the size of the buffer, of every region.
+	 * </p>
+	 *
+	 * @return The size of the buffer in bytes.
+	 */
+	final long getSize()
+	{
+		return persistent ? (long)regionSize * NUM_REGIONS : regionSize;
+	}
+	
+	/**
+	 * <p>
+	 * Get the OpenGL buffer.
+	 * </p>
+	 *
+	 * @return The buffer.
+	 */
+	final int getBuffer()
+	{
+		return buffer;
+	}
+	
+	private static boolean isPersistentMappingSupported()
+	{
+		GLCapabilities capabilities = getCapabilities();
+		return capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+	}
+}
@@ -0,0 +1,159 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.renderer;
+
+import com.snakybo.torch.graphics.mesh.IMeshLoader;
+import com.snakybo.torch.graphics.mesh.Mesh;
+import com.snakybo.torch.graphics.mesh.MeshAssetLoader;
+import com.snakybo.torch.graphics.mesh.TMesh;
+import com.snakybo.torch.graphics.mesh.gltf.GLBMesh;
+import com.snakybo.torch.graphics.mesh.obj.OBJMesh;
+import com.snakybo.torch.util.FileUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Cooks meshes into the binary {@link TMesh} format.
+ * </p>
+ *
+ * <p>
+ * The cooker can be run from the command line: {@code TMeshCooker <source.obj|source.glb> <target.tmesh>}.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class TMeshCooker
+{
+	private TMeshCooker()
+	{
+		throw new AssertionError();
+	}
+	
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length != 2)
+		{
+			System.err.println("Usage: TMeshCooker <source.obj|source.glb> <target." + TMesh.EXTENSION + ">");
+			System.exit(1);
+		}
+		
+		cook(Paths.get(args[0]), Paths.get(args[1]), VertexFormat.DEFAULT);
+	}
+	
+	/**
+	 * <p>
+	 * Cook an OBJ or GLB file.
+	 * </p>
+	 *
+	 * <p>
+	 * The mesh is optimized before it is cooked, see {@link Mesh#optimize()}, and the LODs set by
+	 * {@link MeshAssetLoader#setImportLods(float[], float[])} are generated into it.
+	 * </p>
+	 *
+	 * @param source The OBJ or GLB file.
+	 * @param target The file to write the cooked mesh to.
+	 * @param format The vertex format.
+	 * @throws IOException If the source could not be read, or the target could not be written.
+	 */
+	public static void cook(Path source, Path target, VertexFormat format) throws IOException
+	{
+		cook(source, null, target, format);
+	}
+	
+	/**
+	 * <p>
+	 * Cook a single mesh of a GLB file, or the whole file, see {@link GLBMesh#GLBMesh(ByteBuffer, String)}.
+	 * </p>
+	 *
+	 * @param source The OBJ or GLB file.
+	 * @param submesh The name or index of the mesh to cook, or {@code null} to cook the whole file.
+	 * @param target The file to write the cooked mesh to.
+	 * @param format The vertex format.
+	 * @throws IOException If the source could not be read, or the target could not be written.
+	 */
+	public static void cook(Path source, String submesh, Path target, VertexFormat format) throws IOException
+	{
+		Mesh mesh;
+		
+		try(FileChannel channel = FileChannel.open(source, StandardOpenOption.READ))
+		{
+			ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			IMeshLoader loader = FileUtils.getExtension(source.toString()).equals(GLBMesh.EXTENSION) ? new GLBMesh(data, submesh) : new OBJMesh(data);
+			
+			mesh = loader.toModel(new Mesh());
+		}
+		
+		mesh.optimize();
+		
+		float[] lodRatios = MeshAssetLoader.getImportLodRatios();
+		
+		if(lodRatios.length > 0)
+		{
+			mesh.generateLods(lodRatios, MeshAssetLoader.getImportLodScreenSizes());
+		}
+		
+		cook(mesh, format).write(target);
+		mesh.destroy();
+	}
+	
+	/**
+	 * <p>
+	 * Cook a mesh, including its LODs.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @param format The vertex format.
+	 * @return The cooked mesh.
+	 */
+	public static TMesh cook(Mesh mesh, VertexFormat format)
+	{
+		VertexLayout layout = new VertexLayout(mesh, format);
+		return create(layout, layout.createVertexBuffer(mesh), layout.createIndexBuffer(mesh));
+	}
+	
+	/**
+	 * <p>
+	 * Create a cooked mesh from vertex and index data that have already been written in a layout.
+	 * </p>
+	 *
+	 * @param layout The layout of the data.
+	 * @param vertexData The interleaved vertex data, or {@code null} to only describe the layout.
+	 * @param indexData The index data, or {@code null} to only describe the layout.
+	 * @return The cooked mesh.
+	 */
+	static TMesh create(VertexLayout layout, ByteBuffer vertexData, ByteBuffer indexData)
+	{
+		TMesh result = new TMesh(layout.getFlags(), layout.numVertices, layout.numIndices, layout.stride,
+				layout.texCoordOffset, layout.normalOffset, layout.tangentOffset, layout.bounds, vertexData, indexData);
+		
+		result.setLods(layout.lodFirstIndices, layout.lodNumIndices, layout.lodScreenSizes, layout.lodRatios);
+		return result;
+	}
+}
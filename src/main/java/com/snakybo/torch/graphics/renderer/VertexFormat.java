@@ -0,0 +1,91 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.renderer;
+
+/**
+ * <p>
+ * Describes how the vertex attributes of a mesh are stored on the GPU.
+ * </p>
+ *
+ * <p>
+ * Every attribute of a vertex is interleaved into a single buffer, a vertex format only chooses
+ * the precision of the attributes:
+ * </p>
+ *
+ * <ul>
+ *     <li>Texture coordinates can be stored as half precision floats.</li>
+ *     <li>
+ *         Normals and tangents can be stored octahedral-encoded as two normalized {@code short}s,
+ *         shaders have to declare them as {@code vec2} and decode them using {@code _decodeOctahedral(vec2)}.
+ *         A renderer doesn't draw with a shader that declares them as {@code vec3} in that case.
+ *     </li>
+ *     <li>Indices can be stored as {@code unsigned short}s, if the mesh has no more than 65536 vertices.</li>
+ * </ul>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class VertexFormat
+{
+	/**
+	 * <p>
+	 * The format used by default, texture coordinates and indices are compressed. Normals and tangents are stored
+	 * with full precision, so shaders can declare them as {@code vec3}.
+	 * </p>
+	 */
+	public static final VertexFormat DEFAULT = new VertexFormat(true, false, true);
+	
+	/**
+	 * <p>
+	 * Every attribute is compressed, shaders have to decode the normals and tangents.
+	 * </p>
+	 */
+	public static final VertexFormat COMPRESSED = new VertexFormat(true, true, true);
+	
+	/**
+	 * <p>
+	 * Every attribute is stored with full precision.
+	 * </p>
+	 */
+	public static final VertexFormat UNCOMPRESSED = new VertexFormat(false, false, false);
+	
+	final boolean halfTexCoords;
+	final boolean octahedralNormals;
+	final boolean shortIndices;
+	
+	/**
+	 * <p>
+	 * Create a new vertex format.
+	 * </p>
+	 *
+	 * @param halfTexCoords Whether or not to store texture coordinates as half precision floats.
+	 * @param octahedralNormals Whether or not to store normals and tangents octahedral-encoded.
+	 * @param shortIndices Whether or not to store indices as {@code unsigned short}s when possible.
+	 */
+	public VertexFormat(boolean halfTexCoords, boolean octahedralNormals, boolean shortIndices)
+	{
+		this.halfTexCoords = halfTexCoords;
+		this.octahedralNormals = octahedralNormals;
+		this.shortIndices = shortIndices;
+	}
+}
@@ -0,0 +1,611 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.renderer;
+
+import com.snakybo.torch.graphics.mesh.Mesh;
+import com.snakybo.torch.graphics.mesh.MeshInternal;
+import com.snakybo.torch.graphics.mesh.TMesh;
+import com.snakybo.torch.graphics.shader.Shader;
+import com.snakybo.torch.graphics.shader.ShaderInternal;
+import com.snakybo.torch.util.MathUtils;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_SHORT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+import static org.lwjgl.opengl.GL20.GL_FLOAT_VEC2;
+import static org.lwjgl.opengl.GL20.GL_FLOAT_VEC3;
+import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.GL_HALF_FLOAT;
+
+/**
+ * <p>
+ * The interleaved layout of the vertices of a {@link Mesh} in a {@link VertexFormat}.
+ * </p>
+ *
+ * <p>
+ * Attributes are stored in the order position, texture coordinate, normal, tangent. Attributes
+ * the mesh doesn't contain for every vertex are left out of the layout entirely.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class VertexLayout
+{
+	static final int POSITION = 0;
+	static final int TEXCOORD = 1;
+	static final int NORMAL = 2;
+	static final int TANGENT = 3;
+	
+	private static final int MAX_SHORT_INDEX_VERTICES = 65536;
+	
+	final VertexFormat format;
+	
+	final int numVertices;
+	final int numIndices;
+	
+	final boolean hasTexCoords;
+	final boolean hasNormals;
+	final boolean hasTangents;
+	
+	final int texCoordOffset;
+	final int normalOffset;
+	final int tangentOffset;
+	final int stride;
+	
+	final int indexType;
+	final int indexSize;
+	
+	// The range of every LOD in the index buffer, and the ratio of triangles it was generated with
+	final int[] lodFirstIndices;
+	final int[] lodNumIndices;
+	final float[] lodScreenSizes;
+	final float[] lodRatios;
+	
+	// The bounds of the mesh (min x, y, z, max x, y, z)
+	final float[] bounds;
+	
+	private final TMesh cooked;
+	
+	/**
+	 * <p>
+	 * Create the layout of a mesh.
+	 * </p>
+	 *
+	 * <p>
+	 * If the mesh was loaded from cooked data, the layout of the cooked data is used instead of the {@code format}.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @param format The preferred vertex format.
+	 */
+	VertexLayout(Mesh mesh, VertexFormat format)
+	{
+		cooked = MeshInternal.getCookedData(mesh);
+		
+		boolean shortIndices;
+		
+		if(cooked != null)
+		{
+			this.format = new VertexFormat(cooked.hasFlag(TMesh.FLAG_HALF_TEXCOORDS), cooked.hasFlag(TMesh.FLAG_OCTAHEDRAL_NORMALS), cooked.hasFlag(TMesh.FLAG_SHORT_INDICES));
+			
+			numVertices = cooked.getNumVertices();
+			numIndices = cooked.getNumIndices();
+			
+			hasTexCoords = cooked.hasFlag(TMesh.FLAG_TEXCOORDS);
+			hasNormals = cooked.hasFlag(TMesh.FLAG_NORMALS);
+			hasTangents = cooked.hasFlag(TMesh.FLAG_TANGENTS);
+			
+			texCoordOffset = cooked.getTexCoordOffset();
+			normalOffset = cooked.getNormalOffset();
+			tangentOffset = cooked.getTangentOffset();
+			stride = cooked.getStride();
+			
+			shortIndices = cooked.hasFlag(TMesh.FLAG_SHORT_INDICES);
+			
+			int numLods = cooked.getNumLods();
+			
+			lodFirstIndices = new int[numLods];
+			lodNumIndices = new int[numLods];
+			lodScreenSizes = new float[numLods];
+			lodRatios = new float[numLods];
+			
+			for(int i = 0; i < numLods; i++)
+			{
+				lodFirstIndices[i] = cooked.getLodFirstIndex(i);
+				lodNumIndices[i] = cooked.getLodNumIndices(i);
+				lodScreenSizes[i] = cooked.getLodScreenSize(i);
+				lodRatios[i] = cooked.getLodRatio(i);
+			}
+			
+			bounds = cooked.getBounds();
+		}
+		else
+		{
+			this.format = format;
+			
+			numVertices = mesh.getNumVertices();
+			
+			int numLods = mesh.getNumLods();
+			int first = 0;
+			
+			lodFirstIndices = new int[numLods];
+			lodNumIndices = new int[numLods];
+			lodScreenSizes = new float[numLods];
+			lodRatios = new float[numLods];
+			
+			for(int i = 0; i < numLods; i++)
+			{
+				lodFirstIndices[i] = first;
+				lodNumIndices[i] = mesh.getLodIndices(i).remaining();
+				lodScreenSizes[i] = mesh.getLodScreenSize(i);
+				lodRatios[i] = mesh.getLodRatio(i);
+				
+				first += lodNumIndices[i];
+			}
+			
+			numIndices = first;
+			
+			hasTexCoords = numVertices > 0 && mesh.getNumTexCoords() >= numVertices;
+			hasNormals = numVertices > 0 && mesh.getNumNormals() >= numVertices;
+			hasTangents = numVertices > 0 && mesh.getNumTangents() >= numVertices;
+			
+			int[] offsets = getOffsets(format, hasTexCoords, hasNormals, hasTangents);
+			
+			texCoordOffset = offsets[0];
+			normalOffset = offsets[1];
+			tangentOffset = offsets[2];
+			stride = offsets[3];
+			
+			shortIndices = format.shortIndices && numVertices <= MAX_SHORT_INDEX_VERTICES;
+			bounds = getBounds(mesh);
+		}
+		
+		indexType = shortIndices ? GL_UNSIGNED_SHORT : GL_UNSIGNED_INT;
+		indexSize = shortIndices ? Short.BYTES : Integer.BYTES;
+	}
+	
+	/**
+	 * <p>
+	 * Create the layout of a mesh that is written directly by a {@link MeshBuilder}.
+	 * </p>
+	 *
+	 * @param format The vertex format.
+	 * @param maxVertices The maximum number of vertices.
+	 * @param maxIndices The maximum number of indices.
+	 * @param hasTexCoords Whether or not the vertices have texCoords.
+	 * @param hasNormals Whether or not the vertices have normals.
+	 */
+	VertexLayout(VertexFormat format, int maxVertices, int maxIndices, boolean hasTexCoords, boolean hasNormals)
+	{
+		this.format = format;
+		
+		numVertices = maxVertices;
+		numIndices = maxIndices;
+		
+		this.hasTexCoords = hasTexCoords;
+		this.hasNormals = hasNormals;
+		hasTangents = false;
+		
+		int[] offsets = getOffsets(format, hasTexCoords, hasNormals, false);
+		
+		texCoordOffset = offsets[0];
+		normalOffset = offsets[1];
+		tangentOffset = offsets[2];
+		stride = offsets[3];
+		
+		boolean shortIndices = format.shortIndices && maxVertices <= MAX_SHORT_INDEX_VERTICES;
+		
+		indexType = shortIndices ? GL_UNSIGNED_SHORT : GL_UNSIGNED_INT;
+		indexSize = shortIndices ? Short.BYTES : Integer.BYTES;
+		
+		lodFirstIndices = new int[] { 0 };
+		lodNumIndices = new int[] { maxIndices };
+		lodScreenSizes = new float[] { Float.POSITIVE_INFINITY };
+		lodRatios = new float[] { 1 };
+		bounds = new float[6];
+		
+		cooked = null;
+	}
+	
+	/**
+	 * <p>
+	 * Create the interleaved vertex buffer of a mesh.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @return The interleaved vertex buffer.
+	 */
+	final ByteBuffer createVertexBuffer(Mesh mesh)
+	{
+		if(cooked != null)
+		{
+			return cooked.getVertexData();
+		}
+		
+		ByteBuffer result = BufferUtils.createByteBuffer(numVertices * stride);
+		writeVertices(mesh, result, 0);
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Create the index buffer of a mesh.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @return The index buffer.
+	 */
+	final ByteBuffer createIndexBuffer(Mesh mesh)
+	{
+		if(cooked != null)
+		{
+			return cooked.getIndexData();
+		}
+		
+		ByteBuffer result = BufferUtils.createByteBuffer(numIndices * indexSize);
+		writeIndices(mesh, result, 0);
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Write the interleaved vertices of a mesh into a buffer, without changing its position.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @param target The buffer, in native byte order.
+	 * @param offset The offset in the buffer to write the first vertex at.
+	 */
+	final void writeVertices(Mesh mesh, ByteBuffer target, int offset)
+	{
+		if(cooked != null)
+		{
+			ByteBuffer destination = target.duplicate();
+			destination.position(offset);
+			destination.put(cooked.getVertexData());
+			return;
+		}
+		
+		FloatBuffer vertices = mesh.getVertices();
+		FloatBuffer texCoords = mesh.getTexCoords();
+		FloatBuffer normals = mesh.getNormals();
+		FloatBuffer tangents = mesh.getTangents();
+		
+		for(int i = 0; i < numVertices; i++)
+		{
+			int vertex = offset + i * stride;
+			
+			target.putFloat(vertex, vertices.get(i * 3)).putFloat(vertex + 4, vertices.get(i * 3 + 1)).putFloat(vertex + 8, vertices.get(i * 3 + 2));
+			
+			if(hasTexCoords)
+			{
+				putTexCoord(target, vertex + texCoordOffset, texCoords.get(i * 2), texCoords.get(i * 2 + 1));
+			}
+			
+			if(hasNormals)
+			{
+				putDirection(target, vertex + normalOffset, normals.get(i * 3), normals.get(i * 3 + 1), normals.get(i * 3 + 2));
+			}
+			
+			if(hasTangents)
+			{
+				putDirection(target, vertex + tangentOffset, tangents.get(i * 3), tangents.get(i * 3 + 1), tangents.get(i * 3 + 2));
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Write the indices of every LOD of a mesh into a buffer, without changing its position.
+	 * </p>
+	 *
+	 * @param mesh The mesh.
+	 * @param target The buffer, in native byte order.
+	 * @param offset The offset in the buffer to write the first index at.
+	 */
+	final void writeIndices(Mesh mesh, ByteBuffer target, int offset)
+	{
+		if(cooked != null)
+		{
+			ByteBuffer destination = target.duplicate();
+			destination.position(offset);
+			destination.put(cooked.getIndexData());
+			return;
+		}
+		
+		for(int lod = 0; lod < lodFirstIndices.length; lod++)
+		{
+			IntBuffer indices = mesh.getLodIndices(lod);
+			int first = offset + lodFirstIndices[lod] * indexSize;
+			
+			if(indexType == GL_UNSIGNED_SHORT)
+			{
+				for(int i = 0; i < lodNumIndices[lod]; i++)
+				{
+					target.putShort(first + i * Short.BYTES, (short)indices.get(i));
+				}
+			}
+			else
+			{
+				for(int i = 0; i < lodNumIndices[lod]; i++)
+				{
+					target.putInt(first + i * Integer.BYTES, indices.get(i));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Set and enable the attribute pointers of the currently bound vertex array.
+	 * </p>
+	 */
+	final void setAttributePointers()
+	{
+		glVertexAttribPointer(POSITION, 3, GL_FLOAT, false, stride, 0);
+		glEnableVertexAttribArray(POSITION);
+		
+		if(hasTexCoords)
+		{
+			glVertexAttribPointer(TEXCOORD, 2, format.halfTexCoords ? GL_HALF_FLOAT : GL_FLOAT, false, stride, texCoordOffset);
+			glEnableVertexAttribArray(TEXCOORD);
+		}
+		
+		if(hasNormals)
+		{
+			setDirectionPointer(NORMAL, normalOffset);
+		}
+		
+		if(hasTangents)
+		{
+			setDirectionPointer(TANGENT, tangentOffset);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Disable the attributes of the currently bound vertex array that were enabled by {@link #setAttributePointers()}.
+	 * </p>
+	 */
+	final void disableAttributes()
+	{
+		glDisableVertexAttribArray(POSITION);
+		
+		if(hasTexCoords)
+		{
+			glDisableVertexAttribArray(TEXCOORD);
+		}
+		
+		if(hasNormals)
+		{
+			glDisableVertexAttribArray(NORMAL);
+		}
+		
+		if(hasTangents)
+		{
+			glDisableVertexAttribArray(TANGENT);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get the {@link TMesh} flags describing the layout.
+	 * </p>
+	 *
+	 * @return The flags.
+	 */
+	final int getFlags()
+	{
+		int result = 0;
+		
+		result |= hasTexCoords ? TMesh.FLAG_TEXCOORDS : 0;
+		result |= hasNormals ? TMesh.FLAG_NORMALS : 0;
+		result |= hasTangents ? TMesh.FLAG_TANGENTS : 0;
+		result |= format.halfTexCoords ? TMesh.FLAG_HALF_TEXCOORDS : 0;
+		result |= format.octahedralNormals ? TMesh.FLAG_OCTAHEDRAL_NORMALS : 0;
+		result |= indexType == GL_UNSIGNED_SHORT ? TMesh.FLAG_SHORT_INDICES : 0;
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Get the size of a vertex in bytes.
+	 * </p>
+	 *
+	 * @return The size of a vertex in bytes.
+	 */
+	final int getVertexSize()
+	{
+		return stride;
+	}
+	
+	/**
+	 * <p>
+	 * Get the size a vertex would have if every attribute was stored with full precision.
+	 * </p>
+	 *
+	 * @return The size of an uncompressed vertex in bytes.
+	 */
+	final int getUncompressedVertexSize()
+	{
+		int result = 3 * Float.BYTES;
+		
+		result += hasTexCoords ? 2 * Float.BYTES : 0;
+		result += hasNormals ? 3 * Float.BYTES : 0;
+		result += hasTangents ? 3 * Float.BYTES : 0;
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Check whether a shader declares the normals and tangents with the type they are stored as, a shader has to
+	 * declare octahedral-encoded normals and tangents as {@code vec2}, and other normals and tangents as {@code vec3}.
+	 * </p>
+	 *
+	 * @param shader The shader.
+	 * @return Whether or not the shader can be used to render the mesh.
+	 */
+	final boolean isCompatible(Shader shader)
+	{
+		return (!hasNormals || isCompatible(shader, NORMAL)) && (!hasTangents || isCompatible(shader, TANGENT));
+	}
+	
+	private boolean isCompatible(Shader shader, int attribute)
+	{
+		int type = ShaderInternal.getAttributeType(shader, attribute);
+		return type == 0 || type == (format.octahedralNormals ? GL_FLOAT_VEC2 : GL_FLOAT_VEC3);
+	}
+	
+	private void setDirectionPointer(int attribute, int offset)
+	{
+		if(format.octahedralNormals)
+		{
+			glVertexAttribPointer(attribute, 2, GL_SHORT, true, stride, offset);
+		}
+		else
+		{
+			glVertexAttribPointer(attribute, 3, GL_FLOAT, false, stride, offset);
+		}
+		
+		glEnableVertexAttribArray(attribute);
+	}
+	
+	/**
+	 * <p>
+	 * Write a texCoord at an absolute offset in a vertex buffer.
+	 * </p>
+	 *
+	 * @param buffer The vertex buffer.
+	 * @param offset The offset of the texCoord.
+	 * @param x The x coordinate.
+	 * @param y The y coordinate.
+	 */
+	final void putTexCoord(ByteBuffer buffer, int offset, float x, float y)
+	{
+		if(format.halfTexCoords)
+		{
+			buffer.putShort(offset, MathUtils.toHalfFloat(x)).putShort(offset + 2, MathUtils.toHalfFloat(y));
+		}
+		else
+		{
+			buffer.putFloat(offset, x).putFloat(offset + 4, y);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Write a normal or tangent at an absolute offset in a vertex buffer.
+	 * </p>
+	 *
+	 * @param buffer The vertex buffer.
+	 * @param offset The offset of the direction.
+	 * @param dx The x component.
+	 * @param dy The y component.
+	 * @param dz The z component.
+	 */
+	final void putDirection(ByteBuffer buffer, int offset, float dx, float dy, float dz)
+	{
+		if(!format.octahedralNormals)
+		{
+			buffer.putFloat(offset, dx).putFloat(offset + 4, dy).putFloat(offset + 8, dz);
+			return;
+		}
+		
+		// Project the direction onto the octahedron, and fold the lower hemisphere over the upper one
+		float length = Math.abs(dx) + Math.abs(dy) + Math.abs(dz);
+		float x = length == 0 ? 0 : dx / length;
+		float y = length == 0 ? 0 : dy / length;
+		
+		if(dz < 0)
+		{
+			float foldedX = (1 - Math.abs(y)) * (x >= 0 ? 1 : -1);
+			float foldedY = (1 - Math.abs(x)) * (y >= 0 ? 1 : -1);
+			
+			x = foldedX;
+			y = foldedY;
+		}
+		
+		buffer.putShort(offset, (short)Math.round(MathUtils.clamp(x, -1, 1) * Short.MAX_VALUE));
+		buffer.putShort(offset + 2, (short)Math.round(MathUtils.clamp(y, -1, 1) * Short.MAX_VALUE));
+	}
+	
+	/**
+	 * <p>
+	 * Get the offsets of the attributes in a vertex.
+	 * </p>
+	 *
+	 * @return The texCoord offset, normal offset, tangent offset, and the size of a vertex.
+	 */
+	private static int[] getOffsets(VertexFormat format, boolean hasTexCoords, boolean hasNormals, boolean hasTangents)
+	{
+		int directionSize = format.octahedralNormals ? 2 * Short.BYTES : 3 * Float.BYTES;
+		int offset = 3 * Float.BYTES;
+		
+		int texCoordOffset = offset;
+		offset += hasTexCoords ? (format.halfTexCoords ? 2 * Short.BYTES : 2 * Float.BYTES) : 0;
+		
+		int normalOffset = offset;
+		offset += hasNormals ? directionSize : 0;
+		
+		int tangentOffset = offset;
+		offset += hasTangents ? directionSize : 0;
+		
+		return new int[] { texCoordOffset, normalOffset, tangentOffset, offset };
+	}
+	
+	private static float[] getBounds(Mesh mesh)
+	{
+		FloatBuffer vertices = mesh.getVertices();
+		
+		if(!vertices.hasRemaining())
+		{
+			return new float[6];
+		}
+		
+		float[] result = {
+				Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE,
+				-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE
+		};
+		
+		for(int i = 0; i < vertices.limit(); i++)
+		{
+			float value = vertices.get(i);
+			
+			result[i % 3] = Math.min(result[i % 3], value);
+			result[3 + i % 3] = Math.max(result[3 + i % 3], value);
+		}
+		
+		return result;
+	}
+}
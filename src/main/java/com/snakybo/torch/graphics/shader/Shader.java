@@ -23,6 +23,7 @@
 package com.snakybo.torch.graphics.shader;
 
 import com.snakybo.torch.asset.Asset;
+import com.snakybo.torch.asset.AssetTracker;
 import com.snakybo.torch.graphics.material.Material;
 
 /**
@@ -38,29 +39,27 @@ public final class Shader extends Asset
 {
 	ShaderAsset asset;
 	
+	private final AssetTracker.Reference reference;
+	
 	Shader(ShaderAsset asset)
 	{
 		this.asset = asset;
 		this.asset.addUsage();
+		reference = AssetTracker.track(this, asset);
 	}
 	
 	Shader(String path)
 	{
 		asset = new ShaderAsset(path);
 		asset.init();
+		reference = AssetTracker.track(this, asset);
 	}
 	
-	@Override
-	public final void finalize() throws Throwable
+	Shader(String path, TShader source)
 	{
-		try
-		{
-			destroy();
-		}
-		finally
-		{
-			super.finalize();
-		}
+		asset = new ShaderAsset(path);
+		asset.init(source);
+		reference = AssetTracker.track(this, asset);
 	}
 	
 	@Override
@@ -68,6 +67,8 @@ public final class Shader extends Asset
 	{
 		if(asset != null)
 		{
+			AssetTracker.untrack(reference);
+			
 			asset.removeUsage();
 			asset = null;
 		}
@@ -85,6 +86,24 @@ public final class Shader extends Asset
 		return asset.getName();
 	}
 	
+	/**
+	 * <p>
+	 * Get the unique ID of a shader property.
+	 * </p>
+	 *
+	 * <p>
+	 * Setting material properties by ID avoids looking up the property by name every time,
+	 * it's recommended to cache the ID of properties that are set often.
+	 * </p>
+	 *
+	 * @param name The name of the property, e.g. {@code spotLight.position}.
+	 * @return The ID of the property.
+	 */
+	public static int propertyToId(String name)
+	{
+		return ShaderProperties.toId(name);
+	}
+	
 	/**
 	 * <p>
 	 * Load a shader.
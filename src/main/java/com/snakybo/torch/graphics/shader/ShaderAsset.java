@@ -22,21 +22,27 @@
 
 package com.snakybo.torch.graphics.shader;
 
+import com.snakybo.torch.asset.AssetCache;
 import com.snakybo.torch.asset.AssetData;
+import com.snakybo.torch.asset.AssetProfiler;
+import com.snakybo.torch.graphics.GLDeletionQueue;
 import com.snakybo.torch.util.FileUtils;
 import com.snakybo.torch.util.debug.Logger;
 import com.snakybo.torch.util.debug.LoggerInternal;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.NoSuchFileException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.lwjgl.opengl.GL20.GL_ACTIVE_ATTRIBUTES;
 import static org.lwjgl.opengl.GL20.GL_COMPILE_STATUS;
 import static org.lwjgl.opengl.GL20.GL_FRAGMENT_SHADER;
 import static org.lwjgl.opengl.GL20.GL_LINK_STATUS;
@@ -49,6 +55,8 @@ import static org.lwjgl.opengl.GL20.glCreateShader;
 import static org.lwjgl.opengl.GL20.glDeleteProgram;
 import static org.lwjgl.opengl.GL20.glDeleteShader;
 import static org.lwjgl.opengl.GL20.glDetachShader;
+import static org.lwjgl.opengl.GL20.glGetActiveAttrib;
+import static org.lwjgl.opengl.GL20.glGetAttribLocation;
 import static org.lwjgl.opengl.GL20.glGetProgramInfoLog;
 import static org.lwjgl.opengl.GL20.glGetProgrami;
 import static org.lwjgl.opengl.GL20.glGetShaderInfoLog;
@@ -57,9 +65,13 @@ import static org.lwjgl.opengl.GL20.glGetUniformLocation;
 import static org.lwjgl.opengl.GL20.glLinkProgram;
 import static org.lwjgl.opengl.GL20.glShaderSource;
 import static org.lwjgl.opengl.GL20.glValidateProgram;
+import static org.lwjgl.opengl.GL31.GL_INVALID_INDEX;
+import static org.lwjgl.opengl.GL31.glGetUniformBlockIndex;
+import static org.lwjgl.opengl.GL31.glUniformBlockBinding;
 import static org.lwjgl.opengl.GL32.GL_GEOMETRY_SHADER;
 import static org.lwjgl.opengl.GL40.GL_TESS_CONTROL_SHADER;
 import static org.lwjgl.opengl.GL40.GL_TESS_EVALUATION_SHADER;
+import static org.lwjgl.opengl.GL41.GL_PROGRAM_BINARY_LENGTH;
 import static org.lwjgl.opengl.GL43.GL_COMPUTE_SHADER;
 import static org.lwjgl.system.MemoryUtil.NULL;
 
@@ -81,21 +93,53 @@ final class ShaderAsset extends AssetData
 		}
 	}
 	
+	private static final String CAMERA_UNIFORM_BLOCK = "_CameraData";
+	
+	private static final String BUILT_IN_UNIFORMS =
+			"layout (std140) uniform " + CAMERA_UNIFORM_BLOCK + "\n" +
+			"{\n" +
+			"    mat4 _view;\n" +
+			"    mat4 _projection;\n" +
+			"    vec3 _cameraPosition;\n" +
+			"    float _time;\n" +
+			"};\n";
+	
+	private static final String BUILT_IN_FUNCTIONS =
+			"vec3 _decodeOctahedral(vec2 e)\n" +
+			"{\n" +
+			"    vec3 v = vec3(e.xy, 1.0 - abs(e.x) - abs(e.y));\n" +
+			"    if(v.z < 0.0) v.xy = (1.0 - abs(v.yx)) * vec2(v.x >= 0.0 ? 1.0 : -1.0, v.y >= 0.0 ? 1.0 : -1.0);\n" +
+			"    return normalize(v);\n" +
+			"}\n";
+	
 	static Map<String, ShaderAsset> all = new HashMap<>();
 	
-	Map<String, Integer> uniforms;
-	Map<String, String> uniformTypes;
+	int[] uniformLocations;
+	ShaderUniformType[] uniformTypes;
+	int[] propertyIds;
+	
+	// The GL type of the vertex attribute at every location, 0 if the program has no attribute at a location
+	int[] attributeTypes;
+	
+	// The values that were last uploaded to the program, and their version at that time
+	Object uniformOwner;
+	int uniformOwnerVersion;
 	
 	List<Integer> attachedShaders;
 	
 	int programId;
 	
+	// The length of the source the program was compiled from, estimates its size if the binary size is unknown
+	private int sourceLength;
+	
 	ShaderAsset(String name)
 	{
 		super(name);
 		
-		uniforms = new HashMap<>();
-		uniformTypes = new HashMap<>();
+		uniformLocations = new int[0];
+		uniformTypes = new ShaderUniformType[0];
+		propertyIds = new int[0];
+		attributeTypes = new int[0];
 		
 		attachedShaders = new ArrayList<>();
 		
@@ -119,56 +163,125 @@ final class ShaderAsset extends AssetData
 			all.remove(name);
 		}
 		
-		for(Integer shader : attachedShaders)
+		int program = programId;
+		List<Integer> shaders = new ArrayList<>(attachedShaders);
+		
+		GLDeletionQueue.add(() ->
+		{
+			for(Integer shader : shaders)
+			{
+				glDetachShader(program, shader);
+				glDeleteShader(shader);
+			}
+			
+			glDeleteProgram(program);
+		});
+	}
+	
+	@Override
+	protected final AssetCache.Category getCategory()
+	{
+		return AssetCache.Category.Shader;
+	}
+	
+	@Override
+	protected final long getMemorySize()
+	{
+		GLCapabilities capabilities = GL.getCapabilities();
+		
+		if(capabilities.OpenGL41 || capabilities.GL_ARB_get_program_binary)
 		{
-			glDetachShader(programId, shader);
-			glDeleteShader(shader);
+			return glGetProgrami(programId, GL_PROGRAM_BINARY_LENGTH);
 		}
 		
-		glDeleteProgram(programId);
+		return sourceLength;
+	}
+	
+	@Override
+	protected final long getGpuMemorySize()
+	{
+		return getMemorySize();
 	}
 	
 	final void init()
 	{
-		String source = null;
+		init(readSource(name));
+	}
+	
+	/**
+	 * <p>
+	 * Compile and link the program from its source, see {@link #readSource(String)}.
+	 * </p>
+	 *
+	 * @param source The source of the shader.
+	 */
+	final void init(TShader source)
+	{
+		AssetProfiler.Scope scope = AssetProfiler.begin(name, AssetProfiler.Phase.Upload);
 		
 		try
 		{
-			String target = name;
-			try
-			{
-				FileUtils.toURI(target);
-			}
-			catch(NoSuchFileException ex)
-			{
-				target = "torch_internal/" + target;
-			}
+			sourceLength = source.getLength();
+			
+			createShader(GL_VERTEX_SHADER, name, parseShader(source, "VERTEX_PASS"));
+			createShader(GL_FRAGMENT_SHADER, name, parseShader(source, "FRAGMENT_PASS"));
+			createShader(GL_GEOMETRY_SHADER, name, parseShader(source, "GEOMETRY_PASS"));
+			createShader(GL_COMPUTE_SHADER, name, parseShader(source, "COMPUTE_PASS"));
+			createShader(GL_TESS_CONTROL_SHADER, name, parseShader(source, "TESS_CONTROL_PASS"));
+			createShader(GL_TESS_EVALUATION_SHADER, name, parseShader(source, "TESS_EVAL_PASS"));
+			
+			link();
+			bindUniformBlocks();
+			addAttributes();
+			addUniforms(name, source.getSource());
 			
-			Path p = Paths.get(FileUtils.toURI(target));
-			List<String> sourceLines = Files.readAllLines(p);
+			AssetProfiler.recordMemory(name, getFootprint());
+		}
+		finally
+		{
+			scope.end();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Read the source of a shader, the shader is looked up in {@code torch_internal} if it doesn't exist. The cooked
+	 * shader is read instead if the shader has been cooked. This doesn't use OpenGL, so it can be called from any
+	 * thread.
+	 * </p>
+	 *
+	 * @param name The name of the shader.
+	 * @return The source of the shader, or null if it could not be read.
+	 */
+	static TShader readSource(String name)
+	{
+		TShader source = null;
+		AssetProfiler.Scope scope = AssetProfiler.begin(name, AssetProfiler.Phase.Decode);
+		
+		try
+		{
+			String target = FileUtils.exists(name) ? name : "torch_internal/" + name;
+			String cooked = FileUtils.getCookedPath(target, TShader.EXTENSION);
 			
-			StringBuilder stringBuilder = new StringBuilder();
-			for(String line : sourceLines)
+			if(cooked != null)
 			{
-				stringBuilder.append(line).append("\n");
+				source = TShader.read(FileUtils.read(cooked));
+			}
+			else
+			{
+				source = TShader.fromSource(StandardCharsets.UTF_8.decode(FileUtils.read(target)).toString());
 			}
-			
-			source = stringBuilder.toString();
 		}
 		catch(IOException e)
 		{
 			Logger.logError(e.toString(), e);
 		}
+		finally
+		{
+			scope.end();
+		}
 		
-		createShader(GL_VERTEX_SHADER, name, parseShader(source, "VERTEX_PASS"));
-		createShader(GL_FRAGMENT_SHADER, name, parseShader(source, "FRAGMENT_PASS"));
-		createShader(GL_GEOMETRY_SHADER, name, parseShader(source, "GEOMETRY_PASS"));
-		createShader(GL_COMPUTE_SHADER, name, parseShader(source, "COMPUTE_PASS"));
-		createShader(GL_TESS_CONTROL_SHADER, name, parseShader(source, "TESS_CONTROL_PASS"));
-		createShader(GL_TESS_EVALUATION_SHADER, name, parseShader(source, "TESS_EVAL_PASS"));
-				
-		link();
-		addUniforms(name, source);
+		return source;
 	}
 	
 	private void createShader(int type, String name, String source)
@@ -213,6 +326,39 @@ final class ShaderAsset extends AssetData
 		}
 	}
 	
+	private void bindUniformBlocks()
+	{
+		int cameraBlockIndex = glGetUniformBlockIndex(programId, CAMERA_UNIFORM_BLOCK);
+		
+		if(cameraBlockIndex != GL_INVALID_INDEX)
+		{
+			glUniformBlockBinding(programId, cameraBlockIndex, ShaderInternal.CAMERA_UNIFORM_BLOCK_BINDING);
+		}
+	}
+	
+	private void addAttributes()
+	{
+		IntBuffer size = BufferUtils.createIntBuffer(1);
+		IntBuffer type = BufferUtils.createIntBuffer(1);
+		
+		int numAttributes = glGetProgrami(programId, GL_ACTIVE_ATTRIBUTES);
+		
+		for(int i = 0; i < numAttributes; i++)
+		{
+			int location = glGetAttribLocation(programId, glGetActiveAttrib(programId, i, size, type));
+			
+			if(location >= 0)
+			{
+				if(location >= attributeTypes.length)
+				{
+					attributeTypes = Arrays.copyOf(attributeTypes, location + 1);
+				}
+				
+				attributeTypes[location] = type.get(0);
+			}
+		}
+	}
+	
 	private void addUniforms(String uri, String source)
 	{
 		String[] lines = source.split("\n");
@@ -241,8 +387,31 @@ final class ShaderAsset extends AssetData
 			throw new RuntimeException("Unable to find a uniform with name: " + name);
 		}
 		
-		uniforms.put(name, location);
-		uniformTypes.put(name, type);
+		int id = ShaderProperties.toId(name);
+		
+		if(id >= uniformLocations.length)
+		{
+			int oldLength = uniformLocations.length;
+			
+			uniformLocations = Arrays.copyOf(uniformLocations, id + 1);
+			uniformTypes = Arrays.copyOf(uniformTypes, id + 1);
+			
+			Arrays.fill(uniformLocations, oldLength, uniformLocations.length, -1);
+		}
+		
+		if(uniformLocations[id] < 0)
+		{
+			propertyIds = Arrays.copyOf(propertyIds, propertyIds.length + 1);
+			propertyIds[propertyIds.length - 1] = id;
+		}
+		
+		uniformLocations[id] = location;
+		uniformTypes[id] = ShaderUniformType.fromGLSLType(type);
+		
+		if(uniformTypes[id] == null)
+		{
+			Logger.logWarning("Unsupported uniform type: " + type + " for uniform: " + name);
+		}
 		
 		LoggerInternal.log("Added uniform: (" + type + ") " + name + " to shader: " + FileUtils.getSimpleName(uri));
 	}
@@ -334,11 +503,13 @@ final class ShaderAsset extends AssetData
 		return new Uniform(segments[0], segments[1]);
 	}
 	
-	private String parseShader(String source, String keyword)
+	private String parseShader(TShader source, String keyword)
 	{
-		if(source.contains("#ifdef " + keyword))
+		String variant = source.getVariant(keyword);
+		
+		if(variant != null)
 		{
-			return "#version " + GLSLVersion.GLSL_VERSION + "\n\n#define " + keyword + "\n\n" + source;
+			return "#version " + GLSLVersion.GLSL_VERSION + "\n\n#define " + keyword + "\n\n" + BUILT_IN_UNIFORMS + "\n" + BUILT_IN_FUNCTIONS + "\n" + variant;
 		}
 		
 		return "";
@@ -22,6 +22,12 @@
 
 package com.snakybo.torch.graphics.shader;
 
+import com.snakybo.torch.asset.AssetCache;
+import com.snakybo.torch.asset.AssetFootprint;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.lwjgl.opengl.GL20.glUseProgram;
 
 /**
@@ -30,6 +36,15 @@ import static org.lwjgl.opengl.GL20.glUseProgram;
  */
 public final class ShaderInternal
 {
+	/**
+	 * <p>
+	 * The uniform buffer binding point of the built-in {@code _CameraData} block.
+	 * </p>
+	 */
+	public static final int CAMERA_UNIFORM_BLOCK_BINDING = 0;
+	
+	private static Shader boundShader;
+	
 	private ShaderInternal()
 	{
 		throw new AssertionError();
@@ -38,23 +53,52 @@ public final class ShaderInternal
 	public static void bind(Shader shader)
 	{
 		glUseProgram(shader.asset.programId);
+		boundShader = shader;
 	}
 	
 	public static void unbind()
 	{
 		glUseProgram(0);
+		boundShader = null;
+	}
+	
+	public static Shader getBoundShader()
+	{
+		return boundShader;
+	}
+	
+	public static int getAttributeType(Shader shader, int location)
+	{
+		int[] attributeTypes = shader.asset.attributeTypes;
+		
+		if(location >= 0 && location < attributeTypes.length)
+		{
+			return attributeTypes[location];
+		}
+		
+		return 0;
 	}
 	
 	public static boolean hasUniform(Shader shader, String name)
 	{
-		return shader.asset.uniforms.containsKey(name);
+		return hasUniform(shader, ShaderProperties.findId(name));
 	}
 	
-	public static String getUniformType(Shader shader, String name)
+	public static boolean hasUniform(Shader shader, int id)
 	{
-		if(hasUniform(shader, name))
+		return getUniformLocation(shader, id) >= 0;
+	}
+	
+	public static ShaderUniformType getUniformType(Shader shader, String name)
+	{
+		return getUniformType(shader, ShaderProperties.findId(name));
+	}
+	
+	public static ShaderUniformType getUniformType(Shader shader, int id)
+	{
+		if(hasUniform(shader, id))
 		{
-			return shader.asset.uniformTypes.get(name);
+			return shader.asset.uniformTypes[id];
 		}
 		
 		return null;
@@ -62,11 +106,131 @@ public final class ShaderInternal
 	
 	public static int getUniformLocation(Shader shader, String name)
 	{
-		if(shader.asset.uniforms.containsKey(name))
+		return getUniformLocation(shader, ShaderProperties.findId(name));
+	}
+	
+	public static int getUniformLocation(Shader shader, int id)
+	{
+		int[] uniformLocations = shader.asset.uniformLocations;
+		
+		if(id >= 0 && id < uniformLocations.length)
 		{
-			return shader.asset.uniforms.get(name);
+			return uniformLocations[id];
 		}
 		
 		return -1;
 	}
+	
+	public static int[] getPropertyIds(Shader shader)
+	{
+		return shader.asset.propertyIds;
+	}
+	
+	/**
+	 * <p>
+	 * Get the ID of a shader property, without assigning an ID to names that don't have one yet. Every uniform of a
+	 * loaded shader has an ID, see {@link Shader#propertyToId(String)}.
+	 * </p>
+	 *
+	 * @param name The name of the property.
+	 * @return The ID of the property, or -1 if no shader or material has used the name.
+	 */
+	public static int findPropertyId(String name)
+	{
+		return ShaderProperties.findId(name);
+	}
+	
+	public static String getPropertyName(int id)
+	{
+		return ShaderProperties.getName(id);
+	}
+	
+	/**
+	 * <p>
+	 * Get the owner of the uniform values that are currently stored in the program.
+	 * </p>
+	 *
+	 * @param shader The shader.
+	 * @return The owner of the uniform values, or {@code null}.
+	 */
+	public static Object getUniformOwner(Shader shader)
+	{
+		return shader.asset.uniformOwner;
+	}
+	
+	public static int getUniformOwnerVersion(Shader shader)
+	{
+		return shader.asset.uniformOwnerVersion;
+	}
+	
+	public static void setUniformOwner(Shader shader, Object owner, int version)
+	{
+		shader.asset.uniformOwner = owner;
+		shader.asset.uniformOwnerVersion = version;
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not a shader has been loaded.
+	 * </p>
+	 *
+	 * @param path The path/name of the shader.
+	 * @return Whether or not the shader has been loaded.
+	 */
+	public static boolean isLoaded(String path)
+	{
+		return ShaderAsset.all.containsKey(path);
+	}
+	
+	/**
+	 * <p>
+	 * Read the source of a shader without compiling it, this can be called from any thread.
+	 * </p>
+	 *
+	 * @param path The path/name of the shader.
+	 * @return The source of the shader, or {@code null} if it could not be read.
+	 */
+	public static TShader readSource(String path)
+	{
+		return ShaderAsset.readSource(path);
+	}
+	
+	/**
+	 * <p>
+	 * Create a shader from a source that was read by {@link #readSource(String)}. If the shader has been loaded in
+	 * the meantime, the loaded shader is used instead.
+	 * </p>
+	 *
+	 * @param path The path/name of the shader.
+	 * @param source The source of the shader.
+	 * @return The shader.
+	 */
+	public static Shader create(String path, TShader source)
+	{
+		if(ShaderAsset.all.containsKey(path))
+		{
+			return new Shader(ShaderAsset.all.get(path));
+		}
+		
+		return new Shader(path, source);
+	}
+	
+	/**
+	 * <p>
+	 * Get the memory footprint of every loaded shader, including the unused shaders in the {@link AssetCache}.
+	 * </p>
+	 *
+	 * @return The footprints.
+	 */
+	public static List<AssetFootprint> getFootprints()
+	{
+		List<AssetFootprint> result = new ArrayList<>();
+		
+		for(ShaderAsset asset : ShaderAsset.all.values())
+		{
+			result.add(asset.getFootprint());
+		}
+		
+		return result;
+	}
 }
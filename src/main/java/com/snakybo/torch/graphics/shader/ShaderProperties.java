@@ -0,0 +1,78 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.shader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Interns shader property names, every unique name is assigned a unique, sequential ID.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class ShaderProperties
+{
+	private static final Map<String, Integer> ids = new HashMap<>();
+	private static final List<String> names = new ArrayList<>();
+	
+	private ShaderProperties()
+	{
+		throw new AssertionError();
+	}
+	
+	static synchronized int toId(String name)
+	{
+		Integer id = ids.get(name);
+		
+		if(id == null)
+		{
+			id = names.size();
+			
+			ids.put(name, id);
+			names.add(name);
+		}
+		
+		return id;
+	}
+	
+	static synchronized int findId(String name)
+	{
+		Integer id = ids.get(name);
+		return id == null ? -1 : id;
+	}
+	
+	static synchronized String getName(int id)
+	{
+		if(id < 0 || id >= names.size())
+		{
+			return null;
+		}
+		
+		return names.get(id);
+	}
+}
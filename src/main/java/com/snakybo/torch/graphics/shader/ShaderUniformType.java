@@ -0,0 +1,145 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.shader;
+
+/**
+ * <p>
+ * All uniform types a {@link Shader} property can have.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public enum ShaderUniformType
+{
+	/**
+	 * <p>
+	 * A GLSL {@code int}.
+	 * </p>
+	 */
+	Int(1),
+	
+	/**
+	 * <p>
+	 * A GLSL {@code float}.
+	 * </p>
+	 */
+	Float(1),
+	
+	/**
+	 * <p>
+	 * A GLSL {@code vec2}.
+	 * </p>
+	 */
+	Vector2f(2),
+	
+	/**
+	 * <p>
+	 * A GLSL {@code vec3}.
+	 * </p>
+	 */
+	Vector3f(3),
+	
+	/**
+	 * <p>
+	 * A GLSL {@code vec4}.
+	 * </p>
+	 */
+	Vector4f(4),
+	
+	/**
+	 * <p>
+	 * A GLSL {@code mat3}.
+	 * </p>
+	 */
+	Matrix3f(9),
+	
+	/**
+	 * <p>
+	 * A GLSL {@code mat4}.
+	 * </p>
+	 */
+	Matrix4f(16),
+	
+	/**
+	 * <p>
+	 * Any GLSL {@code sampler} type.
+	 * </p>
+	 */
+	Sampler(1);
+	
+	private final int size;
+	
+	ShaderUniformType(int size)
+	{
+		this.size = size;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of 32-bit components a value of this type occupies.
+	 * </p>
+	 *
+	 * @return The number of components.
+	 */
+	public final int getSize()
+	{
+		return size;
+	}
+	
+	/**
+	 * <p>
+	 * Get the uniform type from its GLSL name.
+	 * </p>
+	 *
+	 * @param glslType The GLSL type, e.g. {@code vec3}.
+	 * @return The uniform type, or {@code null} if the type is not supported.
+	 */
+	public static ShaderUniformType fromGLSLType(String glslType)
+	{
+		if(glslType.startsWith("sampler"))
+		{
+			return Sampler;
+		}
+		
+		switch(glslType)
+		{
+		case "int":
+			return Int;
+		case "float":
+			return Float;
+		case "vec2":
+			return Vector2f;
+		case "vec3":
+			return Vector3f;
+		case "vec4":
+			return Vector4f;
+		case "mat3":
+			return Matrix3f;
+		case "mat4":
+			return Matrix4f;
+		default:
+			return null;
+		}
+	}
+}
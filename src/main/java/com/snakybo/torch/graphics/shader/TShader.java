@@ -0,0 +1,505 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.shader;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * The source of a shader, split into a variant for every pass.
+ * </p>
+ *
+ * <p>
+ * A shader read from a {@code .glsl} file uses its whole source for every pass, the {@code #ifdef <pass>}
+ * conditionals are resolved by the driver. A cooked {@code .tshader} file contains preprocessed variants instead:
+ * comments are stripped, and the conditionals on the passes are resolved for every variant. A shader is validated
+ * before it's cooked, so errors are reported by the cooker instead of when the shader is loaded.
+ * </p>
+ *
+ * <p>
+ * The file is stored in little-endian byte order:
+ * </p>
+ *
+ * <pre>
+ * int      magic ("TSHD")
+ * int      version
+ * string   source, used to look up uniforms
+ * string[] variants, in the order of the passes (int size in bytes, -1 if the shader doesn't have the pass, UTF-8 bytes)
+ * </pre>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class TShader
+{
+	public static final String EXTENSION = "tshader";
+	
+	private static final String[] PASSES = { "VERTEX_PASS", "FRAGMENT_PASS", "GEOMETRY_PASS", "COMPUTE_PASS", "TESS_CONTROL_PASS", "TESS_EVAL_PASS" };
+	
+	private static final int CONDITIONAL_OTHER = 0;
+	private static final int CONDITIONAL_INCLUDED = 1;
+	private static final int CONDITIONAL_EXCLUDED = 2;
+	
+	private static final int MAGIC = 'T' | 'S' << 8 | 'H' << 16 | 'D' << 24;
+	private static final int VERSION = 1;
+	
+	/** The uniform declarations {@link ShaderAsset} can look up */
+	private static final Pattern UNIFORM = Pattern.compile("uniform [A-Za-z_]\\w* [A-Za-z_]\\w*(\\[\\d+])?;");
+	
+	private final String source;
+	private final String[] variants;
+	
+	private TShader(String source, String[] variants)
+	{
+		this.source = source;
+		this.variants = variants;
+	}
+	
+	/**
+	 * <p>
+	 * Create a {@code TShader} that uses the whole source for every pass it contains.
+	 * </p>
+	 *
+	 * @param source The source of the shader.
+	 * @return The {@code TShader}.
+	 */
+	public static TShader fromSource(String source)
+	{
+		String[] variants = new String[PASSES.length];
+		
+		for(int i = 0; i < PASSES.length; i++)
+		{
+			variants[i] = source.contains("#ifdef " + PASSES[i]) ? source : null;
+		}
+		
+		return new TShader(source, variants);
+	}
+	
+	/**
+	 * <p>
+	 * Validate a shader, and create a {@code TShader} with a preprocessed variant for every pass it contains.
+	 * </p>
+	 *
+	 * <p>
+	 * The shader is not compiled, that requires an OpenGL context. Instead, the conditionals and the brackets of every
+	 * variant are checked, and whether or not every uniform declaration can be looked up by the engine.
+	 * </p>
+	 *
+	 * @param name The name of the shader, used in error messages.
+	 * @param source The source of the shader.
+	 * @return The {@code TShader}.
+	 * @throws IOException If the shader is invalid.
+	 */
+	public static TShader preprocess(String name, String source) throws IOException
+	{
+		String stripped = stripComments(name, source);
+		String[] lines = stripped.split("\n", -1);
+		String[] variants = new String[PASSES.length];
+		
+		for(int i = 0; i < PASSES.length; i++)
+		{
+			if(stripped.contains("#ifdef " + PASSES[i]))
+			{
+				variants[i] = resolvePass(name, lines, PASSES[i]);
+				checkBrackets(name, variants[i], PASSES[i]);
+			}
+		}
+		
+		// Vertex, fragment and compute are indices 0, 1 and 3
+		if((variants[0] == null || variants[1] == null) && variants[3] == null)
+		{
+			throw new IOException(name + ": A shader requires a VERTEX_PASS and FRAGMENT_PASS, or a COMPUTE_PASS");
+		}
+		
+		for(int i = 0; i < lines.length; i++)
+		{
+			if(lines[i].startsWith("uniform ") && !UNIFORM.matcher(lines[i].trim()).matches())
+			{
+				throw new IOException(name + ":" + (i + 1) + ": Unsupported uniform declaration, expected 'uniform <type> <name>;': " + lines[i].trim());
+			}
+		}
+		
+		return new TShader(stripped, variants);
+	}
+	
+	/**
+	 * <p>
+	 * Read a {@code TShader} from a buffer.
+	 * </p>
+	 *
+	 * @param data The contents of a {@code .tshader} file.
+	 * @return The {@code TShader}.
+	 * @throws IOException If the data is not a supported {@code .tshader} file.
+	 */
+	public static TShader read(ByteBuffer data) throws IOException
+	{
+		ByteBuffer in = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		
+		try
+		{
+			if(in.getInt() != MAGIC)
+			{
+				throw new IOException("Not a " + EXTENSION + " file");
+			}
+			
+			int version = in.getInt();
+			
+			if(version != VERSION)
+			{
+				throw new IOException("Unsupported " + EXTENSION + " version: " + version + ", expected: " + VERSION);
+			}
+			
+			String source = readString(in);
+			String[] variants = new String[PASSES.length];
+			
+			for(int i = 0; i < PASSES.length; i++)
+			{
+				variants[i] = readString(in);
+			}
+			
+			return new TShader(source, variants);
+		}
+		catch(BufferUnderflowException | IllegalArgumentException e)
+		{
+			throw new IOException("Corrupt " + EXTENSION + " file", e);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Write the {@code TShader} to a file.
+	 * </p>
+	 *
+	 * @param target The file to write to.
+	 * @throws IOException If the file could not be written.
+	 */
+	public final void write(Path target) throws IOException
+	{
+		byte[][] strings = new byte[PASSES.length + 1][];
+		int size = 8;
+		
+		for(int i = 0; i < strings.length; i++)
+		{
+			String string = i == 0 ? source : variants[i - 1];
+			
+			strings[i] = string != null ? string.getBytes(StandardCharsets.UTF_8) : null;
+			size += 4 + (strings[i] != null ? strings[i].length : 0);
+		}
+		
+		ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		out.putInt(MAGIC).putInt(VERSION);
+		
+		for(byte[] string : strings)
+		{
+			out.putInt(string != null ? string.length : -1);
+			
+			if(string != null)
+			{
+				out.put(string);
+			}
+		}
+		
+		Files.write(target, out.array());
+	}
+	
+	/**
+	 * <p>
+	 * Get the source of the shader, comments are stripped if the shader has been preprocessed.
+	 * </p>
+	 *
+	 * @return The source.
+	 */
+	public final String getSource()
+	{
+		return source;
+	}
+	
+	/**
+	 * <p>
+	 * Get the variant of a pass.
+	 * </p>
+	 *
+	 * @param pass The pass, for example {@code VERTEX_PASS}.
+	 * @return The source of the variant, or {@code null} if the shader doesn't have the pass.
+	 */
+	public final String getVariant(String pass)
+	{
+		for(int i = 0; i < PASSES.length; i++)
+		{
+			if(PASSES[i].equals(pass))
+			{
+				return variants[i];
+			}
+		}
+		
+		throw new IllegalArgumentException("Unknown shader pass: " + pass);
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of characters of the source and variants.
+	 * </p>
+	 *
+	 * @return The number of characters.
+	 */
+	public final int getLength()
+	{
+		int result = source.length();
+		
+		for(String variant : variants)
+		{
+			// Variants that are the whole source don't take extra memory
+			if(variant != null && variant != source)
+			{
+				result += variant.length();
+			}
+		}
+		
+		return result;
+	}
+	
+	private static String stripComments(String name, String source) throws IOException
+	{
+		StringBuilder result = new StringBuilder(source.length());
+		int line = 1;
+		
+		for(int i = 0; i < source.length(); i++)
+		{
+			char c = source.charAt(i);
+			
+			if(c == '/' && i + 1 < source.length() && source.charAt(i + 1) == '/')
+			{
+				while(i + 1 < source.length() && source.charAt(i + 1) != '\n')
+				{
+					i++;
+				}
+			}
+			else if(c == '/' && i + 1 < source.length() && source.charAt(i + 1) == '*')
+			{
+				int end = source.indexOf("*/", i + 2);
+				
+				if(end < 0)
+				{
+					throw new IOException(name + ":" + line + ": Unterminated comment");
+				}
+				
+				// Keep the line breaks in the comment, so line numbers in errors match the source
+				for(int j = i; j < end; j++)
+				{
+					if(source.charAt(j) == '\n')
+					{
+						result.append('\n');
+						line++;
+					}
+				}
+				
+				result.append(' ');
+				i = end + 1;
+			}
+			else if(c != '\r')
+			{
+				if(c == '\n')
+				{
+					trimTrailingWhitespace(result);
+					line++;
+				}
+				
+				result.append(c);
+			}
+		}
+		
+		trimTrailingWhitespace(result);
+		return result.toString();
+	}
+	
+	private static String resolvePass(String name, String[] lines, String pass) throws IOException
+	{
+		// The open conditionals, see the CONDITIONAL_ constants
+		Deque<Integer> conditionals = new ArrayDeque<>();
+		StringBuilder result = new StringBuilder();
+		
+		int excluded = 0;
+		
+		for(int i = 0; i < lines.length; i++)
+		{
+			String line = lines[i].trim();
+			String[] directive = line.startsWith("#") ? line.substring(1).trim().split("\\s+") : new String[0];
+			
+			String keyword = directive.length > 0 ? directive[0] : "";
+			String argument = directive.length > 1 ? directive[1] : "";
+			
+			boolean keep = excluded == 0;
+			
+			switch(keyword)
+			{
+			case "ifdef":
+			case "ifndef":
+				if(isPass(argument))
+				{
+					boolean included = argument.equals(pass) == keyword.equals("ifdef");
+					
+					conditionals.push(included ? CONDITIONAL_INCLUDED : CONDITIONAL_EXCLUDED);
+					excluded += included ? 0 : 1;
+					keep = false;
+				}
+				else
+				{
+					conditionals.push(CONDITIONAL_OTHER);
+				}
+				break;
+			case "if":
+				conditionals.push(CONDITIONAL_OTHER);
+				break;
+			case "elif":
+			case "else":
+				if(conditionals.isEmpty())
+				{
+					throw new IOException(name + ":" + (i + 1) + ": #" + keyword + " without #if");
+				}
+				
+				if(conditionals.peek() != CONDITIONAL_OTHER)
+				{
+					if(keyword.equals("elif"))
+					{
+						throw new IOException(name + ":" + (i + 1) + ": #elif is not supported in a conditional on a pass");
+					}
+					
+					boolean included = conditionals.pop() == CONDITIONAL_INCLUDED;
+					conditionals.push(included ? CONDITIONAL_EXCLUDED : CONDITIONAL_INCLUDED);
+					
+					excluded += included ? 1 : -1;
+					keep = false;
+				}
+				break;
+			case "endif":
+				if(conditionals.isEmpty())
+				{
+					throw new IOException(name + ":" + (i + 1) + ": #endif without #if");
+				}
+				
+				int conditional = conditionals.pop();
+				
+				if(conditional != CONDITIONAL_OTHER)
+				{
+					excluded -= conditional == CONDITIONAL_EXCLUDED ? 1 : 0;
+					keep = false;
+				}
+				break;
+			}
+			
+			// Excluded lines are kept empty, so line numbers in errors match the source
+			result.append(keep ? lines[i] : "").append('\n');
+		}
+		
+		if(!conditionals.isEmpty())
+		{
+			throw new IOException(name + ": " + conditionals.size() + " unterminated #if");
+		}
+		
+		return result.toString();
+	}
+	
+	private static void checkBrackets(String name, String variant, String pass) throws IOException
+	{
+		String opening = "({[";
+		String closing = ")}]";
+		
+		Deque<Character> open = new ArrayDeque<>();
+		int line = 1;
+		
+		for(int i = 0; i < variant.length(); i++)
+		{
+			char c = variant.charAt(i);
+			
+			if(c == '\n')
+			{
+				line++;
+			}
+			else if(opening.indexOf(c) >= 0)
+			{
+				open.push(c);
+			}
+			else if(closing.indexOf(c) >= 0)
+			{
+				if(open.isEmpty() || opening.indexOf(open.pop()) != closing.indexOf(c))
+				{
+					throw new IOException(name + ":" + line + ": Unexpected '" + c + "' in " + pass);
+				}
+			}
+		}
+		
+		if(!open.isEmpty())
+		{
+			throw new IOException(name + ": Unclosed '" + open.peek() + "' in " + pass);
+		}
+	}
+	
+	private static boolean isPass(String keyword)
+	{
+		for(String pass : PASSES)
+		{
+			if(pass.equals(keyword))
+			{
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private static void trimTrailingWhitespace(StringBuilder builder)
+	{
+		int length = builder.length();
+		
+		while(length > 0 && (builder.charAt(length - 1) == ' ' || builder.charAt(length - 1) == '\t'))
+		{
+			length--;
+		}
+		
+		builder.setLength(length);
+	}
+	
+	private static String readString(ByteBuffer in)
+	{
+		int size = in.getInt();
+		
+		if(size < 0)
+		{
+			return null;
+		}
+		
+		byte[] bytes = new byte[size];
+		in.get(bytes);
+		
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
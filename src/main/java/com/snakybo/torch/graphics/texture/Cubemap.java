@@ -22,6 +22,7 @@
 
 package com.snakybo.torch.graphics.texture;
 
+import com.snakybo.torch.graphics.GLDeletionQueue;
 import com.snakybo.torch.util.FileUtils;
 import com.snakybo.torch.util.debug.Logger;
 import org.lwjgl.BufferUtils;
@@ -55,26 +56,43 @@ import static org.lwjgl.opengl.GL13.GL_TEXTURE_CUBE_MAP_POSITIVE_X;
 public final class Cubemap extends Texture
 {
 	Cubemap(String name)
+	{
+		this(name, null);
+	}
+	
+	/**
+	 * <p>
+	 * Create a cubemap from faces that have already been loaded, see {@link #loadFaces(String)}.
+	 * </p>
+	 *
+	 * @param name The name of the cubemap.
+	 * @param faces The faces, or null to load them.
+	 */
+	Cubemap(String name, BufferedImage[] faces)
 	{
 		super(name);
 		
 		if(isCreator())
 		{
+			if(faces == null)
+			{
+				faces = loadFaces(name);
+			}
+			
 			IntBuffer id = BufferUtils.createIntBuffer(1);
 			
 			// Create texture
 			glGenTextures(id);
 			glBindTexture(GL_TEXTURE_CUBE_MAP, id.get(0));
 			
-			String simpleName = name.substring(0, name.lastIndexOf('.'));
-			String ext = FileUtils.getExtension(name);
+			long gpuMemorySize = 0;
 			
-			for(int i = 0; i < 6; i++)
+			for(int i = 0; i < faces.length; i++)
 			{
-				try
+				BufferedImage bufferedImage = faces[i];
+				
+				if(bufferedImage != null)
 				{
-					BufferedImage bufferedImage = TextureInternal.loadBufferedImage(simpleName + "_" + i + "." + ext);
-					
 					int w = bufferedImage.getWidth();
 					int h = bufferedImage.getHeight();
 					ByteBuffer data = com.snakybo.torch.util.BufferUtils.toByteBuffer(bufferedImage);
@@ -82,10 +100,13 @@ public final class Cubemap extends Texture
 					glTexImage2D(GL_TEXTURE_CUBE_MAP_POSITIVE_X + i, 0, GL_RGBA, w, h, 0, GL_RGBA, GL_UNSIGNED_BYTE, data);
 					
 					setProperty("bufferedImage_" + i, bufferedImage);
-				}
-				catch(NoSuchFileException e)
-				{
-					Logger.logError("Unable to find cubemap face: " + i + ": " + e.getMessage(), e);
+					gpuMemorySize += (long)w * h * 4;
+					
+					if(getProperty("width") == null)
+					{
+						setProperty("width", w);
+						setProperty("height", h);
+					}
 				}
 			}
 			
@@ -100,24 +121,119 @@ public final class Cubemap extends Texture
 			
 			setProperty("id", id);
 			setProperty("target", GL_TEXTURE_CUBE_MAP);
+			setProperty("gpuMemorySize", gpuMemorySize);
 		}
 	}
 	
 	@Override
 	protected void onDestroy()
 	{
-		glDeleteTextures((IntBuffer)getProperty("id"));
+		IntBuffer id = (IntBuffer)getProperty("id");
+		GLDeletionQueue.add(() -> glDeleteTextures(id));
+	}
+	
+	@Override
+	protected final long getMemorySize()
+	{
+		long result = getGpuMemorySize();
+		
+		// The faces are kept in CPU memory as well unless the cubemap is GPU only
+		for(int i = 0; i < 6; i++)
+		{
+			BufferedImage face = (BufferedImage)getProperty("bufferedImage_" + i);
+			
+			if(face != null)
+			{
+				result += (long)face.getWidth() * face.getHeight() * 4;
+			}
+		}
+		
+		return result;
+	}
+	
+	@Override
+	protected final long getGpuMemorySize()
+	{
+		Object result = getProperty("gpuMemorySize");
+		return result != null ? (long)result : 0;
 	}
 	
+	@Override
+	protected final void releaseCpuData()
+	{
+		for(int i = 0; i < 6; i++)
+		{
+			setProperty("bufferedImage_" + i, null);
+		}
+	}
+	
+	@Override
+	protected final void readCpuData()
+	{
+		BufferedImage[] faces = loadFaces(getName());
+		
+		for(int i = 0; i < faces.length; i++)
+		{
+			setProperty("bufferedImage_" + i, faces[i]);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Get the width of a face of the cubemap in pixels.
+	 * </p>
+	 *
+	 * @return The width of a face in pixels.
+	 */
 	@Override
 	public int getWidth()
 	{
-		return 0;
+		Object result = getProperty("width");
+		return result != null ? (int)result : 0;
 	}
 	
+	/**
+	 * <p>
+	 * Get the height of a face of the cubemap in pixels.
+	 * </p>
+	 *
+	 * @return The height of a face in pixels.
+	 */
 	@Override
 	public int getHeight()
 	{
-		return 0;
+		Object result = getProperty("height");
+		return result != null ? (int)result : 0;
+	}
+	
+	/**
+	 * <p>
+	 * Load the six faces of a cubemap, the faces are stored next to the cubemap as {@code name_0.ext} through
+	 * {@code name_5.ext}. Faces that don't exist are null.
+	 * </p>
+	 *
+	 * @param name The name of the cubemap.
+	 * @return The faces.
+	 */
+	static BufferedImage[] loadFaces(String name)
+	{
+		String simpleName = name.substring(0, name.lastIndexOf('.'));
+		String ext = FileUtils.getExtension(name);
+		
+		BufferedImage[] result = new BufferedImage[6];
+		
+		for(int i = 0; i < result.length; i++)
+		{
+			try
+			{
+				result[i] = TextureInternal.loadBufferedImage(simpleName + "_" + i + "." + ext);
+			}
+			catch(NoSuchFileException e)
+			{
+				Logger.logError("Unable to find cubemap face: " + i + ": " + e.getMessage(), e);
+			}
+		}
+		
+		return result;
 	}
 }
@@ -0,0 +1,322 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.texture;
+
+import com.snakybo.torch.util.BufferUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * A cooked, binary texture.
+ * </p>
+ *
+ * <p>
+ * A {@code .ttex} file contains the RGBA8 pixels of a texture and its complete mipmap chain, down to 1x1, exactly
+ * as they are uploaded to the GPU. Loading a {@code .ttex} doesn't decode an image, and the mipmaps don't have to be
+ * generated by the driver.
+ * </p>
+ *
+ * <p>
+ * The file is stored in little-endian byte order, and starts with a header:
+ * </p>
+ *
+ * <pre>
+ * int     magic ("TTEX")
+ * int     version
+ * int     width
+ * int     height
+ * int     number of mipmap levels
+ * int     pixel data offset in bytes
+ * </pre>
+ *
+ * <p>
+ * The pixel data of the levels follows the header, from the largest to the smallest level, without padding.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class TTexture
+{
+	public static final String EXTENSION = "ttex";
+	
+	private static final int MAGIC = 'T' | 'T' << 8 | 'E' << 16 | 'X' << 24;
+	private static final int VERSION = 1;
+	
+	private static final int HEADER_SIZE = 24;
+	private static final int DATA_ALIGNMENT = 16;
+	
+	private final int width;
+	private final int height;
+	
+	private final ByteBuffer[] levels;
+	
+	private TTexture(int width, int height, ByteBuffer[] levels)
+	{
+		this.width = width;
+		this.height = height;
+		this.levels = levels;
+	}
+	
+	/**
+	 * <p>
+	 * Create a {@code TTexture} from an image, and generate its mipmaps with a box filter.
+	 * </p>
+	 *
+	 * @param image The image.
+	 * @return The {@code TTexture}.
+	 */
+	public static TTexture create(BufferedImage image)
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+		
+		ByteBuffer[] levels = new ByteBuffer[getNumLevels(width, height)];
+		levels[0] = BufferUtils.toByteBuffer(image);
+		
+		for(int i = 1; i < levels.length; i++)
+		{
+			levels[i] = downsample(levels[i - 1], getLevelSize(width, i - 1), getLevelSize(height, i - 1));
+		}
+		
+		return new TTexture(width, height, levels);
+	}
+	
+	/**
+	 * <p>
+	 * Read a {@code TTexture} from a buffer, the levels are slices of the buffer.
+	 * </p>
+	 *
+	 * @param data The contents of a {@code .ttex} file.
+	 * @return The {@code TTexture}.
+	 * @throws IOException If the data is not a supported {@code .ttex} file.
+	 */
+	public static TTexture read(ByteBuffer data) throws IOException
+	{
+		ByteBuffer header = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		
+		if(header.remaining() < HEADER_SIZE || header.getInt(header.position()) != MAGIC)
+		{
+			throw new IOException("Not a " + EXTENSION + " file");
+		}
+		
+		int base = header.position();
+		int version = header.getInt(base + 4);
+		
+		if(version != VERSION)
+		{
+			throw new IOException("Unsupported " + EXTENSION + " version: " + version + ", expected: " + VERSION);
+		}
+		
+		int width = header.getInt(base + 8);
+		int height = header.getInt(base + 12);
+		int numLevels = header.getInt(base + 16);
+		int offset = header.getInt(base + 20);
+		
+		if(width <= 0 || height <= 0 || numLevels != getNumLevels(width, height))
+		{
+			throw new IOException("Corrupt " + EXTENSION + " header: " + width + "x" + height + ", " + numLevels + " levels");
+		}
+		
+		ByteBuffer[] levels = new ByteBuffer[numLevels];
+		
+		for(int i = 0; i < numLevels; i++)
+		{
+			int size = getLevelSize(width, i) * getLevelSize(height, i) * 4;
+			
+			if(offset + size > data.remaining())
+			{
+				throw new IOException("Truncated " + EXTENSION + " file");
+			}
+			
+			ByteBuffer level = data.duplicate();
+			level.position(data.position() + offset);
+			level.limit(data.position() + offset + size);
+			
+			levels[i] = level.slice();
+			offset += size;
+		}
+		
+		return new TTexture(width, height, levels);
+	}
+	
+	/**
+	 * <p>
+	 * Write the {@code TTexture} to a file.
+	 * </p>
+	 *
+	 * @param target The file to write to.
+	 * @throws IOException If the file could not be written.
+	 */
+	public final void write(Path target) throws IOException
+	{
+		int dataOffset = (HEADER_SIZE + DATA_ALIGNMENT - 1) / DATA_ALIGNMENT * DATA_ALIGNMENT;
+		
+		ByteBuffer header = ByteBuffer.allocate(dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(levels.length).putInt(dataOffset);
+		header.rewind();
+		
+		ByteBuffer[] buffers = new ByteBuffer[levels.length + 1];
+		buffers[0] = header;
+		
+		long size = dataOffset;
+		
+		for(int i = 0; i < levels.length; i++)
+		{
+			buffers[i + 1] = levels[i].duplicate();
+			size += levels[i].remaining();
+		}
+		
+		try(FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			long written = 0;
+			
+			while(written < size)
+			{
+				written += channel.write(buffers);
+			}
+		}
+	}
+	
+	public final int getWidth()
+	{
+		return width;
+	}
+	
+	public final int getHeight()
+	{
+		return height;
+	}
+	
+	public final int getNumLevels()
+	{
+		return levels.length;
+	}
+	
+	/**
+	 * <p>
+	 * Get the width of a mipmap level.
+	 * </p>
+	 *
+	 * @param level The level.
+	 * @return The width of the level in pixels.
+	 */
+	public final int getWidth(int level)
+	{
+		return getLevelSize(width, level);
+	}
+	
+	/**
+	 * <p>
+	 * Get the height of a mipmap level.
+	 * </p>
+	 *
+	 * @param level The level.
+	 * @return The height of the level in pixels.
+	 */
+	public final int getHeight(int level)
+	{
+		return getLevelSize(height, level);
+	}
+	
+	/**
+	 * <p>
+	 * Get the RGBA8 pixels of a mipmap level.
+	 * </p>
+	 *
+	 * @param level The level.
+	 * @return The pixels, a duplicate of the buffer so its position can be changed.
+	 */
+	public final ByteBuffer getLevel(int level)
+	{
+		return levels[level].duplicate();
+	}
+	
+	/**
+	 * <p>
+	 * Get the size of the pixels of all levels.
+	 * </p>
+	 *
+	 * @return The size in bytes.
+	 */
+	public final long getSize()
+	{
+		long result = 0;
+		
+		for(ByteBuffer level : levels)
+		{
+			result += level.remaining();
+		}
+		
+		return result;
+	}
+	
+	private static ByteBuffer downsample(ByteBuffer source, int width, int height)
+	{
+		int targetWidth = Math.max(1, width / 2);
+		int targetHeight = Math.max(1, height / 2);
+		
+		ByteBuffer result = ByteBuffer.allocateDirect(targetWidth * targetHeight * 4).order(ByteOrder.nativeOrder());
+		
+		for(int y = 0; y < targetHeight; y++)
+		{
+			// Odd sizes and 1 pixel wide or high levels clamp to the last row or column
+			int y0 = Math.min(y * 2, height - 1);
+			int y1 = Math.min(y * 2 + 1, height - 1);
+			
+			for(int x = 0; x < targetWidth; x++)
+			{
+				int x0 = Math.min(x * 2, width - 1);
+				int x1 = Math.min(x * 2 + 1, width - 1);
+				
+				for(int c = 0; c < 4; c++)
+				{
+					int sum = (source.get((y0 * width + x0) * 4 + c) & 0xFF) + (source.get((y0 * width + x1) * 4 + c) & 0xFF)
+							+ (source.get((y1 * width + x0) * 4 + c) & 0xFF) + (source.get((y1 * width + x1) * 4 + c) & 0xFF);
+					
+					result.put((byte)((sum + 2) / 4));
+				}
+			}
+		}
+		
+		result.flip();
+		return result;
+	}
+	
+	private static int getNumLevels(int width, int height)
+	{
+		return 32 - Integer.numberOfLeadingZeros(Math.max(width, height));
+	}
+	
+	private static int getLevelSize(int size, int level)
+	{
+		return Math.max(1, size >> level);
+	}
+}
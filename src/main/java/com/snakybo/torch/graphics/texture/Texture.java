@@ -23,6 +23,7 @@
 package com.snakybo.torch.graphics.texture;
 
 import com.snakybo.torch.asset.Asset;
+import com.snakybo.torch.asset.AssetResidency;
 import com.snakybo.torch.asset2.Asset2;
 import com.snakybo.torch.asset2.AssetData2;
 import com.snakybo.torch.util.MathUtils;
@@ -30,6 +31,7 @@ import com.snakybo.torch.util.debug.Logger;
 import org.lwjgl.opengl.GL;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.nio.IntBuffer;
 
 import static org.lwjgl.opengl.EXTTextureFilterAnisotropic.GL_MAX_TEXTURE_MAX_ANISOTROPY_EXT;
@@ -160,6 +162,70 @@ public abstract class Texture extends Asset2
 		}
 	}
 	
+	/**
+	 * <p>
+	 * Set where the pixels of the texture are kept. {@link AssetResidency#GpuOnly} discards the pixels in CPU memory,
+	 * {@link AssetResidency#CpuAndGpu} reads them from the file of the texture again.
+	 * </p>
+	 *
+	 * @param residency The residency.
+	 */
+	public final void setResidency(AssetResidency residency)
+	{
+		if(residency == getResidency())
+		{
+			return;
+		}
+		
+		if(residency == AssetResidency.CpuAndGpu)
+		{
+			try
+			{
+				readCpuData();
+			}
+			catch(IOException e)
+			{
+				Logger.logError("Unable to read the pixels of texture " + getName() + ": " + e.toString(), e);
+				return;
+			}
+		}
+		else
+		{
+			releaseCpuData();
+		}
+		
+		setProperty("residency", residency);
+	}
+	
+	/**
+	 * <p>
+	 * Get where the pixels of the texture are kept.
+	 * </p>
+	 *
+	 * @return The residency.
+	 */
+	public final AssetResidency getResidency()
+	{
+		AssetResidency residency = (AssetResidency)getProperty("residency");
+		return residency != null ? residency : AssetResidency.CpuAndGpu;
+	}
+	
+	/**
+	 * <p>
+	 * Discard the pixels of the texture in CPU memory.
+	 * </p>
+	 */
+	protected abstract void releaseCpuData();
+	
+	/**
+	 * <p>
+	 * Read the pixels of the texture into CPU memory again, after they have been discarded.
+	 * </p>
+	 *
+	 * @throws IOException If the pixels could not be read.
+	 */
+	protected abstract void readCpuData() throws IOException;
+	
 	/**
 	 * <p>
 	 * Get the width of the texture in pixels.
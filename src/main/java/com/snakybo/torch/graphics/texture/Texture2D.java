@@ -22,6 +22,8 @@
 
 package com.snakybo.torch.graphics.texture;
 
+import com.snakybo.torch.asset.AssetResidency;
+import com.snakybo.torch.graphics.GLDeletionQueue;
 import com.snakybo.torch.util.FileUtils;
 import com.snakybo.torch.util.debug.Logger;
 import org.lwjgl.BufferUtils;
@@ -88,6 +90,62 @@ public final class Texture2D extends Texture
 		}
 	}
 	
+	/**
+	 * <p>
+	 * Create a texture from an image that has already been loaded.
+	 * </p>
+	 *
+	 * @param name The name of the texture.
+	 * @param bufferedImage The image.
+	 */
+	Texture2D(String name, BufferedImage bufferedImage)
+	{
+		super(name);
+		
+		if(isCreator())
+		{
+			create(bufferedImage);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Create a texture from a cooked texture, its mipmaps are uploaded instead of generated.
+	 * </p>
+	 *
+	 * @param name The name of the texture.
+	 * @param cooked The cooked texture.
+	 */
+	Texture2D(String name, TTexture cooked)
+	{
+		super(name);
+		
+		if(isCreator())
+		{
+			IntBuffer id = BufferUtils.createIntBuffer(1);
+			
+			glGenTextures(id);
+			glBindTexture(GL_TEXTURE_2D, id.get(0));
+			
+			for(int i = 0; i < cooked.getNumLevels(); i++)
+			{
+				glTexImage2D(GL_TEXTURE_2D, i, GL_RGBA, cooked.getWidth(i), cooked.getHeight(i), 0, GL_RGBA, GL_UNSIGNED_BYTE, cooked.getLevel(i));
+			}
+			
+			glBindTexture(GL_TEXTURE_2D, 0);
+			
+			setProperty("id", id);
+			setProperty("target", GL_TEXTURE_2D);
+			setProperty("width", cooked.getWidth());
+			setProperty("height", cooked.getHeight());
+			setProperty("cooked", cooked);
+			
+			setFilterMode(TextureFilterMode.Trilinear);
+			setWrapMode(TextureWrapMode.Repeat);
+			setAnisoLevel(16);
+		}
+	}
+	
 	private void create(BufferedImage bufferedImage)
 	{
 		IntBuffer id = BufferUtils.createIntBuffer(1);
@@ -108,6 +166,8 @@ public final class Texture2D extends Texture
 		// Set properties
 		setProperty("id", id);
 		setProperty("target", GL_TEXTURE_2D);
+		setProperty("width", w);
+		setProperty("height", h);
 		setProperty("bufferedImage", bufferedImage);
 		
 		// Set texture properties
@@ -119,24 +179,94 @@ public final class Texture2D extends Texture
 	@Override
 	protected final void onDestroy()
 	{
-		glDeleteTextures((IntBuffer)getProperty("id"));
+		IntBuffer id = (IntBuffer)getProperty("id");
+		GLDeletionQueue.add(() -> glDeleteTextures(id));
+	}
+	
+	@Override
+	protected final long getMemorySize()
+	{
+		// The image, or the cooked texture, is kept in CPU memory as well unless the texture is GPU only
+		TTexture cooked = (TTexture)getProperty("cooked");
+		
+		if(cooked != null)
+		{
+			return getGpuMemorySize() + cooked.getSize();
+		}
+		
+		return getGpuMemorySize() + (getProperty("bufferedImage") != null ? (long)getWidth() * getHeight() * 4 : 0);
+	}
+	
+	@Override
+	protected final long getGpuMemorySize()
+	{
+		// RGBA8, and a third more for the mipmaps
+		return (long)getWidth() * getHeight() * 4 * 4 / 3;
+	}
+	
+	@Override
+	protected final void releaseCpuData()
+	{
+		setProperty("bufferedImage", null);
+		setProperty("cooked", null);
+	}
+	
+	@Override
+	protected final void readCpuData() throws IOException
+	{
+		if(getName().isEmpty())
+		{
+			throw new IOException("The texture was not loaded from a file");
+		}
+		
+		String cooked = FileUtils.getCookedPath(getName(), TTexture.EXTENSION);
+		
+		if(cooked != null)
+		{
+			setProperty("cooked", TTexture.read(FileUtils.read(cooked)));
+		}
+		else
+		{
+			setProperty("bufferedImage", TextureInternal.loadBufferedImage(getName()));
+		}
 	}
 	
+	/**
+	 * <p>
+	 * Get the pixels of the texture, as RGBA.
+	 * </p>
+	 *
+	 * @return The pixels.
+	 * @throws IllegalStateException If the texture is {@link AssetResidency#GpuOnly}.
+	 */
 	public final ByteBuffer getByteBuffer()
 	{
-		return com.snakybo.torch.util.BufferUtils.toByteBuffer((BufferedImage)getProperty("bufferedImage"));
+		TTexture cooked = (TTexture)getProperty("cooked");
+		BufferedImage bufferedImage = (BufferedImage)getProperty("bufferedImage");
+		
+		if(cooked != null)
+		{
+			return cooked.getLevel(0);
+		}
+		
+		if(bufferedImage == null)
+		{
+			throw new IllegalStateException("The pixels of texture " + getName() + " are not kept in CPU memory, set its residency to " + AssetResidency.CpuAndGpu + " first");
+		}
+		
+		return com.snakybo.torch.util.BufferUtils.toByteBuffer(bufferedImage);
 	}
 	
 	@Override
 	public final int getWidth()
 	{
-		return ((BufferedImage)getProperty("bufferedImage")).getWidth();
+		return (int)getProperty("width");
 	}
 	
 	@Override
 	public final int getHeight()
 	{
-		return ((BufferedImage)getProperty("bufferedImage")).getHeight();
+		return (int)getProperty("height");
 	}
 	
 	// TODO: Expand Texture2D class
@@ -28,10 +28,7 @@ import com.snakybo.torch.util.debug.Logger;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
-import java.net.URI;
-import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 
 import static org.lwjgl.opengl.GL11.glBindTexture;
@@ -70,8 +67,11 @@ public final class TextureInternal
 	{
 		try
 		{
-			URI uri = FileUtils.toURI(path);
-			return ImageIO.read(new File(uri));
+			return ImageIO.read(BufferUtils.toInputStream(FileUtils.read(path)));
+		}
+		catch(NoSuchFileException e)
+		{
+			throw e;
 		}
 		catch(IOException e)
 		{
@@ -22,6 +22,8 @@
 
 package com.snakybo.torch.graphics.texture;
 
+import com.snakybo.torch.asset.AssetProfiler;
+import com.snakybo.torch.asset.AssetResidency;
 import com.snakybo.torch.asset2.Asset2;
 import com.snakybo.torch.asset2.AssetData2;
 import com.snakybo.torch.util.FileUtils;
@@ -34,8 +36,6 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.nio.file.NoSuchFileException;
 
@@ -47,6 +47,27 @@ import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
  */
 public final class TextureLoader
 {
+	/**
+	 * <p>
+	 * A texture that has been decoded, but not yet created.
+	 * </p>
+	 */
+	public static final class DecodedTexture
+	{
+		private final TextureParser.TextureData data;
+		private final BufferedImage[] images;
+		private final TTexture cooked;
+		
+		private DecodedTexture(TextureParser.TextureData data, BufferedImage[] images, TTexture cooked)
+		{
+			this.data = data;
+			this.images = images;
+			this.cooked = cooked;
+		}
+	}
+	
+	private static AssetResidency defaultResidency = AssetResidency.CpuAndGpu;
+	
 	private TextureLoader()
 	{
 		throw new AssertionError();
@@ -56,43 +77,142 @@ public final class TextureLoader
 	{
 		LoggerInternal.log("Begin loading of texture: " + path);
 		
+		try
+		{
+			return create(path, decode(path));
+		}
+		catch(NoSuchFileException e)
+		{
+			Logger.logError(e.getMessage(), e);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * <p>
+	 * Decode the texture data file and the images of a texture, without creating the texture. This doesn't use
+	 * OpenGL, so it can be called from any thread.
+	 * </p>
+	 *
+	 * @param path The path of the texture.
+	 * @return The decoded texture, to pass to {@link #create(String, DecodedTexture)}.
+	 * @throws NoSuchFileException If the texture data file or the image does not exist.
+	 */
+	public static DecodedTexture decode(String path) throws NoSuchFileException
+	{
+		LoggerInternal.log("Begin decoding of texture: " + path);
+		
+		AssetProfiler.Scope scope = AssetProfiler.begin(path, AssetProfiler.Phase.Decode);
+		
 		try
 		{
 			TextureParser.TextureData textureData = (TextureParser.TextureData)XMLParser.decode(path + ".dat");
-			Texture texture = null;
 			
-			try
+			if(textureData == null)
 			{
-				Constructor<?> constructor = textureData.target.getDeclaredConstructor(String.class);
-				texture = (Texture)constructor.newInstance(path);
+				throw new IllegalArgumentException("Unable to decode the texture data file of " + path);
 			}
-			catch(InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e)
+			
+			if(textureData.target == Cubemap.class)
 			{
-				Logger.logError(e.getMessage(), e);
+				return new DecodedTexture(textureData, Cubemap.loadFaces(path), null);
 			}
 			
-			if(textureData.filterMode != null)
+			String cooked = FileUtils.getCookedPath(path, TTexture.EXTENSION);
+			
+			if(cooked != null)
 			{
-				texture.setFilterMode(textureData.filterMode);
+				try
+				{
+					return new DecodedTexture(textureData, null, TTexture.read(FileUtils.read(cooked)));
+				}
+				catch(IOException e)
+				{
+					Logger.logWarning("Unable to read cooked texture " + cooked + ", loading the source instead: " + e.toString());
+				}
 			}
 			
-			if(textureData.wrapMode != null)
+			return new DecodedTexture(textureData, new BufferedImage[] { TextureInternal.loadBufferedImage(path) }, null);
+		}
+		finally
+		{
+			scope.end();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Create a texture that was decoded by {@link #decode(String)}. This must be called from the render thread.
+	 * </p>
+	 *
+	 * @param path The path of the texture.
+	 * @param decoded The decoded texture.
+	 * @return The texture.
+	 */
+	public static Texture create(String path, DecodedTexture decoded)
+	{
+		AssetProfiler.Scope scope = AssetProfiler.begin(path, AssetProfiler.Phase.Upload);
+		
+		try
+		{
+			Texture texture;
+			
+			if(decoded.data.target == Cubemap.class)
 			{
-				texture.setWrapMode(textureData.wrapMode);
+				texture = new Cubemap(path, decoded.images);
 			}
-			
-			if(textureData.anisoLevel != -1)
+			else if(decoded.cooked != null)
 			{
-				texture.setAnisoLevel(textureData.anisoLevel);
+				texture = new Texture2D(path, decoded.cooked);
+			}
+			else
+			{
+				texture = new Texture2D(path, decoded.images[0]);
 			}
 			
+			setParameters(texture, decoded.data);
+			
+			AssetProfiler.recordMemory(path, texture.getFootprint());
 			return texture;
 		}
-		catch(NoSuchFileException e)
+		finally
 		{
-			Logger.logError(e.getMessage(), e);
+			scope.end();
+		}
+	}
+	
+	private static Texture setParameters(Texture texture, TextureParser.TextureData textureData)
+	{
+		if(textureData.filterMode != null)
+		{
+			texture.setFilterMode(textureData.filterMode);
 		}
 		
-		return null;
+		if(textureData.wrapMode != null)
+		{
+			texture.setWrapMode(textureData.wrapMode);
+		}
+		
+		if(textureData.anisoLevel != -1)
+		{
+			texture.setAnisoLevel(textureData.anisoLevel);
+		}
+		
+		texture.setResidency(textureData.residency != null ? textureData.residency : defaultResidency);
+		return texture;
+	}
+	
+	/**
+	 * <p>
+	 * Set the residency of loaded textures that don't specify a residency in their texture data file, see
+	 * {@link Texture#setResidency(AssetResidency)}. Textures keep their pixels in CPU memory by default.
+	 * </p>
+	 *
+	 * @param residency The default residency.
+	 */
+	public static void setDefaultResidency(AssetResidency residency)
+	{
+		defaultResidency = residency;
 	}
 }
@@ -22,6 +22,7 @@
 
 package com.snakybo.torch.object;
 
+import com.snakybo.torch.asset.Assets;
 import com.snakybo.torch.util.debug.Logger;
 import com.snakybo.torch.util.debug.LoggerInternal;
 import com.snakybo.torch.util.reflection.SerializedFieldUtils;
@@ -98,6 +99,10 @@ public final class ComponentLoader
 			case "boolean":
 				SerializedFieldUtils.set(component, field, (boolean)fieldData.value);
 				break;
+			case "asset":
+			case "asset2":
+				SerializedFieldUtils.set(component, field, Assets.load((String)fieldData.value));
+				break;
 			default:
 				SerializedFieldUtils.set(component, field, fieldData.value);
 				break;
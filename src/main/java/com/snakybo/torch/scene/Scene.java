@@ -22,6 +22,9 @@
 
 package com.snakybo.torch.scene;
 
+import com.snakybo.torch.asset.Asset;
+import com.snakybo.torch.asset.AssetRequest;
+import com.snakybo.torch.asset.Assets;
 import com.snakybo.torch.object.GameObject;
 import com.snakybo.torch.object.GameObjectLoader;
 import com.snakybo.torch.util.debug.Logger;
@@ -33,6 +36,7 @@ import com.snakybo.torch.util.xml.parsers.SceneParser;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -143,10 +147,26 @@ public final class Scene
 	{
 		LoggerInternal.log("Begin loading of scene: " + name);
 		
+		// If the manifest is known, the assets are loaded while the scene file is being decoded
+		List<String> manifest = SceneManifest.get(name);
+		List<AssetRequest<Asset>> preloaded = manifest != null ? Assets.preload(manifest) : Collections.emptyList();
+		
 		try
 		{
 			SceneParser.SceneData sceneData = (SceneParser.SceneData)XMLParser.decode(name + ".scene");
 			
+			if(manifest == null)
+			{
+				SceneManifest.put(name, sceneData.assets);
+				preloaded = Assets.preload(sceneData.assets);
+			}
+			
+			LoggerInternal.log("Waiting for " + preloaded.size() + " preloaded assets");
+			for(AssetRequest<Asset> request : preloaded)
+			{
+				request.get();
+			}
+			
 			create();
 			
 			for(GameObjectParser.GameObjectData gameObjectData : sceneData.gameObjectData)
@@ -158,5 +178,19 @@ public final class Scene
 		{
 			Logger.logError(e.getMessage(), e);
 		}
+		finally
+		{
+			// The game objects hold their own references to the assets now
+			for(AssetRequest<Asset> request : preloaded)
+			{
+				request.then(asset ->
+				{
+					if(asset != null)
+					{
+						asset.destroy();
+					}
+				});
+			}
+		}
 	}
 }
@@ -0,0 +1,146 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.scene;
+
+import com.snakybo.torch.util.FileUtils;
+import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.debug.LoggerInternal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * The dependency manifests of scenes, a manifest lists the paths of all assets a scene references.
+ * </p>
+ *
+ * <p>
+ * {@link Scene#load(String)} preloads the assets in the manifest of a scene in parallel, before the game objects
+ * of the scene are created. The manifest is read from a {@code <scene>.manifest} file next to the scene if it
+ * exists, containing one path per line. Otherwise it's generated the first time the scene is loaded, and cached
+ * for subsequent loads.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class SceneManifest
+{
+	public static final String EXTENSION = "manifest";
+	
+	private static final Map<String, List<String>> manifests = new HashMap<>();
+	
+	private SceneManifest()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Get the manifest of a scene.
+	 * </p>
+	 *
+	 * @param scene The name of the scene.
+	 * @return The paths of the assets the scene references, or {@code null} if the manifest isn't known yet.
+	 */
+	public static List<String> get(String scene)
+	{
+		List<String> result = manifests.get(scene);
+		
+		if(result == null && FileUtils.exists(scene + "." + EXTENSION))
+		{
+			result = read(scene + "." + EXTENSION);
+			
+			if(result != null)
+			{
+				manifests.put(scene, result);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Write the manifest of a scene to a file.
+	 * </p>
+	 *
+	 * @param file The file to write to, usually {@code <scene>.manifest}.
+	 * @param assets The paths of the assets the scene references.
+	 * @throws IOException If the file could not be written.
+	 */
+	public static void write(Path file, List<String> assets) throws IOException
+	{
+		Files.write(file, assets, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * <p>
+	 * Forget all generated and read manifests, they're generated or read again when their scene is loaded.
+	 * </p>
+	 */
+	public static void clear()
+	{
+		manifests.clear();
+	}
+	
+	static void put(String scene, List<String> assets)
+	{
+		manifests.put(scene, Collections.unmodifiableList(assets));
+	}
+	
+	private static List<String> read(String file)
+	{
+		try
+		{
+			String[] lines = StandardCharsets.UTF_8.decode(FileUtils.read(file)).toString().split("\\r?\\n");
+			List<String> result = new ArrayList<>();
+			
+			for(String line : lines)
+			{
+				line = line.trim();
+				
+				if(!line.isEmpty())
+				{
+					result.add(line);
+				}
+			}
+			
+			LoggerInternal.log("Read scene manifest " + file + ": " + result.size() + " assets");
+			return Collections.unmodifiableList(result);
+		}
+		catch(IOException e)
+		{
+			Logger.logError(e.toString(), e);
+		}
+		
+		return null;
+	}
+}
@@ -23,7 +23,16 @@
 package com.snakybo.torch.util;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
 
 /**
  * <p>
@@ -35,6 +44,64 @@ import java.nio.ByteBuffer;
  */
 public final class BufferUtils
 {
+	@FunctionalInterface
+	private interface RowConverter
+	{
+		void convert(int y, byte[] row, int[] pixels);
+	}
+	
+	private static final class ByteBufferInputStream extends InputStream
+	{
+		private final ByteBuffer buffer;
+		
+		private ByteBufferInputStream(ByteBuffer buffer)
+		{
+			this.buffer = buffer;
+		}
+		
+		@Override
+		public final int read()
+		{
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+		
+		@Override
+		public final int read(byte[] b, int off, int len)
+		{
+			if(len == 0)
+			{
+				return 0;
+			}
+			
+			if(!buffer.hasRemaining())
+			{
+				return -1;
+			}
+			
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			
+			return len;
+		}
+		
+		@Override
+		public final long skip(long n)
+		{
+			int skipped = (int)Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			
+			return skipped;
+		}
+		
+		@Override
+		public final int available()
+		{
+			return buffer.remaining();
+		}
+	}
+	
+	private static final int MIN_PIXELS_PER_TASK = 262144;
+	
 	private BufferUtils()
 	{
 		throw new AssertionError();
@@ -45,27 +112,145 @@ public final class BufferUtils
 	 * Convert a {@code BufferedImage} to a {@code ByteBuffer}.
 	 * </p>
 	 *
+	 * <p>
+	 * The pixels are stored as RGBA, one byte per channel. Images of type {@link BufferedImage#TYPE_4BYTE_ABGR},
+	 * {@link BufferedImage#TYPE_3BYTE_BGR}, {@link BufferedImage#TYPE_INT_ARGB} and {@link BufferedImage#TYPE_INT_RGB}
+	 * are read directly from their raster, other types are converted through {@link BufferedImage#getRGB(int, int)}.
+	 * Large images are converted on multiple threads.
+	 * </p>
+	 *
 	 * @param bufferedImage The {@code BufferedImage} to convert.
 	 * @return A {@code ByteBuffer} containing all pixel data of the {@code BufferedImage}.
 	 */
 	public static ByteBuffer toByteBuffer(BufferedImage bufferedImage)
 	{
-		ByteBuffer buffer = org.lwjgl.BufferUtils.createByteBuffer(bufferedImage.getWidth() * bufferedImage.getHeight() * 4);
+		int width = bufferedImage.getWidth();
+		int height = bufferedImage.getHeight();
+		
+		ByteBuffer buffer = org.lwjgl.BufferUtils.createByteBuffer(width * height * 4);
+		RowConverter converter = getRowConverter(bufferedImage);
+		
+		int numTasks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), width * height / MIN_PIXELS_PER_TASK));
+		
+		if(numTasks == 1)
+		{
+			convertRows(converter, buffer, width, 0, height);
+		}
+		else
+		{
+			IntStream.range(0, numTasks).parallel().forEach(task ->
+					convertRows(converter, buffer, width, range(height, numTasks, task), range(height, numTasks, task + 1)));
+		}
+		
+		return buffer;
+	}
+	
+	/**
+	 * <p>
+	 * Create an {@code InputStream} that reads the remaining bytes of a {@code ByteBuffer}, without copying them.
+	 * </p>
+	 *
+	 * @param buffer The buffer, its position is advanced by reading from the stream.
+	 * @return The stream.
+	 */
+	public static InputStream toInputStream(ByteBuffer buffer)
+	{
+		return new ByteBufferInputStream(buffer);
+	}
+	
+	private static RowConverter getRowConverter(BufferedImage bufferedImage)
+	{
+		WritableRaster raster = bufferedImage.getRaster();
+		SampleModel sampleModel = raster.getSampleModel();
+		DataBuffer dataBuffer = raster.getDataBuffer();
+		
+		int translateX = raster.getSampleModelTranslateX();
+		int translateY = raster.getSampleModelTranslateY();
 		
-		for(int y = 0; y < bufferedImage.getHeight(); y++)
+		switch(bufferedImage.getType())
 		{
-			for(int x = 0; x < bufferedImage.getWidth(); x++)
+		case BufferedImage.TYPE_4BYTE_ABGR:
+		case BufferedImage.TYPE_3BYTE_BGR:
+			if(sampleModel instanceof PixelInterleavedSampleModel && dataBuffer instanceof DataBufferByte)
+			{
+				PixelInterleavedSampleModel interleavedSampleModel = (PixelInterleavedSampleModel)sampleModel;
+				
+				byte[] data = ((DataBufferByte)dataBuffer).getData();
+				int[] bandOffsets = interleavedSampleModel.getBandOffsets();
+				int pixelStride = interleavedSampleModel.getPixelStride();
+				int scanlineStride = interleavedSampleModel.getScanlineStride();
+				int offset = dataBuffer.getOffset() - translateY * scanlineStride - translateX * pixelStride;
+				
+				int r = bandOffsets[0];
+				int g = bandOffsets[1];
+				int b = bandOffsets[2];
+				int a = bandOffsets.length > 3 ? bandOffsets[3] : -1;
+				
+				return (y, row, pixels) ->
+				{
+					int src = offset + y * scanlineStride;
+					
+					for(int dst = 0; dst < row.length; dst += 4, src += pixelStride)
+					{
+						row[dst] = data[src + r];
+						row[dst + 1] = data[src + g];
+						row[dst + 2] = data[src + b];
+						row[dst + 3] = a >= 0 ? data[src + a] : (byte)0xFF;
+					}
+				};
+			}
+			break;
+		case BufferedImage.TYPE_INT_ARGB:
+		case BufferedImage.TYPE_INT_RGB:
+			if(sampleModel instanceof SinglePixelPackedSampleModel && dataBuffer instanceof DataBufferInt)
 			{
-				int pixel = bufferedImage.getRGB(x, y);
+				int[] data = ((DataBufferInt)dataBuffer).getData();
+				int scanlineStride = ((SinglePixelPackedSampleModel)sampleModel).getScanlineStride();
+				int offset = dataBuffer.getOffset() - translateY * scanlineStride - translateX;
+				boolean alpha = bufferedImage.getType() == BufferedImage.TYPE_INT_ARGB;
 				
-				buffer.put((byte)((pixel >> 16) & 0xFF));
-				buffer.put((byte)((pixel >> 8) & 0xFF));
-				buffer.put((byte)(pixel & 0xFF));
-				buffer.put((byte)((pixel >> 24) & 0xFF));
+				return (y, row, pixels) -> unpackARGB(data, offset + y * scanlineStride, alpha, row);
 			}
+			break;
 		}
 		
-		buffer.flip();
-		return buffer;
+		return (y, row, pixels) ->
+		{
+			bufferedImage.getRGB(0, y, pixels.length, 1, pixels, 0, pixels.length);
+			unpackARGB(pixels, 0, true, row);
+		};
+	}
+	
+	private static void convertRows(RowConverter converter, ByteBuffer buffer, int width, int start, int end)
+	{
+		byte[] row = new byte[width * 4];
+		int[] pixels = new int[width];
+		
+		ByteBuffer target = buffer.duplicate();
+		target.position(start * row.length);
+		
+		for(int y = start; y < end; y++)
+		{
+			converter.convert(y, row, pixels);
+			target.put(row);
+		}
+	}
+	
+	private static void unpackARGB(int[] data, int src, boolean alpha, byte[] row)
+	{
+		for(int dst = 0; dst < row.length; dst += 4, src++)
+		{
+			int pixel = data[src];
+			
+			row[dst] = (byte)(pixel >> 16);
+			row[dst + 1] = (byte)(pixel >> 8);
+			row[dst + 2] = (byte)pixel;
+			row[dst + 3] = alpha ? (byte)(pixel >> 24) : (byte)0xFF;
+		}
+	}
+	
+	private static int range(int count, int numTasks, int task)
+	{
+		return (int)((long)count * task / numTasks);
 	}
 }
@@ -22,11 +22,17 @@
 
 package com.snakybo.torch.util;
 
+import com.snakybo.torch.asset.AssetProfiler;
+import com.snakybo.torch.util.cook.AssetCooker;
 import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.vfs.VirtualFileSystem;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -46,29 +52,96 @@ public final class FileUtils
 		throw new AssertionError();
 	}
 	
+	/**
+	 * <p>
+	 * Check whether or not a file exists in the {@link VirtualFileSystem}.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return Whether or not the file exists.
+	 */
+	public static boolean exists(String path)
+	{
+		return VirtualFileSystem.exists(path);
+	}
+	
+	/**
+	 * <p>
+	 * Get the path of the cooked version of a file, cooked files are stored next to their source as
+	 * {@code <path>.<extension>}, see {@link AssetCooker}.
+	 * </p>
+	 *
+	 * @param path The path to the source file.
+	 * @param extension The extension of the cooked file.
+	 * @return The path to the cooked file, or {@code null} if the file has not been cooked.
+	 */
+	public static String getCookedPath(String path, String extension)
+	{
+		String result = path + "." + extension;
+		return exists(result) ? result : null;
+	}
+	
+	/**
+	 * <p>
+	 * Read a file from the {@link VirtualFileSystem}.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return The contents of the file.
+	 * @throws NoSuchFileException Thrown if the specified {@code path} does not exist.
+	 * @throws IOException Thrown if the file could not be read.
+	 */
+	public static ByteBuffer read(String path) throws IOException
+	{
+		long start = System.nanoTime();
+		ByteBuffer result = VirtualFileSystem.read(path);
+		
+		AssetProfiler.recordRead(System.nanoTime() - start, result.remaining());
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Open a channel to a file in the {@link VirtualFileSystem}.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return The channel, the caller is responsible for closing it.
+	 * @throws NoSuchFileException Thrown if the specified {@code path} does not exist.
+	 * @throws IOException Thrown if the file could not be opened.
+	 */
+	public static ReadableByteChannel open(String path) throws IOException
+	{
+		return VirtualFileSystem.open(path);
+	}
+	
 	/**
 	 * <p>
 	 * Convert the path to a file to an {@link URI}.
 	 * </p>
 	 *
+	 * <p>
+	 * This only resolves files on the classpath, files should be read using {@link #read(String)} or
+	 * {@link #open(String)} instead.
+	 * </p>
+	 *
 	 * @param path The path to the file.
 	 * @return An {@code URI} representing the path.
 	 * @throws NoSuchFileException Thrown if the specified {@code path} does not exist.
 	 */
 	public static URI toURI(String path) throws NoSuchFileException
 	{
-		try
+		URL resource = FileUtils.class.getResource("/" + path);
+		
+		if(resource != null)
 		{
-			URL resource = FileUtils.class.getResource("/" + path);
-			if(resource != null)
+			URI result = toURI(resource);
+			
+			if(result != null)
 			{
-				return resource.toURI();
+				return result;
 			}
 		}
-		catch(URISyntaxException e)
-		{
-			Logger.logError(e.toString(), e);
-		}
 		
 		throw new NoSuchFileException("No file found at: " + path);
 	}
@@ -151,6 +224,20 @@ public final class FileUtils
 		return getExtension(Paths.get(path));
 	}
 	
+	private static URI toURI(URL resource)
+	{
+		try
+		{
+			return resource.toURI();
+		}
+		catch(URISyntaxException e)
+		{
+			Logger.logError(e.toString(), e);
+		}
+		
+		return null;
+	}
+	
 	private static String getName(Path path)
 	{
 		Path fileName = path.getFileName();
@@ -148,4 +148,86 @@ public final class MathUtils
 	{
 		return Math.max(min, Math.min(max, value));
 	}
+	
+	/**
+	 * <p>
+	 * Convert a {@code float} to a 16-bit half precision float, rounding to the nearest value.
+	 * </p>
+	 *
+	 * <p>
+	 * Values that are too large to be represented become infinity, values that are too small become zero.
+	 * </p>
+	 *
+	 * @param value The value to convert.
+	 * @return The bits of the half precision float.
+	 */
+	public static short toHalfFloat(float value)
+	{
+		int bits = Float.floatToIntBits(value);
+		int sign = (bits >>> 16) & 0x8000;
+		int abs = bits & 0x7FFFFFFF;
+		int rounded = abs + 0x1000;
+		
+		// NaN, infinity, or too large
+		if(rounded >= 0x47800000)
+		{
+			if(abs >= 0x47800000)
+			{
+				if(abs > 0x7F800000)
+				{
+					return (short)(sign | 0x7E00);
+				}
+				
+				return (short)(sign | 0x7C00);
+			}
+			
+			return (short)(sign | 0x7BFF);
+		}
+		
+		// Normalized
+		if(rounded >= 0x38800000)
+		{
+			return (short)(sign | ((rounded - 0x38000000) >>> 13));
+		}
+		
+		// Too small
+		if(rounded < 0x33000000)
+		{
+			return (short)sign;
+		}
+		
+		// Subnormal
+		int exponent = abs >>> 23;
+		return (short)(sign | (((abs & 0x7FFFFF) | 0x800000) + (0x800000 >>> (exponent - 102)) >>> (126 - exponent)));
+	}
+	
+	/**
+	 * <p>
+	 * Convert a 16-bit half precision float to a {@code float}.
+	 * </p>
+	 *
+	 * @param bits The bits of the half precision float.
+	 * @return The value of the half precision float.
+	 */
+	public static float fromHalfFloat(short bits)
+	{
+		int sign = (bits & 0x8000) << 16;
+		int exponent = (bits >>> 10) & 0x1F;
+		int mantissa = bits & 0x3FF;
+		
+		// NaN or infinity
+		if(exponent == 0x1F)
+		{
+			return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+		}
+		
+		// Zero or subnormal
+		if(exponent == 0)
+		{
+			float value = mantissa / 16777216f;
+			return sign == 0 ? value : -value;
+		}
+		
+		return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+	}
 }
@@ -0,0 +1,530 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.cook;
+
+import com.snakybo.torch.graphics.mesh.MeshAssetLoader;
+import com.snakybo.torch.graphics.mesh.TMesh;
+import com.snakybo.torch.graphics.mesh.gltf.GLBMesh;
+import com.snakybo.torch.graphics.renderer.TMeshCooker;
+import com.snakybo.torch.graphics.renderer.VertexFormat;
+import com.snakybo.torch.graphics.shader.TShader;
+import com.snakybo.torch.graphics.texture.TTexture;
+import com.snakybo.torch.scene.SceneManifest;
+import com.snakybo.torch.util.FileUtils;
+import com.snakybo.torch.util.debug.Logger;
+import com.snakybo.torch.util.debug.LoggerInternal;
+import com.snakybo.torch.util.xml.TXml;
+import com.snakybo.torch.util.xml.XMLParserUtils;
+import com.snakybo.torch.util.xml.parsers.SceneParser;
+import org.w3c.dom.Document;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * Cooks assets into the formats the engine loads fastest, so shipped builds don't parse source formats.
+ * </p>
+ *
+ * <ul>
+ *     <li>OBJ and GLB meshes are optimized and cooked into {@link TMesh}es, including the LODs set by
+ *     {@link MeshAssetLoader#setImportLods(float[], float[])}. Every mesh of a GLB file is also cooked on its own, as
+ *     {@code <path>#<mesh>.tmesh}, so it can be loaded as {@code file.glb#mesh}.</li>
+ *     <li>PNG and JPG images are cooked into {@link TTexture}s, including their mipmaps.</li>
+ *     <li>Scenes, materials and texture data files are cooked into {@link TXml}, scenes also get a
+ *     {@link SceneManifest}.</li>
+ *     <li>GLSL shaders are validated, and cooked into a {@link TShader} with a preprocessed variant for every pass.</li>
+ * </ul>
+ *
+ * <p>
+ * Cooked files are written to the same relative path as their source in the cooked directory, as
+ * {@code <path>.<extension>}, see {@link FileUtils#getCookedPath(String, String)}. The engine mounts the
+ * {@value #DIRECTORY} directory from the working directory, and the loaders use a cooked file instead of its
+ * source when it exists.
+ * </p>
+ *
+ * <p>
+ * Files are cooked in parallel. The content hash of every cooked source is stored in a cache manifest in the cooked
+ * directory, sources that have not changed since they were last cooked are skipped. The hash of a mesh includes
+ * its import LODs, so changing them cooks the meshes again.
+ * </p>
+ *
+ * <p>
+ * The cooker can be run from the command line:
+ * {@code AssetCooker [--force] [--threads <n>] [--lods <ratio>:<screen size>,...] <source directory> <cooked directory>},
+ * the {@code cookAssets} Gradle task cooks the main resources.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetCooker
+{
+	/** The directory cooked assets are written to, and mounted from, relative to the working directory */
+	public static final String DIRECTORY = "cooked";
+	
+	/** The cache manifest in the cooked directory, a line per source: content hash, path, cooked files */
+	private static final String MANIFEST = "cook.manifest";
+	
+	private static final class Entry
+	{
+		private final String hash;
+		private final List<String> outputs;
+		
+		private Entry(String hash, List<String> outputs)
+		{
+			this.hash = hash;
+			this.outputs = outputs;
+		}
+	}
+	
+	private static final Map<String, ICooker> cookers = new HashMap<>();
+	
+	static
+	{
+		register("obj", AssetCooker::cookMesh);
+		register(GLBMesh.EXTENSION, AssetCooker::cookMesh);
+		register("png", AssetCooker::cookTexture);
+		register("jpg", AssetCooker::cookTexture);
+		register("glsl", AssetCooker::cookShader);
+		register("mtl", AssetCooker::cookXml);
+		register("dat", AssetCooker::cookXml);
+		register("scene", AssetCooker::cookScene);
+	}
+	
+	private AssetCooker()
+	{
+		throw new AssertionError();
+	}
+	
+	public static void main(String[] args) throws IOException
+	{
+		boolean force = false;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		int first = 0;
+		
+		while(first < args.length && args[first].startsWith("--"))
+		{
+			if(args[first].equals("--force"))
+			{
+				force = true;
+				first++;
+			}
+			else if(args[first].equals("--threads") && first + 1 < args.length)
+			{
+				numThreads = Integer.parseInt(args[first + 1]);
+				first += 2;
+			}
+			else if(args[first].equals("--lods") && first + 1 < args.length)
+			{
+				setImportLods(args[first + 1]);
+				first += 2;
+			}
+			else
+			{
+				break;
+			}
+		}
+		
+		if(args.length - first != 2)
+		{
+			System.err.println("Usage: AssetCooker [--force] [--threads <n>] [--lods <ratio>:<screen size>,...] <source directory> <cooked directory>");
+			System.exit(1);
+		}
+		
+		if(!cook(Paths.get(args[first]), Paths.get(args[first + 1]), numThreads, force))
+		{
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Register a cooker for files with an extension, replacing the cooker for the extension if there is one.
+	 * </p>
+	 *
+	 * @param extension The extension of the source files.
+	 * @param cooker The cooker.
+	 */
+	public static void register(String extension, ICooker cooker)
+	{
+		cookers.put(extension, cooker);
+	}
+	
+	/**
+	 * <p>
+	 * Cook every file in a directory that has a cooker, and remove the cooked files of sources that no longer exist.
+	 * </p>
+	 *
+	 * @param source The source directory.
+	 * @param target The cooked directory.
+	 * @param numThreads The number of files to cook at the same time.
+	 * @param force Whether or not to cook files that have not changed since they were last cooked.
+	 * @return Whether or not every file was cooked, errors are logged.
+	 * @throws IOException If the source directory could not be walked, or the cache manifest could not be written.
+	 */
+	public static boolean cook(Path source, Path target, int numThreads, boolean force) throws IOException
+	{
+		Map<String, Path> files = new TreeMap<>();
+		
+		try(Stream<Path> stream = Files.walk(source))
+		{
+			for(Path file : stream.filter(Files::isRegularFile).collect(Collectors.toList()))
+			{
+				if(cookers.containsKey(FileUtils.getExtension(file.toString())))
+				{
+					files.put(source.relativize(file).toString().replace('\\', '/'), file);
+				}
+			}
+		}
+		
+		Files.createDirectories(target);
+		
+		Map<String, Entry> manifest = readManifest(target.resolve(MANIFEST));
+		Map<String, Future<Entry>> jobs = new TreeMap<>();
+		
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numThreads));
+		
+		try
+		{
+			for(Map.Entry<String, Path> file : files.entrySet())
+			{
+				Entry previous = manifest.get(file.getKey());
+				jobs.put(file.getKey(), executor.submit(() -> cook(file.getValue(), target, file.getKey(), previous, force)));
+			}
+			
+			int numCooked = 0;
+			int numFailed = 0;
+			
+			for(Map.Entry<String, Future<Entry>> job : jobs.entrySet())
+			{
+				Entry previous = manifest.remove(job.getKey());
+				
+				try
+				{
+					Entry entry = job.getValue().get();
+					
+					numCooked += entry != previous ? 1 : 0;
+					manifest.put(job.getKey(), entry);
+				}
+				catch(ExecutionException e)
+				{
+					Logger.logError("Unable to cook " + job.getKey() + ": " + e.getCause().toString(), e.getCause());
+					numFailed++;
+				}
+			}
+			
+			// Entries without a job are of sources that have been removed
+			for(Map.Entry<String, Entry> entry : new ArrayList<>(manifest.entrySet()))
+			{
+				if(!jobs.containsKey(entry.getKey()))
+				{
+					deleteOutputs(target, entry.getValue());
+					manifest.remove(entry.getKey());
+				}
+			}
+			
+			writeManifest(target.resolve(MANIFEST), manifest);
+			
+			LoggerInternal.log("Cooked " + numCooked + " files, " + (files.size() - numCooked - numFailed) + " unchanged, " + numFailed + " failed");
+			return numFailed == 0;
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while cooking", e);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	private static Entry cook(Path source, Path target, String path, Entry previous, boolean force) throws IOException
+	{
+		byte[] data = Files.readAllBytes(source);
+		String hash = hash(data, getSettings(FileUtils.getExtension(path)));
+		
+		if(!force && previous != null && previous.hash.equals(hash) && outputsExist(target, previous))
+		{
+			return previous;
+		}
+		
+		// Stale cooked files would be loaded instead of the source if cooking fails
+		if(previous != null)
+		{
+			deleteOutputs(target, previous);
+		}
+		
+		Path output = target.resolve(path);
+		Files.createDirectories(output.getParent());
+		
+		List<String> outputs = new ArrayList<>();
+		
+		for(Path file : cookers.get(FileUtils.getExtension(path)).cook(source, output))
+		{
+			outputs.add(target.relativize(file).toString().replace('\\', '/'));
+		}
+		
+		LoggerInternal.log("Cooked " + path + " into " + outputs);
+		return new Entry(hash, outputs);
+	}
+	
+	private static void setImportLods(String lods)
+	{
+		String[] entries = lods.split(",");
+		
+		float[] ratios = new float[entries.length];
+		float[] screenSizes = new float[entries.length];
+		
+		for(int i = 0; i < entries.length; i++)
+		{
+			String[] values = entries[i].split(":");
+			
+			if(values.length != 2)
+			{
+				throw new IllegalArgumentException("Invalid LOD, expected <ratio>:<screen size>: " + entries[i]);
+			}
+			
+			ratios[i] = Float.parseFloat(values[0]);
+			screenSizes[i] = Float.parseFloat(values[1]);
+		}
+		
+		MeshAssetLoader.setImportLods(ratios, screenSizes);
+	}
+	
+	private static String getSettings(String extension)
+	{
+		// The settings that change the cooked file, besides the content of the source
+		if(extension.equals("obj") || extension.equals(GLBMesh.EXTENSION))
+		{
+			return "lods " + Arrays.toString(MeshAssetLoader.getImportLodRatios()) + " " + Arrays.toString(MeshAssetLoader.getImportLodScreenSizes());
+		}
+		
+		return "";
+	}
+	
+	private static List<Path> cookMesh(Path source, Path target) throws IOException
+	{
+		List<Path> result = new ArrayList<>();
+		result.add(Paths.get(target + "." + TMesh.EXTENSION));
+		
+		TMeshCooker.cook(source, result.get(0), VertexFormat.DEFAULT);
+		
+		if(FileUtils.getExtension(source.toString()).equals(GLBMesh.EXTENSION))
+		{
+			Set<String> names = new HashSet<>();
+			
+			for(String name : new GLBMesh(ByteBuffer.wrap(Files.readAllBytes(source))).getMeshNames())
+			{
+				// Loads by name use the first mesh with the name, names that aren't valid file names are loaded from the source
+				if(!names.add(name) || !name.matches("[\\w .()\\-]+"))
+				{
+					LoggerInternal.log("Not cooking mesh " + name + " of " + source + " on its own");
+					continue;
+				}
+				
+				Path submesh = Paths.get(target + "#" + name + "." + TMesh.EXTENSION);
+				TMeshCooker.cook(source, name, submesh, VertexFormat.DEFAULT);
+				
+				result.add(submesh);
+			}
+		}
+		
+		return result;
+	}
+	
+	private static List<Path> cookTexture(Path source, Path target) throws IOException
+	{
+		BufferedImage image = ImageIO.read(source.toFile());
+		
+		if(image == null)
+		{
+			throw new IOException("Unsupported image format: " + source);
+		}
+		
+		Path result = Paths.get(target + "." + TTexture.EXTENSION);
+		TTexture.create(image).write(result);
+		
+		return Collections.singletonList(result);
+	}
+	
+	private static List<Path> cookShader(Path source, Path target) throws IOException
+	{
+		String text = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+		
+		Path result = Paths.get(target + "." + TShader.EXTENSION);
+		TShader.preprocess(source.getFileName().toString(), text).write(result);
+		
+		return Collections.singletonList(result);
+	}
+	
+	private static List<Path> cookXml(Path source, Path target) throws IOException
+	{
+		Path result = Paths.get(target + "." + TXml.EXTENSION);
+		TXml.write(parseXml(source), result);
+		
+		return Collections.singletonList(result);
+	}
+	
+	private static List<Path> cookScene(Path source, Path target) throws IOException
+	{
+		Document document = parseXml(source);
+		SceneParser.SceneData sceneData = SceneParser.decode(document.getDocumentElement());
+		
+		if(sceneData == null)
+		{
+			throw new IOException("Unable to decode scene: " + source);
+		}
+		
+		Path result = Paths.get(target + "." + TXml.EXTENSION);
+		TXml.write(document, result);
+		
+		// The manifest of a scene is named after the scene, without the extension
+		String name = target.getFileName().toString();
+		Path manifest = target.resolveSibling(name.substring(0, name.lastIndexOf('.') + 1) + SceneManifest.EXTENSION);
+		SceneManifest.write(manifest, sceneData.assets);
+		
+		return Arrays.asList(result, manifest);
+	}
+	
+	private static Document parseXml(Path source) throws IOException
+	{
+		Document document = XMLParserUtils.getDocument(new ByteArrayInputStream(Files.readAllBytes(source)));
+		
+		if(document == null)
+		{
+			throw new IOException("Unable to parse XML: " + source);
+		}
+		
+		return document;
+	}
+	
+	private static String hash(byte[] data, String settings)
+	{
+		try
+		{
+			StringBuilder result = new StringBuilder();
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			
+			digest.update(data);
+			digest.update(settings.getBytes(StandardCharsets.UTF_8));
+			
+			for(byte b : digest.digest())
+			{
+				result.append(String.format("%02x", b));
+			}
+			
+			return result.toString();
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			// Every Java platform is required to support SHA-1
+			throw new AssertionError(e);
+		}
+	}
+	
+	private static boolean outputsExist(Path target, Entry entry)
+	{
+		for(String output : entry.outputs)
+		{
+			if(!Files.isRegularFile(target.resolve(output)))
+			{
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static void deleteOutputs(Path target, Entry entry) throws IOException
+	{
+		for(String output : entry.outputs)
+		{
+			Files.deleteIfExists(target.resolve(output));
+		}
+	}
+	
+	private static Map<String, Entry> readManifest(Path file) throws IOException
+	{
+		Map<String, Entry> result = new TreeMap<>();
+		
+		if(Files.isRegularFile(file))
+		{
+			for(String line : Files.readAllLines(file, StandardCharsets.UTF_8))
+			{
+				String[] fields = line.split("\t");
+				
+				if(fields.length >= 2)
+				{
+					result.put(fields[1], new Entry(fields[0], Arrays.asList(fields).subList(2, fields.length)));
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	private static void writeManifest(Path file, Map<String, Entry> manifest) throws IOException
+	{
+		List<String> lines = new ArrayList<>();
+		
+		for(Map.Entry<String, Entry> entry : manifest.entrySet())
+		{
+			StringBuilder line = new StringBuilder(entry.getValue().hash).append('\t').append(entry.getKey());
+			
+			for(String output : entry.getValue().outputs)
+			{
+				line.append('\t').append(output);
+			}
+			
+			lines.add(line.toString());
+		}
+		
+		Files.write(file, lines, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,56 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.cook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * <p>
+ * Base type for the cookers of the {@link AssetCooker}, a cooker converts a source file into the format the engine
+ * loads at runtime.
+ * </p>
+ *
+ * <p>
+ * Cookers are run on multiple threads at the same time, and must not use OpenGL.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public interface ICooker
+{
+	/**
+	 * <p>
+	 * Cook a file.
+	 * </p>
+	 *
+	 * @param source The source file.
+	 * @param target The path of the source in the cooked directory, cooked files are written next to it as
+	 *               {@code <target>.<extension>}.
+	 * @return The files that were written.
+	 * @throws IOException Thrown if the source could not be read or is invalid, or a file could not be written.
+	 */
+	List<Path> cook(Path source, Path target) throws IOException;
+}
@@ -0,0 +1,316 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * A minimal JSON parser.
+ * </p>
+ *
+ * <p>
+ * Objects are parsed into a {@link Map}, arrays into a {@link List}, numbers into a {@link Double}, strings into a
+ * {@link String}, booleans into a {@link Boolean}, and {@code null} into {@code null}.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class JSONParser
+{
+	private final CharSequence json;
+	private int position;
+	
+	private JSONParser(CharSequence json)
+	{
+		this.json = json;
+	}
+	
+	/**
+	 * <p>
+	 * Parse a JSON document.
+	 * </p>
+	 *
+	 * @param json The JSON document.
+	 * @return The parsed value.
+	 * @throws IllegalArgumentException If the document is not valid JSON.
+	 */
+	public static Object parse(CharSequence json)
+	{
+		JSONParser parser = new JSONParser(json);
+		Object result = parser.parseValue();
+		
+		parser.skipWhitespace();
+		
+		if(parser.position != json.length())
+		{
+			throw parser.error("Unexpected data after the end of the document");
+		}
+		
+		return result;
+	}
+	
+	private Object parseValue()
+	{
+		skipWhitespace();
+		
+		if(position >= json.length())
+		{
+			throw error("Unexpected end of the document");
+		}
+		
+		char c = json.charAt(position);
+		
+		switch(c)
+		{
+		case '{':
+			return parseObject();
+		case '[':
+			return parseArray();
+		case '"':
+			return parseString();
+		case 't':
+			expect("true");
+			return Boolean.TRUE;
+		case 'f':
+			expect("false");
+			return Boolean.FALSE;
+		case 'n':
+			expect("null");
+			return null;
+		default:
+			return parseNumber();
+		}
+	}
+	
+	private Map<String, Object> parseObject()
+	{
+		Map<String, Object> result = new LinkedHashMap<>();
+		position++;
+		
+		skipWhitespace();
+		
+		if(peek() == '}')
+		{
+			position++;
+			return result;
+		}
+		
+		while(true)
+		{
+			skipWhitespace();
+			
+			if(peek() != '"')
+			{
+				throw error("Expected a key");
+			}
+			
+			String key = parseString();
+			
+			skipWhitespace();
+			expect(":");
+			
+			result.put(key, parseValue());
+			
+			skipWhitespace();
+			
+			char c = next();
+			
+			if(c == '}')
+			{
+				return result;
+			}
+			
+			if(c != ',')
+			{
+				throw error("Expected ',' or '}'");
+			}
+		}
+	}
+	
+	private List<Object> parseArray()
+	{
+		List<Object> result = new ArrayList<>();
+		position++;
+		
+		skipWhitespace();
+		
+		if(peek() == ']')
+		{
+			position++;
+			return result;
+		}
+		
+		while(true)
+		{
+			result.add(parseValue());
+			
+			skipWhitespace();
+			
+			char c = next();
+			
+			if(c == ']')
+			{
+				return result;
+			}
+			
+			if(c != ',')
+			{
+				throw error("Expected ',' or ']'");
+			}
+		}
+	}
+	
+	private String parseString()
+	{
+		StringBuilder result = new StringBuilder();
+		position++;
+		
+		while(true)
+		{
+			char c = next();
+			
+			if(c == '"')
+			{
+				return result.toString();
+			}
+			
+			if(c != '\\')
+			{
+				result.append(c);
+				continue;
+			}
+			
+			c = next();
+			
+			switch(c)
+			{
+			case '"':
+			case '\\':
+			case '/':
+				result.append(c);
+				break;
+			case 'b':
+				result.append('\b');
+				break;
+			case 'f':
+				result.append('\f');
+				break;
+			case 'n':
+				result.append('\n');
+				break;
+			case 'r':
+				result.append('\r');
+				break;
+			case 't':
+				result.append('\t');
+				break;
+			case 'u':
+				if(position + 4 > json.length())
+				{
+					throw error("Unexpected end of the document");
+				}
+				
+				try
+				{
+					result.append((char)Integer.parseInt(json.subSequence(position, position + 4).toString(), 16));
+				}
+				catch(NumberFormatException e)
+				{
+					throw error("Invalid unicode escape");
+				}
+				
+				position += 4;
+				break;
+			default:
+				throw error("Invalid escape character: " + c);
+			}
+		}
+	}
+	
+	private Double parseNumber()
+	{
+		int start = position;
+		
+		while(position < json.length() && "+-0123456789.eE".indexOf(json.charAt(position)) >= 0)
+		{
+			position++;
+		}
+		
+		try
+		{
+			return Double.valueOf(json.subSequence(start, position).toString());
+		}
+		catch(NumberFormatException e)
+		{
+			position = start;
+			throw error("Invalid value");
+		}
+	}
+	
+	private void expect(String expected)
+	{
+		for(int i = 0; i < expected.length(); i++)
+		{
+			if(next() != expected.charAt(i))
+			{
+				throw error("Expected '" + expected + "'");
+			}
+		}
+	}
+	
+	private void skipWhitespace()
+	{
+		while(position < json.length() && Character.isWhitespace(json.charAt(position)))
+		{
+			position++;
+		}
+	}
+	
+	private char peek()
+	{
+		if(position >= json.length())
+		{
+			throw error("Unexpected end of the document");
+		}
+		
+		return json.charAt(position);
+	}
+	
+	private char next()
+	{
+		char result = peek();
+		position++;
+		
+		return result;
+	}
+	
+	private IllegalArgumentException error(String message)
+	{
+		return new IllegalArgumentException(message + " at position " + position);
+	}
+}
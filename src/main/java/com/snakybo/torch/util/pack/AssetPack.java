@@ -0,0 +1,277 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.pack;
+
+import com.snakybo.torch.util.debug.LoggerInternal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * A read-only archive of assets, read through a single memory mapping.
+ * </p>
+ *
+ * <p>
+ * The archive starts with a header, followed by a hash table of entries, the paths of the entries, and the data of
+ * the entries. All values are little endian:
+ * </p>
+ *
+ * <pre>
+ * header:  magic "TPAK", version, number of entries, number of slots (a power of two), offset of the paths
+ * slot:    64-bit path hash (0 if the slot is empty), 64-bit data offset, stored size, original size, path offset,
+ *          path length
+ * </pre>
+ *
+ * <p>
+ * A path is looked up by hashing it, and probing the slots linearly from the slot of its hash. The table is at most
+ * half full, so a lookup takes a few probes. The data of every entry starts at a multiple of
+ * {@link #ENTRY_ALIGNMENT}. Entries are either stored, in which case reading them returns a view of the mapping, or
+ * compressed with LZ4, in which case reading them decompresses them into a new buffer.
+ * </p>
+ *
+ * @see AssetPackBuilder
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetPack
+{
+	/** The file extension of asset packs */
+	public static final String EXTENSION = "pack";
+	
+	static final int MAGIC = 0x4B415054; // "TPAK"
+	static final int VERSION = 1;
+	
+	static final int HEADER_SIZE = 20;
+	static final int SLOT_SIZE = 32;
+	
+	static final int ENTRY_ALIGNMENT = 16;
+	
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	
+	private final Path file;
+	private final ByteBuffer data;
+	
+	private final int numEntries;
+	private final int slotMask;
+	private final int pathsOffset;
+	
+	private AssetPack(Path file, ByteBuffer data)
+	{
+		this.file = file;
+		this.data = data;
+		
+		if(data.getInt(0) != MAGIC)
+		{
+			throw new IllegalArgumentException(file + " is not an asset pack");
+		}
+		
+		if(data.getInt(4) != VERSION)
+		{
+			throw new IllegalArgumentException("Unsupported asset pack version " + data.getInt(4) + " in " + file + " (expected: " + VERSION + ")");
+		}
+		
+		numEntries = data.getInt(8);
+		slotMask = data.getInt(12) - 1;
+		pathsOffset = data.getInt(16);
+	}
+	
+	/**
+	 * <p>
+	 * Open an asset pack. The file is mapped into memory, and stays mapped until the pack is garbage collected.
+	 * </p>
+	 *
+	 * @param file The file.
+	 * @return The asset pack.
+	 * @throws IOException If the file could not be mapped.
+	 */
+	public static AssetPack open(Path file) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+			AssetPack result = new AssetPack(file, data);
+			
+			LoggerInternal.log("Opened asset pack " + file + ": " + result.numEntries + " entries");
+			return result;
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not the pack contains a file.
+	 * </p>
+	 *
+	 * @param path The path of the file, relative to the root of the pack, separated by forward slashes.
+	 * @return Whether or not the pack contains the file.
+	 */
+	public final boolean contains(String path)
+	{
+		return findSlot(path) >= 0;
+	}
+	
+	/**
+	 * <p>
+	 * Read a file from the pack. Stored files are returned as a read-only view of the mapping, without copying them.
+	 * </p>
+	 *
+	 * @param path The path of the file, relative to the root of the pack, separated by forward slashes.
+	 * @return The contents of the file in little endian byte order, or {@code null} if the pack doesn't contain it.
+	 */
+	public final ByteBuffer read(String path)
+	{
+		int slot = findSlot(path);
+		
+		if(slot < 0)
+		{
+			return null;
+		}
+		
+		int position = HEADER_SIZE + slot * SLOT_SIZE;
+		
+		long offset = data.getLong(position + 8);
+		int storedSize = data.getInt(position + 16);
+		int originalSize = data.getInt(position + 20);
+		
+		ByteBuffer stored = slice(offset, storedSize);
+		
+		if(storedSize == originalSize)
+		{
+			return stored.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+		}
+		
+		ByteBuffer result = ByteBuffer.allocateDirect(originalSize).order(ByteOrder.LITTLE_ENDIAN);
+		LZ4.decompress(stored, result);
+		
+		if(result.hasRemaining())
+		{
+			throw new IllegalArgumentException("Corrupt entry " + path + " in " + file);
+		}
+		
+		result.flip();
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Get the number of files in the pack.
+	 * </p>
+	 *
+	 * @return The number of files.
+	 */
+	public final int getNumEntries()
+	{
+		return numEntries;
+	}
+	
+	/**
+	 * <p>
+	 * Get the file the pack was opened from.
+	 * </p>
+	 *
+	 * @return The file.
+	 */
+	public final Path getFile()
+	{
+		return file;
+	}
+	
+	private int findSlot(String path)
+	{
+		byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+		long hash = hash(bytes);
+		
+		for(int slot = (int)hash & slotMask; ; slot = (slot + 1) & slotMask)
+		{
+			int position = HEADER_SIZE + slot * SLOT_SIZE;
+			long slotHash = data.getLong(position);
+			
+			if(slotHash == 0)
+			{
+				return -1;
+			}
+			
+			if(slotHash == hash && pathEquals(position, bytes))
+			{
+				return slot;
+			}
+		}
+	}
+	
+	private boolean pathEquals(int position, byte[] path)
+	{
+		int pathOffset = pathsOffset + data.getInt(position + 24);
+		int pathLength = data.getInt(position + 28);
+		
+		if(pathLength != path.length)
+		{
+			return false;
+		}
+		
+		for(int i = 0; i < pathLength; i++)
+		{
+			if(data.get(pathOffset + i) != path[i])
+			{
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private ByteBuffer slice(long offset, int size)
+	{
+		ByteBuffer result = data.duplicate();
+		result.position((int)offset).limit((int)offset + size);
+		
+		return result.slice();
+	}
+	
+	/**
+	 * <p>
+	 * Hash a path with 64-bit FNV-1a. Zero marks an empty slot, so it's never returned.
+	 * </p>
+	 *
+	 * @param path The UTF-8 bytes of the path.
+	 * @return The hash.
+	 */
+	static long hash(byte[] path)
+	{
+		long hash = FNV_OFFSET_BASIS;
+		
+		for(byte b : path)
+		{
+			hash ^= b & 0xFF;
+			hash *= FNV_PRIME;
+		}
+		
+		return hash != 0 ? hash : 1;
+	}
+}
@@ -0,0 +1,220 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.pack;
+
+import com.snakybo.torch.util.FileUtils;
+import com.snakybo.torch.util.debug.LoggerInternal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * Builds {@link AssetPack}s from directories.
+ * </p>
+ *
+ * <p>
+ * The builder can be run from the command line:
+ * {@code AssetPackBuilder [--compress] <target.pack> <directory>...}, the {@code packAssets} Gradle task packs the
+ * main resources.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class AssetPackBuilder
+{
+	/** Files that are already compressed, or that are uploaded straight from the mapping, are always stored */
+	private static final Set<String> STORED_EXTENSIONS = new HashSet<>(Arrays.asList("png", "jpg", "glb", "tmesh", "ttex"));
+	
+	/** The fraction of its size a compressed entry has to save to be stored compressed */
+	private static final float MIN_COMPRESSION_GAIN = 0.1f;
+	
+	private AssetPackBuilder()
+	{
+		throw new AssertionError();
+	}
+	
+	public static void main(String[] args) throws IOException
+	{
+		boolean compress = args.length > 0 && args[0].equals("--compress");
+		int first = compress ? 1 : 0;
+		
+		if(args.length - first < 2)
+		{
+			System.err.println("Usage: AssetPackBuilder [--compress] <target." + AssetPack.EXTENSION + "> <directory>...");
+			System.exit(1);
+		}
+		
+		List<Path> directories = new ArrayList<>();
+		
+		for(int i = first + 1; i < args.length; i++)
+		{
+			directories.add(Paths.get(args[i]));
+		}
+		
+		build(Paths.get(args[first]), directories, compress);
+	}
+	
+	/**
+	 * <p>
+	 * Pack the files of directories. Files are stored under their path relative to their directory, if multiple
+	 * directories contain the same path, the file of the first directory is used.
+	 * </p>
+	 *
+	 * @param target The file to write the pack to.
+	 * @param directories The directories.
+	 * @param compress Whether or not to compress files with LZ4.
+	 * @throws IOException If a file could not be read, or the pack could not be written.
+	 */
+	public static void build(Path target, List<Path> directories, boolean compress) throws IOException
+	{
+		Map<String, Path> files = new TreeMap<>();
+		
+		for(Path directory : directories)
+		{
+			try(Stream<Path> stream = Files.walk(directory))
+			{
+				for(Path file : stream.filter(Files::isRegularFile).collect(Collectors.toList()))
+				{
+					String path = directory.relativize(file).toString().replace('\\', '/');
+					files.putIfAbsent(path, file);
+				}
+			}
+		}
+		
+		build(target, files, compress);
+	}
+	
+	/**
+	 * <p>
+	 * Pack files.
+	 * </p>
+	 *
+	 * @param target The file to write the pack to.
+	 * @param files The files to pack, by their path in the pack.
+	 * @param compress Whether or not to compress files with LZ4.
+	 * @throws IOException If a file could not be read, or the pack could not be written.
+	 */
+	public static void build(Path target, Map<String, Path> files, boolean compress) throws IOException
+	{
+		int numSlots = 2;
+		
+		while(numSlots < files.size() * 2)
+		{
+			numSlots *= 2;
+		}
+		
+		byte[][] paths = new byte[files.size()][];
+		int pathsSize = 0;
+		
+		int entry = 0;
+		
+		for(String path : files.keySet())
+		{
+			paths[entry] = path.getBytes(StandardCharsets.UTF_8);
+			pathsSize += paths[entry++].length;
+		}
+		
+		int pathsOffset = AssetPack.HEADER_SIZE + numSlots * AssetPack.SLOT_SIZE;
+		
+		ByteBuffer index = ByteBuffer.allocate(pathsOffset + pathsSize).order(ByteOrder.LITTLE_ENDIAN);
+		index.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(files.size()).putInt(numSlots).putInt(pathsOffset);
+		
+		long compressedSize = 0;
+		long originalSize = 0;
+		
+		try(FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			long offset = align(index.capacity());
+			int pathOffset = 0;
+			
+			entry = 0;
+			
+			for(Map.Entry<String, Path> file : files.entrySet())
+			{
+				byte[] data = Files.readAllBytes(file.getValue());
+				byte[] stored = data;
+				
+				if(compress && !STORED_EXTENSIONS.contains(FileUtils.getExtension(file.getKey())))
+				{
+					byte[] compressed = new byte[LZ4.maxCompressedLength(data.length)];
+					int length = LZ4.compress(data, compressed);
+					
+					if(length < data.length * (1 - MIN_COMPRESSION_GAIN))
+					{
+						stored = Arrays.copyOf(compressed, length);
+					}
+				}
+				
+				long hash = AssetPack.hash(paths[entry]);
+				int slot = (int)hash & (numSlots - 1);
+				
+				while(index.getLong(AssetPack.HEADER_SIZE + slot * AssetPack.SLOT_SIZE) != 0)
+				{
+					slot = (slot + 1) & (numSlots - 1);
+				}
+				
+				index.position(AssetPack.HEADER_SIZE + slot * AssetPack.SLOT_SIZE);
+				index.putLong(hash).putLong(offset).putInt(stored.length).putInt(data.length).putInt(pathOffset).putInt(paths[entry].length);
+				
+				index.position(pathsOffset + pathOffset);
+				index.put(paths[entry]);
+				
+				channel.write(ByteBuffer.wrap(stored), offset);
+				
+				pathOffset += paths[entry++].length;
+				offset = align(offset + stored.length);
+				
+				compressedSize += stored.length;
+				originalSize += data.length;
+			}
+			
+			index.rewind();
+			channel.write(index, 0);
+		}
+		
+		LoggerInternal.log("Built asset pack " + target + ": " + files.size() + " files, " + compressedSize + " bytes (uncompressed: " + originalSize + ")");
+	}
+	
+	private static long align(long offset)
+	{
+		return (offset + AssetPack.ENTRY_ALIGNMENT - 1) / AssetPack.ENTRY_ALIGNMENT * AssetPack.ENTRY_ALIGNMENT;
+	}
+}
@@ -0,0 +1,269 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.pack;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * An implementation of the LZ4 block format, used for the compressed entries of an {@link AssetPack}.
+ * </p>
+ *
+ * <p>
+ * A block is a sequence of literals followed by a match, the last sequence has no match. The compressor is the
+ * greedy single-pass compressor of the reference implementation, which favors decompression speed over ratio.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+final class LZ4
+{
+	private static final int MIN_MATCH = 4;
+	
+	// The last match must start this many bytes before the end of the block, and the last 5 bytes are literals
+	private static final int MATCH_LIMIT = 12;
+	private static final int LAST_LITERALS = 5;
+	
+	private static final int MAX_OFFSET = 65535;
+	
+	private static final int HASH_LOG = 16;
+	
+	private LZ4()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Get the maximum size of a compressed block.
+	 * </p>
+	 *
+	 * @param length The size of the uncompressed data.
+	 * @return The maximum size of the compressed data.
+	 */
+	static int maxCompressedLength(int length)
+	{
+		return length + length / 255 + 16;
+	}
+	
+	/**
+	 * <p>
+	 * Compress data into a block.
+	 * </p>
+	 *
+	 * @param src The data.
+	 * @param dst The array to write the block into, at least {@link #maxCompressedLength(int)} bytes long.
+	 * @return The size of the block.
+	 */
+	static int compress(byte[] src, byte[] dst)
+	{
+		int[] table = new int[1 << HASH_LOG];
+		
+		int anchor = 0;
+		int d = 0;
+		
+		int limit = src.length - MATCH_LIMIT;
+		int i = 0;
+		
+		while(i < limit)
+		{
+			int sequence = readInt(src, i);
+			int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+			
+			// The table stores positions plus one, so zero means empty
+			int candidate = table[hash] - 1;
+			table[hash] = i + 1;
+			
+			if(candidate < 0 || i - candidate > MAX_OFFSET || readInt(src, candidate) != sequence)
+			{
+				i++;
+				continue;
+			}
+			
+			// Extend the match backwards over literals, and forwards as far as allowed
+			while(i > anchor && candidate > 0 && src[i - 1] == src[candidate - 1])
+			{
+				i--;
+				candidate--;
+			}
+			
+			int end = i + MIN_MATCH;
+			int matchLimit = src.length - LAST_LITERALS;
+			
+			while(end < matchLimit && src[end] == src[candidate + end - i])
+			{
+				end++;
+			}
+			
+			d = writeSequence(src, anchor, i - anchor, dst, d, i - candidate, end - i);
+			
+			i = end;
+			anchor = end;
+		}
+		
+		return writeLastLiterals(src, anchor, src.length - anchor, dst, d);
+	}
+	
+	/**
+	 * <p>
+	 * Decompress a block.
+	 * </p>
+	 *
+	 * @param src The block, from its position to its limit.
+	 * @param dst The buffer to write the data into, from its position, its position is advanced.
+	 * @throws IllegalArgumentException If the block is malformed, or the data doesn't fit.
+	 */
+	static void decompress(ByteBuffer src, ByteBuffer dst)
+	{
+		int s = src.position();
+		int sEnd = src.limit();
+		
+		int d = dst.position();
+		int dEnd = dst.limit();
+		
+		try
+		{
+			while(s < sEnd)
+			{
+				int token = src.get(s++) & 0xFF;
+				
+				int literals = token >>> 4;
+				
+				if(literals == 15)
+				{
+					int b;
+					
+					do
+					{
+						b = src.get(s++) & 0xFF;
+						literals += b;
+					}
+					while(b == 255);
+				}
+				
+				if(d + literals > dEnd || s + literals > sEnd)
+				{
+					throw new IllegalArgumentException("Malformed LZ4 block: literals out of bounds");
+				}
+				
+				for(int i = 0; i < literals; i++)
+				{
+					dst.put(d++, src.get(s++));
+				}
+				
+				if(s == sEnd)
+				{
+					break;
+				}
+				
+				int offset = (src.get(s) & 0xFF) | (src.get(s + 1) & 0xFF) << 8;
+				s += 2;
+				
+				int length = token & 0x0F;
+				
+				if(length == 15)
+				{
+					int b;
+					
+					do
+					{
+						b = src.get(s++) & 0xFF;
+						length += b;
+					}
+					while(b == 255);
+				}
+				
+				length += MIN_MATCH;
+				
+				if(offset == 0 || d - offset < dst.position() || d + length > dEnd)
+				{
+					throw new IllegalArgumentException("Malformed LZ4 block: match out of bounds");
+				}
+				
+				// Matches can overlap the bytes they produce, so they're copied one byte at a time
+				for(int i = 0; i < length; i++, d++)
+				{
+					dst.put(d, dst.get(d - offset));
+				}
+			}
+		}
+		catch(IndexOutOfBoundsException e)
+		{
+			throw new IllegalArgumentException("Malformed LZ4 block: unexpected end of block");
+		}
+		
+		dst.position(d);
+	}
+	
+	private static int writeSequence(byte[] src, int literalStart, int literals, byte[] dst, int d, int offset, int length)
+	{
+		int matchLength = length - MIN_MATCH;
+		int tokenPosition = d++;
+		
+		int token = (Math.min(literals, 15) << 4) | Math.min(matchLength, 15);
+		dst[tokenPosition] = (byte)token;
+		
+		d = writeLength(literals, dst, d);
+		System.arraycopy(src, literalStart, dst, d, literals);
+		d += literals;
+		
+		dst[d++] = (byte)offset;
+		dst[d++] = (byte)(offset >>> 8);
+		
+		return writeLength(matchLength, dst, d);
+	}
+	
+	private static int writeLastLiterals(byte[] src, int literalStart, int literals, byte[] dst, int d)
+	{
+		dst[d++] = (byte)(Math.min(literals, 15) << 4);
+		
+		d = writeLength(literals, dst, d);
+		System.arraycopy(src, literalStart, dst, d, literals);
+		
+		return d + literals;
+	}
+	
+	private static int writeLength(int length, byte[] dst, int d)
+	{
+		if(length >= 15)
+		{
+			length -= 15;
+			
+			while(length >= 255)
+			{
+				dst[d++] = (byte)255;
+				length -= 255;
+			}
+			
+			dst[d++] = (byte)length;
+		}
+		
+		return d;
+	}
+	
+	private static int readInt(byte[] src, int i)
+	{
+		return (src[i] & 0xFF) | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF) << 16 | (src[i + 3] & 0xFF) << 24;
+	}
+}
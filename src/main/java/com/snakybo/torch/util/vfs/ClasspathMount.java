@@ -0,0 +1,152 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.vfs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * A mount point for the resources on the classpath. Resources in directories are memory mapped, resources inside
+ * jars are copied into a direct buffer.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class ClasspathMount implements IMount
+{
+	private final ClassLoader classLoader;
+	
+	/**
+	 * <p>
+	 * Create a new classpath mount, using the class loader of the engine.
+	 * </p>
+	 */
+	public ClasspathMount()
+	{
+		this(ClasspathMount.class.getClassLoader());
+	}
+	
+	/**
+	 * <p>
+	 * Create a new classpath mount.
+	 * </p>
+	 *
+	 * @param classLoader The class loader to load resources from.
+	 */
+	public ClasspathMount(ClassLoader classLoader)
+	{
+		this.classLoader = classLoader;
+	}
+	
+	@Override
+	public final boolean contains(String path)
+	{
+		return classLoader.getResource(path) != null;
+	}
+	
+	@Override
+	public final ByteBuffer read(String path) throws IOException
+	{
+		URL resource = getResource(path);
+		
+		if(resource.getProtocol().equals("file"))
+		{
+			try(FileChannel channel = openFile(resource))
+			{
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+		}
+		
+		try(InputStream in = resource.openStream())
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] chunk = new byte[8192];
+			int read;
+			
+			while((read = in.read(chunk)) != -1)
+			{
+				bytes.write(chunk, 0, read);
+			}
+			
+			ByteBuffer result = org.lwjgl.BufferUtils.createByteBuffer(bytes.size());
+			result.put(bytes.toByteArray()).flip();
+			
+			return result;
+		}
+	}
+	
+	@Override
+	public final ReadableByteChannel open(String path) throws IOException
+	{
+		URL resource = getResource(path);
+		
+		if(resource.getProtocol().equals("file"))
+		{
+			return openFile(resource);
+		}
+		
+		return Channels.newChannel(resource.openStream());
+	}
+	
+	@Override
+	public final String toString()
+	{
+		return "ClasspathMount(" + classLoader + ")";
+	}
+	
+	private URL getResource(String path) throws NoSuchFileException
+	{
+		URL resource = classLoader.getResource(path);
+		
+		if(resource == null)
+		{
+			throw new NoSuchFileException("No file found at: " + path);
+		}
+		
+		return resource;
+	}
+	
+	private static FileChannel openFile(URL resource) throws IOException
+	{
+		try
+		{
+			return FileChannel.open(Paths.get(resource.toURI()), StandardOpenOption.READ);
+		}
+		catch(URISyntaxException e)
+		{
+			throw new IOException(e);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.vfs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * A mount point for a directory on disk, files are memory mapped when they are read.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class DirectoryMount implements IMount
+{
+	private final Path root;
+	
+	/**
+	 * <p>
+	 * Create a new directory mount.
+	 * </p>
+	 *
+	 * @param root The directory.
+	 */
+	public DirectoryMount(Path root)
+	{
+		if(!Files.isDirectory(root))
+		{
+			throw new IllegalArgumentException(root + " is not a directory");
+		}
+		
+		this.root = root;
+	}
+	
+	@Override
+	public final boolean contains(String path)
+	{
+		return Files.isRegularFile(root.resolve(path));
+	}
+	
+	@Override
+	public final ByteBuffer read(String path) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(root.resolve(path), StandardOpenOption.READ))
+		{
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+	
+	@Override
+	public final ReadableByteChannel open(String path) throws IOException
+	{
+		return FileChannel.open(root.resolve(path), StandardOpenOption.READ);
+	}
+	
+	@Override
+	public final String toString()
+	{
+		return "DirectoryMount(" + root + ")";
+	}
+	
+	/**
+	 * <p>
+	 * Get the directory.
+	 * </p>
+	 *
+	 * @return The directory.
+	 */
+	public final Path getRoot()
+	{
+		return root;
+	}
+}
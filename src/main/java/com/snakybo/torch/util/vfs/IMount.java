@@ -0,0 +1,80 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.vfs;
+
+import com.snakybo.torch.util.BufferUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * <p>
+ * Base type for all mount points of the {@link VirtualFileSystem}.
+ * </p>
+ *
+ * <p>
+ * Paths passed to a mount are relative to its root, and separated by forward slashes.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public interface IMount
+{
+	/**
+	 * <p>
+	 * Check whether or not the mount contains a file.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return Whether or not the mount contains the file.
+	 */
+	boolean contains(String path);
+	
+	/**
+	 * <p>
+	 * Read the contents of a file.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return The contents of the file.
+	 * @throws IOException Thrown if the file could not be read.
+	 */
+	ByteBuffer read(String path) throws IOException;
+	
+	/**
+	 * <p>
+	 * Open a channel to a file, by default this reads the whole file using {@link #read(String)}.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return The channel, the caller is responsible for closing it.
+	 * @throws IOException Thrown if the file could not be opened.
+	 */
+	default ReadableByteChannel open(String path) throws IOException
+	{
+		return Channels.newChannel(BufferUtils.toInputStream(read(path)));
+	}
+}
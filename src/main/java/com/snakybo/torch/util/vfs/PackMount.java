@@ -0,0 +1,90 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.vfs;
+
+import com.snakybo.torch.util.pack.AssetPack;
+
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+
+/**
+ * <p>
+ * A mount point for an {@link AssetPack}, stored files are read without copying them.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class PackMount implements IMount
+{
+	private final AssetPack pack;
+	
+	/**
+	 * <p>
+	 * Create a new pack mount.
+	 * </p>
+	 *
+	 * @param pack The asset pack.
+	 */
+	public PackMount(AssetPack pack)
+	{
+		this.pack = pack;
+	}
+	
+	@Override
+	public final boolean contains(String path)
+	{
+		return pack.contains(path);
+	}
+	
+	@Override
+	public final ByteBuffer read(String path) throws NoSuchFileException
+	{
+		ByteBuffer result = pack.read(path);
+		
+		if(result == null)
+		{
+			throw new NoSuchFileException("No file found at: " + path + " in " + pack.getFile());
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public final String toString()
+	{
+		return "PackMount(" + pack.getFile() + ")";
+	}
+	
+	/**
+	 * <p>
+	 * Get the asset pack.
+	 * </p>
+	 *
+	 * @return The asset pack.
+	 */
+	public final AssetPack getPack()
+	{
+		return pack;
+	}
+}
@@ -0,0 +1,249 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.vfs;
+
+import com.snakybo.torch.util.debug.LoggerInternal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>
+ * The virtual file system of the engine, all assets are read through it.
+ * </p>
+ *
+ * <p>
+ * The file system consists of an ordered list of {@link IMount}s. A path is resolved to the first mount that
+ * contains it, mounts added later take precedence over mounts added earlier. By default only a
+ * {@link ClasspathMount} is mounted.
+ * </p>
+ *
+ * <p>
+ * Resolved locations and failed lookups are both cached, the caches are cleared whenever a mount is added or
+ * removed. If the contents of a mount change at runtime, {@link #invalidate()} should be called.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class VirtualFileSystem
+{
+	private static final List<IMount> mounts = new CopyOnWriteArrayList<>();
+	
+	private static final Map<String, IMount> locations = new ConcurrentHashMap<>();
+	private static final Set<String> missing = ConcurrentHashMap.newKeySet();
+	
+	static
+	{
+		mounts.add(new ClasspathMount());
+	}
+	
+	private VirtualFileSystem()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Add a mount point, it takes precedence over all existing mounts.
+	 * </p>
+	 *
+	 * @param mount The mount point.
+	 */
+	public static void mount(IMount mount)
+	{
+		mount(mount, 0);
+	}
+	
+	/**
+	 * <p>
+	 * Add a mount point at the specified {@code priority}, where {@code 0} is searched first.
+	 * </p>
+	 *
+	 * @param mount The mount point.
+	 * @param priority The index of the mount in the search order.
+	 */
+	public static void mount(IMount mount, int priority)
+	{
+		if(priority < 0 || priority > mounts.size())
+		{
+			throw new IllegalArgumentException("The priority " + priority + " is out of bounds");
+		}
+		
+		LoggerInternal.log("Mounting " + mount + " at priority " + priority);
+		
+		mounts.add(priority, mount);
+		invalidate();
+	}
+	
+	/**
+	 * <p>
+	 * Remove a mount point.
+	 * </p>
+	 *
+	 * @param mount The mount point.
+	 */
+	public static void unmount(IMount mount)
+	{
+		if(mounts.remove(mount))
+		{
+			LoggerInternal.log("Unmounted " + mount);
+			invalidate();
+		}
+	}
+	
+	/**
+	 * <p>
+	 * Clear the cached locations and failed lookups.
+	 * </p>
+	 */
+	public static void invalidate()
+	{
+		locations.clear();
+		missing.clear();
+	}
+	
+	/**
+	 * <p>
+	 * Check whether or not a file exists in any of the mounts.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return Whether or not the file exists.
+	 */
+	public static boolean exists(String path)
+	{
+		return resolve(path) != null;
+	}
+	
+	/**
+	 * <p>
+	 * Find the mount that contains a file.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return The mount that contains the file, or {@code null} if no mount contains it.
+	 */
+	public static IMount resolve(String path)
+	{
+		path = normalize(path);
+		
+		IMount result = locations.get(path);
+		
+		if(result != null || missing.contains(path))
+		{
+			return result;
+		}
+		
+		for(IMount mount : mounts)
+		{
+			if(mount.contains(path))
+			{
+				locations.put(path, mount);
+				return mount;
+			}
+		}
+		
+		missing.add(path);
+		return null;
+	}
+	
+	/**
+	 * <p>
+	 * Read the contents of a file.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return The contents of the file.
+	 * @throws NoSuchFileException Thrown if the specified {@code path} does not exist.
+	 * @throws IOException Thrown if the file could not be read.
+	 */
+	public static ByteBuffer read(String path) throws IOException
+	{
+		return getMount(path).read(normalize(path));
+	}
+	
+	/**
+	 * <p>
+	 * Open a channel to a file.
+	 * </p>
+	 *
+	 * @param path The path to the file.
+	 * @return The channel, the caller is responsible for closing it.
+	 * @throws NoSuchFileException Thrown if the specified {@code path} does not exist.
+	 * @throws IOException Thrown if the file could not be opened.
+	 */
+	public static ReadableByteChannel open(String path) throws IOException
+	{
+		return getMount(path).open(normalize(path));
+	}
+	
+	/**
+	 * <p>
+	 * Get all mount points, in the order they are searched.
+	 * </p>
+	 *
+	 * @return All mount points.
+	 */
+	public static List<IMount> getMounts()
+	{
+		return new ArrayList<>(mounts);
+	}
+	
+	private static IMount getMount(String path) throws NoSuchFileException
+	{
+		IMount result = resolve(path);
+		
+		if(result == null)
+		{
+			throw new NoSuchFileException("No file found at: " + path);
+		}
+		
+		return result;
+	}
+	
+	private static String normalize(String path)
+	{
+		path = path.replace('\\', '/');
+		
+		while(path.startsWith("/"))
+		{
+			path = path.substring(1);
+		}
+		
+		if(path.equals("..") || path.startsWith("../") || path.contains("/../") || path.endsWith("/.."))
+		{
+			throw new IllegalArgumentException("The path " + path + " is outside of the file system");
+		}
+		
+		return path;
+	}
+}
@@ -0,0 +1,292 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.util.xml;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * A cooked, binary XML document.
+ * </p>
+ *
+ * <p>
+ * A {@code .txml} file contains the elements, attributes and text of a DOM document, with every distinct string
+ * stored once. Reading a {@code .txml} builds the DOM document directly, without running an XML parser. Comments,
+ * processing instructions and the whitespace between elements are not stored.
+ * </p>
+ *
+ * <p>
+ * The file is stored in big-endian byte order:
+ * </p>
+ *
+ * <pre>
+ * int      magic ("TXML")
+ * int      version
+ * int      number of strings
+ * string[] strings (int size in bytes, UTF-8 bytes)
+ * node     root element
+ *
+ * node:    byte type (1: element, 2: text)
+ * element: int name, int number of attributes, (int name, int value)[], int number of children, node[]
+ * text:    int value
+ * </pre>
+ *
+ * <p>
+ * Names, values and text are indices into the strings.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class TXml
+{
+	public static final String EXTENSION = "txml";
+	
+	private static final int MAGIC = 'T' << 24 | 'X' << 16 | 'M' << 8 | 'L';
+	private static final int VERSION = 1;
+	
+	private static final byte ELEMENT = 1;
+	private static final byte TEXT = 2;
+	
+	private TXml()
+	{
+		throw new AssertionError();
+	}
+	
+	/**
+	 * <p>
+	 * Write a DOM document to a file.
+	 * </p>
+	 *
+	 * @param document The document.
+	 * @param target The file to write to.
+	 * @throws IOException If the file could not be written.
+	 */
+	public static void write(Document document, Path target) throws IOException
+	{
+		Map<String, Integer> strings = new HashMap<>();
+		List<String> table = new ArrayList<>();
+		
+		ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+		writeElement(new DataOutputStream(nodes), document.getDocumentElement(), strings, table);
+		
+		ByteArrayOutputStream result = new ByteArrayOutputStream(nodes.size() * 2);
+		DataOutputStream out = new DataOutputStream(result);
+		
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(table.size());
+		
+		for(String string : table)
+		{
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		
+		nodes.writeTo(out);
+		out.flush();
+		
+		Files.write(target, result.toByteArray());
+	}
+	
+	/**
+	 * <p>
+	 * Read a DOM document from a buffer.
+	 * </p>
+	 *
+	 * @param data The contents of a {@code .txml} file.
+	 * @return The DOM document.
+	 * @throws IOException If the data is not a supported {@code .txml} file.
+	 */
+	public static Document read(ByteBuffer data) throws IOException
+	{
+		ByteBuffer in = data.duplicate();
+		
+		try
+		{
+			if(in.getInt() != MAGIC)
+			{
+				throw new IOException("Not a " + EXTENSION + " file");
+			}
+			
+			int version = in.getInt();
+			
+			if(version != VERSION)
+			{
+				throw new IOException("Unsupported " + EXTENSION + " version: " + version + ", expected: " + VERSION);
+			}
+			
+			String[] strings = new String[in.getInt()];
+			
+			for(int i = 0; i < strings.length; i++)
+			{
+				byte[] bytes = new byte[in.getInt()];
+				in.get(bytes);
+				
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			
+			Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+			
+			if(in.get() != ELEMENT)
+			{
+				throw new IOException("The root node of a " + EXTENSION + " file must be an element");
+			}
+			
+			document.appendChild(readElement(in, document, strings));
+			return document;
+		}
+		catch(BufferUnderflowException | IndexOutOfBoundsException e)
+		{
+			throw new IOException("Corrupt " + EXTENSION + " file", e);
+		}
+		catch(ParserConfigurationException e)
+		{
+			throw new IOException(e);
+		}
+	}
+	
+	private static void writeElement(DataOutputStream out, Element element, Map<String, Integer> strings, List<String> table) throws IOException
+	{
+		NamedNodeMap attributes = element.getAttributes();
+		NodeList children = element.getChildNodes();
+		
+		List<Node> stored = new ArrayList<>();
+		boolean hasElements = false;
+		
+		for(int i = 0; i < children.getLength(); i++)
+		{
+			hasElements |= children.item(i).getNodeType() == Node.ELEMENT_NODE;
+		}
+		
+		for(int i = 0; i < children.getLength(); i++)
+		{
+			Node child = children.item(i);
+			
+			switch(child.getNodeType())
+			{
+			case Node.ELEMENT_NODE:
+				stored.add(child);
+				break;
+			case Node.TEXT_NODE:
+			case Node.CDATA_SECTION_NODE:
+				// Whitespace between elements is only formatting, text of an element without children is kept as-is
+				if(!hasElements || !child.getNodeValue().trim().isEmpty())
+				{
+					stored.add(child);
+				}
+				break;
+			}
+		}
+		
+		out.writeByte(ELEMENT);
+		out.writeInt(getString(element.getTagName(), strings, table));
+		out.writeInt(attributes.getLength());
+		
+		for(int i = 0; i < attributes.getLength(); i++)
+		{
+			Attr attribute = (Attr)attributes.item(i);
+			
+			out.writeInt(getString(attribute.getName(), strings, table));
+			out.writeInt(getString(attribute.getValue(), strings, table));
+		}
+		
+		out.writeInt(stored.size());
+		
+		for(Node child : stored)
+		{
+			if(child.getNodeType() == Node.ELEMENT_NODE)
+			{
+				writeElement(out, (Element)child, strings, table);
+			}
+			else
+			{
+				out.writeByte(TEXT);
+				out.writeInt(getString(child.getNodeValue(), strings, table));
+			}
+		}
+	}
+	
+	private static Element readElement(ByteBuffer in, Document document, String[] strings) throws IOException
+	{
+		Element element = document.createElement(strings[in.getInt()]);
+		int numAttributes = in.getInt();
+		
+		for(int i = 0; i < numAttributes; i++)
+		{
+			element.setAttribute(strings[in.getInt()], strings[in.getInt()]);
+		}
+		
+		int numChildren = in.getInt();
+		
+		for(int i = 0; i < numChildren; i++)
+		{
+			byte type = in.get();
+			
+			switch(type)
+			{
+			case ELEMENT:
+				element.appendChild(readElement(in, document, strings));
+				break;
+			case TEXT:
+				element.appendChild(document.createTextNode(strings[in.getInt()]));
+				break;
+			default:
+				throw new IOException("Unknown node type in " + EXTENSION + " file: " + type);
+			}
+		}
+		
+		return element;
+	}
+	
+	private static int getString(String string, Map<String, Integer> strings, List<String> table)
+	{
+		return strings.computeIfAbsent(string, s ->
+		{
+			table.add(s);
+			return table.size() - 1;
+		});
+	}
+}
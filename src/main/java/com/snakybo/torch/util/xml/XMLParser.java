@@ -22,6 +22,7 @@
 
 package com.snakybo.torch.util.xml;
 
+import com.snakybo.torch.util.BufferUtils;
 import com.snakybo.torch.util.FileUtils;
 import com.snakybo.torch.util.debug.Logger;
 import com.snakybo.torch.util.debug.LoggerInternal;
@@ -30,7 +31,7 @@ import com.snakybo.torch.util.xml.parsers.SceneParser;
 import com.snakybo.torch.util.xml.parsers.TextureParser;
 import org.w3c.dom.Document;
 
-import java.net.URI;
+import java.io.IOException;
 import java.nio.file.NoSuchFileException;
 
 /**
@@ -67,8 +68,30 @@ public final class XMLParser
 	{
 		LoggerInternal.log("Begin decoding XML file: " + file);
 		
-		URI uri = FileUtils.toURI(file);
-		Document document = XMLParserUtils.getDocument(uri);
+		Document document = null;
+		
+		try
+		{
+			// Files cooked by the AssetCooker don't have to be parsed
+			String cooked = FileUtils.getCookedPath(file, TXml.EXTENSION);
+			
+			if(cooked != null)
+			{
+				document = TXml.read(FileUtils.read(cooked));
+			}
+			else
+			{
+				document = XMLParserUtils.getDocument(BufferUtils.toInputStream(FileUtils.read(file)));
+			}
+		}
+		catch(NoSuchFileException e)
+		{
+			throw e;
+		}
+		catch(IOException e)
+		{
+			Logger.logError(e.toString(), e);
+		}
 		
 		if(document == null)
 		{
@@ -23,7 +23,6 @@
 package com.snakybo.torch.util.xml;
 
 import com.snakybo.torch.asset.Assets;
-import com.snakybo.torch.asset2.Assets2;
 import com.snakybo.torch.util.color.Color;
 import com.snakybo.torch.util.debug.Logger;
 import org.joml.Quaternionf;
@@ -38,6 +37,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 
 /**
@@ -82,6 +82,33 @@ public final class XMLParserUtils
 		return null;
 	}
 	
+	/**
+	 * <p>
+	 * Attempt to create a DOM document from an {@code InputStream}.
+	 * </p>
+	 *
+	 * @param in The {@code InputStream} to read.
+	 * @return The DOM document.
+	 */
+	public static Document getDocument(InputStream in)
+	{
+		try
+		{
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			DocumentBuilder builder = factory.newDocumentBuilder();
+			Document document = builder.parse(in);
+			
+			document.getDocumentElement().normalize();
+			return document;
+		}
+		catch(IOException | ParserConfigurationException | SAXException e)
+		{
+			Logger.logError("Error while decoding XML: " + e.getMessage(), e);
+		}
+		
+		return null;
+	}
+	
 	/**
 	 * <p>
 	 * Attempt to decode an object from the given {@code type} and {@code value}.
@@ -159,9 +186,9 @@ public final class XMLParserUtils
 		case "color":
 			return decodeColor(value);
 		case "asset":
-			return Assets.load(value);
 		case "asset2":
-			return Assets2.load(value);
+			// asset2 is the type textures were stored as before Assets loaded them
+			return Assets.load(value);
 		case "class":
 			return decodeClass(value);
 		default:
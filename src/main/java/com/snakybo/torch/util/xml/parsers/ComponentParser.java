@@ -87,7 +87,9 @@ public final class ComponentParser
 				
 				String name = field.getNodeName();
 				String fieldType = field.getAttribute("type");
-				Object value = XMLParserUtils.decodeObject(fieldType, field.getTextContent());
+				
+				// Assets are loaded when the component is created, so the assets of a scene can be preloaded first
+				Object value = isAsset(fieldType) ? field.getTextContent() : XMLParserUtils.decodeObject(fieldType, field.getTextContent());
 				LoggerInternal.log("Name=" + name + " Type=" + fieldType + " Value=" + value + " RawValue=" + field.getTextContent());
 				
 				fieldData.add(new ComponentFieldData(name, fieldType, value));
@@ -97,4 +99,17 @@ public final class ComponentParser
 		LoggerInternal.log("Successfully decoded Component data");
 		return new ComponentData(type, fieldData);
 	}
+	
+	/**
+	 * <p>
+	 * Check whether or not a field type is an asset, the value of asset fields is the path of the asset.
+	 * </p>
+	 *
+	 * @param type The type of the field.
+	 * @return Whether or not the field is an asset.
+	 */
+	public static boolean isAsset(String type)
+	{
+		return type.equals("asset") || type.equals("asset2");
+	}
 }
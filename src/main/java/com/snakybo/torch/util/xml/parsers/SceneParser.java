@@ -29,7 +29,9 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Snakybo
@@ -43,9 +45,30 @@ public final class SceneParser
 	{
 		public final List<GameObjectParser.GameObjectData> gameObjectData;
 		
+		/** The paths of all assets referenced by the scene, without duplicates */
+		public final List<String> assets;
+		
 		public SceneData(List<GameObjectParser.GameObjectData> gameObjectData)
 		{
 			this.gameObjectData = gameObjectData;
+			
+			Set<String> assets = new LinkedHashSet<>();
+			
+			for(GameObjectParser.GameObjectData gameObject : gameObjectData)
+			{
+				for(ComponentParser.ComponentData component : gameObject.componentData)
+				{
+					for(ComponentParser.ComponentFieldData field : component.fieldData)
+					{
+						if(ComponentParser.isAsset(field.type))
+						{
+							assets.add((String)field.value);
+						}
+					}
+				}
+			}
+			
+			this.assets = new ArrayList<>(assets);
 		}
 	}
 	
@@ -22,6 +22,7 @@
 
 package com.snakybo.torch.util.xml.parsers;
 
+import com.snakybo.torch.asset.AssetResidency;
 import com.snakybo.torch.graphics.texture.TextureFilterMode;
 import com.snakybo.torch.graphics.texture.TextureWrapMode;
 import com.snakybo.torch.util.debug.Logger;
@@ -46,12 +47,16 @@ public final class TextureParser
 		public final TextureWrapMode wrapMode;
 		public final float anisoLevel;
 		
-		public TextureData(Class<?> target, TextureFilterMode filterMode, TextureWrapMode wrapMode, float anisoLevel)
+		/** The residency of the texture, or {@code null} to use the default of the loader */
+		public final AssetResidency residency;
+		
+		public TextureData(Class<?> target, TextureFilterMode filterMode, TextureWrapMode wrapMode, float anisoLevel, AssetResidency residency)
 		{
 			this.target = target;
 			this.filterMode = filterMode;
 			this.wrapMode = wrapMode;
 			this.anisoLevel = anisoLevel;
+			this.residency = residency;
 		}
 	}
 	
@@ -83,8 +88,10 @@ public final class TextureParser
 			Object anisoLevelObject = decode(parameters, "anisoLevel");
 			float anisoLevel = anisoLevelObject == null ? -1 : (float)anisoLevelObject;
 			
+			AssetResidency residency = (AssetResidency)decode(parameters, "residency");
+			
 			LoggerInternal.log("Successfully decoded texture data");
-			return new TextureData(target, textureFilterMode, textureWrapMode, anisoLevel);
+			return new TextureData(target, textureFilterMode, textureWrapMode, anisoLevel, residency);
 		}
 		
 		return null;
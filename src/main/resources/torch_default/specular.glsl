@@ -9,8 +9,6 @@ out vec3 normal0;
 out vec3 fragPos;
 
 uniform mat4 _model;
-uniform mat4 _view;
-uniform mat4 _projection;
 
 void main()
 {
@@ -78,8 +76,6 @@ in vec3 fragPos;
 
 out vec4 fragColor;
 
-uniform vec3 _cameraPosition;
-
 uniform Material material;
 
 uniform DirectionalLight directionalLight;
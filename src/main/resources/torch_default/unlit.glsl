@@ -6,8 +6,6 @@ layout (location=1) in vec2 texCoord;
 out vec2 texCoord0;
 
 uniform mat4 _model;
-uniform mat4 _view;
-uniform mat4 _projection;
 
 void main()
 {
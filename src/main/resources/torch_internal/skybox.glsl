@@ -4,12 +4,9 @@ layout (location=0) in vec3 position;
 
 out vec3 texCoord0;
 
-uniform mat4 _view;
-uniform mat4 _projection;
-
 void main()
 {
-    vec4 pos = _projection * _view * vec4(position, 1.0f);
+    vec4 pos = _projection * mat4(mat3(_view)) * vec4(position, 1.0f);
 
     gl_Position = pos.xyww;
     texCoord0 = position;
@@ -3,8 +3,6 @@
 layout (location=0) in vec3 position;
 
 uniform mat4 _model;
-uniform mat4 _view;
-uniform mat4 _projection;
 
 void main()
 {
@@ -0,0 +1,208 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class MeshOptimizerTest
+{
+	private static final int GRID_SIZE = 64;
+	
+	@Test
+	public final void vertexCacheKeepsTrianglesAndImprovesAcmr()
+	{
+		int numVertices = (GRID_SIZE + 1) * (GRID_SIZE + 1);
+		
+		for(int[] indices : new int[][] { createGrid(), shuffleTriangles(createGrid(), new Random(1)) })
+		{
+			int[] result = MeshOptimizer.optimizeVertexCache(indices, indices.length, numVertices);
+			
+			assertEquals(getTriangles(indices), getTriangles(result));
+			assertTrue(getAcmr(result, numVertices) <= getAcmr(indices, numVertices));
+		}
+	}
+	
+	@Test
+	public final void overdrawKeepsTrianglesAndAcmr()
+	{
+		int numVertices = (GRID_SIZE + 1) * (GRID_SIZE + 1);
+		
+		for(int[] indices : new int[][] { createGrid(), shuffleTriangles(createGrid(), new Random(2)) })
+		{
+			int[] result = MeshOptimizer.optimizeVertexCache(indices, indices.length, numVertices);
+			result = MeshOptimizer.optimizeOverdraw(result, result.length, createGridVertices(), numVertices);
+			
+			assertEquals(getTriangles(indices), getTriangles(result));
+			assertTrue(getAcmr(result, numVertices) <= getAcmr(indices, numVertices));
+		}
+	}
+	
+	@Test
+	public final void optimizeKeepsShape()
+	{
+		float[] vertices = createGridVertices();
+		int[] indices = shuffleTriangles(createGrid(), new Random(3));
+		
+		Mesh mesh = new Mesh();
+		
+		try
+		{
+			mesh.setVertices(vertices);
+			mesh.setIndices(indices);
+			mesh.optimize();
+			
+			float[] optimizedVertices = new float[vertices.length];
+			int[] optimizedIndices = new int[indices.length];
+			
+			mesh.getVertices().get(optimizedVertices);
+			mesh.getIndices().get(optimizedIndices);
+			
+			assertEquals(getTriangles(toPositionIds(indices, vertices)), getTriangles(toPositionIds(optimizedIndices, optimizedVertices)));
+		}
+		finally
+		{
+			mesh.destroy();
+		}
+	}
+	
+	private static int[] createGrid()
+	{
+		int[] result = new int[GRID_SIZE * GRID_SIZE * 6];
+		int i = 0;
+		
+		for(int y = 0; y < GRID_SIZE; y++)
+		{
+			for(int x = 0; x < GRID_SIZE; x++)
+			{
+				int vertex = y * (GRID_SIZE + 1) + x;
+				
+				result[i++] = vertex;
+				result[i++] = vertex + 1;
+				result[i++] = vertex + GRID_SIZE + 2;
+				result[i++] = vertex;
+				result[i++] = vertex + GRID_SIZE + 2;
+				result[i++] = vertex + GRID_SIZE + 1;
+			}
+		}
+		
+		return result;
+	}
+	
+	private static float[] createGridVertices()
+	{
+		float[] result = new float[(GRID_SIZE + 1) * (GRID_SIZE + 1) * 3];
+		
+		for(int y = 0; y <= GRID_SIZE; y++)
+		{
+			for(int x = 0; x <= GRID_SIZE; x++)
+			{
+				int offset = (y * (GRID_SIZE + 1) + x) * 3;
+				
+				result[offset] = x;
+				result[offset + 1] = y;
+				result[offset + 2] = (x * y) % 7;
+			}
+		}
+		
+		return result;
+	}
+	
+	private static int[] shuffleTriangles(int[] indices, Random random)
+	{
+		int[] result = indices.clone();
+		
+		for(int i = result.length / 3 - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			
+			for(int k = 0; k < 3; k++)
+			{
+				int index = result[i * 3 + k];
+				result[i * 3 + k] = result[j * 3 + k];
+				result[j * 3 + k] = index;
+			}
+		}
+		
+		return result;
+	}
+	
+	// Replace every index by the index of the first vertex at the same position, which doesn't depend on the vertex order
+	private static int[] toPositionIds(int[] indices, float[] vertices)
+	{
+		int[] result = new int[indices.length];
+		
+		for(int i = 0; i < indices.length; i++)
+		{
+			int offset = indices[i] * 3;
+			result[i] = Math.round(vertices[offset + 1]) * (GRID_SIZE + 1) + Math.round(vertices[offset]);
+		}
+		
+		return result;
+	}
+	
+	// Every triangle rotated so its smallest index comes first, which keeps its winding, sorted
+	private static List<String> getTriangles(int[] indices)
+	{
+		List<String> result = new ArrayList<>();
+		
+		for(int i = 0; i < indices.length; i += 3)
+		{
+			int a = indices[i];
+			int b = indices[i + 1];
+			int c = indices[i + 2];
+			
+			if(b < a && b < c)
+			{
+				result.add(b + "," + c + "," + a);
+			}
+			else if(c < a && c < b)
+			{
+				result.add(c + "," + a + "," + b);
+			}
+			else
+			{
+				result.add(a + "," + b + "," + c);
+			}
+		}
+		
+		Collections.sort(result);
+		return result;
+	}
+	
+	private static float getAcmr(int[] indices, int numVertices)
+	{
+		return (float)MeshOptimizer.getCacheMisses(indices, indices.length, numVertices) / (indices.length / 3);
+	}
+}
@@ -0,0 +1,135 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class MeshSimplifierTest
+{
+	private static final int SEGMENTS = 64;
+	private static final int RINGS = 32;
+	
+	@Test
+	public final void simplifiesSphereToTargetRatio()
+	{
+		float[] vertices = createSphereVertices();
+		int[] indices = createSphereIndices();
+		int numVertices = vertices.length / 3;
+		int numTriangles = indices.length / 3;
+		
+		for(float ratio : new float[] { 0.5f, 0.25f, 0.1f })
+		{
+			int targetNumIndices = (int)(numTriangles * ratio) * 3;
+			int[] result = MeshSimplifier.simplify(vertices, numVertices, indices, indices.length, targetNumIndices);
+			
+			float actualRatio = (float)result.length / indices.length;
+			assertTrue("Ratio " + actualRatio + ", expected " + ratio, actualRatio <= ratio * 1.1f && actualRatio >= ratio * 0.8f);
+			
+			for(int i = 0; i < result.length; i += 3)
+			{
+				for(int j = 0; j < 3; j++)
+				{
+					assertTrue(result[i + j] >= 0 && result[i + j] < numVertices);
+				}
+				
+				assertNotEquals(result[i], result[i + 1]);
+				assertNotEquals(result[i + 1], result[i + 2]);
+				assertNotEquals(result[i + 2], result[i]);
+			}
+		}
+	}
+	
+	// A closed UV sphere, the poles are single vertices and the last segment wraps around to the first
+	private static float[] createSphereVertices()
+	{
+		float[] result = new float[((RINGS - 1) * SEGMENTS + 2) * 3];
+		int offset = 0;
+		
+		for(int ring = 1; ring < RINGS; ring++)
+		{
+			double theta = Math.PI * ring / RINGS;
+			
+			for(int segment = 0; segment < SEGMENTS; segment++)
+			{
+				double phi = 2 * Math.PI * segment / SEGMENTS;
+				
+				result[offset++] = (float)(Math.sin(theta) * Math.cos(phi));
+				result[offset++] = (float)Math.cos(theta);
+				result[offset++] = (float)(Math.sin(theta) * Math.sin(phi));
+			}
+		}
+		
+		result[offset + 1] = 1;
+		result[offset + 4] = -1;
+		
+		return result;
+	}
+	
+	private static int[] createSphereIndices()
+	{
+		int top = (RINGS - 1) * SEGMENTS;
+		int bottom = top + 1;
+		
+		int[] result = new int[SEGMENTS * (RINGS - 1) * 6];
+		int i = 0;
+		
+		for(int segment = 0; segment < SEGMENTS; segment++)
+		{
+			int next = (segment + 1) % SEGMENTS;
+			
+			result[i++] = top;
+			result[i++] = next;
+			result[i++] = segment;
+			
+			for(int ring = 0; ring < RINGS - 2; ring++)
+			{
+				int a = ring * SEGMENTS + segment;
+				int b = ring * SEGMENTS + next;
+				int c = (ring + 1) * SEGMENTS + next;
+				int d = (ring + 1) * SEGMENTS + segment;
+				
+				result[i++] = a;
+				result[i++] = b;
+				result[i++] = c;
+				result[i++] = a;
+				result[i++] = c;
+				result[i++] = d;
+			}
+			
+			int last = (RINGS - 2) * SEGMENTS;
+			
+			result[i++] = bottom;
+			result[i++] = last + segment;
+			result[i++] = last + next;
+		}
+		
+		return result;
+	}
+}
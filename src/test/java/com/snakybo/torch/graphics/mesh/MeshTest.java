@@ -0,0 +1,101 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import com.snakybo.torch.asset.AssetFootprint;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class MeshTest
+{
+	@Test
+	public final void settersCopyTheirArguments()
+	{
+		float[] vertices = { 0, 0, 0, 1, 0, 0, 0, 1, 0 };
+		float[] texCoords = { 0, 0, 1, 0, 0, 1 };
+		float[] normals = { 0, 0, 1, 0, 0, 1, 0, 0, 1 };
+		float[] tangents = { 1, 0, 0, 1, 0, 0, 1, 0, 0 };
+		int[] indices = { 0, 1, 2 };
+		
+		Mesh mesh = new Mesh();
+		
+		try
+		{
+			mesh.setVertices(vertices);
+			mesh.setTexCoords(texCoords);
+			mesh.setNormals(normals);
+			mesh.setTangents(tangents);
+			mesh.setIndices(indices);
+			
+			int version = mesh.getVersion();
+			
+			vertices[0] = 5;
+			texCoords[0] = 5;
+			normals[0] = 5;
+			tangents[0] = 5;
+			indices[0] = 2;
+			
+			assertEquals(0, mesh.getVertices().get(0), 0);
+			assertEquals(0, mesh.getTexCoords().get(0), 0);
+			assertEquals(0, mesh.getNormals().get(0), 0);
+			assertEquals(1, mesh.getTangents().get(0), 0);
+			assertEquals(0, mesh.getIndices().get(0));
+			assertEquals(version, mesh.getVersion());
+		}
+		finally
+		{
+			mesh.destroy();
+		}
+	}
+	
+	@Test
+	public final void footprintIncludesGpuMemory()
+	{
+		Mesh mesh = new Mesh();
+		
+		try
+		{
+			mesh.setVertices(new float[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 });
+			mesh.setIndices(new int[] { 0, 1, 2 });
+			
+			AssetFootprint before = mesh.asset.getFootprint();
+			MeshInternal.addGpuMemory(MeshInternal.getAssetData(mesh), 1024);
+			AssetFootprint after = mesh.asset.getFootprint();
+			
+			assertEquals(before.getGpuBytes() + 1024, after.getGpuBytes());
+			assertEquals(before.getCpuBytes(), after.getCpuBytes());
+			
+			MeshInternal.addGpuMemory(MeshInternal.getAssetData(mesh), -1024);
+			assertEquals(before.getGpuBytes(), mesh.asset.getFootprint().getGpuBytes());
+		}
+		finally
+		{
+			mesh.destroy();
+		}
+	}
+}
@@ -0,0 +1,162 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh;
+
+import com.snakybo.torch.graphics.renderer.TMeshCooker;
+import com.snakybo.torch.graphics.renderer.VertexFormat;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class TMeshTest
+{
+	private static final String NAME = "quad.tmesh";
+	
+	// The LOD table follows the 80 byte header, every LOD is a first index, a number of indices, a screen
+	// size and a ratio
+	private static final int FIRST_LOD_NUM_INDICES = 84;
+	
+	@Test
+	public final void readsWrittenFile() throws IOException
+	{
+		TMesh result = TMesh.read(NAME, createFile());
+		
+		assertEquals(4, result.getNumVertices());
+		assertEquals(6, result.getNumIndices());
+		assertEquals(1, result.getNumLods());
+	}
+	
+	@Test
+	public final void readsLodRatios() throws IOException
+	{
+		Mesh mesh = createQuad();
+		mesh.generateLods(new float[] { 0.5f }, new float[] { 0.25f });
+		
+		TMesh result = TMesh.read(NAME, write(mesh));
+		
+		assertEquals(2, result.getNumLods());
+		assertEquals(1, result.getLodRatio(0), 0);
+		assertEquals(0.5f, result.getLodRatio(1), 0);
+		assertEquals(0.25f, result.getLodScreenSize(1), 0);
+	}
+	
+	@Test
+	public final void withoutDataKeepsLayout() throws IOException
+	{
+		Mesh mesh = createQuad();
+		mesh.generateLods(new float[] { 0.5f }, new float[] { 0.25f });
+		
+		TMesh cooked = TMesh.read(NAME, write(mesh));
+		TMesh result = cooked.withoutData();
+		
+		assertTrue(cooked.hasData());
+		assertFalse(result.hasData());
+		assertEquals(cooked.getNumVertices(), result.getNumVertices());
+		assertEquals(cooked.getNumIndices(), result.getNumIndices());
+		assertEquals(2, result.getNumLods());
+		assertEquals(0.5f, result.getLodRatio(1), 0);
+	}
+	
+	@Test
+	public final void rejectsTruncatedFile() throws IOException
+	{
+		ByteBuffer data = createFile();
+		
+		for(int size : new int[] { data.limit() - 1, data.limit() / 2, 90, 40 })
+		{
+			ByteBuffer truncated = data.duplicate();
+			truncated.limit(size);
+			
+			assertRejected(truncated.slice());
+		}
+	}
+	
+	@Test
+	public final void rejectsLodOutsideIndices() throws IOException
+	{
+		ByteBuffer data = createFile();
+		data.order(ByteOrder.LITTLE_ENDIAN).putInt(FIRST_LOD_NUM_INDICES, 7);
+		
+		assertRejected(data);
+	}
+	
+	private static void assertRejected(ByteBuffer data)
+	{
+		try
+		{
+			TMesh.read(NAME, data);
+			fail("A file of " + data.limit() + " bytes was not rejected");
+		}
+		catch(IOException e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().contains(NAME));
+		}
+	}
+	
+	private static ByteBuffer createFile() throws IOException
+	{
+		return write(createQuad());
+	}
+	
+	private static Mesh createQuad()
+	{
+		Mesh mesh = new Mesh();
+		
+		mesh.setVertices(new float[] { 0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0 });
+		mesh.setTexCoords(new float[] { 0, 0, 1, 0, 1, 1, 0, 1 });
+		mesh.setIndices(new int[] { 0, 1, 2, 0, 2, 3 });
+		mesh.generateNormals();
+		
+		return mesh;
+	}
+	
+	private static ByteBuffer write(Mesh mesh) throws IOException
+	{
+		Path file = Files.createTempFile("quad", "." + TMesh.EXTENSION);
+		
+		try
+		{
+			TMeshCooker.cook(mesh, VertexFormat.DEFAULT).write(file);
+			
+			return ByteBuffer.wrap(Files.readAllBytes(file));
+		}
+		finally
+		{
+			mesh.destroy();
+			Files.delete(file);
+		}
+	}
+}
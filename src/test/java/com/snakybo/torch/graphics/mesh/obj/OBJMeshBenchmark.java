@@ -0,0 +1,249 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh.obj;
+
+import com.snakybo.torch.graphics.mesh.Mesh;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>
+ * Compares the vertex deduplication of {@link OBJMesh#toModel(Mesh)} against the {@code HashMap} of corners it
+ * replaced, on a quad grid of positions with texCoords.
+ * </p>
+ *
+ * <p>
+ * This is not run as part of the tests, run it manually: {@code OBJMeshBenchmark [grid size]}, the grid is 1000x1000
+ * (1M vertices, 6M indices) by default. {@link OBJMeshTest} checks that both produce the same mesh.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class OBJMeshBenchmark
+{
+	private static final int RUNS = 3;
+	
+	private static final class Corner
+	{
+		private final int vertex;
+		private final int texCoord;
+		private final int normal;
+		
+		private Corner(int vertex, int texCoord, int normal)
+		{
+			this.vertex = vertex;
+			this.texCoord = texCoord;
+			this.normal = normal;
+		}
+		
+		@Override
+		public final boolean equals(Object obj)
+		{
+			if(!(obj instanceof Corner))
+			{
+				return false;
+			}
+			
+			Corner corner = (Corner)obj;
+			return vertex == corner.vertex && texCoord == corner.texCoord && normal == corner.normal;
+		}
+		
+		@Override
+		public final int hashCode()
+		{
+			int result = 17;
+			
+			result = 31 * result + vertex;
+			result = 31 * result + texCoord;
+			result = 31 * result + normal;
+			
+			return result;
+		}
+	}
+	
+	public static void main(String[] args)
+	{
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		ByteBuffer data = createGrid(size);
+		
+		System.out.println("Grid: " + size + "x" + size + ", " + data.limit() / (1024 * 1024) + " MB");
+		
+		OBJParser parser = new OBJParser();
+		parser.parse(data.duplicate());
+		
+		long table = Long.MAX_VALUE;
+		long hashMap = Long.MAX_VALUE;
+		
+		for(int run = 0; run < RUNS; run++)
+		{
+			OBJMesh mesh = new OBJMesh(data.duplicate());
+			
+			long start = System.nanoTime();
+			Mesh result = mesh.toModel(new Mesh());
+			table = Math.min(table, print("Table", start, result));
+			
+			start = System.nanoTime();
+			result = toModelWithHashMap(parser);
+			hashMap = Math.min(hashMap, print("HashMap", start, result));
+		}
+		
+		System.out.println(String.format(Locale.ROOT, "Best of %d: table %d ms, HashMap %d ms (%.1fx)", RUNS, table, hashMap, (double)hashMap / table));
+	}
+	
+	private static long print(String name, long start, Mesh mesh)
+	{
+		long result = (System.nanoTime() - start) / 1000000;
+		System.out.println(name + ": " + result + " ms, " + mesh.getNumVertices() + " vertices, " + mesh.getNumIndices() + " indices");
+		
+		mesh.destroy();
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * The previous {@link OBJMesh#toModel(Mesh)}: corners are deduplicated through a {@code HashMap} of boxed
+	 * corners, and the vertices are added to the mesh one at a time.
+	 * </p>
+	 *
+	 * @param parser The parsed file.
+	 * @return The mesh.
+	 */
+	private static Mesh toModelWithHashMap(OBJParser parser)
+	{
+		Mesh result = new Mesh();
+		Mesh normalMesh = new Mesh();
+		
+		Map<Corner, Integer> resultIndexMap = new HashMap<>();
+		Map<Integer, Integer> normalIndexMap = new HashMap<>();
+		Map<Integer, Integer> indexMap = new HashMap<>();
+		
+		for(int i = 0; i < parser.numIndices; i++)
+		{
+			Corner index = new Corner(parser.indices[i * 3], parser.indices[i * 3 + 1], parser.indices[i * 3 + 2]);
+			
+			Vector3f vertex = new Vector3f(parser.vertices[index.vertex * 3], parser.vertices[index.vertex * 3 + 1], parser.vertices[index.vertex * 3 + 2]);
+			Vector2f texCoord = new Vector2f();
+			Vector3f normal = new Vector3f();
+			
+			if(parser.hasTexCoords)
+			{
+				texCoord = new Vector2f(parser.texCoords[index.texCoord * 2], parser.texCoords[index.texCoord * 2 + 1]);
+			}
+			
+			if(parser.hasNormals)
+			{
+				normal = new Vector3f(parser.normals[index.normal * 3], parser.normals[index.normal * 3 + 1], parser.normals[index.normal * 3 + 2]);
+			}
+			
+			Integer modelVertexIndex = resultIndexMap.get(index);
+			
+			if(modelVertexIndex == null)
+			{
+				modelVertexIndex = result.getNumVertices();
+				resultIndexMap.put(index, modelVertexIndex);
+				
+				result.addVertex(vertex);
+				result.addTexCoord(texCoord);
+				
+				if(parser.hasNormals)
+				{
+					result.addNormal(normal);
+				}
+			}
+			
+			Integer normalModelIndex = normalIndexMap.get(index.vertex);
+			
+			if(normalModelIndex == null)
+			{
+				normalModelIndex = normalMesh.getNumVertices();
+				normalIndexMap.put(index.vertex, normalModelIndex);
+				
+				normalMesh.addVertex(vertex);
+				normalMesh.addTexCoord(texCoord);
+				normalMesh.addNormal(normal);
+				normalMesh.addTangent(new Vector3f());
+			}
+			
+			result.addIndex(modelVertexIndex);
+			normalMesh.addIndex(normalModelIndex);
+			indexMap.put(modelVertexIndex, normalModelIndex);
+		}
+		
+		if(!parser.hasNormals)
+		{
+			normalMesh.generateNormals();
+			
+			for(int i = 0; i < result.getNumVertices(); i++)
+			{
+				result.addNormal(normalMesh.getNormal(indexMap.get(i)));
+			}
+		}
+		
+		normalMesh.generateTangents();
+		
+		for(int i = 0; i < result.getNumVertices(); i++)
+		{
+			result.addTangent(normalMesh.getTangent(indexMap.get(i)));
+		}
+		
+		normalMesh.destroy();
+		return result;
+	}
+	
+	private static ByteBuffer createGrid(int size)
+	{
+		StringBuilder obj = new StringBuilder();
+		
+		for(int y = 0; y < size; y++)
+		{
+			for(int x = 0; x < size; x++)
+			{
+				obj.append("v ").append(x).append(' ').append(y).append(" 0\n");
+				obj.append("vt ").append(x / (float)size).append(' ').append(y / (float)size).append('\n');
+			}
+		}
+		
+		for(int y = 0; y < size - 1; y++)
+		{
+			for(int x = 0; x < size - 1; x++)
+			{
+				int a = y * size + x + 1;
+				int b = a + 1;
+				int c = a + size + 1;
+				int d = a + size;
+				
+				obj.append("f ").append(a).append('/').append(a).append(' ').append(b).append('/').append(b).append(' ').append(c).append('/').append(c).append('\n');
+				obj.append("f ").append(a).append('/').append(a).append(' ').append(c).append('/').append(c).append(' ').append(d).append('/').append(d).append('\n');
+			}
+		}
+		
+		return ByteBuffer.wrap(obj.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+}
@@ -0,0 +1,220 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh.obj;
+
+import com.snakybo.torch.graphics.mesh.Mesh;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>
+ * Compares the vertex deduplication of {@link OBJMesh} against the {@code HashMap} of corners it replaced.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class OBJMeshTest
+{
+	@Test
+	public final void gridWithSeam()
+	{
+		int size = 200;
+		int seam = size / 2;
+		
+		StringBuilder obj = new StringBuilder();
+		List<int[]> corners = new ArrayList<>();
+		
+		for(int y = 0; y < size; y++)
+		{
+			for(int x = 0; x < size; x++)
+			{
+				obj.append("v ").append(x).append(' ').append(y).append(" 0\n");
+			}
+		}
+		
+		// A second set of texCoords for the seam column, so its positions are split into two vertices
+		for(int i = 0; i < size * 2; i++)
+		{
+			obj.append("vt ").append(i % size / (float)size).append(' ').append(i / size).append('\n');
+		}
+		
+		obj.append("vn 0 0 1\n");
+		
+		for(int y = 0; y < size - 1; y++)
+		{
+			for(int x = 0; x < size - 1; x++)
+			{
+				int[] quad = { y * size + x, y * size + x + 1, (y + 1) * size + x + 1, (y + 1) * size + x };
+				
+				addFace(obj, corners, x, seam, size, quad[0], quad[1], quad[2]);
+				addFace(obj, corners, x, seam, size, quad[0], quad[2], quad[3]);
+			}
+		}
+		
+		assertDeduplicated(obj, corners);
+	}
+	
+	@Test
+	public final void randomCorners()
+	{
+		Random random = new Random(1);
+		
+		StringBuilder obj = new StringBuilder();
+		List<int[]> corners = new ArrayList<>();
+		
+		// Few distinct values, so most corners are duplicates and many triples share a slot of the table
+		int numVertices = 50;
+		int numTexCoords = 7;
+		int numNormals = 5;
+		
+		for(int i = 0; i < numVertices; i++)
+		{
+			obj.append("v ").append(random.nextFloat()).append(' ').append(random.nextFloat()).append(' ').append(random.nextFloat()).append('\n');
+		}
+		
+		for(int i = 0; i < numTexCoords; i++)
+		{
+			obj.append("vt ").append(random.nextFloat()).append(' ').append(random.nextFloat()).append('\n');
+		}
+		
+		for(int i = 0; i < numNormals; i++)
+		{
+			obj.append("vn 0 1 0\n");
+		}
+		
+		for(int face = 0; face < 20000; face++)
+		{
+			obj.append('f');
+			
+			for(int i = 0; i < 3; i++)
+			{
+				int[] corner = { random.nextInt(numVertices), random.nextInt(numTexCoords), random.nextInt(numNormals) };
+				
+				obj.append(' ').append(corner[0] + 1).append('/').append(corner[1] + 1).append('/').append(corner[2] + 1);
+				corners.add(corner);
+			}
+			
+			obj.append('\n');
+		}
+		
+		assertDeduplicated(obj, corners);
+	}
+	
+	private static void addFace(StringBuilder obj, List<int[]> corners, int x, int seam, int size, int... vertices)
+	{
+		obj.append('f');
+		
+		for(int vertex : vertices)
+		{
+			// Faces right of the seam use the second set of texCoords for the positions on the seam
+			int texCoord = vertex % size == seam && x >= seam ? size + vertex % size : vertex % size;
+			int[] corner = { vertex, texCoord, 0 };
+			
+			obj.append(' ').append(corner[0] + 1).append('/').append(corner[1] + 1).append('/').append(corner[2] + 1);
+			corners.add(corner);
+		}
+		
+		obj.append('\n');
+	}
+	
+	private static void assertDeduplicated(StringBuilder obj, List<int[]> corners)
+	{
+		Map<List<Integer>, Integer> expectedVertices = new HashMap<>();
+		List<int[]> firstCorners = new ArrayList<>();
+		int[] expectedIndices = new int[corners.size()];
+		
+		for(int i = 0; i < corners.size(); i++)
+		{
+			int[] corner = corners.get(i);
+			List<Integer> key = new ArrayList<>();
+			
+			for(int index : corner)
+			{
+				key.add(index);
+			}
+			
+			Integer vertex = expectedVertices.get(key);
+			
+			if(vertex == null)
+			{
+				vertex = firstCorners.size();
+				expectedVertices.put(key, vertex);
+				firstCorners.add(corner);
+			}
+			
+			expectedIndices[i] = vertex;
+		}
+		
+		ByteBuffer data = ByteBuffer.wrap(obj.toString().getBytes(StandardCharsets.US_ASCII));
+		OBJParser parser = new OBJParser();
+		parser.parse(data.duplicate());
+		
+		Mesh mesh = new OBJMesh(data).toModel(new Mesh());
+		
+		try
+		{
+			assertEquals(firstCorners.size(), mesh.getNumVertices());
+			
+			IntBuffer indices = mesh.getIndices();
+			int[] actualIndices = new int[indices.remaining()];
+			indices.get(actualIndices);
+			
+			assertArrayEquals(expectedIndices, actualIndices);
+			
+			FloatBuffer vertices = mesh.getVertices();
+			FloatBuffer texCoords = mesh.getTexCoords();
+			
+			for(int i = 0; i < firstCorners.size(); i++)
+			{
+				int[] corner = firstCorners.get(i);
+				
+				for(int j = 0; j < 3; j++)
+				{
+					assertEquals(parser.vertices[corner[0] * 3 + j], vertices.get(i * 3 + j), 0);
+				}
+				
+				for(int j = 0; j < 2; j++)
+				{
+					assertEquals(parser.texCoords[corner[1] * 2 + j], texCoords.get(i * 2 + j), 0);
+				}
+			}
+		}
+		finally
+		{
+			mesh.destroy();
+		}
+	}
+}
@@ -0,0 +1,226 @@
+// The MIT License(MIT)
+//
+// Copyright(c) 2016 Kevin Krol
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+
+package com.snakybo.torch.graphics.mesh.obj;
+
+import com.snakybo.torch.util.StringUtils;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * <p>
+ * Compares the memory-mapped {@link OBJParser} against the line-based parser it replaced, which read the file with
+ * {@link Files#readAllLines(Path)} and split every line into strings.
+ * </p>
+ *
+ * <p>
+ * This is not run as part of the tests, run it manually:
+ * {@code OBJParserBenchmark [size in MB] [file.obj]}. Without a file, a scan-like grid of roughly the given size
+ * (500 MB by default) is generated into a temporary file. The heap must fit the line-based parser, e.g.
+ * {@code -Xmx4g} for 500 MB.
+ * </p>
+ *
+ * @author Snakybo
+ * @since 1.0
+ */
+public final class OBJParserBenchmark
+{
+	private static final int RUNS = 3;
+	
+	// The approximate size of a vertex in the generated file: its position, normal and two faces
+	private static final int BYTES_PER_VERTEX = 155;
+	
+	private static final class Corner
+	{
+		private int vertex;
+		private int texCoord;
+		private int normal;
+	}
+	
+	private static final class LineParser
+	{
+		private final List<Vector3f> vertices = new ArrayList<>();
+		private final List<Vector2f> texCoords = new ArrayList<>();
+		private final List<Vector3f> normals = new ArrayList<>();
+		private final List<Corner> indices = new ArrayList<>();
+		
+		private void parse(List<String> lines)
+		{
+			for(String line : lines)
+			{
+				String[] tokens = StringUtils.removeEmptyStrings(Arrays.asList(line.split(" ")));
+				
+				if(tokens.length == 0 || tokens[0].equals("#"))
+				{
+					continue;
+				}
+				
+				switch(tokens[0])
+				{
+				case "v":
+					vertices.add(new Vector3f(Float.valueOf(tokens[1]), Float.valueOf(tokens[2]), Float.valueOf(tokens[3])));
+					break;
+				case "vt":
+					texCoords.add(new Vector2f(Float.valueOf(tokens[1]), 1 - Float.valueOf(tokens[2])));
+					break;
+				case "vn":
+					normals.add(new Vector3f(Float.valueOf(tokens[1]), Float.valueOf(tokens[2]), Float.valueOf(tokens[3])));
+					break;
+				case "f":
+					for(int i = 0; i < tokens.length - 3; i++)
+					{
+						indices.add(parseCorner(tokens[1]));
+						indices.add(parseCorner(tokens[2 + i]));
+						indices.add(parseCorner(tokens[3 + i]));
+					}
+					break;
+				}
+			}
+		}
+		
+		private static Corner parseCorner(String token)
+		{
+			String[] tokens = token.split("/");
+			
+			Corner result = new Corner();
+			result.vertex = Integer.parseInt(tokens[0]) - 1;
+			
+			if(tokens.length > 1 && !tokens[1].isEmpty())
+			{
+				result.texCoord = Integer.parseInt(tokens[1]) - 1;
+			}
+			
+			if(tokens.length > 2)
+			{
+				result.normal = Integer.parseInt(tokens[2]) - 1;
+			}
+			
+			return result;
+		}
+	}
+	
+	public static void main(String[] args) throws IOException
+	{
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		Path file = args.length > 1 ? Paths.get(args[1]) : null;
+		
+		if(file == null)
+		{
+			file = Files.createTempFile("benchmark", ".obj");
+			file.toFile().deleteOnExit();
+			
+			writeGrid(file, (int)Math.sqrt((double)size * 1024 * 1024 / BYTES_PER_VERTEX));
+		}
+		
+		System.out.println("File: " + file + ", " + Files.size(file) / (1024 * 1024) + " MB");
+		
+		long mapped = Long.MAX_VALUE;
+		long lines = Long.MAX_VALUE;
+		
+		for(int run = 0; run < RUNS; run++)
+		{
+			mapped = Math.min(mapped, parseMapped(file));
+			lines = Math.min(lines, parseLines(file));
+		}
+		
+		System.out.println(String.format(Locale.ROOT, "Best of %d: mapped %d ms, line-based %d ms (%.1fx)", RUNS, mapped, lines, (double)lines / mapped));
+	}
+	
+	private static long parseMapped(Path file) throws IOException
+	{
+		long start = System.nanoTime();
+		OBJParser parser = new OBJParser();
+		
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		
+		long result = (System.nanoTime() - start) / 1000000;
+		System.out.println("Mapped: " + result + " ms, " + parser.numVertices + " vertices, " + parser.numIndices + " corners");
+		
+		return result;
+	}
+	
+	private static long parseLines(Path file) throws IOException
+	{
+		long start = System.nanoTime();
+		LineParser parser = new LineParser();
+		parser.parse(Files.readAllLines(file));
+		
+		long result = (System.nanoTime() - start) / 1000000;
+		System.out.println("Line-based: " + result + " ms, " + parser.vertices.size() + " vertices, " + parser.indices.size() + " corners");
+		
+		return result;
+	}
+	
+	private static void writeGrid(Path file, int size) throws IOException
+	{
+		Random random = new Random(1);
+		
+		try(BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII))
+		{
+			// Scanned surfaces have noisy positions with full precision, and a normal per position
+			for(int y = 0; y < size; y++)
+			{
+				for(int x = 0; x < size; x++)
+				{
+					writer.write(String.format(Locale.ROOT, "v %.6f %.6f %.6f\n", x + random.nextFloat() * 0.1f, y + random.nextFloat() * 0.1f, random.nextFloat()));
+				}
+			}
+			
+			for(int i = 0; i < size * size; i++)
+			{
+				writer.write(String.format(Locale.ROOT, "vn %.6f %.6f %.6f\n", random.nextFloat() * 0.1f, random.nextFloat() * 0.1f, 0.99f));
+			}
+			
+			for(int y = 0; y < size - 1; y++)
+			{
+				for(int x = 0; x < size - 1; x++)
+				{
+					int a = y * size + x + 1;
+					int b = a + 1;
+					int c = a + size + 1;
+					int d = a + size;
+					
+					writer.write("f " + a + "//" + a + " " + b + "//" + b + " " + c + "//" + c + "\n");
+					writer.write("f " + a + "//" + a + " " + c + "//" + c + " " + d + "//" + d + "\n");
+				}
+			}
+		}
+	}
+}
@@ -20,42 +20,29 @@
 // OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 // SOFTWARE.
 
-package com.snakybo.torch.graphics.mesh.obj;
+package com.snakybo.torch.graphics.shader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
 
 /**
  * @author Snakybo
  * @since 1.0
  */
-final class OBJIndex
+public final class ShaderPropertiesTest
 {
-	int vertex;
-	int texCoord;
-	int normal;
-	
-	@Override
-	public final boolean equals(Object obj)
+	@Test
+	public final void findingDoesNotIntern()
 	{
-		if(!(obj instanceof OBJIndex))
-		{
-			return false;
-		}
+		String name = "shaderPropertiesTest.unknown";
 		
-		OBJIndex index = (OBJIndex)obj;
-		return vertex == index.vertex && texCoord == index.texCoord && normal == index.normal;
-	}
-
-	@Override
-	public final int hashCode()
-	{
-		final int BASE = 17;
-		final int MULTIPLIER = 31;
-
-		int result = BASE;
-
-		result = MULTIPLIER * result + vertex;
-		result = MULTIPLIER * result + texCoord;
-		result = MULTIPLIER * result + normal;
-
-		return result;
+		assertEquals(-1, ShaderInternal.findPropertyId(name));
+		assertEquals(-1, ShaderInternal.findPropertyId(name));
+		
+		int id = Shader.propertyToId(name);
+		
+		assertEquals(id, ShaderInternal.findPropertyId(name));
+		assertEquals(name, ShaderInternal.getPropertyName(id));
 	}
 }
@@ -27,6 +27,7 @@ import com.snakybo.torch.component.MeshRenderer;
 import com.snakybo.torch.graphics.display.Display;
 import com.snakybo.torch.graphics.display.DisplayMode;
 import com.snakybo.torch.graphics.gizmo.Gizmos;
+import com.snakybo.torch.graphics.shader.Shader;
 import com.snakybo.torch.graphics.window.Window;
 import com.snakybo.torch.graphics.window.WindowMode;
 import com.snakybo.torch.input.keyboard.Key;
@@ -44,6 +45,12 @@ import org.joml.Vector3f;
  */
 public class LightController extends Component
 {
+	private static final int DIRECTIONAL_LIGHT_DIRECTION = Shader.propertyToId("directionalLight.direction");
+	private static final int SPOT_LIGHT_POSITION = Shader.propertyToId("spotLight.position");
+	private static final int SPOT_LIGHT_DIRECTION = Shader.propertyToId("spotLight.direction");
+	private static final int SPOT_LIGHT_CUT_OFF = Shader.propertyToId("spotLight.cutOff");
+	private static final int SPOT_LIGHT_OUTER_CUT_OFF = Shader.propertyToId("spotLight.outerCutOff");
+	
 	private MeshRenderer meshRenderer;
 	
 	protected void onUpdate()
@@ -60,14 +67,14 @@ public class LightController extends Component
 		
 		if(meshRenderer != null)
 		{
-			meshRenderer.getMaterial().setVector3f("directionalLight.direction", getTransform().forward());
+			meshRenderer.getMaterial().setVector3f(DIRECTIONAL_LIGHT_DIRECTION, getTransform().forward());
 			
 			Transform camera = Camera.getMainCamera().getTransform();
 			
-			meshRenderer.getMaterial().setVector3f("spotLight.position", camera.getPosition());
-			meshRenderer.getMaterial().setVector3f("spotLight.direction", camera.forward());
-			meshRenderer.getMaterial().setFloat("spotLight.cutOff", (float)Math.toRadians(10.0));
-			meshRenderer.getMaterial().setFloat("spotLight.outerCutOff", (float)Math.toRadians(15.0));
+			meshRenderer.getMaterial().setVector3f(SPOT_LIGHT_POSITION, camera.getPosition());
+			meshRenderer.getMaterial().setVector3f(SPOT_LIGHT_DIRECTION, camera.forward());
+			meshRenderer.getMaterial().setFloat(SPOT_LIGHT_CUT_OFF, (float)Math.toRadians(10.0));
+			meshRenderer.getMaterial().setFloat(SPOT_LIGHT_OUTER_CUT_OFF, (float)Math.toRadians(15.0));
 		}
 		
 		if(Keyboard.onDown(Key.F))